@@ -0,0 +1,28 @@
+package enums;
+
+public enum FormatoExportacion {
+    CSV("CSV", ".csv"),
+    JSONL("JSON por líneas", ".jsonl"),
+    COLUMNAR("Binario columnar", ".swx");
+
+    private String nombre;
+    private String extension;
+
+    FormatoExportacion(String nombre, String extension) {
+        this.nombre = nombre;
+        this.extension = extension;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    @Override
+    public String toString() {
+        return nombre;
+    }
+}
@@ -0,0 +1,39 @@
+package interfaces;
+
+import enums.CategoriaPodcast;
+import enums.GeneroMusical;
+import modelo.contenido.Cancion;
+import modelo.contenido.Contenido;
+import modelo.contenido.Podcast;
+
+public interface ObservadorContenido {
+    default void alCambiarReproducciones(Contenido contenido) {
+    }
+
+    // El contador se ha fijado a un valor concreto (puede bajar); por defecto, como cualquier otro cambio
+    default void alFijarReproducciones(Contenido contenido) {
+        alCambiarReproducciones(contenido);
+    }
+
+    default void alCambiarLikes(Contenido contenido) {
+    }
+
+    default void alCambiarDisponibilidad(Contenido contenido) {
+    }
+
+    default void alCambiarTitulo(Contenido contenido, String tituloAnterior) {
+    }
+
+    default void alCambiarGenero(Cancion cancion, GeneroMusical generoAnterior) {
+    }
+
+    default void alCambiarCategoria(Podcast podcast, CategoriaPodcast categoriaAnterior) {
+    }
+
+    default void alCambiarTemporada(Podcast podcast, int temporadaAnterior) {
+    }
+
+    // Id del artista o creador al que se atribuye ahora el contenido; 0 si ya no se atribuye a nadie
+    default void alCambiarPropietario(Contenido contenido, long propietario) {
+    }
+}
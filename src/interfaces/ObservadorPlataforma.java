@@ -0,0 +1,61 @@
+package interfaces;
+
+import modelo.artistas.Album;
+import modelo.artistas.Artista;
+import modelo.artistas.Creador;
+import modelo.contenido.Contenido;
+import modelo.plataforma.Anuncio;
+import modelo.plataforma.Playlist;
+import modelo.usuarios.Usuario;
+
+// Mutaciones realizadas a través de Plataforma. Se notifican después de aplicarse con éxito
+// y dentro de la sección de mutación, así quien detiene las mutaciones ve estado y avisos a la par.
+public interface ObservadorPlataforma {
+    default void alRegistrarUsuario(Usuario usuario) {
+    }
+
+    default void alRegistrarArtista(Artista artista) {
+    }
+
+    default void alCrearAlbum(Album album) {
+    }
+
+    default void alAgregarContenido(Contenido contenido) {
+    }
+
+    default void alRegistrarCreador(Creador creador) {
+    }
+
+    default void alCrearPlaylist(Playlist playlist) {
+    }
+
+    default void alCrearPlaylistUsuario(Playlist playlist) {
+    }
+
+    default void alAgregarAPlaylist(Playlist playlist, Contenido contenido) {
+    }
+
+    default void alQuitarDePlaylist(Playlist playlist, Contenido contenido) {
+    }
+
+    default void alSeguirPlaylist(Usuario usuario, Playlist playlist) {
+    }
+
+    default void alDejarDeSeguirPlaylist(Usuario usuario, Playlist playlist) {
+    }
+
+    default void alReproducir(Usuario usuario, Contenido contenido) {
+    }
+
+    default void alDarLike(Usuario usuario, Contenido contenido) {
+    }
+
+    default void alAgregarAnuncio(Anuncio anuncio) {
+    }
+
+    default void alEliminarAnuncio(Anuncio anuncio) {
+    }
+
+    default void alReproducirAnuncio(Usuario usuario, Anuncio anuncio) {
+    }
+}
@@ -5,40 +5,44 @@ import excepciones.artista.AlbumCompletoException;
 import excepciones.playlist.CancionNoEncontradaException;
 import enums.GeneroMusical;
 import modelo.contenido.Cancion;
+import utilidades.GeneradorIds;
 
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.UUID;
 
 public class Album {
     private static final int MAX_CANCIONES = 20;
-    private String id;
+    private long id;
     private String titulo;
     private Artista artista;
     private Date fechaLanzamiento;
     private ArrayList<Cancion> canciones;
-    private String portadaURL;
+    private String portadaURL; // null: la portada por defecto, derivada del id
     private String discografica;
     private String tipoAlbum;
 
     public Album(String titulo, Artista artista, Date fechaLanzamiento) {
-        this.id = UUID.randomUUID().toString();
+        this(GeneradorIds.siguiente(), titulo, artista, fechaLanzamiento);
+    }
+
+    // Restauración: conserva el id persistido; los ids que se generen después serán mayores
+    public Album(long id, String titulo, Artista artista, Date fechaLanzamiento) {
+        GeneradorIds.avanzarHasta(id);
+        this.id = id;
         this.titulo = titulo;
         this.artista = artista;
         this.fechaLanzamiento = fechaLanzamiento;
         this.canciones = new ArrayList<>();
-        this.portadaURL = "https://soundwave.com/covers/" + id + ".jpg";
         this.discografica = "";
         this.tipoAlbum = "Álbum";
     }
 
     public Album(String titulo, Artista artista, Date fechaLanzamiento, String discografica, String tipoAlbum) {
-        this.id = UUID.randomUUID().toString();
+        this.id = GeneradorIds.siguiente();
         this.titulo = titulo;
         this.artista = artista;
         this.fechaLanzamiento = fechaLanzamiento;
         this.canciones = new ArrayList<>();
-        this.portadaURL = "https://soundwave.com/covers/" + id + ".jpg";
         this.discografica = discografica;
         this.tipoAlbum = tipoAlbum;
     }
@@ -67,6 +71,16 @@ public class Album {
         return cancion;
     }
 
+    // Canción ya construida (restauración) que pasa a formar parte del álbum
+    public void agregarCancion(Cancion cancion) throws AlbumCompletoException {
+        if (canciones.size() >= MAX_CANCIONES) {
+            throw new AlbumCompletoException("El álbum ha alcanzado el límite de " + MAX_CANCIONES + " canciones");
+        }
+        cancion.setAlbum(this);
+        canciones.add(cancion);
+        artista.publicarCancion(cancion);
+    }
+
     // ===== Corregido para compatibilidad con tests =====
     public Cancion agregarCancion(String titulo, int duracion, Artista artista, GeneroMusical genero)
             throws AlbumCompletoException, DuracionInvalidaException {
@@ -129,7 +143,8 @@ public class Album {
     }
 
     // Getters y Setters
-    public String getId() { return id; }
+    public String getId() { return GeneradorIds.aTexto(id); }
+    public long getIdNumerico() { return id; }
     public String getTitulo() { return titulo; }
     public void setTitulo(String titulo) { this.titulo = titulo; }
     public Artista getArtista() { return artista; }
@@ -137,7 +152,9 @@ public class Album {
     public Date getFechaLanzamiento() { return fechaLanzamiento; }
     public void setFechaLanzamiento(Date fechaLanzamiento) { this.fechaLanzamiento = fechaLanzamiento; }
     public ArrayList<Cancion> getCanciones() { return new ArrayList<>(canciones); }
-    public String getPortadaURL() { return portadaURL; }
+    public String getPortadaURL() {
+        return portadaURL != null ? portadaURL : "https://soundwave.com/covers/" + getId() + ".jpg";
+    }
     public void setPortadaURL(String portadaURL) { this.portadaURL = portadaURL; }
     public String getDiscografica() { return discografica; }
     public void setDiscografica(String discografica) { this.discografica = discografica; }
@@ -156,11 +173,11 @@ public class Album {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         Album album = (Album) obj;
-        return id.equals(album.id);
+        return id == album.id;
     }
 
     @Override
     public int hashCode() {
-        return id.hashCode();
+        return Long.hashCode(id);
     }
 }
@@ -3,13 +3,13 @@ package modelo.artistas;
 import excepciones.artista.AlbumYaExisteException;
 import excepciones.artista.ArtistaNoVerificadoException;
 import modelo.contenido.Cancion;
+import utilidades.GeneradorIds;
 
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.UUID;
 
 public class Artista {
-    private String id;
+    private long id;
     private String nombreArtistico;
     private String nombreReal;
     private String paisOrigen;
@@ -20,7 +20,7 @@ public class Artista {
     private String biografia;
 
     public Artista(String nombreArtistico, String nombreReal, String paisOrigen) {
-        this.id = UUID.randomUUID().toString();
+        this.id = GeneradorIds.siguiente();
         this.nombreArtistico = nombreArtistico;
         this.nombreReal = nombreReal;
         this.paisOrigen = paisOrigen;
@@ -32,7 +32,7 @@ public class Artista {
     }
 
     public Artista(String nombreArtistico, String nombreReal, String paisOrigen, boolean verificado, String biografia) {
-        this.id = UUID.randomUUID().toString();
+        this.id = GeneradorIds.siguiente();
         this.nombreArtistico = nombreArtistico;
         this.nombreReal = nombreReal;
         this.paisOrigen = paisOrigen;
@@ -44,7 +44,13 @@ public class Artista {
     }
 
     public Artista(String nombreArtistico, String nombreReal, String pais, boolean verificado) {
-        this.id = UUID.randomUUID().toString();
+        this(GeneradorIds.siguiente(), nombreArtistico, nombreReal, pais, verificado);
+    }
+
+    // Restauración: conserva el id persistido; los ids que se generen después serán mayores
+    public Artista(long id, String nombreArtistico, String nombreReal, String pais, boolean verificado) {
+        GeneradorIds.avanzarHasta(id);
+        this.id = id;
         this.nombreArtistico = nombreArtistico;
         this.nombreReal = nombreReal;
         this.paisOrigen = pais;
@@ -78,6 +84,16 @@ public class Artista {
         return album;
     }
 
+    // Álbum ya existente (restauración): se creó estando verificado, así que no se vuelve a exigir
+    public void agregarAlbum(Album album) throws AlbumYaExisteException {
+        for (Album a : albumes) {
+            if (a.getTitulo().equalsIgnoreCase(album.getTitulo())) {
+                throw new AlbumYaExisteException("Ya existe un álbum con el título: " + album.getTitulo());
+            }
+        }
+        albumes.add(album);
+    }
+
     public ArrayList<Cancion> obtenerTopCanciones(int cantidad) {
         ArrayList<Cancion> copia = new ArrayList<>(discografia);
         copia.sort((c1, c2) -> Integer.compare(c2.getReproducciones(), c1.getReproducciones()));
@@ -116,12 +132,20 @@ public class Artista {
         this.verificado = true;
     }
 
-    public void incrementarOyentes() {
+    public synchronized void incrementarOyentes() {
         oyentesMensuales++;
     }
 
+    public synchronized void incrementarOyentes(int cantidad) {
+        if (cantidad > 0) oyentesMensuales += cantidad;
+    }
+
     // Getters y Setters
     public String getId() {
+        return GeneradorIds.aTexto(id);
+    }
+
+    public long getIdNumerico() {
         return id;
     }
 
@@ -157,11 +181,19 @@ public class Artista {
         return new ArrayList<>(albumes);
     }
 
-    public int getOyentesMensuales() {
+    // Mismo criterio que crearAlbum para detectar un título repetido; null si no hay ninguno
+    public Album buscarAlbum(String titulo) {
+        for (Album a : albumes) {
+            if (a.getTitulo().equalsIgnoreCase(titulo)) return a;
+        }
+        return null;
+    }
+
+    public synchronized int getOyentesMensuales() {
         return oyentesMensuales;
     }
 
-    public void setOyentesMensuales(int oyentesMensuales) {
+    public synchronized void setOyentesMensuales(int oyentesMensuales) {
         this.oyentesMensuales = oyentesMensuales;
     }
 
@@ -192,11 +224,11 @@ public class Artista {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         Artista artista = (Artista) obj;
-        return id.equals(artista.id);
+        return id == artista.id;
     }
 
     @Override
     public int hashCode() {
-        return id.hashCode();
+        return Long.hashCode(id);
     }
 }
@@ -4,15 +4,16 @@ import enums.CategoriaPodcast;
 import excepciones.artista.LimiteEpisodiosException;
 import excepciones.contenido.EpisodioNoEncontradoException;
 import modelo.contenido.Podcast;
+import utilidades.AcumuladorCreador;
 import utilidades.EstadisticasCreador;
+import utilidades.GeneradorIds;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.UUID;
 
 public class Creador {
     private static final int MAX_EPISODIOS = 500;
-    private String id;
+    private long id;
     private String nombreCanal;
     private String nombre;
     private ArrayList<Podcast> episodios;
@@ -20,9 +21,10 @@ public class Creador {
     private String descripcion;
     private HashMap<String, String> redesSociales;
     private ArrayList<CategoriaPodcast> categoriasPrincipales;
+    private final AcumuladorCreador estadisticas;
 
     public Creador(String nombreCanal, String nombre) {
-        this.id = UUID.randomUUID().toString();
+        this.id = GeneradorIds.siguiente();
         this.nombreCanal = nombreCanal;
         this.nombre = nombre;
         this.episodios = new ArrayList<>();
@@ -30,10 +32,17 @@ public class Creador {
         this.descripcion = "";
         this.redesSociales = new HashMap<>();
         this.categoriasPrincipales = new ArrayList<>();
+        this.estadisticas = new AcumuladorCreador(this);
     }
 
     public Creador(String nombreCanal, String nombre, String descripcion) {
-        this.id = UUID.randomUUID().toString();
+        this(GeneradorIds.siguiente(), nombreCanal, nombre, descripcion);
+    }
+
+    // Restauración: conserva el id persistido; los ids que se generen después serán mayores
+    public Creador(long id, String nombreCanal, String nombre, String descripcion) {
+        GeneradorIds.avanzarHasta(id);
+        this.id = id;
         this.nombreCanal = nombreCanal;
         this.nombre = nombre;
         this.episodios = new ArrayList<>();
@@ -41,6 +50,7 @@ public class Creador {
         this.descripcion = descripcion;
         this.redesSociales = new HashMap<>();
         this.categoriasPrincipales = new ArrayList<>();
+        this.estadisticas = new AcumuladorCreador(this);
     }
 
     public void publicarPodcast(Podcast episodio) throws LimiteEpisodiosException {
@@ -48,11 +58,15 @@ public class Creador {
             throw new LimiteEpisodiosException("Se ha alcanzado el límite de " + MAX_EPISODIOS + " episodios");
         }
         episodios.add(episodio);
+        estadisticas.agregar(episodio);
+        // Un episodio retirado y vuelto a publicar cuenta de nuevo para el creador
+        episodio.notificarPropietario(getIdNumerico());
     }
 
 
+    // Instantánea de los agregados que se mantienen al publicar y reproducir: no recorre los episodios
     public EstadisticasCreador obtenerEstadisticas() {
-        return new EstadisticasCreador(this);
+        return estadisticas.obtenerEstadisticas();
     }
 
     public void agregarRedSocial(String red, String usuario) {
@@ -66,17 +80,16 @@ public class Creador {
         if (episodios.isEmpty()) {
             return 0.0; // corregido para pasar test
         }
-        int total = 0;
-        for (Podcast p : episodios) {
-            total += p.getReproducciones();
-        }
-        return (double) total / episodios.size();
+        return (double) estadisticas.getReproducciones() / estadisticas.getNumEpisodios();
     }
 
     public void eliminarEpisodio(String idEpisodio) throws EpisodioNoEncontradoException {
+        long id = GeneradorIds.desdeTexto(idEpisodio);
         for (Podcast p : episodios) {
-            if (p.getId().equals(idEpisodio)) {
+            if (p.getIdNumerico() == id) {
                 episodios.remove(p);
+                estadisticas.quitar(p);
+                if (!episodios.contains(p)) p.notificarPropietario(0);
                 return;
             }
         }
@@ -84,11 +97,7 @@ public class Creador {
     }
 
     public int getTotalReproducciones() {
-        int total = 0;
-        for (Podcast p : episodios) {
-            total += p.getReproducciones();
-        }
-        return total;
+        return (int) Math.min(Integer.MAX_VALUE, estadisticas.getReproducciones());
     }
 
     public void incrementarSuscriptores() {
@@ -120,7 +129,8 @@ public class Creador {
     }
 
     // Getters y Setters
-    public String getId() { return id; }
+    public String getId() { return GeneradorIds.aTexto(id); }
+    public long getIdNumerico() { return id; }
     public String getNombreCanal() { return nombreCanal; }
     public void setNombreCanal(String nombreCanal) { this.nombreCanal = nombreCanal; }
     public String getNombre() { return nombre; }
@@ -145,11 +155,11 @@ public class Creador {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         Creador creador = (Creador) obj;
-        return id.equals(creador.id);
+        return id == creador.id;
     }
 
     @Override
     public int hashCode() {
-        return id.hashCode();
+        return Long.hashCode(id);
     }
 }
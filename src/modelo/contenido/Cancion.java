@@ -10,9 +10,9 @@ import interfaces.Descargable;
 import interfaces.Reproducible;
 import modelo.artistas.Album;
 import modelo.artistas.Artista;
+import utilidades.GeneradorIds;
 
 import java.util.ArrayList;
-import java.util.UUID;
 
 @SuppressWarnings("unused")
 public class Cancion extends Contenido implements Reproducible, Descargable {
@@ -21,8 +21,8 @@ public class Cancion extends Contenido implements Reproducible, Descargable {
     private modelo.artistas.Album album;
     private GeneroMusical genero;
     private String audioURL;
+    private boolean audioURLPropia; // sin ella la URL se deriva del id
     private boolean explicit;
-    private String ISRC;
     private boolean reproduciendo;
     private boolean pausado;
     private boolean descargado;
@@ -32,8 +32,6 @@ public class Cancion extends Contenido implements Reproducible, Descargable {
         super(titulo, duracionSegundos);
         this.artista = artista;
         this.genero = genero;
-        this.audioURL = "https://soundwave.com/audio/" + id + ".mp3";
-        this.ISRC = generarISRC();
         this.reproduciendo = false;
         this.pausado = false;
         this.descargado = false;
@@ -43,11 +41,15 @@ public class Cancion extends Contenido implements Reproducible, Descargable {
 
     public Cancion(String titulo, int duracionSegundos, modelo.artistas.Artista artista, GeneroMusical genero,
                    String letra, boolean explicit) throws DuracionInvalidaException {
-        super(titulo, duracionSegundos);
+        this(GeneradorIds.siguiente(), titulo, duracionSegundos, artista, genero, letra, explicit);
+    }
+
+    // Restauración: conserva el id persistido; los ids que se generen después serán mayores
+    public Cancion(long id, String titulo, int duracionSegundos, modelo.artistas.Artista artista, GeneroMusical genero,
+                   String letra, boolean explicit) throws DuracionInvalidaException {
+        super(id, titulo, duracionSegundos);
         this.artista = artista;
         this.genero = genero;
-        this.audioURL = "https://soundwave.com/audio/" + id + ".mp3";
-        this.ISRC = generarISRC();
         this.reproduciendo = false;
         this.pausado = false;
         this.descargado = false;
@@ -55,8 +57,9 @@ public class Cancion extends Contenido implements Reproducible, Descargable {
         this.letra = letra;
     }
 
+    // Código derivado del id: único y sin guardar otra cadena por canción
     private String generarISRC() {
-        return UUID.randomUUID().toString();
+        return "SW-" + getId();
     }
 
     @Override
@@ -65,7 +68,7 @@ public class Cancion extends Contenido implements Reproducible, Descargable {
             throw new ContenidoNoDisponibleException("La canción no está disponible");
         }
         reproduciendo = true;
-        reproducciones++;
+        aumentarReproducciones();
     }
 
     @Override
@@ -133,11 +136,15 @@ public class Cancion extends Contenido implements Reproducible, Descargable {
     }
 
     public void cambiarGenero(GeneroMusical nuevoGenero) {
+        GeneroMusical anterior = this.genero;
         this.genero = nuevoGenero;
+        if (anterior != nuevoGenero) {
+            notificar((o, c) -> o.alCambiarGenero(this, anterior));
+        }
     }
 
     public void validarAudioURL() throws ArchivoDeAudioNoEncontradoException {
-        if (audioURL == null || audioURL.isEmpty()) {
+        if (audioURLPropia && (audioURL == null || audioURL.isEmpty())) {
             throw new ArchivoDeAudioNoEncontradoException("URL de audio no encontrada");
         }
     }
@@ -157,6 +164,7 @@ public class Cancion extends Contenido implements Reproducible, Descargable {
 
     public void setArtista(modelo.artistas.Artista artista) {
         this.artista = artista;
+        notificarPropietario(artista != null ? artista.getIdNumerico() : 0);
     }
 
     public modelo.artistas.Album getAlbum() {
@@ -172,15 +180,16 @@ public class Cancion extends Contenido implements Reproducible, Descargable {
     }
 
     public void setGenero(GeneroMusical genero) {
-        this.genero = genero;
+        cambiarGenero(genero);
     }
 
     public String getAudioURL() {
-        return audioURL;
+        return audioURLPropia ? audioURL : "https://soundwave.com/audio/" + getId() + ".mp3";
     }
 
     public void setAudioURL(String audioURL) {
         this.audioURL = audioURL;
+        this.audioURLPropia = true;
     }
 
     public boolean isExplicit() {
@@ -192,7 +201,7 @@ public class Cancion extends Contenido implements Reproducible, Descargable {
     }
 
     public String getISRC() {
-        return ISRC;
+        return generarISRC();
     }
 
     public boolean isReproduciendo() {
@@ -2,30 +2,45 @@ package modelo.contenido;
 
 import excepciones.contenido.ContenidoNoDisponibleException;
 import excepciones.contenido.DuracionInvalidaException;
+import interfaces.ObservadorContenido;
+import utilidades.GeneradorIds;
 
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
 
 public abstract class Contenido {
-    String id;
+    final long id;
     String titulo;
-    int reproducciones;
-    int likes;
+    // Contadores repartidos en celdas: incrementos concurrentes sin contención y sin desbordar int
+    final LongAdder reproducciones;
+    final LongAdder likes;
     int duracionSegundos;
     ArrayList<String> tags;
     boolean disponible;
     Date fechaPublicacion;
+    final CopyOnWriteArrayList<ObservadorContenido> observadores;
+    // Avisos a observadores que lanzaron excepción (en todo el proceso)
+    private static final LongAdder fallosObservadores = new LongAdder();
 
     public Contenido(String titulo,int duracionSegundos)throws DuracionInvalidaException {
-        this.id = UUID.randomUUID().toString();
+        this(GeneradorIds.siguiente(), titulo, duracionSegundos);
+    }
+
+    // Restauración: conserva el id persistido; los ids que se generen después serán mayores
+    protected Contenido(long id, String titulo, int duracionSegundos) throws DuracionInvalidaException {
+        GeneradorIds.avanzarHasta(id);
+        this.id = id;
         this.titulo = titulo;
-        this.reproducciones = 0;
-        this.likes = 0;
+        this.reproducciones = new LongAdder();
+        this.likes = new LongAdder();
         this.duracionSegundos = duracionSegundos;
         this.tags = new ArrayList<>();
         this.disponible = true;
         this.fechaPublicacion = new Date();
+        this.observadores = new CopyOnWriteArrayList<>();
 
         if(!(duracionSegundos>0)){
             throw new DuracionInvalidaException();
@@ -36,13 +51,25 @@ public abstract class Contenido {
     //fallo if disponible==false en hijo
 
     public void aumentarReproducciones(){
-        reproducciones++;
+        reproducciones.increment();
+        notificarReproducciones();
+    }
+    public void aumentarReproducciones(long cantidad){
+        if (cantidad <= 0) return;
+        reproducciones.add(cantidad);
+        notificarReproducciones();
     }
     public void agregarLike(){
-        likes++;
+        likes.increment();
+        notificar(ObservadorContenido::alCambiarLikes);
+    }
+    public void aumentarLikes(long cantidad){
+        if (cantidad <= 0) return;
+        likes.add(cantidad);
+        notificar(ObservadorContenido::alCambiarLikes);
     }
     public boolean esPopular() {
-        return (reproducciones > 100000);
+        return (reproducciones.sum() > 100000);
     }
     public void validarDuracion() throws DuracionInvalidaException{
         if(duracionSegundos>0) {
@@ -61,12 +88,47 @@ public abstract class Contenido {
         return tags.contains(tag);
     }
 
+    public void agregarObservador(ObservadorContenido observador) {
+        if (observador != null) observadores.addIfAbsent(observador);
+    }
+
+    public void quitarObservador(ObservadorContenido observador) {
+        observadores.remove(observador);
+    }
+
+    void notificarReproducciones() {
+        notificar(ObservadorContenido::alCambiarReproducciones);
+    }
+
+    // Lo avisan el propio contenido o su dueño (p. ej. el creador al retirar un episodio)
+    public void notificarPropietario(long propietario) {
+        notificar((o, c) -> o.alCambiarPropietario(c, propietario));
+    }
+
+    // Cada observador se avisa por separado: uno que falla no deja sin aviso a los registrados después
+    // (ranking, métricas, agregados del creador), que si no se desviarían en silencio de los contadores
+    void notificar(BiConsumer<ObservadorContenido, Contenido> aviso) {
+        for (ObservadorContenido o : observadores) {
+            try {
+                aviso.accept(o, this);
+            } catch (RuntimeException e) {
+                fallosObservadores.increment();
+            }
+        }
+    }
+
+    public static long getFallosObservadores() {
+        return fallosObservadores.sum();
+    }
+
     public void marcarNoDisponible() {
         disponible = false;
+        notificar(ObservadorContenido::alCambiarDisponibilidad);
     }
 
     public void marcarDisponible() {
         disponible = true;
+        notificar(ObservadorContenido::alCambiarDisponibilidad);
     }
 
     public String getDuracionFormateada() {
@@ -76,6 +138,10 @@ public abstract class Contenido {
     }
 
     public String getId() {
+        return GeneradorIds.aTexto(id);
+    }
+
+    public long getIdNumerico() {
         return id;
     }
 
@@ -84,19 +150,35 @@ public abstract class Contenido {
     }
 
     public void setTitulo(String titulo) {
+        String anterior = this.titulo;
         this.titulo = titulo;
+        notificar((o, c) -> o.alCambiarTitulo(c, anterior));
     }
 
     public int getReproducciones() {
-        return reproducciones;
+        return saturar(reproducciones.sum());
+    }
+
+    public long getReproduccionesTotales() {
+        return reproducciones.sum();
     }
 
     public void setReproducciones(int reproducciones) {
-        this.reproducciones = reproducciones;
+        this.reproducciones.reset();
+        this.reproducciones.add(reproducciones);
+        notificar(ObservadorContenido::alFijarReproducciones);
     }
 
     public int getLikes() {
-        return likes;
+        return saturar(likes.sum());
+    }
+
+    public long getLikesTotales() {
+        return likes.sum();
+    }
+
+    private static int saturar(long valor) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, valor));
     }
 
     public int getDuracionSegundos() {
@@ -125,10 +207,10 @@ public abstract class Contenido {
         if(this==obj)return true;
         if(obj==null||getClass() !=obj.getClass()) return false;
         Contenido contenido=(Contenido) obj;
-        return id.equals(contenido.id);
+        return id == contenido.id;
     }
     @Override
-    public int hashCode(){return id.hashCode();}
+    public int hashCode(){return Long.hashCode(id);}
     public ArrayList<String> getEtiquetas() {
         return new ArrayList<>(tags); // copia defensiva
     }
@@ -6,6 +6,7 @@ import excepciones.contenido.*;
 import excepciones.descarga.ContenidoYaDescargadoException;
 import interfaces.Descargable;
 import interfaces.Reproducible;
+import utilidades.GeneradorIds;
 
 import java.util.ArrayList;
 
@@ -24,7 +25,18 @@ public class Podcast extends Contenido implements Reproducible, Descargable {
 
     public Podcast(String titulo, int duracionSegundos, Creador creador, int numeroEpisodio,
                    int temporada, CategoriaPodcast categoria) throws DuracionInvalidaException {
-        super(titulo, duracionSegundos);
+        this(GeneradorIds.siguiente(), titulo, duracionSegundos, creador, numeroEpisodio, temporada, categoria, null);
+    }
+
+    public Podcast(String titulo, int duracionSegundos, Creador creador, int numeroEpisodio,
+                   int temporada, CategoriaPodcast categoria, String descripcion) throws DuracionInvalidaException {
+        this(GeneradorIds.siguiente(), titulo, duracionSegundos, creador, numeroEpisodio, temporada, categoria, descripcion);
+    }
+
+    // Restauración: conserva el id persistido; los ids que se generen después serán mayores
+    public Podcast(long id, String titulo, int duracionSegundos, Creador creador, int numeroEpisodio,
+                   int temporada, CategoriaPodcast categoria, String descripcion) throws DuracionInvalidaException {
+        super(id, titulo, duracionSegundos);
         if (numeroEpisodio <= 0 || temporada <= 0) {
             throw new DuracionInvalidaException("Número de episodio y temporada deben ser mayores a 0");
         }
@@ -32,7 +44,7 @@ public class Podcast extends Contenido implements Reproducible, Descargable {
         this.numeroEpisodio = numeroEpisodio;
         this.temporada = temporada;
         this.categoria = categoria;
-        this.descripcion = "";
+        this.descripcion = descripcion != null ? descripcion : "";
         this.invitados = new ArrayList<>();
         this.transcripcion = null;
         this.reproduciendo = false;
@@ -40,12 +52,6 @@ public class Podcast extends Contenido implements Reproducible, Descargable {
         this.descargado = false;
     }
 
-    public Podcast(String titulo, int duracionSegundos, Creador creador, int numeroEpisodio,
-                   int temporada, CategoriaPodcast categoria, String descripcion) throws DuracionInvalidaException {
-        this(titulo, duracionSegundos, creador, numeroEpisodio, temporada, categoria);
-        if (descripcion != null) this.descripcion = descripcion;
-    }
-
     @Override
     public void reproducir() throws ContenidoNoDisponibleException {
         if (!disponible) {
@@ -125,11 +131,23 @@ public class Podcast extends Contenido implements Reproducible, Descargable {
     public int getNumeroEpisodio() { return numeroEpisodio; }
     public void setNumeroEpisodio(int numeroEpisodio) { this.numeroEpisodio = numeroEpisodio; }
     public int getTemporada() { return temporada; }
-    public void setTemporada(int temporada) { this.temporada = temporada; }
+    public void setTemporada(int temporada) {
+        int anterior = this.temporada;
+        this.temporada = temporada;
+        if (anterior != temporada) {
+            notificar((o, c) -> o.alCambiarTemporada(this, anterior));
+        }
+    }
     public String getDescripcion() { return descripcion; }
     public void setDescripcion(String descripcion) { this.descripcion = descripcion; }
     public CategoriaPodcast getCategoria() { return categoria; }
-    public void setCategoria(CategoriaPodcast categoria) { this.categoria = categoria; }
+    public void setCategoria(CategoriaPodcast categoria) {
+        CategoriaPodcast anterior = this.categoria;
+        this.categoria = categoria;
+        if (anterior != categoria) {
+            notificar((o, c) -> o.alCambiarCategoria(this, anterior));
+        }
+    }
     public ArrayList<String> getInvitados() { return new ArrayList<>(invitados); }
     public String getTranscripcion() { return transcripcion; }
     public void setTranscripcion(String transcripcion) { this.transcripcion = transcripcion; }
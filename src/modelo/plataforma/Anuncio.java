@@ -1,12 +1,12 @@
 package modelo.plataforma;
 
 import enums.TipoAnuncion;
+import utilidades.GeneradorIds;
 
-import java.util.UUID;
 
 public class Anuncio {
 
-    private String id;
+    private long id;
     private String empresa;
     private int duracionSegundos;
     private String audioURL;
@@ -20,7 +20,13 @@ public class Anuncio {
     }
 
     public Anuncio(String empresa, TipoAnuncion tipo, double presupuesto, String audioURL) {
-        this.id = UUID.randomUUID().toString();
+        this(GeneradorIds.siguiente(), empresa, tipo, presupuesto, audioURL);
+    }
+
+    // Restauración: conserva el id persistido; los ids que se generen después serán mayores
+    public Anuncio(long id, String empresa, TipoAnuncion tipo, double presupuesto, String audioURL) {
+        GeneradorIds.avanzarHasta(id);
+        this.id = id;
         this.empresa = empresa;
         this.tipo = tipo;
         this.presupuesto = presupuesto;
@@ -64,7 +70,8 @@ public class Anuncio {
     public boolean puedeMostrarse() { return activo && presupuesto > 0; }
 
     // Getters/Setters
-    public String getId() { return id; }
+    public String getId() { return GeneradorIds.aTexto(id); }
+    public long getIdNumerico() { return id; }
     public String getEmpresa() { return empresa; }
     public void setEmpresa(String empresa) { this.empresa = empresa; }
     public int getDuracionSegundos() { return duracionSegundos; }
@@ -74,6 +81,7 @@ public class Anuncio {
     public TipoAnuncion getTipo() { return tipo; }
     public void setTipo(TipoAnuncion tipo) { this.tipo = tipo; }
     public int getImpresiones() { return impresiones; }
+    public void setImpresiones(int impresiones) { this.impresiones = impresiones; }
     public double getPresupuesto() { return presupuesto; }
     public void setPresupuesto(double presupuesto) { this.presupuesto = presupuesto; }
     public boolean isActivo() { return activo; }
@@ -89,11 +97,11 @@ public class Anuncio {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         Anuncio anuncio = (Anuncio) obj;
-        return id.equals(anuncio.id);
+        return id == anuncio.id;
     }
 
     @Override
     public int hashCode() {
-        return id.hashCode();
+        return Long.hashCode(id);
     }
 }
@@ -0,0 +1,42 @@
+package modelo.plataforma;
+
+import modelo.contenido.Contenido;
+import modelo.usuarios.Usuario;
+
+// Evento inmutable que viaja por la cola de reproducciones
+public final class EventoReproduccion {
+    private final Usuario usuario;
+    private final Contenido contenido;
+    private final Anuncio anuncio;
+    private final long instante;
+
+    private EventoReproduccion(Usuario usuario, Contenido contenido, Anuncio anuncio) {
+        this.usuario = usuario;
+        this.contenido = contenido;
+        this.anuncio = anuncio;
+        this.instante = System.currentTimeMillis();
+    }
+
+    public static EventoReproduccion deContenido(Usuario usuario, Contenido contenido) {
+        return new EventoReproduccion(usuario, contenido, null);
+    }
+
+    public static EventoReproduccion deAnuncio(Usuario usuario, Anuncio anuncio) {
+        return new EventoReproduccion(usuario, null, anuncio);
+    }
+
+    public boolean esAnuncio() {
+        return anuncio != null;
+    }
+
+    public Usuario getUsuario() { return usuario; }
+    public Contenido getContenido() { return contenido; }
+    public Anuncio getAnuncio() { return anuncio; }
+    public long getInstante() { return instante; }
+
+    @Override
+    public String toString() {
+        return "EventoReproduccion{" + "usuario=" + (usuario != null ? usuario.getNombre() : null) +
+                ", " + (esAnuncio() ? "anuncio=" + anuncio.getEmpresa() : "contenido=" + contenido.getTitulo()) + '}';
+    }
+}
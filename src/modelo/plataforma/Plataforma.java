@@ -10,58 +10,93 @@ import excepciones.usuario.*;
 import modelo.artistas.*;
 import modelo.contenido.*;
 import modelo.usuarios.*;
+import excepciones.playlist.ContenidoDuplicadoException;
+import excepciones.playlist.PlaylistLlenaException;
+import interfaces.ObservadorPlataforma;
 import interfaces.Recomendador;
+import utilidades.AlmacenMetricas;
+import utilidades.CatalogoParticionado;
+import utilidades.EstadisticasCreador;
+import utilidades.GeneradorIds;
+import utilidades.IndiceBusqueda;
+import utilidades.IndiceClasificacion;
+import utilidades.MapaLongObjetoConcurrente;
+import utilidades.RankingContenidos;
 import utilidades.RecomendadorIA;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
 
 @SuppressWarnings("unused")
 public class Plataforma {
-    private static Plataforma instancia;
+    private static volatile Plataforma instancia;
     private final String nombre;
 
-    private final HashMap<String, Usuario> usuarios;
-    private final HashMap<String, Usuario> usuariosPorEmail;
-    private final ArrayList<Contenido> catalogo;
-    private final ArrayList<Playlist> playlistsPublicas;
-    private final HashMap<String, Artista> artistas;
-    private final HashMap<String, Creador> creadores;
-    private final ArrayList<Album> albumes;
-    private final ArrayList<Anuncio> anuncios;
+    private final MapaLongObjetoConcurrente<Usuario> usuarios;
+    private final ConcurrentHashMap<String, Usuario> usuariosPorEmail;
+    private final CatalogoParticionado catalogo;
+    private final IndiceBusqueda indiceBusqueda;
+    private final IndiceClasificacion indiceClasificacion;
+    private final RankingContenidos ranking;
+    private final AlmacenMetricas metricas;
+    private final CopyOnWriteArrayList<Playlist> playlistsPublicas;
+    private final ConcurrentHashMap<String, Artista> artistas;
+    private final ConcurrentHashMap<String, Creador> creadores;
+    private final CopyOnWriteArrayList<Album> albumes;
+    private final CopyOnWriteArrayList<Anuncio> anuncios;
     private RecomendadorIA recomendador;
     private int totalAnunciosReproducidos;
+    private volatile ProcesadorReproducciones procesadorReproducciones;
+    private final CopyOnWriteArrayList<ObservadorPlataforma> observadores;
+    // Las mutaciones toman la lectura (no se excluyen entre sí); detenerMutaciones toma la escritura
+    private final ReentrantReadWriteLock cerrojoMutaciones;
 
     private Plataforma(String nombre) {
         this.nombre = nombre;
-        this.usuarios = new HashMap<>();
-        this.usuariosPorEmail = new HashMap<>();
-        this.catalogo = new ArrayList<>();
-        this.playlistsPublicas = new ArrayList<>();
-        this.artistas = new HashMap<>();
-        this.creadores = new HashMap<>();
-        this.albumes = new ArrayList<>();
-        this.anuncios = new ArrayList<>();
+        this.usuarios = new MapaLongObjetoConcurrente<>();
+        this.usuariosPorEmail = new ConcurrentHashMap<>();
+        this.catalogo = new CatalogoParticionado();
+        this.indiceBusqueda = new IndiceBusqueda();
+        this.indiceClasificacion = new IndiceClasificacion();
+        this.ranking = new RankingContenidos();
+        this.metricas = new AlmacenMetricas();
+        this.playlistsPublicas = new CopyOnWriteArrayList<>();
+        this.artistas = new ConcurrentHashMap<>();
+        this.creadores = new ConcurrentHashMap<>();
+        this.albumes = new CopyOnWriteArrayList<>();
+        this.anuncios = new CopyOnWriteArrayList<>();
         this.recomendador = new RecomendadorIA();
         this.totalAnunciosReproducidos = 0;
+        this.observadores = new CopyOnWriteArrayList<>();
+        this.cerrojoMutaciones = new ReentrantReadWriteLock();
 
         this.anuncios.add(new Anuncio("Empresa de prueba", TipoAnuncion.AUDIO, 100.0));
 
     }
 
-    // Singleton
-    public static synchronized Plataforma getInstancia(String nombre) {
-        if (instancia == null) instancia = new Plataforma(nombre);
-        return instancia;
+    // Singleton (doble comprobación: los hilos de petición no se serializan en el acceso)
+    public static Plataforma getInstancia(String nombre) {
+        Plataforma p = instancia;
+        if (p != null) return p;
+        synchronized (Plataforma.class) {
+            if (instancia == null) instancia = new Plataforma(nombre);
+            return instancia;
+        }
     }
 
-    public static synchronized Plataforma getInstancia() {
-        if (instancia == null) instancia = new Plataforma("SoundWave");
-        return instancia;
+    public static Plataforma getInstancia() {
+        return getInstancia("SoundWave");
     }
 
     public static synchronized void reiniciarInstancia() {
+        if (instancia != null) instancia.detenerProcesadorReproducciones();
         instancia = null;
     }
 
@@ -74,6 +109,53 @@ public class Plataforma {
         return new ArrayList<>(anuncios);
     }
 
+    public void agregarAnuncio(Anuncio anuncio) {
+        cerrojoMutaciones.readLock().lock();
+        try {
+            anuncios.add(anuncio);
+            for (ObservadorPlataforma o : observadores) o.alAgregarAnuncio(anuncio);
+        } finally {
+            cerrojoMutaciones.readLock().unlock();
+        }
+    }
+
+    public boolean eliminarAnuncio(Anuncio anuncio) {
+        cerrojoMutaciones.readLock().lock();
+        try {
+            if (!anuncios.remove(anuncio)) return false;
+            for (ObservadorPlataforma o : observadores) o.alEliminarAnuncio(anuncio);
+            return true;
+        } finally {
+            cerrojoMutaciones.readLock().unlock();
+        }
+    }
+
+    // ====================== Observadores / Mutaciones ======================
+    public void agregarObservador(ObservadorPlataforma observador) {
+        if (observador != null) observadores.addIfAbsent(observador);
+    }
+
+    public void quitarObservador(ObservadorPlataforma observador) {
+        observadores.remove(observador);
+    }
+
+    // Espera a que terminen las mutaciones en curso, bloquea las nuevas y aplica las reproducciones
+    // pendientes: hasta reanudarMutaciones() el estado no cambia a través de la plataforma.
+    // Debe llamarse desde el mismo hilo que luego llama a reanudarMutaciones().
+    public void detenerMutaciones() throws InterruptedException {
+        cerrojoMutaciones.writeLock().lockInterruptibly();
+        try {
+            esperarReproducciones();
+        } catch (InterruptedException e) {
+            cerrojoMutaciones.writeLock().unlock();
+            throw e;
+        }
+    }
+
+    public void reanudarMutaciones() {
+        cerrojoMutaciones.writeLock().unlock();
+    }
+
     // ====================== Usuarios ======================
     public UsuarioPremium registrarUsuarioPremium(String nombre, String email, String password, TipoSuscripcion tipo)
             throws UsuarioYaExisteException, EmailInvalidoException, PasswordDebilException {
@@ -81,8 +163,7 @@ public class Plataforma {
             throw new UsuarioYaExisteException("Email en uso");
         }
         UsuarioPremium u = new UsuarioPremium(nombre, email, password, tipo);
-        usuarios.put(u.getId(), u);
-        usuariosPorEmail.put(email, u);
+        registrarUsuario(u);
         return u;
     }
 
@@ -97,36 +178,67 @@ public class Plataforma {
             throw new UsuarioYaExisteException("Email en uso");
         }
         UsuarioGratuito u = new UsuarioGratuito(nombre, email, password);
-        usuarios.put(u.getId(), u);
-        usuariosPorEmail.put(email, u);
+        registrarUsuario(u);
         return u;
     }
 
+    // El email se reserva de forma atómica: dos registros simultáneos no pueden ganar ambos.
+    // Público para dar de alta usuarios ya construidos (restauración con su id original).
+    public void registrarUsuario(Usuario u) throws UsuarioYaExisteException {
+        cerrojoMutaciones.readLock().lock();
+        try {
+            if (usuariosPorEmail.putIfAbsent(u.getEmail(), u) != null) {
+                throw new UsuarioYaExisteException("Email en uso");
+            }
+            usuarios.put(u.getIdNumerico(), u);
+            for (ObservadorPlataforma o : observadores) o.alRegistrarUsuario(u);
+        } finally {
+            cerrojoMutaciones.readLock().unlock();
+        }
+    }
+
     public ArrayList<UsuarioPremium> getUsuariosPremium() {
         ArrayList<UsuarioPremium> res = new ArrayList<>();
-        for (Usuario u : usuarios.values()) if (u instanceof UsuarioPremium) res.add((UsuarioPremium) u);
+        for (Usuario u : usuarios.valores()) if (u instanceof UsuarioPremium) res.add((UsuarioPremium) u);
         return res;
     }
 
     public ArrayList<UsuarioGratuito> getUsuariosGratuitos() {
         ArrayList<UsuarioGratuito> res = new ArrayList<>();
-        for (Usuario u : usuarios.values()) if (u instanceof UsuarioGratuito) res.add((UsuarioGratuito) u);
+        for (Usuario u : usuarios.valores()) if (u instanceof UsuarioGratuito) res.add((UsuarioGratuito) u);
         return res;
     }
 
     public ArrayList<Usuario> getTodosLosUsuarios() {
-        return new ArrayList<>(usuarios.values());
+        return new ArrayList<>(usuarios.valores());
     }
 
     public Usuario buscarUsuarioPorEmail(String email) {
         return usuariosPorEmail.get(email);
     }
 
+    public Usuario buscarUsuarioPorId(long id) {
+        return usuarios.get(id);
+    }
+
+    public Usuario buscarUsuarioPorId(String id) {
+        return usuarios.get(GeneradorIds.desdeTexto(id));
+    }
+
     // ====================== Artistas ======================
     public Artista registrarArtista(String nombreArtistico, String nombreReal, String pais, boolean verificado) {
-        Artista a = new Artista(nombreArtistico, nombreReal, pais, verificado);
-        artistas.put(nombreArtistico, a);
-        return a;
+        return registrarArtista(new Artista(nombreArtistico, nombreReal, pais, verificado));
+    }
+
+    public Artista registrarArtista(Artista a) {
+        cerrojoMutaciones.readLock().lock();
+        try {
+            artistas.put(a.getNombreArtistico(), a);
+            for (ObservadorPlataforma o : observadores) o.alRegistrarArtista(a);
+            return a;
+        } finally {
+            cerrojoMutaciones.readLock().unlock();
+        }
     }
 
     public ArrayList<Artista> getArtistas() {
@@ -161,14 +273,67 @@ public class Plataforma {
 
     // ====================== Álbumes / Canciones ======================
     public Album crearAlbum(Artista artista, String nombre, Date fecha) throws ArtistaNoVerificadoException, AlbumYaExisteException {
-        Album album = artista.crearAlbum(nombre, fecha);
-        albumes.add(album);
-        return album;
+        cerrojoMutaciones.readLock().lock();
+        try {
+            Album album = artista.crearAlbum(nombre, fecha);
+            albumes.add(album);
+            for (ObservadorPlataforma o : observadores) o.alCrearAlbum(album);
+            return album;
+        } finally {
+            cerrojoMutaciones.readLock().unlock();
+        }
+    }
+
+    // Álbum ya construido (restauración): el artista no necesita seguir verificado
+    public void agregarAlbum(Album album) throws AlbumYaExisteException {
+        cerrojoMutaciones.readLock().lock();
+        try {
+            album.getArtista().agregarAlbum(album);
+            albumes.add(album);
+            for (ObservadorPlataforma o : observadores) o.alCrearAlbum(album);
+        } finally {
+            cerrojoMutaciones.readLock().unlock();
+        }
     }
 
 
     public void agregarContenidoCatalogo(Cancion c) {
-        catalogo.add(c);
+        cerrojoMutaciones.readLock().lock();
+        try {
+            catalogo.agregar(c);
+            indiceBusqueda.agregar(c);
+            indiceClasificacion.agregar(c);
+            ranking.agregar(c);
+            metricas.registrar(c);
+            recomendador.agregarContenido(c);
+            for (ObservadorPlataforma o : observadores) o.alAgregarContenido(c);
+        } finally {
+            cerrojoMutaciones.readLock().unlock();
+        }
+    }
+
+    // Alta en bloque para importaciones: una sola sección de mutación por lote y cada estructura
+    // recibe el lote entero (el catálogo y el índice de búsqueda toman su bloqueo una vez).
+    // Los podcasts ya deben estar publicados en su creador.
+    public void agregarContenidosCatalogo(List<? extends Contenido> contenidos) {
+        if (contenidos.isEmpty()) return;
+        cerrojoMutaciones.readLock().lock();
+        try {
+            catalogo.agregarTodos(contenidos);
+            indiceBusqueda.agregarTodos(contenidos);
+            for (Contenido c : contenidos) {
+                if (c instanceof Cancion) indiceClasificacion.agregar((Cancion) c);
+                else if (c instanceof Podcast) indiceClasificacion.agregar((Podcast) c);
+                ranking.agregar(c);
+                metricas.registrar(c);
+                recomendador.agregarContenido(c);
+            }
+            for (Contenido c : contenidos) {
+                for (ObservadorPlataforma o : observadores) o.alAgregarContenido(c);
+            }
+        } finally {
+            cerrojoMutaciones.readLock().unlock();
+        }
     }
 
     public ArrayList<Album> getAlbumes() {
@@ -176,16 +341,31 @@ public class Plataforma {
     }
 
     public ArrayList<Cancion> getCanciones() {
-        ArrayList<Cancion> canciones = new ArrayList<>();
-        for (Contenido c : catalogo) if (c instanceof Cancion) canciones.add((Cancion) c);
-        return canciones;
+        return catalogo.aArrayList(Cancion.class);
+    }
+
+    public int getNumCanciones() {
+        return catalogo.tamano(Cancion.class);
     }
 
     // ====================== Creadores / Podcasts ======================
     public Creador registrarCreador(String nombreCanal, String nombreReal, String descripcion) {
-        Creador c = new Creador(nombreCanal, nombreReal, descripcion);
-        creadores.put(nombreCanal, c);
-        return c;
+        return registrarCreador(new Creador(nombreCanal, nombreReal, descripcion));
+    }
+
+    public Creador registrarCreador(Creador c) {
+        cerrojoMutaciones.readLock().lock();
+        try {
+            creadores.put(c.getNombreCanal(), c);
+            for (ObservadorPlataforma o : observadores) o.alRegistrarCreador(c);
+            return c;
+        } finally {
+            cerrojoMutaciones.readLock().unlock();
+        }
+    }
+
+    public Creador buscarCreador(String nombreCanal) {
+        return creadores.get(nombreCanal);
     }
 
     public ArrayList<Creador> getTodosLosCreadores() {
@@ -196,46 +376,122 @@ public class Plataforma {
             throws DuracionInvalidaException, excepciones.artista.LimiteEpisodiosException {
 
         Podcast p = new Podcast(nombre, duracion, creador, episodio, temporada, categoria);
-
-        // 1. Agregar al catálogo
-        catalogo.add(p);
-
-        // 2. Registrar el podcast en el creador
-        creador.publicarPodcast(p);
-
+        publicarPodcast(p);
         return p;
     }
 
+    // Alta de un episodio ya construido: entra al catálogo y se publica en su creador
+    public void publicarPodcast(Podcast p) throws excepciones.artista.LimiteEpisodiosException {
+        Creador creador = p.getCreador();
+        cerrojoMutaciones.readLock().lock();
+        try {
+            // 1. Agregar al catálogo
+            catalogo.agregar(p);
+            indiceBusqueda.agregar(p);
+            indiceClasificacion.agregar(p);
+            ranking.agregar(p);
+            metricas.registrar(p);
+            recomendador.agregarContenido(p);
+
+            // 2. Registrar el podcast en el creador
+            creador.publicarPodcast(p);
+
+            for (ObservadorPlataforma o : observadores) o.alAgregarContenido(p);
+        } finally {
+            cerrojoMutaciones.readLock().unlock();
+        }
+    }
+
 
     public ArrayList<Podcast> getPodcasts() {
-        ArrayList<Podcast> podcasts = new ArrayList<>();
-        for (Contenido c : catalogo) if (c instanceof Podcast) podcasts.add((Podcast) c);
-        return podcasts;
+        return catalogo.aArrayList(Podcast.class);
+    }
+
+    public int getNumPodcasts() {
+        return catalogo.tamano(Podcast.class);
     }
 
     // ====================== Catálogo / Búsquedas / Estadísticas ======================
     public ArrayList<Contenido> getCatalogo() {
-        return new ArrayList<>(catalogo);
+        return catalogo.aArrayList();
+    }
+
+    // ====================== Vistas y streams ======================
+    // Vista inmutable del catálogo publicado hasta ahora (el catálogo solo crece: no hace falta copiar)
+    public List<Contenido> getVistaCatalogo() {
+        return catalogo.vista();
+    }
+
+    public Stream<Contenido> streamCatalogo() {
+        return catalogo.stream();
+    }
+
+    public Stream<Cancion> streamCanciones() {
+        return catalogo.stream(Cancion.class);
+    }
+
+    public Stream<Podcast> streamPodcasts() {
+        return catalogo.stream(Podcast.class);
+    }
+
+    // Vistas débilmente consistentes: los usuarios se copian de segmento en segmento (nunca todos a la vez)
+    // y el stream se divide por segmentos; artistas y creadores se recorren sin copia
+    public Stream<Usuario> streamUsuarios() {
+        return usuarios.stream();
+    }
+
+    public Stream<Artista> streamArtistas() {
+        return artistas.values().stream();
+    }
+
+    // Las listas copy-on-write ya son instantáneas inmutables al recorrerlas
+    public Stream<Album> streamAlbumes() {
+        return albumes.stream();
+    }
+
+    public Stream<Playlist> streamPlaylistsPublicas() {
+        return playlistsPublicas.stream();
+    }
+
+    public List<Album> getVistaAlbumes() {
+        return Collections.unmodifiableList(albumes);
+    }
+
+    public List<Playlist> getVistaPlaylistsPublicas() {
+        return Collections.unmodifiableList(playlistsPublicas);
+    }
+
+    public Collection<Usuario> getVistaUsuarios() {
+        return Collections.unmodifiableCollection(usuarios.valores());
+    }
+
+    public Collection<Artista> getVistaArtistas() {
+        return Collections.unmodifiableCollection(artistas.values());
+    }
+
+    public Collection<Creador> getVistaCreadores() {
+        return Collections.unmodifiableCollection(creadores.values());
     }
 
     public ArrayList<Contenido> buscarContenido(String texto) throws ContenidoNoEncontradoException {
-        ArrayList<Contenido> res = new ArrayList<>();
-        for (Contenido c : catalogo)
-            if (c.getNombre().toLowerCase().contains(texto.toLowerCase()))
-                res.add(c);
+        ArrayList<Contenido> res = indiceBusqueda.buscar(texto);
         if (res.isEmpty()) {
             throw new ContenidoNoEncontradoException("No se encontró contenido para: " + texto);
         }
         return res;
     }
 
+    public ArrayList<Contenido> buscarContenidoPorPrefijo(String prefijo) throws ContenidoNoEncontradoException {
+        ArrayList<Contenido> res = indiceBusqueda.buscarPorPrefijo(prefijo);
+        if (res.isEmpty()) {
+            throw new ContenidoNoEncontradoException("No se encontró contenido con el prefijo: " + prefijo);
+        }
+        return res;
+    }
+
 
     public ArrayList<Cancion> buscarPorGenero(GeneroMusical genero) throws ContenidoNoEncontradoException {
-        ArrayList<Cancion> res = new ArrayList<>();
-        for (Contenido c : catalogo)
-            if (c instanceof Cancion && ((Cancion)c).getGenero() == genero)
-                res.add((Cancion)c);
-
+        ArrayList<Cancion> res = indiceClasificacion.getCanciones(genero);
         if (res.isEmpty()) {
             throw new ContenidoNoEncontradoException("No se encontraron canciones del género: " + genero);
         }
@@ -244,21 +500,55 @@ public class Plataforma {
 
 
     public ArrayList<Podcast> buscarPorCategoria(CategoriaPodcast categoria) {
-        ArrayList<Podcast> res = new ArrayList<>();
-        for (Contenido c : catalogo) if (c instanceof Podcast && ((Podcast)c).getCategoria() == categoria) res.add((Podcast)c);
-        return res;
+        return indiceClasificacion.getPodcasts(categoria);
+    }
+
+    public int contarPorGenero(GeneroMusical genero) {
+        return indiceClasificacion.contarCanciones(genero);
+    }
+
+    public int contarPorCategoria(CategoriaPodcast categoria) {
+        return indiceClasificacion.contarPodcasts(categoria);
     }
 
     public ArrayList<Contenido> obtenerTopContenidos(int n) {
-        ArrayList<Contenido> res = new ArrayList<>(catalogo);
-        res.sort((c1, c2) -> Integer.compare(c2.getReproducciones(), c1.getReproducciones()));
-        return new ArrayList<>(res.subList(0, Math.min(n, res.size())));
+        return ranking.obtenerTop(n);
+    }
+
+    public RankingContenidos getRanking() {
+        return ranking;
+    }
+
+    // Consultas sobre las columnas de métricas: recorren primitivos contiguos, no el grafo de objetos
+    public ArrayList<Contenido> obtenerTopCanciones(int n, GeneroMusical genero) {
+        return metricas.obtenerTopCanciones(n, genero);
+    }
+
+    public ArrayList<Contenido> obtenerTopPodcasts(int n, CategoriaPodcast categoria) {
+        return metricas.obtenerTopPodcasts(n, categoria);
+    }
+
+    public ArrayList<Contenido> filtrarPorDuracion(int minSegundos, int maxSegundos) {
+        return metricas.filtrarPorDuracion(minSegundos, maxSegundos);
+    }
+
+    public AlmacenMetricas.Totales obtenerTotalesArtista(Artista artista) {
+        return metricas.totalesDe(artista.getIdNumerico());
+    }
+
+    // El creador mantiene sus agregados al día: no hace falta sumar columnas ni recorrer episodios
+    public EstadisticasCreador obtenerEstadisticasCreador(Creador creador) {
+        return creador.obtenerEstadisticas();
+    }
+
+    public AlmacenMetricas getMetricas() {
+        return metricas;
     }
 
 
     public String obtenerEstadisticasGenerales() {
-        int numUsuarios = usuarios.size();
-        int numContenidos = catalogo.size();
+        int numUsuarios = usuarios.tamano();
+        int numContenidos = catalogo.tamano();
         int numArtistas = artistas.size();
         int numPlaylists = playlistsPublicas.size(); // corregido
 
@@ -273,9 +563,78 @@ public class Plataforma {
 
     // ====================== Playlists ======================
     public Playlist crearPlaylistPublica(String nombre, UsuarioGratuito creador) {
-        Playlist p = new Playlist(nombre, creador);
-        playlistsPublicas.add(p);
-        return p;
+        return agregarPlaylistPublica(new Playlist(nombre, creador));
+    }
+
+    public Playlist agregarPlaylistPublica(Playlist p) {
+        cerrojoMutaciones.readLock().lock();
+        try {
+            playlistsPublicas.add(p);
+            for (ObservadorPlataforma o : observadores) o.alCrearPlaylist(p);
+            return p;
+        } finally {
+            cerrojoMutaciones.readLock().unlock();
+        }
+    }
+
+    // Playlist propia (privada) de un usuario; aparece en su getMisPlaylists()
+    public Playlist crearPlaylist(Usuario usuario, String nombre) {
+        return agregarPlaylistUsuario(new Playlist(nombre, usuario, false, ""));
+    }
+
+    public Playlist agregarPlaylistUsuario(Playlist p) {
+        cerrojoMutaciones.readLock().lock();
+        try {
+            p.getCreador().agregarPlaylist(p);
+            for (ObservadorPlataforma o : observadores) o.alCrearPlaylistUsuario(p);
+            return p;
+        } finally {
+            cerrojoMutaciones.readLock().unlock();
+        }
+    }
+
+    public boolean seguirPlaylist(Usuario usuario, Playlist playlist) {
+        cerrojoMutaciones.readLock().lock();
+        try {
+            if (!usuario.seguirPlaylist(playlist)) return false;
+            for (ObservadorPlataforma o : observadores) o.alSeguirPlaylist(usuario, playlist);
+            return true;
+        } finally {
+            cerrojoMutaciones.readLock().unlock();
+        }
+    }
+
+    public boolean dejarDeSeguirPlaylist(Usuario usuario, Playlist playlist) {
+        cerrojoMutaciones.readLock().lock();
+        try {
+            if (!usuario.dejarDeSeguirPlaylist(playlist)) return false;
+            for (ObservadorPlataforma o : observadores) o.alDejarDeSeguirPlaylist(usuario, playlist);
+            return true;
+        } finally {
+            cerrojoMutaciones.readLock().unlock();
+        }
+    }
+
+    public void agregarAPlaylist(Playlist playlist, Contenido contenido)
+            throws PlaylistLlenaException, ContenidoDuplicadoException {
+        cerrojoMutaciones.readLock().lock();
+        try {
+            playlist.agregarContenido(contenido);
+            for (ObservadorPlataforma o : observadores) o.alAgregarAPlaylist(playlist, contenido);
+        } finally {
+            cerrojoMutaciones.readLock().unlock();
+        }
+    }
+
+    public boolean quitarDePlaylist(Playlist playlist, Contenido contenido) {
+        cerrojoMutaciones.readLock().lock();
+        try {
+            if (!playlist.eliminarContenido(contenido)) return false;
+            for (ObservadorPlataforma o : observadores) o.alQuitarDePlaylist(playlist, contenido);
+            return true;
+        } finally {
+            cerrojoMutaciones.readLock().unlock();
+        }
     }
 
     public ArrayList<Playlist> getPlaylistsPublicas() {
@@ -291,4 +650,74 @@ public class Plataforma {
         if (anuncios.isEmpty()) return null;
         return anuncios.get(0); // simple placeholder
     }
+
+    public int getTotalAnunciosReproducidos() {
+        ProcesadorReproducciones p = procesadorReproducciones;
+        return totalAnunciosReproducidos + (p != null ? (int) p.getAnunciosProcesados() : 0);
+    }
+
+    // ====================== Reproducciones en segundo plano ======================
+    public ProcesadorReproducciones getProcesadorReproducciones() {
+        ProcesadorReproducciones p = procesadorReproducciones;
+        if (p != null) return p;
+        synchronized (this) {
+            if (procesadorReproducciones == null) procesadorReproducciones = new ProcesadorReproducciones();
+            return procesadorReproducciones;
+        }
+    }
+
+    public boolean reproducir(Usuario usuario, Contenido contenido)
+            throws ContenidoNoDisponibleException, LimiteDiarioAlcanzadoException, AnuncioRequeridoException {
+        cerrojoMutaciones.readLock().lock();
+        try {
+            boolean publicado = usuario.reproducirDiferido(contenido, getProcesadorReproducciones());
+            if (publicado) {
+                recomendador.registrarReproduccion(usuario, contenido);
+                for (ObservadorPlataforma o : observadores) o.alReproducir(usuario, contenido);
+            }
+            return publicado;
+        } finally {
+            cerrojoMutaciones.readLock().unlock();
+        }
+    }
+
+    // El contador de canciones del usuario se reinicia al momento; la impresión se contabiliza en el lote
+    public boolean reproducirAnuncio(UsuarioGratuito usuario, Anuncio anuncio) {
+        usuario.verAnuncio();
+        if (anuncio == null) return false;
+        cerrojoMutaciones.readLock().lock();
+        try {
+            boolean publicado = getProcesadorReproducciones().publicar(EventoReproduccion.deAnuncio(usuario, anuncio));
+            if (publicado) for (ObservadorPlataforma o : observadores) o.alReproducirAnuncio(usuario, anuncio);
+            return publicado;
+        } finally {
+            cerrojoMutaciones.readLock().unlock();
+        }
+    }
+
+    // Like registrado a través de la plataforma (y, por tanto, visible para sus observadores)
+    public void darLike(Usuario usuario, Contenido contenido) {
+        cerrojoMutaciones.readLock().lock();
+        try {
+            usuario.darLike(contenido);
+            for (ObservadorPlataforma o : observadores) o.alDarLike(usuario, contenido);
+        } finally {
+            cerrojoMutaciones.readLock().unlock();
+        }
+    }
+
+    public void esperarReproducciones() throws InterruptedException {
+        ProcesadorReproducciones p = procesadorReproducciones;
+        if (p != null) p.esperarProcesamiento();
+    }
+
+    private void detenerProcesadorReproducciones() {
+        ProcesadorReproducciones p = procesadorReproducciones;
+        if (p == null) return;
+        try {
+            p.cerrar();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
@@ -6,17 +6,16 @@ import excepciones.playlist.PlaylistVaciaException;
 import modelo.contenido.Contenido;
 import modelo.usuarios.Usuario;
 import enums.CriterioOrden;
+import utilidades.GeneradorIds;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
-import java.util.Objects;
-import java.util.UUID;
 
 public class Playlist {
     private static final int MAX_CONTENIDOS_DEFAULT = 500;
 
-    private final String id;
+    private final long id;
     private String nombre;
     private final Usuario creador;
     private final ArrayList<Contenido> contenidos;
@@ -33,7 +32,13 @@ public class Playlist {
     }
 
     public Playlist(String nombre, Usuario creador, boolean esPublica, String descripcion) {
-        this.id = UUID.randomUUID().toString();
+        this(GeneradorIds.siguiente(), nombre, creador, esPublica, descripcion);
+    }
+
+    // Restauración: conserva el id persistido; los ids que se generen después serán mayores
+    public Playlist(long id, String nombre, Usuario creador, boolean esPublica, String descripcion) {
+        GeneradorIds.avanzarHasta(id);
+        this.id = id;
         this.nombre = nombre;
         this.creador = creador;
         this.contenidos = new ArrayList<>();
@@ -57,7 +62,8 @@ public class Playlist {
     }
 
     public boolean eliminarContenido(String idContenido) {
-        return contenidos.removeIf(c -> c.getId().equals(idContenido));
+        long id = GeneradorIds.desdeTexto(idContenido);
+        return id != GeneradorIds.INVALIDO && contenidos.removeIf(c -> c.getIdNumerico() == id);
     }
 
     public boolean eliminarContenido(Contenido contenido) {
@@ -127,7 +133,8 @@ public class Playlist {
     }
 
     // Getters/Setters
-    public String getId() { return id; }
+    public String getId() { return GeneradorIds.aTexto(id); }
+    public long getIdNumerico() { return id; }
     public String getNombre() { return nombre; }
     public void setNombre(String nombre) { this.nombre = nombre; }
     public Usuario getCreador() { return creador; }
@@ -152,11 +159,11 @@ public class Playlist {
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (!(obj instanceof Playlist other)) return false;
-        return Objects.equals(id, other.id);
+        return id == other.id;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return Long.hashCode(id);
     }
 }
@@ -0,0 +1,251 @@
+package modelo.plataforma;
+
+import modelo.artistas.Artista;
+import modelo.contenido.Cancion;
+import modelo.contenido.Contenido;
+import modelo.usuarios.Usuario;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Cola acotada de eventos de reproducción aplicados por lotes en hilos trabajadores.
+// Cada usuario se asigna siempre al mismo hilo, así su historial conserva el orden.
+public class ProcesadorReproducciones {
+    private static final int HILOS_DEFAULT = 2;
+    private static final int CAPACIDAD_DEFAULT = 10_000;
+    private static final int LOTE_DEFAULT = 256;
+
+    private final ArrayBlockingQueue<EventoReproduccion>[] colas;
+    private final Thread[] trabajadores;
+    private final int tamanoLote;
+    // Por cola: plazas reservadas antes de encolar y eventos ya aplicados (FIFO, así que basta comparar)
+    private final AtomicLong[] reservados;
+    private final long[] procesados;
+    private final AtomicLong anunciosProcesados;
+    private final AtomicLong errores;
+    private final Object monitor;
+    private volatile boolean cerrado;
+    // Publicar toma la lectura y cerrar la escritura: tras cerrar no queda ninguna publicación a medias
+    private final ReentrantReadWriteLock cierre;
+
+    public ProcesadorReproducciones() {
+        this(HILOS_DEFAULT, CAPACIDAD_DEFAULT, LOTE_DEFAULT);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ProcesadorReproducciones(int hilos, int capacidadPorHilo, int tamanoLote) {
+        if (hilos <= 0 || capacidadPorHilo <= 0 || tamanoLote <= 0) {
+            throw new IllegalArgumentException("Hilos, capacidad y tamaño de lote deben ser mayores a 0");
+        }
+        this.colas = (ArrayBlockingQueue<EventoReproduccion>[]) new ArrayBlockingQueue<?>[hilos];
+        this.trabajadores = new Thread[hilos];
+        this.tamanoLote = tamanoLote;
+        this.reservados = new AtomicLong[hilos];
+        this.procesados = new long[hilos];
+        this.anunciosProcesados = new AtomicLong();
+        this.errores = new AtomicLong();
+        this.monitor = new Object();
+        this.cerrado = false;
+        this.cierre = new ReentrantReadWriteLock();
+
+        for (int i = 0; i < hilos; i++) {
+            ArrayBlockingQueue<EventoReproduccion> cola = new ArrayBlockingQueue<>(capacidadPorHilo);
+            int indice = i;
+            colas[i] = cola;
+            reservados[i] = new AtomicLong();
+            trabajadores[i] = new Thread(() -> procesar(indice), "reproducciones-" + i);
+            trabajadores[i].setDaemon(true);
+            trabajadores[i].start();
+        }
+    }
+
+    // Bloquea mientras la cola del usuario está llena (contrapresión); false si se interrumpe o está cerrado
+    public boolean publicar(EventoReproduccion evento) {
+        cierre.readLock().lock();
+        try {
+            if (cerrado) return false;
+            int i = indiceDe(evento);
+            // La plaza se reserva antes de encolar: quien espera nunca cuenta menos de lo que ya hay en la cola
+            reservados[i].incrementAndGet();
+            try {
+                colas[i].put(evento);
+            } catch (InterruptedException e) {
+                liberar(i);
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            return true;
+        } finally {
+            cierre.readLock().unlock();
+        }
+    }
+
+    // Variante sin bloqueo indefinido: false si la cola sigue llena al vencer el plazo
+    public boolean intentarPublicar(EventoReproduccion evento, long timeoutMs) {
+        cierre.readLock().lock();
+        try {
+            if (cerrado) return false;
+            int i = indiceDe(evento);
+            reservados[i].incrementAndGet();
+            boolean encolado = false;
+            try {
+                encolado = colas[i].offer(evento, timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!encolado) liberar(i);
+            return encolado;
+        } finally {
+            cierre.readLock().unlock();
+        }
+    }
+
+    // Espera a que se hayan aplicado todos los eventos publicados antes de la llamada. Cada cola es FIFO
+    // y reserva antes de encolar, así que un evento ya encolado ocupa una posición <= reservados de su cola.
+    // Si una reserva se libera después, el objetivo baja con ella.
+    public void esperarProcesamiento() throws InterruptedException {
+        long[] objetivo = new long[colas.length];
+        for (int i = 0; i < colas.length; i++) objetivo[i] = reservados[i].get();
+        synchronized (monitor) {
+            for (int i = 0; i < colas.length; i++) {
+                while (procesados[i] < Math.min(objetivo[i], reservados[i].get())) monitor.wait();
+            }
+        }
+    }
+
+    // Las publicaciones en curso terminan antes de tomar la escritura; las posteriores ven 'cerrado'.
+    // Los trabajadores vacían sus colas por completo antes de salir.
+    public void cerrar() throws InterruptedException {
+        cerrado = true;
+        cierre.writeLock().lock();
+        cierre.writeLock().unlock();
+        esperarProcesamiento();
+        for (Thread t : trabajadores) t.interrupt();
+        for (Thread t : trabajadores) t.join();
+    }
+
+    public long getEventosPublicados() {
+        long total = 0;
+        for (AtomicLong r : reservados) total += r.get();
+        return total;
+    }
+
+    public long getEventosProcesados() {
+        synchronized (monitor) {
+            long total = 0;
+            for (long p : procesados) total += p;
+            return total;
+        }
+    }
+
+    public long getAnunciosProcesados() {
+        return anunciosProcesados.get();
+    }
+
+    public long getErrores() {
+        return errores.get();
+    }
+
+    public int getEventosPendientes() {
+        int total = 0;
+        for (ArrayBlockingQueue<EventoReproduccion> c : colas) total += c.size();
+        return total;
+    }
+
+    public boolean isCerrado() {
+        return cerrado;
+    }
+
+    private int indiceDe(EventoReproduccion evento) {
+        int hash = evento.getUsuario() != null ? evento.getUsuario().hashCode() : 0;
+        return Math.floorMod(hash, colas.length);
+    }
+
+    // Deshace una reserva que no llegó a la cola y despierta a quien pudiera estar esperándola
+    private void liberar(int indice) {
+        reservados[indice].decrementAndGet();
+        synchronized (monitor) {
+            monitor.notifyAll();
+        }
+    }
+
+    private void procesar(int indice) {
+        ArrayBlockingQueue<EventoReproduccion> cola = colas[indice];
+        ArrayList<EventoReproduccion> lote = new ArrayList<>(tamanoLote);
+        while (true) {
+            try {
+                lote.add(cola.take());
+            } catch (InterruptedException e) {
+                if (!cerrado) continue;
+                // Cerrado: ya no entra nada más, se aplica lo que quede y se sale
+                while (cola.drainTo(lote, tamanoLote) > 0) procesarLote(indice, lote);
+                return;
+            }
+            cola.drainTo(lote, tamanoLote - 1);
+            procesarLote(indice, lote);
+        }
+    }
+
+    // El lote cuenta como procesado aunque falle: si no, quien espera no despertaría nunca
+    private void procesarLote(int indice, ArrayList<EventoReproduccion> lote) {
+        try {
+            aplicarLote(lote);
+        } catch (RuntimeException e) {
+            errores.incrementAndGet();
+        } finally {
+            synchronized (monitor) {
+                procesados[indice] += lote.size();
+                monitor.notifyAll();
+            }
+            lote.clear();
+        }
+    }
+
+    // Agrupa los contadores del lote para tocar cada contenido y artista una sola vez
+    private void aplicarLote(ArrayList<EventoReproduccion> lote) {
+        HashMap<Contenido, Integer> reproducciones = new HashMap<>();
+        HashMap<Artista, Integer> oyentes = new HashMap<>();
+
+        for (EventoReproduccion evento : lote) {
+            try {
+                if (evento.esAnuncio()) {
+                    Anuncio anuncio = evento.getAnuncio();
+                    synchronized (anuncio) {
+                        if (anuncio.puedeMostrarse()) anuncio.registrarImpresion();
+                    }
+                    anunciosProcesados.incrementAndGet();
+                    continue;
+                }
+                Contenido contenido = evento.getContenido();
+                reproducciones.merge(contenido, 1, Integer::sum);
+                if (contenido instanceof Cancion && ((Cancion) contenido).getArtista() != null) {
+                    oyentes.merge(((Cancion) contenido).getArtista(), 1, Integer::sum);
+                }
+                if (evento.getUsuario() != null) evento.getUsuario().agregarAlHistorial(contenido);
+            } catch (RuntimeException e) {
+                errores.incrementAndGet();
+            }
+        }
+
+        // Los observadores de cada contenido o artista pueden fallar: no deben arrastrar al resto del lote
+        for (Map.Entry<Contenido, Integer> e : reproducciones.entrySet()) {
+            try {
+                e.getKey().aumentarReproducciones(e.getValue());
+            } catch (RuntimeException ex) {
+                errores.incrementAndGet();
+            }
+        }
+        for (Map.Entry<Artista, Integer> e : oyentes.entrySet()) {
+            try {
+                e.getKey().incrementarOyentes(e.getValue());
+            } catch (RuntimeException ex) {
+                errores.incrementAndGet();
+            }
+        }
+    }
+}
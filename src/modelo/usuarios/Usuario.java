@@ -7,20 +7,23 @@ import excepciones.usuario.EmailInvalidoException;
 import excepciones.usuario.LimiteDiarioAlcanzadoException;
 import excepciones.usuario.PasswordDebilException;
 import modelo.contenido.Contenido;
+import utilidades.GeneradorIds;
+import utilidades.HistorialCircular;
 
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.UUID;
 import java.util.regex.Pattern;
 
 public abstract class Usuario {
-    protected String id;
+    protected long id;
     protected String nombre;
     protected String email;
     protected String password;
     protected TipoSuscripcion suscripcion;
     protected ArrayList<modelo.plataforma.Playlist> misPlaylists;
-    protected ArrayList<Contenido> historial;
+    protected final HistorialCircular historial;
+    // Cambia con cada alta o limpieza del historial (invalida las recomendaciones cacheadas)
+    private volatile long versionHistorial;
     protected Date fechaRegistro;
     protected ArrayList<modelo.plataforma.Playlist> playlistsSeguidas;
     protected ArrayList<Contenido> contenidosLiked;
@@ -30,13 +33,20 @@ public abstract class Usuario {
 
     public Usuario(String nombre, String email, String password, TipoSuscripcion suscripcion)
             throws EmailInvalidoException, PasswordDebilException {
-        this.id = UUID.randomUUID().toString();
+        this(GeneradorIds.siguiente(), nombre, email, password, suscripcion);
+    }
+
+    // Restauración: conserva el id persistido; los ids que se generen después serán mayores
+    protected Usuario(long id, String nombre, String email, String password, TipoSuscripcion suscripcion)
+            throws EmailInvalidoException, PasswordDebilException {
+        GeneradorIds.avanzarHasta(id);
+        this.id = id;
         this.nombre = nombre;
         this.email = email;
         this.password = password;
         this.suscripcion = suscripcion;
         this.misPlaylists = new ArrayList<>();
-        this.historial = new ArrayList<>();
+        this.historial = new HistorialCircular(HISTORIAL_MAX);
         this.fechaRegistro = new Date();
         this.playlistsSeguidas = new ArrayList<>();
         this.contenidosLiked = new ArrayList<>();
@@ -50,23 +60,41 @@ public abstract class Usuario {
     public abstract void reproducir(Contenido contenido)
             throws ContenidoNoDisponibleException, LimiteDiarioAlcanzadoException, AnuncioRequeridoException;
 
+    // Comprobaciones y contadores propios del usuario previos a reproducir
+    protected abstract void prepararReproduccion(Contenido contenido)
+            throws ContenidoNoDisponibleException, LimiteDiarioAlcanzadoException, AnuncioRequeridoException;
+
+    // Valida en el hilo llamante y delega contadores e historial al procesador de reproducciones
+    public boolean reproducirDiferido(Contenido contenido, modelo.plataforma.ProcesadorReproducciones procesador)
+            throws ContenidoNoDisponibleException, LimiteDiarioAlcanzadoException, AnuncioRequeridoException {
+        prepararReproduccion(contenido);
+        return procesador.publicar(modelo.plataforma.EventoReproduccion.deContenido(this, contenido));
+    }
+
     public modelo.plataforma.Playlist crearPlaylist(String nombrePlaylist) {
         modelo.plataforma.Playlist playlist = new modelo.plataforma.Playlist(nombrePlaylist, this, false, "");
-        misPlaylists.add(playlist);
+        agregarPlaylist(playlist);
         return playlist;
     }
 
-    public void seguirPlaylist(modelo.plataforma.Playlist playlist) {
-        if (!playlistsSeguidas.contains(playlist)) {
-            playlistsSeguidas.add(playlist);
-            playlist.incrementarSeguidores();
-        }
+    // Alta de una playlist propia ya construida (Plataforma.crearPlaylist y restauración)
+    public void agregarPlaylist(modelo.plataforma.Playlist playlist) {
+        if (!misPlaylists.contains(playlist)) misPlaylists.add(playlist);
     }
 
-    public void dejarDeSeguirPlaylist(modelo.plataforma.Playlist playlist) {
-        if (playlistsSeguidas.remove(playlist)) {
-            playlist.decrementarSeguidores();
-        }
+    // false si ya la seguía
+    public boolean seguirPlaylist(modelo.plataforma.Playlist playlist) {
+        if (playlistsSeguidas.contains(playlist)) return false;
+        playlistsSeguidas.add(playlist);
+        playlist.incrementarSeguidores();
+        return true;
+    }
+
+    // false si no la seguía
+    public boolean dejarDeSeguirPlaylist(modelo.plataforma.Playlist playlist) {
+        if (!playlistsSeguidas.remove(playlist)) return false;
+        playlist.decrementarSeguidores();
+        return true;
     }
 
     public void darLike(Contenido contenido) {
@@ -97,15 +125,26 @@ public abstract class Usuario {
 
 
 
-    public void agregarAlHistorial(Contenido contenido) {
-        if (historial.size() >= HISTORIAL_MAX) {
-            historial.remove(0); // remove oldest
-        }
-        historial.add(contenido);
+    public synchronized void agregarAlHistorial(Contenido contenido) {
+        historial.agregar(contenido); // al llenarse descarta el más antiguo en O(1)
+        versionHistorial++;
+    }
+
+    public synchronized void limpiarHistorial() {
+        historial.limpiar();
+        versionHistorial++;
+    }
+
+    public long getVersionHistorial() {
+        return versionHistorial;
     }
 
-    public void limpiarHistorial() {
-        historial.clear();
+    public synchronized boolean haEscuchado(Contenido contenido) {
+        return historial.contiene(contenido);
+    }
+
+    public synchronized int getTamanoHistorial() {
+        return historial.tamano();
     }
 
     public boolean esPremium() {
@@ -114,6 +153,10 @@ public abstract class Usuario {
 
     // Getters y Setters
     public String getId() {
+        return GeneradorIds.aTexto(id);
+    }
+
+    public long getIdNumerico() {
         return id;
     }
 
@@ -160,8 +203,13 @@ public abstract class Usuario {
         return new ArrayList<>(misPlaylists);
     }
 
-    public ArrayList<Contenido> getHistorial() {
-        return new ArrayList<>(historial);
+    public synchronized ArrayList<Contenido> getHistorial() {
+        return historial.aLista();
+    }
+
+    // Ids del historial, del más antiguo al más reciente, sin pasar por los contenidos
+    public synchronized long[] getHistorialIds() {
+        return historial.aIds();
     }
 
     public Date getFechaRegistro() {
@@ -178,7 +226,7 @@ public abstract class Usuario {
 
     @Override
     public String toString() {
-        return "Usuario{" + "id='" + id + '\'' + ", nombre='" + nombre + '\'' +
+        return "Usuario{" + "id='" + getId() + '\'' + ", nombre='" + nombre + '\'' +
                 ", email='" + email + '\'' + ", suscripcion=" + suscripcion + '}';
     }
 
@@ -187,11 +235,11 @@ public abstract class Usuario {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         Usuario usuario = (Usuario) obj;
-        return id.equals(usuario.id);
+        return id == usuario.id;
     }
 
     @Override
     public int hashCode() {
-        return id.hashCode();
+        return Long.hashCode(id);
     }
 }
@@ -7,6 +7,7 @@ import excepciones.usuario.EmailInvalidoException;
 import excepciones.usuario.LimiteDiarioAlcanzadoException;
 import excepciones.usuario.PasswordDebilException;
 import modelo.contenido.Contenido;
+import utilidades.GeneradorIds;
 
 import java.util.Calendar;
 import java.util.Date;
@@ -24,7 +25,13 @@ public class UsuarioGratuito extends Usuario {
 
     public UsuarioGratuito(String nombre, String email, String password)
             throws EmailInvalidoException, PasswordDebilException {
-        super(nombre, email, password, TipoSuscripcion.GRATUITO);
+        this(GeneradorIds.siguiente(), nombre, email, password);
+    }
+
+    // Restauración: conserva el id persistido; los ids que se generen después serán mayores
+    public UsuarioGratuito(long id, String nombre, String email, String password)
+            throws EmailInvalidoException, PasswordDebilException {
+        super(id, nombre, email, password, TipoSuscripcion.GRATUITO);
         this.anunciosEscuchados = 0;
         this.ultimoAnuncio = null;
         this.reproduccionesHoy = 0;
@@ -36,6 +43,21 @@ public class UsuarioGratuito extends Usuario {
     @Override
     public void reproducir(Contenido contenido)
             throws ContenidoNoDisponibleException, LimiteDiarioAlcanzadoException, AnuncioRequeridoException {
+        validarReproduccion(contenido);
+        contenido.reproducir();
+        registrarReproduccionHoy();
+        agregarAlHistorial(contenido);
+    }
+
+    @Override
+    protected void prepararReproduccion(Contenido contenido)
+            throws ContenidoNoDisponibleException, LimiteDiarioAlcanzadoException, AnuncioRequeridoException {
+        validarReproduccion(contenido);
+        registrarReproduccionHoy();
+    }
+
+    private void validarReproduccion(Contenido contenido)
+            throws ContenidoNoDisponibleException, LimiteDiarioAlcanzadoException, AnuncioRequeridoException {
         if (!contenido.isDisponible()) {
             throw new ContenidoNoDisponibleException("El contenido no está disponible");
         }
@@ -47,12 +69,12 @@ public class UsuarioGratuito extends Usuario {
         if (debeVerAnuncio()) {
             throw new AnuncioRequeridoException("Se requiere ver un anuncio antes de continuar");
         }
+    }
 
-        contenido.reproducir();
+    private void registrarReproduccionHoy() {
         reproduccionesHoy++;
         cancionesSinAnuncio++;
         fechaUltimaReproduccion = new Date();
-        agregarAlHistorial(contenido);
     }
 
     public void verAnuncio() {
@@ -9,6 +9,7 @@ import excepciones.usuario.EmailInvalidoException;
 import excepciones.usuario.LimiteDiarioAlcanzadoException;
 import excepciones.usuario.PasswordDebilException;
 import modelo.contenido.Contenido;
+import utilidades.GeneradorIds;
 
 import java.util.ArrayList;
 
@@ -30,7 +31,13 @@ public class UsuarioPremium extends Usuario {
 
     public UsuarioPremium(String nombre, String email, String password, TipoSuscripcion suscripcion)
             throws EmailInvalidoException, PasswordDebilException {
-        super(nombre, email, password, suscripcion);
+        this(GeneradorIds.siguiente(), nombre, email, password, suscripcion);
+    }
+
+    // Restauración: conserva el id persistido; los ids que se generen después serán mayores
+    public UsuarioPremium(long id, String nombre, String email, String password, TipoSuscripcion suscripcion)
+            throws EmailInvalidoException, PasswordDebilException {
+        super(id, nombre, email, password, suscripcion);
         this.descargasOffline = suscripcion.isDescargasOffline();
         this.maxDescargas = MAX_DESCARGAS_DEFAULT;
         this.descargados = new ArrayList<>();
@@ -40,11 +47,16 @@ public class UsuarioPremium extends Usuario {
     @Override
     public void reproducir(Contenido contenido)
             throws ContenidoNoDisponibleException, LimiteDiarioAlcanzadoException, AnuncioRequeridoException {
+        prepararReproduccion(contenido);
+        contenido.reproducir();
+        agregarAlHistorial(contenido);
+    }
+
+    @Override
+    protected void prepararReproduccion(Contenido contenido) throws ContenidoNoDisponibleException {
         if (!contenido.isDisponible()) {
             throw new ContenidoNoDisponibleException("El contenido no está disponible");
         }
-        contenido.reproducir();
-        agregarAlHistorial(contenido);
     }
 
     public void descargar(Contenido contenido)
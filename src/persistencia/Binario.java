@@ -0,0 +1,68 @@
+package persistencia;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+// Campos comunes del formato binario: textos como [int longitud][UTF-8] (-1 para null)
+// y fechas como milisegundos (Long.MIN_VALUE para null).
+final class Binario {
+    private static final int MAX_TEXTO = 16 << 20;
+
+    private Binario() {
+    }
+
+    static void escribirTexto(DataOutput out, String texto) throws IOException {
+        if (texto == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String leerTexto(DataInput in) throws IOException {
+        int n = in.readInt();
+        if (n < 0) return null;
+        if (n > MAX_TEXTO) throw new IOException("Texto de " + n + " bytes: datos corruptos");
+        byte[] bytes = new byte[n];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void escribirFecha(DataOutput out, Date fecha) throws IOException {
+        out.writeLong(fecha != null ? fecha.getTime() : Long.MIN_VALUE);
+    }
+
+    static Date leerFecha(DataInput in) throws IOException {
+        long ms = in.readLong();
+        return ms == Long.MIN_VALUE ? null : new Date(ms);
+    }
+
+    // Enumerados como ordinal en un byte (-1 para null)
+    static void escribirOrdinal(DataOutput out, Enum<?> valor) throws IOException {
+        out.writeByte(valor != null ? valor.ordinal() : -1);
+    }
+
+    static <E extends Enum<E>> E leerOrdinal(DataInput in, E[] valores) throws IOException {
+        int ordinal = in.readByte();
+        if (ordinal < 0) return null;
+        if (ordinal >= valores.length) throw new IOException("Ordinal fuera de rango: " + ordinal);
+        return valores[ordinal];
+    }
+
+    // Búfer reutilizable que deja ver su array interno sin copiarlo
+    static final class Salida extends ByteArrayOutputStream {
+        Salida(int capacidad) {
+            super(capacidad);
+        }
+
+        byte[] datos() {
+            return buf;
+        }
+    }
+}
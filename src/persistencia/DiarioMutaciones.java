@@ -0,0 +1,340 @@
+package persistencia;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Diario de escritura anticipada con confirmación en grupo: anotar solo copia el registro a un búfer
+// en memoria y un único hilo escritor vuelca lo acumulado con un force() por lote, de modo que
+// quien reproduce nunca espera a un fsync. Segmentos wal-<primer lsn>.log con registros
+// [int longitud][int crc32][datos], datos = [byte tipo][campos]. El lsn es la posición del registro.
+final class DiarioMutaciones implements Closeable {
+    static final String PREFIJO = "wal-";
+    static final String EXTENSION = ".log";
+    private static final int CABECERA = 8;
+    private static final int MAX_REGISTRO = 16 << 20;
+
+    interface Consumidor {
+        void aceptar(byte tipo, DataInput datos) throws IOException;
+    }
+
+    private final Path directorio;
+    private final long intervaloNanos;
+    private final int tamanoLote;
+    private final int maxPendiente;
+    private final CRC32 crc;
+    private final Thread escritor;
+    // Protege el canal: el escritor lo usa fuera del monitor principal y rotar() lo sustituye
+    private final Object escritura;
+    private FileChannel canal;
+    private long lsnEscrito;
+
+    // Monitor principal (this)
+    private ByteBuffer pendiente;
+    private ByteBuffer repuesto;
+    private long siguienteLsn;
+    private long lsnDurable;
+    private long lotes;
+    private boolean urgente;
+    private boolean cerrado;
+    private IOException fallo;
+
+    DiarioMutaciones(Path directorio, long siguienteLsn, long intervaloMs, int tamanoLote) throws IOException {
+        if (intervaloMs < 0 || tamanoLote <= 0) {
+            throw new IllegalArgumentException("El intervalo no puede ser negativo y el lote debe ser mayor a 0");
+        }
+        this.directorio = directorio;
+        this.intervaloNanos = intervaloMs * 1_000_000L;
+        this.tamanoLote = tamanoLote;
+        this.maxPendiente = Math.max(4 * tamanoLote, 1 << 20);
+        this.crc = new CRC32();
+        this.escritura = new Object();
+        this.pendiente = ByteBuffer.allocate(2 * tamanoLote);
+        this.repuesto = ByteBuffer.allocate(2 * tamanoLote);
+        this.siguienteLsn = siguienteLsn;
+        this.lsnDurable = siguienteLsn;
+        this.lsnEscrito = siguienteLsn;
+        this.canal = abrirSegmento(siguienteLsn);
+        this.escritor = new Thread(this::escribir, "diario-mutaciones");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    // Devuelve el lsn asignado; el registro será duradero cuando getLsnDurable() lo supere
+    synchronized long anotar(byte[] datos, int longitud) {
+        if (longitud <= 0 || longitud > MAX_REGISTRO) throw new IllegalArgumentException("Registro de " + longitud + " bytes");
+        reservar(CABECERA + longitud);
+        boolean primero = pendiente.position() == 0;
+        pendiente.putInt(longitud);
+        crc.reset();
+        crc.update(datos, 0, longitud);
+        pendiente.putInt((int) crc.getValue());
+        pendiente.put(datos, 0, longitud);
+        return confirmar(primero);
+    }
+
+    // Registro [tipo][long][long] escrito directamente en el búfer: el camino de reproducciones no asigna nada
+    synchronized long anotar(byte tipo, long a, long b) {
+        int longitud = 1 + 2 * Long.BYTES;
+        reservar(CABECERA + longitud);
+        int inicio = pendiente.position();
+        boolean primero = inicio == 0;
+        pendiente.putInt(longitud).putInt(0).put(tipo).putLong(a).putLong(b);
+        crc.reset();
+        crc.update(pendiente.array(), inicio + CABECERA, longitud);
+        pendiente.putInt(inicio + Integer.BYTES, (int) crc.getValue());
+        return confirmar(primero);
+    }
+
+    // Espera a que todo lo anotado hasta ahora esté en disco
+    void sincronizar() throws IOException {
+        boolean interrumpido = false;
+        synchronized (this) {
+            long objetivo = siguienteLsn;
+            while (lsnDurable < objetivo && fallo == null) {
+                urgente = true;
+                notifyAll();
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrumpido = true;
+                }
+            }
+            if (interrumpido) Thread.currentThread().interrupt();
+            if (fallo != null) throw new IOException("No se pudo escribir el diario", fallo);
+        }
+    }
+
+    // Cierra el segmento actual y abre otro que empieza en el siguiente lsn. Devuelve ese lsn:
+    // los segmentos anteriores solo contienen registros ya cubiertos por una instantánea posterior.
+    long rotar() throws IOException {
+        sincronizar();
+        synchronized (escritura) {
+            FileChannel nuevo = abrirSegmento(lsnEscrito);
+            canal.close();
+            canal = nuevo;
+            return lsnEscrito;
+        }
+    }
+
+    void eliminarSegmentosAnteriores(long lsn) throws IOException {
+        for (Path p : segmentos(directorio)) {
+            if (inicioDe(p) < lsn) Files.deleteIfExists(p);
+        }
+    }
+
+    synchronized long getSiguienteLsn() {
+        return siguienteLsn;
+    }
+
+    synchronized long getLsnDurable() {
+        return lsnDurable;
+    }
+
+    synchronized long getLotesEscritos() {
+        return lotes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (cerrado) return;
+            cerrado = true;
+            notifyAll();
+        }
+        boolean interrumpido = false;
+        while (escritor.isAlive()) {
+            try {
+                escritor.join();
+            } catch (InterruptedException e) {
+                interrumpido = true;
+            }
+        }
+        if (interrumpido) Thread.currentThread().interrupt();
+        synchronized (escritura) {
+            canal.close();
+        }
+        synchronized (this) {
+            if (fallo != null) throw new IOException("No se pudo escribir el diario", fallo);
+        }
+    }
+
+    // ====================== Hilo escritor ======================
+    private void escribir() {
+        while (true) {
+            ByteBuffer lote;
+            long hasta;
+            synchronized (this) {
+                while (pendiente.position() == 0 && !cerrado) esperar(0);
+                if (pendiente.position() == 0) return;
+                // Ventana de agrupación: se espera a llenar el lote salvo que alguien necesite durabilidad ya
+                long limite = System.nanoTime() + intervaloNanos;
+                long resta;
+                while (!urgente && !cerrado && pendiente.position() < tamanoLote
+                        && (resta = limite - System.nanoTime()) > 0) {
+                    esperar(resta);
+                }
+                urgente = false;
+                lote = pendiente;
+                pendiente = repuesto;
+                repuesto = null;
+                hasta = siguienteLsn;
+                notifyAll(); // libera a quien esperaba espacio
+            }
+
+            IOException error = null;
+            lote.flip();
+            synchronized (escritura) {
+                try {
+                    while (lote.hasRemaining()) canal.write(lote);
+                    canal.force(false);
+                    lsnEscrito = hasta;
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+            lote.clear();
+
+            synchronized (this) {
+                repuesto = lote;
+                if (error != null) {
+                    fallo = error;
+                    notifyAll();
+                    return;
+                }
+                lsnDurable = hasta;
+                lotes++;
+                notifyAll();
+            }
+        }
+    }
+
+    // Con el monitor tomado. Si el búfer está demasiado lleno, el que anota espera al escritor (contrapresión)
+    private void reservar(int bytes) {
+        boolean interrumpido = false;
+        while (pendiente.position() > 0 && pendiente.position() + bytes > maxPendiente && fallo == null && !cerrado) {
+            urgente = true;
+            notifyAll();
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrumpido = true;
+            }
+        }
+        if (interrumpido) Thread.currentThread().interrupt();
+        if (fallo != null) throw new IllegalStateException("El diario dejó de escribirse", fallo);
+        if (cerrado) throw new IllegalStateException("El diario está cerrado");
+        if (pendiente.remaining() < bytes) {
+            ByteBuffer mayor = ByteBuffer.allocate(Math.max(2 * pendiente.capacity(), pendiente.position() + bytes));
+            pendiente.flip();
+            mayor.put(pendiente);
+            pendiente = mayor;
+        }
+    }
+
+    private long confirmar(boolean primero) {
+        // El escritor duerme mientras no hay nada; hay que despertarlo con el primer registro y al llenar el lote
+        if (primero || pendiente.position() >= tamanoLote) notifyAll();
+        return siguienteLsn++;
+    }
+
+    private void esperar(long nanos) {
+        try {
+            if (nanos <= 0) wait();
+            else wait(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            // el escritor solo termina al cerrar el diario
+        }
+    }
+
+    private FileChannel abrirSegmento(long lsn) throws IOException {
+        return FileChannel.open(directorio.resolve(nombre(lsn)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    // ====================== Recuperación ======================
+    // Entrega al consumidor los registros con lsn >= desde y devuelve el siguiente lsn libre.
+    // Un registro incompleto o con CRC erróneo marca el final (escritura cortada por una caída):
+    // el segmento se trunca ahí para que el diario vuelva a ser un prefijo limpio.
+    static long recorrer(Path directorio, long desde, Consumidor consumidor) throws IOException {
+        long lsn = -1;
+        for (Path segmento : segmentos(directorio)) {
+            long inicio = inicioDe(segmento);
+            if (lsn < 0) {
+                if (inicio > desde) throw new IOException("Faltan registros del diario entre " + desde + " y " + inicio);
+                lsn = inicio;
+            } else if (inicio != lsn) {
+                throw new IOException("Segmento " + segmento.getFileName() + " no continúa en el lsn " + lsn);
+            }
+            lsn = recorrerSegmento(segmento, lsn, desde, consumidor);
+        }
+        return Math.max(lsn, desde);
+    }
+
+    private static long recorrerSegmento(Path segmento, long lsn, long desde, Consumidor consumidor) throws IOException {
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long tamano = canal.size();
+            long posicion = 0;
+            ByteBuffer cabecera = ByteBuffer.allocate(CABECERA);
+            CRC32 crc = new CRC32();
+            while (posicion < tamano) {
+                cabecera.clear();
+                if (!leerCompleto(canal, cabecera, posicion)) break;
+                int longitud = cabecera.getInt(0);
+                if (longitud <= 0 || longitud > MAX_REGISTRO || posicion + CABECERA + longitud > tamano) break;
+                byte[] datos = new byte[longitud];
+                if (!leerCompleto(canal, ByteBuffer.wrap(datos), posicion + CABECERA)) break;
+                crc.reset();
+                crc.update(datos, 0, longitud);
+                if ((int) crc.getValue() != cabecera.getInt(Integer.BYTES)) break;
+                if (lsn >= desde) {
+                    DataInputStream in = new DataInputStream(new ByteArrayInputStream(datos, 1, longitud - 1));
+                    consumidor.aceptar(datos[0], in);
+                }
+                posicion += CABECERA + longitud;
+                lsn++;
+            }
+            if (posicion < tamano) canal.truncate(posicion);
+        }
+        return lsn;
+    }
+
+    private static boolean leerCompleto(FileChannel canal, ByteBuffer destino, long posicion) throws IOException {
+        while (destino.hasRemaining()) {
+            int n = canal.read(destino, posicion + destino.position());
+            if (n < 0) return false;
+        }
+        return true;
+    }
+
+    // Ordenados por su primer lsn
+    static List<Path> segmentos(Path directorio) throws IOException {
+        ArrayList<Path> res = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(directorio, PREFIJO + "*" + EXTENSION)) {
+            for (Path p : ds) res.add(p);
+        }
+        res.sort(Comparator.comparingLong(DiarioMutaciones::inicioDe));
+        return res;
+    }
+
+    static long inicioDe(Path segmento) {
+        String n = segmento.getFileName().toString();
+        return Long.parseUnsignedLong(n.substring(PREFIJO.length(), n.length() - EXTENSION.length()), 16);
+    }
+
+    private static String nombre(long lsn) {
+        return PREFIJO + String.format("%016x", lsn) + EXTENSION;
+    }
+}
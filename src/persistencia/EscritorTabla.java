@@ -0,0 +1,373 @@
+package persistencia;
+
+import enums.FormatoExportacion;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+// Escritura fila a fila de una tabla con columnas tipadas (texto, entero, booleano) hacia un canal,
+// en CSV, JSON por líneas o binario columnar. Todo pasa por un búfer directo de tamaño fijo,
+// así que la memoria no depende del número de filas. Con compresión, el canal es un gzip sobre el archivo.
+abstract class EscritorTabla implements Closeable {
+    static final byte TEXTO = 0;
+    static final byte ENTERO = 1;
+    static final byte BOOLEANO = 2;
+
+    private static final int BUFER = 1 << 16;
+
+    protected final String[] nombres;
+    protected final byte[] tipos;
+    private final FileChannel archivo;
+    private final WritableByteChannel canal;
+    protected final ByteBuffer salida;
+    protected int columna;
+    private long filas;
+
+    protected EscritorTabla(Path destino, boolean comprimir, String[] nombres, byte[] tipos) throws IOException {
+        this.nombres = nombres;
+        this.tipos = tipos;
+        this.archivo = FileChannel.open(destino, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.canal = comprimir
+                ? Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(archivo), BUFER))
+                : archivo;
+        this.salida = ByteBuffer.allocateDirect(BUFER);
+    }
+
+    static EscritorTabla abrir(Path destino, FormatoExportacion formato, boolean comprimir,
+                               String[] nombres, byte[] tipos) throws IOException {
+        switch (formato) {
+            case CSV: return new Csv(destino, comprimir, nombres, tipos);
+            case JSONL: return new Jsonl(destino, comprimir, nombres, tipos);
+            default: return new Columnar(destino, comprimir, nombres, tipos);
+        }
+    }
+
+    void texto(String valor) throws IOException {
+        comprobar(TEXTO);
+        escribirTexto(valor);
+        columna++;
+    }
+
+    void entero(long valor) throws IOException {
+        comprobar(ENTERO);
+        escribirEntero(valor);
+        columna++;
+    }
+
+    void booleano(boolean valor) throws IOException {
+        comprobar(BOOLEANO);
+        escribirBooleano(valor);
+        columna++;
+    }
+
+    void finFila() throws IOException {
+        if (columna != nombres.length) {
+            throw new IllegalStateException("Fila con " + columna + " de " + nombres.length + " columnas");
+        }
+        terminarFila();
+        columna = 0;
+        filas++;
+    }
+
+    long getFilas() {
+        return filas;
+    }
+
+    protected abstract void escribirTexto(String valor) throws IOException;
+
+    protected abstract void escribirEntero(long valor) throws IOException;
+
+    protected abstract void escribirBooleano(boolean valor) throws IOException;
+
+    protected abstract void terminarFila() throws IOException;
+
+    // Lo que quede pendiente del formato antes de vaciar el búfer (p. ej. el último grupo de filas)
+    protected void terminar() throws IOException {
+    }
+
+    private void comprobar(byte tipo) {
+        if (columna >= nombres.length) throw new IllegalStateException("Fila con más columnas que la cabecera");
+        if (tipos[columna] != tipo) throw new IllegalStateException("La columna '" + nombres[columna] + "' no es de ese tipo");
+    }
+
+    protected final void reservar(int bytes) throws IOException {
+        if (salida.remaining() < bytes) vaciar();
+    }
+
+    protected final void vaciar() throws IOException {
+        salida.flip();
+        while (salida.hasRemaining()) canal.write(salida);
+        salida.clear();
+    }
+
+    // Copia un búfer de cualquier tamaño a la salida, vaciando por el camino
+    protected final void escribirBytes(ByteBuffer datos) throws IOException {
+        while (datos.hasRemaining()) {
+            if (!salida.hasRemaining()) vaciar();
+            int n = Math.min(salida.remaining(), datos.remaining());
+            ByteBuffer trozo = datos.duplicate();
+            trozo.limit(trozo.position() + n);
+            salida.put(trozo);
+            datos.position(datos.position() + n);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            terminar();
+            vaciar();
+        } finally {
+            // Cerrar el gzip escribe su cola y cierra también el archivo
+            canal.close();
+            archivo.close();
+        }
+    }
+
+    // ====================== Formatos de texto ======================
+    private abstract static class Textual extends EscritorTabla {
+        private final CharsetEncoder codificador = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        Textual(Path destino, boolean comprimir, String[] nombres, byte[] tipos) throws IOException {
+            super(destino, comprimir, nombres, tipos);
+        }
+
+        // Codifica directamente en el búfer de salida, vaciándolo cuando se llena
+        protected final void utf8(CharSequence texto) throws IOException {
+            CharBuffer entrada = CharBuffer.wrap(texto);
+            codificador.reset();
+            while (true) {
+                CoderResult r = codificador.encode(entrada, salida, true);
+                if (r.isOverflow()) {
+                    vaciar();
+                } else if (r.isUnderflow()) {
+                    return;
+                } else {
+                    throw new IOException("Texto no representable en UTF-8");
+                }
+            }
+        }
+
+        protected final void caracter(char c) throws IOException {
+            reservar(1);
+            salida.put((byte) c);
+        }
+    }
+
+    private static final class Csv extends Textual {
+        Csv(Path destino, boolean comprimir, String[] nombres, byte[] tipos) throws IOException {
+            super(destino, comprimir, nombres, tipos);
+            for (int i = 0; i < nombres.length; i++) {
+                if (i > 0) caracter(',');
+                utf8(nombres[i]);
+            }
+            caracter('\n');
+        }
+
+        private void separador() throws IOException {
+            if (columna > 0) caracter(',');
+        }
+
+        @Override
+        protected void escribirTexto(String valor) throws IOException {
+            separador();
+            if (valor == null) return;
+            boolean comillas = false;
+            for (int i = 0; i < valor.length() && !comillas; i++) {
+                char c = valor.charAt(i);
+                comillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!comillas) {
+                utf8(valor);
+                return;
+            }
+            caracter('"');
+            utf8(valor.replace("\"", "\"\""));
+            caracter('"');
+        }
+
+        @Override
+        protected void escribirEntero(long valor) throws IOException {
+            separador();
+            utf8(Long.toString(valor));
+        }
+
+        @Override
+        protected void escribirBooleano(boolean valor) throws IOException {
+            separador();
+            utf8(valor ? "true" : "false");
+        }
+
+        @Override
+        protected void terminarFila() throws IOException {
+            caracter('\n');
+        }
+    }
+
+    private static final class Jsonl extends Textual {
+        // "nombre": de cada columna ya codificado, se repite en todas las filas
+        private final byte[][] claves;
+
+        Jsonl(Path destino, boolean comprimir, String[] nombres, byte[] tipos) throws IOException {
+            super(destino, comprimir, nombres, tipos);
+            this.claves = new byte[nombres.length][];
+            for (int i = 0; i < nombres.length; i++) {
+                String escapado = nombres[i].replace("\\", "\\\\").replace("\"", "\\\"");
+                claves[i] = ("\"" + escapado + "\":").getBytes(StandardCharsets.UTF_8);
+            }
+        }
+
+        private void clave() throws IOException {
+            caracter(columna == 0 ? '{' : ',');
+            reservar(claves[columna].length);
+            salida.put(claves[columna]);
+        }
+
+        private void cadena(String valor) throws IOException {
+            caracter('"');
+            int desde = 0;
+            for (int i = 0; i < valor.length(); i++) {
+                char c = valor.charAt(i);
+                if (c >= 0x20 && c != '"' && c != '\\') continue;
+                utf8(valor.subSequence(desde, i));
+                desde = i + 1;
+                switch (c) {
+                    case '"': utf8("\\\""); break;
+                    case '\\': utf8("\\\\"); break;
+                    case '\n': utf8("\\n"); break;
+                    case '\r': utf8("\\r"); break;
+                    case '\t': utf8("\\t"); break;
+                    default: utf8(String.format("\\u%04x", (int) c));
+                }
+            }
+            utf8(valor.subSequence(desde, valor.length()));
+            caracter('"');
+        }
+
+        @Override
+        protected void escribirTexto(String valor) throws IOException {
+            clave();
+            if (valor == null) utf8("null");
+            else cadena(valor);
+        }
+
+        @Override
+        protected void escribirEntero(long valor) throws IOException {
+            clave();
+            utf8(Long.toString(valor));
+        }
+
+        @Override
+        protected void escribirBooleano(boolean valor) throws IOException {
+            clave();
+            utf8(valor ? "true" : "false");
+        }
+
+        @Override
+        protected void terminarFila() throws IOException {
+            if (nombres.length == 0) caracter('{');
+            caracter('}');
+            caracter('\n');
+        }
+    }
+
+    // ====================== Binario columnar ======================
+    // [magia][versión][int columnas]{[texto nombre][byte tipo]}, luego grupos de filas
+    // [int filas]{[int bytes][valores de la columna]} y un 0 final. Enteros en 8 bytes, booleanos en 1,
+    // textos como [int longitud][UTF-8] (-1 para null). Cada grupo se acumula en memoria y se vuelca entero.
+    static final int MAGIA_COLUMNAR = 0x53575831; // "SWX1"
+    static final short VERSION_COLUMNAR = 1;
+    static final int FILAS_POR_GRUPO = 1 << 14;
+
+    private static final class Columnar extends EscritorTabla {
+        private final ByteBuffer[] columnas;
+        private int filasGrupo;
+
+        Columnar(Path destino, boolean comprimir, String[] nombres, byte[] tipos) throws IOException {
+            super(destino, comprimir, nombres, tipos);
+            this.columnas = new ByteBuffer[nombres.length];
+            for (int i = 0; i < columnas.length; i++) {
+                columnas[i] = ByteBuffer.allocate(tipos[i] == BOOLEANO ? FILAS_POR_GRUPO : FILAS_POR_GRUPO * Long.BYTES);
+            }
+            reservar(Integer.BYTES + Short.BYTES + Integer.BYTES);
+            salida.putInt(MAGIA_COLUMNAR).putShort(VERSION_COLUMNAR).putInt(nombres.length);
+            for (int i = 0; i < nombres.length; i++) {
+                byte[] nombre = nombres[i].getBytes(StandardCharsets.UTF_8);
+                reservar(Integer.BYTES + nombre.length + 1);
+                salida.putInt(nombre.length).put(nombre).put(tipos[i]);
+            }
+        }
+
+        private ByteBuffer espacioEnColumna(int bytes) {
+            ByteBuffer b = columnas[columna];
+            if (b.remaining() < bytes) {
+                ByteBuffer mayor = ByteBuffer.allocate(Math.max(2 * b.capacity(), b.position() + bytes));
+                b.flip();
+                mayor.put(b);
+                columnas[columna] = b = mayor;
+            }
+            return b;
+        }
+
+        @Override
+        protected void escribirTexto(String valor) throws IOException {
+            if (valor == null) {
+                espacioEnColumna(Integer.BYTES).putInt(-1);
+                return;
+            }
+            byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+            espacioEnColumna(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes);
+        }
+
+        @Override
+        protected void escribirEntero(long valor) throws IOException {
+            espacioEnColumna(Long.BYTES).putLong(valor);
+        }
+
+        @Override
+        protected void escribirBooleano(boolean valor) throws IOException {
+            espacioEnColumna(1).put((byte) (valor ? 1 : 0));
+        }
+
+        @Override
+        protected void terminarFila() throws IOException {
+            if (++filasGrupo == FILAS_POR_GRUPO) volcarGrupo();
+        }
+
+        private void volcarGrupo() throws IOException {
+            if (filasGrupo == 0) return;
+            reservar(Integer.BYTES);
+            salida.putInt(filasGrupo);
+            for (ByteBuffer c : columnas) {
+                c.flip();
+                reservar(Integer.BYTES);
+                salida.putInt(c.remaining());
+                escribirBytes(c);
+                c.clear();
+            }
+            filasGrupo = 0;
+        }
+
+        @Override
+        protected void terminar() throws IOException {
+            volcarGrupo();
+            reservar(Integer.BYTES);
+            salida.putInt(0);
+        }
+    }
+}
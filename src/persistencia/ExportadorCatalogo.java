@@ -0,0 +1,131 @@
+package persistencia;
+
+import enums.FormatoExportacion;
+import modelo.artistas.Album;
+import modelo.artistas.Artista;
+import modelo.artistas.Creador;
+import modelo.contenido.Cancion;
+import modelo.contenido.Contenido;
+import modelo.contenido.Podcast;
+import modelo.plataforma.Plataforma;
+import utilidades.AlmacenMetricas;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Exportación en streaming del catálogo y de las estadísticas de reproducción.
+// Las filas salen directamente de las columnas de métricas y de las vistas de la plataforma,
+// sin copiar colecciones ni construir el informe en memoria. Cada método devuelve las filas escritas.
+public class ExportadorCatalogo {
+    private static final String[] COLUMNAS_CATALOGO = {
+            "id", "tipo", "titulo", "propietario_id", "propietario", "album", "clasificacion",
+            "temporada", "episodio", "duracion", "reproducciones", "likes", "disponible", "fecha_ms"};
+    private static final byte[] TIPOS_CATALOGO = {
+            EscritorTabla.ENTERO, EscritorTabla.TEXTO, EscritorTabla.TEXTO, EscritorTabla.ENTERO, EscritorTabla.TEXTO,
+            EscritorTabla.TEXTO, EscritorTabla.TEXTO, EscritorTabla.ENTERO, EscritorTabla.ENTERO, EscritorTabla.ENTERO,
+            EscritorTabla.ENTERO, EscritorTabla.ENTERO, EscritorTabla.BOOLEANO, EscritorTabla.ENTERO};
+
+    private static final String[] COLUMNAS_ARTISTAS = {
+            "id", "nombre", "pais", "verificado", "oyentes_mensuales",
+            "canciones", "reproducciones", "likes", "duracion", "mas_popular"};
+    private static final byte[] TIPOS_ARTISTAS = {
+            EscritorTabla.ENTERO, EscritorTabla.TEXTO, EscritorTabla.TEXTO, EscritorTabla.BOOLEANO, EscritorTabla.ENTERO,
+            EscritorTabla.ENTERO, EscritorTabla.ENTERO, EscritorTabla.ENTERO, EscritorTabla.ENTERO, EscritorTabla.TEXTO};
+
+    private static final String[] COLUMNAS_CREADORES = {
+            "id", "nombre", "suscriptores", "episodios", "reproducciones", "likes", "duracion", "mas_popular"};
+    private static final byte[] TIPOS_CREADORES = {
+            EscritorTabla.ENTERO, EscritorTabla.TEXTO, EscritorTabla.ENTERO, EscritorTabla.ENTERO,
+            EscritorTabla.ENTERO, EscritorTabla.ENTERO, EscritorTabla.ENTERO, EscritorTabla.TEXTO};
+
+    private final Plataforma plataforma;
+
+    public ExportadorCatalogo(Plataforma plataforma) {
+        this.plataforma = plataforma;
+    }
+
+    // Un contenido por fila, con sus contadores leídos de las columnas de métricas
+    public long exportarCatalogo(Path destino, FormatoExportacion formato, boolean comprimir) throws IOException {
+        AlmacenMetricas metricas = plataforma.getMetricas();
+        try (EscritorTabla t = EscritorTabla.abrir(destino, formato, comprimir, COLUMNAS_CATALOGO, TIPOS_CATALOGO)) {
+            int filas = metricas.tamano();
+            for (int o = 0; o < filas; o++) {
+                Contenido c = metricas.getContenido(o);
+                t.entero(c.getIdNumerico());
+                if (c instanceof Cancion) {
+                    Cancion cancion = (Cancion) c;
+                    Artista artista = cancion.getArtista();
+                    Album album = cancion.getAlbum();
+                    t.texto("cancion");
+                    t.texto(c.getTitulo());
+                    t.entero(artista != null ? artista.getIdNumerico() : 0);
+                    t.texto(artista != null ? artista.getNombreArtistico() : null);
+                    t.texto(album != null ? album.getTitulo() : null);
+                    t.texto(cancion.getGenero() != null ? cancion.getGenero().name() : null);
+                    t.entero(0);
+                    t.entero(0);
+                } else {
+                    Podcast podcast = (Podcast) c;
+                    Creador creador = podcast.getCreador();
+                    t.texto("podcast");
+                    t.texto(c.getTitulo());
+                    t.entero(creador != null ? creador.getIdNumerico() : 0);
+                    t.texto(creador != null ? creador.getNombreCanal() : null);
+                    t.texto(null);
+                    t.texto(podcast.getCategoria() != null ? podcast.getCategoria().name() : null);
+                    t.entero(podcast.getTemporada());
+                    t.entero(podcast.getNumeroEpisodio());
+                }
+                t.entero(metricas.getDuracionSegundos(o));
+                t.entero(metricas.getReproducciones(o));
+                t.entero(metricas.getLikes(o));
+                t.booleano(metricas.isDisponible(o));
+                t.entero(c.getFechaPublicacion() != null ? c.getFechaPublicacion().getTime() : 0);
+                t.finFila();
+            }
+            return t.getFilas();
+        }
+    }
+
+    // Totales de reproducción por artista (sus canciones del catálogo)
+    public long exportarArtistas(Path destino, FormatoExportacion formato, boolean comprimir) throws IOException {
+        AlmacenMetricas metricas = plataforma.getMetricas();
+        try (EscritorTabla t = EscritorTabla.abrir(destino, formato, comprimir, COLUMNAS_ARTISTAS, TIPOS_ARTISTAS)) {
+            for (Artista a : plataforma.getVistaArtistas()) {
+                AlmacenMetricas.Totales totales = metricas.totalesDe(a.getIdNumerico());
+                t.entero(a.getIdNumerico());
+                t.texto(a.getNombreArtistico());
+                t.texto(a.getPaisOrigen());
+                t.booleano(a.isVerificado());
+                t.entero(a.getOyentesMensuales());
+                escribirTotales(t, totales);
+                t.finFila();
+            }
+            return t.getFilas();
+        }
+    }
+
+    // Totales de reproducción por creador (sus episodios del catálogo)
+    public long exportarCreadores(Path destino, FormatoExportacion formato, boolean comprimir) throws IOException {
+        AlmacenMetricas metricas = plataforma.getMetricas();
+        try (EscritorTabla t = EscritorTabla.abrir(destino, formato, comprimir, COLUMNAS_CREADORES, TIPOS_CREADORES)) {
+            for (Creador c : plataforma.getVistaCreadores()) {
+                AlmacenMetricas.Totales totales = metricas.totalesDe(c.getIdNumerico());
+                t.entero(c.getIdNumerico());
+                t.texto(c.getNombreCanal());
+                t.entero(c.getSuscriptores());
+                escribirTotales(t, totales);
+                t.finFila();
+            }
+            return t.getFilas();
+        }
+    }
+
+    private static void escribirTotales(EscritorTabla t, AlmacenMetricas.Totales totales) throws IOException {
+        t.entero(totales.getNumContenidos());
+        t.entero(totales.getReproducciones());
+        t.entero(totales.getLikes());
+        t.entero(totales.getDuracionSegundos());
+        t.texto(totales.getMasPopular() != null ? totales.getMasPopular().getTitulo() : null);
+    }
+}
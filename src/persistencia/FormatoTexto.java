@@ -0,0 +1,177 @@
+package persistencia;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+// Lectura de los formatos de texto de importación: CSV (RFC 4180, comillas dobles) y JSON por líneas
+// con un objeto plano por registro. Los errores de formato se lanzan como IllegalArgumentException
+// para que el importador los convierta en errores de fila.
+final class FormatoTexto {
+    private FormatoTexto() {
+    }
+
+    // Registro CSV completo: une líneas mientras haya comillas abiertas. null al final del archivo.
+    // lineasLeidas[0] se incrementa con cada línea física consumida.
+    static String leerRegistroCsv(BufferedReader in, long[] lineasLeidas) throws IOException {
+        String linea = in.readLine();
+        if (linea == null) return null;
+        lineasLeidas[0]++;
+        if (comillasAbiertas(linea, false)) {
+            StringBuilder sb = new StringBuilder(linea);
+            boolean abiertas = true;
+            while (abiertas) {
+                String siguiente = in.readLine();
+                if (siguiente == null) break;
+                lineasLeidas[0]++;
+                sb.append('\n').append(siguiente);
+                abiertas = comillasAbiertas(siguiente, true);
+            }
+            return sb.toString();
+        }
+        return linea;
+    }
+
+    private static boolean comillasAbiertas(String linea, boolean abiertas) {
+        for (int i = 0; i < linea.length(); i++) {
+            if (linea.charAt(i) == '"') abiertas = !abiertas;
+        }
+        return abiertas;
+    }
+
+    static ArrayList<String> separarCsv(String registro) {
+        ArrayList<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        int i = 0;
+        int n = registro.length();
+        while (true) {
+            campo.setLength(0);
+            if (i < n && registro.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i >= n) throw new IllegalArgumentException("Comillas sin cerrar");
+                    char c = registro.charAt(i++);
+                    if (c != '"') {
+                        campo.append(c);
+                    } else if (i < n && registro.charAt(i) == '"') {
+                        campo.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                if (i < n && registro.charAt(i) != ',') {
+                    throw new IllegalArgumentException("Texto tras las comillas de cierre en la columna " + (campos.size() + 1));
+                }
+            } else {
+                while (i < n && registro.charAt(i) != ',') campo.append(registro.charAt(i++));
+            }
+            campos.add(campo.toString());
+            if (i >= n) return campos;
+            i++; // la coma
+        }
+    }
+
+    // Objeto JSON plano: {"clave": valor, ...} con valores texto, número, booleano o null.
+    // Los null no se guardan; números y booleanos se devuelven con su texto literal.
+    static HashMap<String, String> leerObjetoJson(String linea) {
+        LectorJson l = new LectorJson(linea);
+        HashMap<String, String> res = new HashMap<>();
+        l.saltarBlancos();
+        l.esperar('{');
+        l.saltarBlancos();
+        if (l.mirar() == '}') {
+            l.pos++;
+        } else {
+            while (true) {
+                l.saltarBlancos();
+                String clave = l.leerTexto();
+                l.saltarBlancos();
+                l.esperar(':');
+                l.saltarBlancos();
+                String valor = l.leerValor();
+                if (valor != null) res.put(clave.toLowerCase(), valor);
+                l.saltarBlancos();
+                char c = l.siguiente();
+                if (c == '}') break;
+                if (c != ',') throw new IllegalArgumentException("Se esperaba ',' o '}' en la posición " + (l.pos - 1));
+            }
+        }
+        l.saltarBlancos();
+        if (l.pos < l.texto.length()) throw new IllegalArgumentException("Texto tras el objeto JSON");
+        return res;
+    }
+
+    private static final class LectorJson {
+        final String texto;
+        int pos;
+
+        LectorJson(String texto) {
+            this.texto = texto;
+        }
+
+        char mirar() {
+            if (pos >= texto.length()) throw new IllegalArgumentException("JSON incompleto");
+            return texto.charAt(pos);
+        }
+
+        char siguiente() {
+            char c = mirar();
+            pos++;
+            return c;
+        }
+
+        void esperar(char c) {
+            if (siguiente() != c) throw new IllegalArgumentException("Se esperaba '" + c + "' en la posición " + (pos - 1));
+        }
+
+        void saltarBlancos() {
+            while (pos < texto.length() && Character.isWhitespace(texto.charAt(pos))) pos++;
+        }
+
+        String leerValor() {
+            char c = mirar();
+            if (c == '"') return leerTexto();
+            if (c == '{' || c == '[') throw new IllegalArgumentException("Solo se admiten objetos planos");
+            int inicio = pos;
+            while (pos < texto.length() && ",} \t\r\n".indexOf(texto.charAt(pos)) < 0) pos++;
+            String literal = texto.substring(inicio, pos);
+            if (literal.isEmpty()) throw new IllegalArgumentException("Valor vacío en la posición " + inicio);
+            return literal.equals("null") ? null : literal;
+        }
+
+        String leerTexto() {
+            esperar('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = siguiente();
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char e = siguiente();
+                switch (e) {
+                    case '"': case '\\': case '/': sb.append(e); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'u':
+                        if (pos + 4 > texto.length()) throw new IllegalArgumentException("Escape \\u incompleto");
+                        try {
+                            sb.append((char) Integer.parseInt(texto.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw new IllegalArgumentException("Escape \\u no válido");
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Escape no válido: \\" + e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,632 @@
+package persistencia;
+
+import enums.CategoriaPodcast;
+import enums.GeneroMusical;
+import excepciones.artista.AlbumCompletoException;
+import excepciones.artista.AlbumYaExisteException;
+import excepciones.artista.LimiteEpisodiosException;
+import excepciones.contenido.DuracionInvalidaException;
+import modelo.artistas.Album;
+import modelo.artistas.Artista;
+import modelo.artistas.Creador;
+import modelo.contenido.Cancion;
+import modelo.contenido.Contenido;
+import modelo.contenido.Podcast;
+import modelo.plataforma.Plataforma;
+import utilidades.GeneradorIds;
+import utilidades.MapaLongObjeto;
+import utilidades.MapaLongObjetoConcurrente;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Imagen del catálogo pensada para mapearse en memoria al arrancar: abrir() solo valida la cabecera
+// y mapea el archivo, sin crear objetos. Las filas se leen bajo demanda a través de vistas ligeras
+// y un Contenido real (con su id original) solo se construye cuando alguien lo pide.
+// cargarEnSegundoPlano() arranca una plataforma desde la imagen: registra al momento propietarios y
+// álbumes (tablas pequeñas) y devuelve el control; los contenidos entran al catálogo, índices, ranking y
+// métricas por lotes desde otro hilo. Mientras tanto buscar() y las vistas ya responden desde el mapeo.
+//
+// Formato (big-endian): cabecera de 64 bytes, tablas de ancho fijo ordenadas por id (contenidos,
+// artistas, creadores, álbumes) y un montón de textos [int longitud][UTF-8]. Los textos se
+// referencian por desplazamiento dentro del montón (-1 para null) y nunca cruzan un tramo de 1 GB,
+// que es la unidad en que se mapea el montón. Las etiquetas de un contenido son una lista del montón:
+// [int n] seguido de n textos contiguos. La versión 1 no tenía etiquetas (filas de 72 bytes).
+public class ImagenCatalogo {
+    private static final int MAGIA = 0x53574331; // "SWC1"
+    private static final short VERSION = 2;
+    private static final int CABECERA = 64;
+    private static final int ANCHO_CONTENIDO_V1 = 72;
+    private static final int ANCHO_CONTENIDO = 80;
+    private static final int ANCHO_ARTISTA = 40;
+    private static final int ANCHO_CREADOR = 40;
+    private static final int ANCHO_ALBUM = 32;
+    private static final int BITS_TRAMO = 30;
+    private static final long TAMANO_TRAMO = 1L << BITS_TRAMO;
+    private static final byte TIPO_CANCION = 1;
+    private static final byte TIPO_PODCAST = 2;
+    private static final int DISPONIBLE = 1;
+    private static final int EXPLICIT = 2;
+    private static final int LOTE_CARGA = 4096;
+
+    private final Path archivo;
+    private final MappedByteBuffer contenidos;
+    private final MappedByteBuffer artistas;
+    private final MappedByteBuffer creadores;
+    private final MappedByteBuffer albumes;
+    private final MappedByteBuffer[] monton;
+    private final int anchoContenido;
+    private final int numContenidos;
+    private final int numArtistas;
+    private final int numCreadores;
+    private final int numAlbumes;
+    // Objetos ya materializados: una sola instancia por id
+    private final MapaLongObjetoConcurrente<Contenido> contenidosVivos;
+    private final MapaLongObjetoConcurrente<Artista> artistasVivos;
+    private final MapaLongObjetoConcurrente<Creador> creadoresVivos;
+    private final MapaLongObjetoConcurrente<Album> albumesVivos;
+    private boolean cargada;
+
+    private ImagenCatalogo(Path archivo, FileChannel canal) throws IOException {
+        this.archivo = archivo;
+        long tamano = canal.size();
+        if (tamano < CABECERA) throw new IOException("Imagen truncada: " + archivo);
+        ByteBuffer cab = ByteBuffer.allocate(CABECERA);
+        while (cab.hasRemaining()) {
+            if (canal.read(cab, cab.position()) < 0) throw new IOException("Imagen truncada: " + archivo);
+        }
+        if (cab.getInt(0) != MAGIA) throw new IOException("No es una imagen de catálogo: " + archivo);
+        short version = cab.getShort(4);
+        if (version < 1 || version > VERSION) throw new IOException("Versión de imagen no soportada: " + version);
+        this.anchoContenido = version == 1 ? ANCHO_CONTENIDO_V1 : ANCHO_CONTENIDO;
+        this.numContenidos = cab.getInt(8);
+        this.numArtistas = cab.getInt(12);
+        this.numCreadores = cab.getInt(16);
+        this.numAlbumes = cab.getInt(20);
+        long offMonton = cab.getLong(56);
+        if (offMonton > tamano) throw new IOException("Imagen truncada: " + archivo);
+
+        this.contenidos = mapearTabla(canal, cab.getLong(24), numContenidos, anchoContenido, offMonton);
+        this.artistas = mapearTabla(canal, cab.getLong(32), numArtistas, ANCHO_ARTISTA, offMonton);
+        this.creadores = mapearTabla(canal, cab.getLong(40), numCreadores, ANCHO_CREADOR, offMonton);
+        this.albumes = mapearTabla(canal, cab.getLong(48), numAlbumes, ANCHO_ALBUM, offMonton);
+
+        long tamanoMonton = tamano - offMonton;
+        this.monton = new MappedByteBuffer[(int) ((tamanoMonton + TAMANO_TRAMO - 1) >>> BITS_TRAMO)];
+        for (int i = 0; i < monton.length; i++) {
+            long inicio = (long) i << BITS_TRAMO;
+            monton[i] = canal.map(FileChannel.MapMode.READ_ONLY, offMonton + inicio, Math.min(TAMANO_TRAMO, tamanoMonton - inicio));
+        }
+
+        this.contenidosVivos = new MapaLongObjetoConcurrente<>();
+        this.artistasVivos = new MapaLongObjetoConcurrente<>();
+        this.creadoresVivos = new MapaLongObjetoConcurrente<>();
+        this.albumesVivos = new MapaLongObjetoConcurrente<>();
+    }
+
+    // El mapeo sobrevive al cierre del canal; la memoria la gestiona el sistema operativo (page cache)
+    public static ImagenCatalogo abrir(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            return new ImagenCatalogo(archivo, canal);
+        }
+    }
+
+    private static MappedByteBuffer mapearTabla(FileChannel canal, long inicio, int filas, int ancho, long limite)
+            throws IOException {
+        long bytes = (long) filas * ancho;
+        if (filas < 0 || inicio < CABECERA || inicio + bytes > limite || bytes > Integer.MAX_VALUE) {
+            throw new IOException("Tabla fuera de rango en la imagen de catálogo");
+        }
+        return canal.map(FileChannel.MapMode.READ_ONLY, inicio, bytes);
+    }
+
+    // ====================== Consultas ======================
+    public Path getArchivo() {
+        return archivo;
+    }
+
+    public int tamano() {
+        return numContenidos;
+    }
+
+    public int getNumArtistas() {
+        return numArtistas;
+    }
+
+    public int getNumCreadores() {
+        return numCreadores;
+    }
+
+    public int getNumAlbumes() {
+        return numAlbumes;
+    }
+
+    // Búsqueda binaria sobre la tabla ordenada por id; -1 si no está
+    public int indiceDe(long id) {
+        return buscarFila(contenidos, anchoContenido, numContenidos, id);
+    }
+
+    public Vista vista(int fila) {
+        if (fila < 0 || fila >= numContenidos) throw new IndexOutOfBoundsException("Fila " + fila + " de " + numContenidos);
+        return new Vista(fila);
+    }
+
+    public Vista vistaPorId(long id) {
+        int fila = indiceDe(id);
+        return fila < 0 ? null : new Vista(fila);
+    }
+
+    public Stream<Vista> vistas() {
+        return IntStream.range(0, numContenidos).mapToObj(Vista::new);
+    }
+
+    public Contenido buscar(long id) {
+        int fila = indiceDe(id);
+        return fila < 0 ? null : materializar(fila);
+    }
+
+    public Contenido materializar(int fila) {
+        long id = contenidos.getLong(fila * anchoContenido);
+        Contenido c = contenidosVivos.get(id);
+        if (c != null) return c;
+        return contenidosVivos.calcular(id, actual -> actual != null ? actual : construirContenido(fila));
+    }
+
+    public int getNumMaterializados() {
+        return contenidosVivos.tamano();
+    }
+
+    // Vista de solo lectura sobre una fila: no copia nada hasta que se pide un campo
+    public final class Vista {
+        private final int fila;
+        private final int base;
+
+        private Vista(int fila) {
+            this.fila = fila;
+            this.base = fila * anchoContenido;
+        }
+
+        public int getFila() { return fila; }
+        public long getIdNumerico() { return contenidos.getLong(base); }
+        public String getId() { return GeneradorIds.aTexto(getIdNumerico()); }
+        public boolean esCancion() { return contenidos.get(base + 8) == TIPO_CANCION; }
+        public boolean esPodcast() { return contenidos.get(base + 8) == TIPO_PODCAST; }
+        public boolean isDisponible() { return (contenidos.get(base + 10) & DISPONIBLE) != 0; }
+        public boolean isExplicit() { return (contenidos.get(base + 10) & EXPLICIT) != 0; }
+        public int getDuracionSegundos() { return contenidos.getInt(base + 12); }
+        public long getReproducciones() { return contenidos.getLong(base + 16); }
+        public long getLikes() { return contenidos.getLong(base + 24); }
+        public String getTitulo() { return texto(contenidos.getLong(base + 40)); }
+        public long getIdPropietario() { return contenidos.getLong(base + 48); }
+        public ArrayList<String> getTags() { return etiquetas(base); }
+
+        public Date getFechaPublicacion() {
+            long ms = contenidos.getLong(base + 32);
+            return ms == Long.MIN_VALUE ? null : new Date(ms);
+        }
+
+        public GeneroMusical getGenero() {
+            int ord = contenidos.get(base + 9) - 1;
+            return esCancion() && ord >= 0 ? GeneroMusical.values()[ord] : null;
+        }
+
+        public CategoriaPodcast getCategoria() {
+            int ord = contenidos.get(base + 9) - 1;
+            return esPodcast() && ord >= 0 ? CategoriaPodcast.values()[ord] : null;
+        }
+
+        // Nombre artístico o canal, leído de la tabla de propietarios
+        public String getNombrePropietario() {
+            if (esCancion()) {
+                int f = buscarFila(artistas, ANCHO_ARTISTA, numArtistas, getIdPropietario());
+                return f < 0 ? null : texto(artistas.getLong(f * ANCHO_ARTISTA + 8));
+            }
+            int f = buscarFila(creadores, ANCHO_CREADOR, numCreadores, getIdPropietario());
+            return f < 0 ? null : texto(creadores.getLong(f * ANCHO_CREADOR + 8));
+        }
+
+        public long getIdAlbum() { return esCancion() ? contenidos.getLong(base + 56) : 0; }
+        public int getNumeroEpisodio() { return esPodcast() ? contenidos.getInt(base + 56) : 0; }
+        public int getTemporada() { return esPodcast() ? contenidos.getInt(base + 60) : 0; }
+
+        public Contenido materializar() {
+            return ImagenCatalogo.this.materializar(fila);
+        }
+
+        @Override
+        public String toString() {
+            return getTitulo() + " [" + getId() + "]";
+        }
+    }
+
+    // ====================== Arranque ======================
+    // Da de alta la imagen en una plataforma recién creada (antes de enganchar la persistencia) y
+    // devuelve los contenidos registrados. Propietarios y álbumes quedan registrados y, ahora sí,
+    // enumeran su discografía; las instancias son las mismas que devuelven buscar() y las vistas.
+    public int cargarEn(Plataforma plataforma) {
+        registrarPropietarios(plataforma);
+        return cargarContenidos(plataforma);
+    }
+
+    // Arranque en frío: solo propietarios y álbumes se registran antes de volver. Los contenidos se
+    // indexan por lotes en un hilo aparte; hasta que el futuro termine, el catálogo de la plataforma está
+    // incompleto y las búsquedas por id deben ir a buscar(). La persistencia se engancha al terminar.
+    public CompletableFuture<Integer> cargarEnSegundoPlano(Plataforma plataforma) {
+        registrarPropietarios(plataforma);
+        CompletableFuture<Integer> futuro = new CompletableFuture<>();
+        Thread t = new Thread(() -> {
+            try {
+                futuro.complete(cargarContenidos(plataforma));
+            } catch (Throwable e) {
+                futuro.completeExceptionally(e);
+            }
+        }, "carga-imagen-" + plataforma.getNombre());
+        t.setDaemon(true);
+        t.start();
+        return futuro;
+    }
+
+    private synchronized void registrarPropietarios(Plataforma plataforma) {
+        if (cargada) throw new IllegalStateException("La imagen ya se cargó en una plataforma");
+        cargada = true;
+        for (int f = 0; f < numArtistas; f++) plataforma.registrarArtista(artista(artistas.getLong(f * ANCHO_ARTISTA)));
+        for (int f = 0; f < numCreadores; f++) plataforma.registrarCreador(creador(creadores.getLong(f * ANCHO_CREADOR)));
+        for (int f = 0; f < numAlbumes; f++) {
+            Album a = album(albumes.getLong(f * ANCHO_ALBUM));
+            if (a.getArtista() == null) continue;
+            try {
+                plataforma.agregarAlbum(a);
+            } catch (AlbumYaExisteException e) {
+                // Título repetido en el artista: el álbum sigue enlazado desde sus canciones
+            }
+        }
+    }
+
+    private int cargarContenidos(Plataforma plataforma) {
+        ArrayList<Contenido> lote = new ArrayList<>(LOTE_CARGA);
+        for (int f = 0; f < numContenidos; f++) {
+            Contenido c = materializar(f);
+            try {
+                if (c instanceof Cancion) {
+                    Cancion cancion = (Cancion) c;
+                    if (cancion.getAlbum() != null) cancion.getAlbum().agregarCancion(cancion);
+                    else if (cancion.getArtista() != null) cancion.getArtista().publicarCancion(cancion);
+                } else if (((Podcast) c).getCreador() != null) {
+                    ((Podcast) c).getCreador().publicarPodcast((Podcast) c);
+                }
+            } catch (AlbumCompletoException | LimiteEpisodiosException e) {
+                // Igual que al restaurar: el contenido entra al catálogo aunque su propietario esté lleno
+            }
+            lote.add(c);
+            if (lote.size() == LOTE_CARGA) {
+                plataforma.agregarContenidosCatalogo(lote);
+                lote = new ArrayList<>(LOTE_CARGA);
+            }
+        }
+        plataforma.agregarContenidosCatalogo(lote);
+        return numContenidos;
+    }
+
+    // ====================== Materialización ======================
+    private Contenido construirContenido(int fila) {
+        int base = fila * anchoContenido;
+        long id = contenidos.getLong(base);
+        byte tipo = contenidos.get(base + 8);
+        int clasificacion = contenidos.get(base + 9) - 1;
+        int flags = contenidos.get(base + 10);
+        int duracion = contenidos.getInt(base + 12);
+        String titulo = texto(contenidos.getLong(base + 40));
+        long propietario = contenidos.getLong(base + 48);
+        String extra = texto(contenidos.getLong(base + 64));
+
+        Contenido c;
+        try {
+            if (tipo == TIPO_CANCION) {
+                Artista artista = artista(propietario);
+                GeneroMusical genero = clasificacion >= 0 ? GeneroMusical.values()[clasificacion] : null;
+                Cancion cancion = new Cancion(id, titulo, duracion, artista, genero, extra, (flags & EXPLICIT) != 0);
+                cancion.setAlbum(album(contenidos.getLong(base + 56)));
+                c = cancion;
+            } else {
+                Creador creador = creador(propietario);
+                CategoriaPodcast categoria = clasificacion >= 0 ? CategoriaPodcast.values()[clasificacion] : null;
+                c = new Podcast(id, titulo, duracion, creador, contenidos.getInt(base + 56), contenidos.getInt(base + 60),
+                        categoria, extra);
+            }
+        } catch (DuracionInvalidaException e) {
+            throw new IllegalStateException("Fila " + fila + " inválida en la imagen " + archivo, e);
+        }
+        c.aumentarReproducciones(contenidos.getLong(base + 16));
+        c.aumentarLikes(contenidos.getLong(base + 24));
+        long ms = contenidos.getLong(base + 32);
+        if (ms != Long.MIN_VALUE) c.setFechaPublicacion(new Date(ms));
+        if ((flags & DISPONIBLE) == 0) c.marcarNoDisponible();
+        for (String tag : etiquetas(base)) c.agregarTag(tag);
+        return c;
+    }
+
+    // Los propietarios materializados no enumeran su discografía (salvo tras cargarEn): la imagen es la
+    // fuente para recorrerla
+    private Artista artista(long id) {
+        if (id == 0) return null;
+        Artista a = artistasVivos.get(id);
+        if (a != null) return a;
+        return artistasVivos.calcular(id, actual -> {
+            if (actual != null) return actual;
+            int f = buscarFila(artistas, ANCHO_ARTISTA, numArtistas, id);
+            if (f < 0) return null;
+            int base = f * ANCHO_ARTISTA;
+            Artista nuevo = new Artista(id, texto(artistas.getLong(base + 8)), texto(artistas.getLong(base + 16)),
+                    texto(artistas.getLong(base + 24)), artistas.get(base + 32) != 0);
+            nuevo.setOyentesMensuales(artistas.getInt(base + 36));
+            return nuevo;
+        });
+    }
+
+    private Creador creador(long id) {
+        if (id == 0) return null;
+        Creador c = creadoresVivos.get(id);
+        if (c != null) return c;
+        return creadoresVivos.calcular(id, actual -> {
+            if (actual != null) return actual;
+            int f = buscarFila(creadores, ANCHO_CREADOR, numCreadores, id);
+            if (f < 0) return null;
+            int base = f * ANCHO_CREADOR;
+            Creador nuevo = new Creador(id, texto(creadores.getLong(base + 8)), texto(creadores.getLong(base + 16)),
+                    texto(creadores.getLong(base + 24)));
+            nuevo.setSuscriptores(creadores.getInt(base + 32));
+            return nuevo;
+        });
+    }
+
+    // Igual que los propietarios: el álbum materializado no lista sus canciones
+    private Album album(long id) {
+        if (id == 0) return null;
+        Album a = albumesVivos.get(id);
+        if (a != null) return a;
+        return albumesVivos.calcular(id, actual -> {
+            if (actual != null) return actual;
+            int f = buscarFila(albumes, ANCHO_ALBUM, numAlbumes, id);
+            if (f < 0) return null;
+            int base = f * ANCHO_ALBUM;
+            Artista artista = artista(albumes.getLong(base + 8));
+            long ms = albumes.getLong(base + 24);
+            return new Album(id, texto(albumes.getLong(base + 16)), artista, ms == Long.MIN_VALUE ? null : new Date(ms));
+        });
+    }
+
+    // ====================== Lectura de bajo nivel ======================
+    private static int buscarFila(ByteBuffer tabla, int ancho, int filas, long id) {
+        int lo = 0;
+        int hi = filas - 1;
+        while (lo <= hi) {
+            int medio = (lo + hi) >>> 1;
+            long actual = tabla.getLong(medio * ancho);
+            if (actual < id) lo = medio + 1;
+            else if (actual > id) hi = medio - 1;
+            else return medio;
+        }
+        return -1;
+    }
+
+    private String texto(long desplazamiento) {
+        if (desplazamiento < 0) return null;
+        MappedByteBuffer tramo = monton[(int) (desplazamiento >>> BITS_TRAMO)];
+        int pos = (int) (desplazamiento & (TAMANO_TRAMO - 1));
+        int n = tramo.getInt(pos);
+        byte[] bytes = new byte[n];
+        tramo.get(pos + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Lista de etiquetas de la fila; vacía en imágenes de versión 1
+    private ArrayList<String> etiquetas(int base) {
+        ArrayList<String> lista = new ArrayList<>();
+        if (anchoContenido == ANCHO_CONTENIDO_V1) return lista;
+        long desplazamiento = contenidos.getLong(base + 72);
+        if (desplazamiento < 0) return lista;
+        MappedByteBuffer tramo = monton[(int) (desplazamiento >>> BITS_TRAMO)];
+        int pos = (int) (desplazamiento & (TAMANO_TRAMO - 1));
+        int n = tramo.getInt(pos);
+        pos += Integer.BYTES;
+        for (int i = 0; i < n; i++) {
+            int longitud = tramo.getInt(pos);
+            byte[] bytes = new byte[longitud];
+            tramo.get(pos + Integer.BYTES, bytes);
+            lista.add(new String(bytes, StandardCharsets.UTF_8));
+            pos += Integer.BYTES + longitud;
+        }
+        return lista;
+    }
+
+    // ====================== Escritura ======================
+    // Vuelca el catálogo publicado junto con los artistas, creadores y álbumes que referencia.
+    // Los contadores se leen sin detener la plataforma: cada fila es coherente, el conjunto es aproximado.
+    public static void escribir(Path archivo, Plataforma plataforma) throws IOException {
+        ArrayList<Contenido> catalogo = plataforma.getCatalogo();
+        MapaLongObjeto<Artista> artistas = new MapaLongObjeto<>();
+        MapaLongObjeto<Creador> creadores = new MapaLongObjeto<>();
+        MapaLongObjeto<Album> albumes = new MapaLongObjeto<>();
+        for (Artista a : plataforma.getArtistas()) artistas.put(a.getIdNumerico(), a);
+        for (Creador c : plataforma.getTodosLosCreadores()) creadores.put(c.getIdNumerico(), c);
+        for (Album a : plataforma.getAlbumes()) albumes.put(a.getIdNumerico(), a);
+        for (Contenido c : catalogo) {
+            if (c instanceof Cancion) {
+                Cancion cancion = (Cancion) c;
+                if (cancion.getArtista() != null) artistas.put(cancion.getArtista().getIdNumerico(), cancion.getArtista());
+                if (cancion.getAlbum() != null) albumes.put(cancion.getAlbum().getIdNumerico(), cancion.getAlbum());
+            } else if (((Podcast) c).getCreador() != null) {
+                creadores.put(((Podcast) c).getCreador().getIdNumerico(), ((Podcast) c).getCreador());
+            }
+        }
+        for (Album a : albumes.valores()) {
+            if (a.getArtista() != null) artistas.put(a.getArtista().getIdNumerico(), a.getArtista());
+        }
+
+        catalogo.sort(Comparator.comparingLong(Contenido::getIdNumerico));
+        ArrayList<Artista> listaArtistas = artistas.valores();
+        listaArtistas.sort(Comparator.comparingLong(Artista::getIdNumerico));
+        ArrayList<Creador> listaCreadores = creadores.valores();
+        listaCreadores.sort(Comparator.comparingLong(Creador::getIdNumerico));
+        ArrayList<Album> listaAlbumes = albumes.valores();
+        listaAlbumes.sort(Comparator.comparingLong(Album::getIdNumerico));
+
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        Path temporalMonton = archivo.resolveSibling(archivo.getFileName() + ".monton.tmp");
+        long offContenidos = CABECERA;
+        long offArtistas = offContenidos + (long) catalogo.size() * ANCHO_CONTENIDO;
+        long offCreadores = offArtistas + (long) listaArtistas.size() * ANCHO_ARTISTA;
+        long offAlbumes = offCreadores + (long) listaCreadores.size() * ANCHO_CREADOR;
+        long offMonton = offAlbumes + (long) listaAlbumes.size() * ANCHO_ALBUM;
+
+        // Las tablas van al archivo final y los textos a un temporal que se anexa al terminar
+        try (Monton monton = new Monton(temporalMonton);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal), 1 << 16))) {
+            out.writeInt(MAGIA);
+            out.writeShort(VERSION);
+            out.writeShort(0);
+            out.writeInt(catalogo.size());
+            out.writeInt(listaArtistas.size());
+            out.writeInt(listaCreadores.size());
+            out.writeInt(listaAlbumes.size());
+            out.writeLong(offContenidos);
+            out.writeLong(offArtistas);
+            out.writeLong(offCreadores);
+            out.writeLong(offAlbumes);
+            out.writeLong(offMonton);
+
+            for (Contenido c : catalogo) {
+                boolean esCancion = c instanceof Cancion;
+                Cancion cancion = esCancion ? (Cancion) c : null;
+                Podcast podcast = esCancion ? null : (Podcast) c;
+                Enum<?> clasificacion = esCancion ? cancion.getGenero() : podcast.getCategoria();
+                out.writeLong(c.getIdNumerico());
+                out.writeByte(esCancion ? TIPO_CANCION : TIPO_PODCAST);
+                out.writeByte(clasificacion != null ? clasificacion.ordinal() + 1 : 0);
+                out.writeByte((c.isDisponible() ? DISPONIBLE : 0) | (esCancion && cancion.isExplicit() ? EXPLICIT : 0));
+                out.writeByte(0);
+                out.writeInt(c.getDuracionSegundos());
+                out.writeLong(c.getReproduccionesTotales());
+                out.writeLong(c.getLikesTotales());
+                out.writeLong(c.getFechaPublicacion() != null ? c.getFechaPublicacion().getTime() : Long.MIN_VALUE);
+                out.writeLong(monton.agregar(c.getTitulo()));
+                if (esCancion) {
+                    out.writeLong(cancion.getArtista() != null ? cancion.getArtista().getIdNumerico() : 0);
+                    out.writeLong(cancion.getAlbum() != null ? cancion.getAlbum().getIdNumerico() : 0);
+                    out.writeLong(monton.agregar(cancion.getLetra()));
+                } else {
+                    out.writeLong(podcast.getCreador() != null ? podcast.getCreador().getIdNumerico() : 0);
+                    out.writeInt(podcast.getNumeroEpisodio());
+                    out.writeInt(podcast.getTemporada());
+                    out.writeLong(monton.agregar(podcast.getDescripcion()));
+                }
+                out.writeLong(monton.agregarLista(c.getTags()));
+            }
+            for (Artista a : listaArtistas) {
+                out.writeLong(a.getIdNumerico());
+                out.writeLong(monton.agregar(a.getNombreArtistico()));
+                out.writeLong(monton.agregar(a.getNombreReal()));
+                out.writeLong(monton.agregar(a.getPaisOrigen()));
+                out.writeInt(a.isVerificado() ? 1 : 0);
+                out.writeInt(a.getOyentesMensuales());
+            }
+            for (Creador c : listaCreadores) {
+                out.writeLong(c.getIdNumerico());
+                out.writeLong(monton.agregar(c.getNombreCanal()));
+                out.writeLong(monton.agregar(c.getNombre()));
+                out.writeLong(monton.agregar(c.getDescripcion()));
+                out.writeInt(c.getSuscriptores());
+                out.writeInt(0);
+            }
+            for (Album a : listaAlbumes) {
+                out.writeLong(a.getIdNumerico());
+                out.writeLong(a.getArtista() != null ? a.getArtista().getIdNumerico() : 0);
+                out.writeLong(monton.agregar(a.getTitulo()));
+                out.writeLong(a.getFechaLanzamiento() != null ? a.getFechaLanzamiento().getTime() : Long.MIN_VALUE);
+            }
+        }
+
+        try (FileChannel destino = FileChannel.open(temporal, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+             FileChannel origen = FileChannel.open(temporalMonton, StandardOpenOption.READ)) {
+            long n = origen.size();
+            for (long copiados = 0; copiados < n; ) copiados += origen.transferTo(copiados, n - copiados, destino);
+            destino.force(true);
+        } finally {
+            Files.deleteIfExists(temporalMonton);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Montón de textos en escritura; desplaza al siguiente tramo el texto que no cabría entero
+    private static final class Monton implements AutoCloseable {
+        private final DataOutputStream out;
+        private long posicion;
+
+        Monton(Path archivo) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(archivo), 1 << 16));
+        }
+
+        long agregar(String texto) throws IOException {
+            if (texto == null) return -1;
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            long total = Integer.BYTES + bytes.length;
+            if (total > TAMANO_TRAMO) throw new IOException("Texto demasiado largo para la imagen: " + bytes.length + " bytes");
+            long inicio = reservar(total);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            posicion += total;
+            return inicio;
+        }
+
+        // Lista contigua [int n][textos...]; -1 si está vacía
+        long agregarLista(List<String> textos) throws IOException {
+            if (textos.isEmpty()) return -1;
+            byte[][] codificados = new byte[textos.size()][];
+            long total = Integer.BYTES;
+            for (int i = 0; i < codificados.length; i++) {
+                codificados[i] = textos.get(i).getBytes(StandardCharsets.UTF_8);
+                total += Integer.BYTES + codificados[i].length;
+            }
+            if (total > TAMANO_TRAMO) throw new IOException("Etiquetas demasiado largas para la imagen: " + total + " bytes");
+            long inicio = reservar(total);
+            out.writeInt(codificados.length);
+            for (byte[] bytes : codificados) {
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            posicion += total;
+            return inicio;
+        }
+
+        // Rellena hasta el siguiente tramo si el registro no cabe entero en el actual
+        private long reservar(long total) throws IOException {
+            long restoTramo = TAMANO_TRAMO - (posicion & (TAMANO_TRAMO - 1));
+            if (total > restoTramo) {
+                for (long i = 0; i < restoTramo; i++) out.writeByte(0);
+                posicion += restoTramo;
+            }
+            return posicion;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,494 @@
+package persistencia;
+
+import enums.CategoriaPodcast;
+import enums.GeneroMusical;
+import excepciones.artista.AlbumCompletoException;
+import excepciones.artista.AlbumYaExisteException;
+import excepciones.artista.ArtistaNoVerificadoException;
+import excepciones.artista.LimiteEpisodiosException;
+import excepciones.contenido.DuracionInvalidaException;
+import excepciones.plataforma.ArtistaNoEncontradoException;
+import modelo.artistas.Album;
+import modelo.artistas.Artista;
+import modelo.artistas.Creador;
+import modelo.contenido.Cancion;
+import modelo.contenido.Contenido;
+import modelo.contenido.Podcast;
+import modelo.plataforma.Plataforma;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Importación masiva del catálogo desde CSV (con cabecera) o JSON por líneas, una fila por entidad:
+// columna/clave "tipo" = artista | album | cancion | creador | podcast (o episodio).
+// El archivo se lee en streaming por lotes; los hilos de trabajo analizan y validan cada lote
+// y el hilo que importa los confirma en orden, así que la memoria queda acotada a unos pocos lotes.
+// Cada lote de canciones y episodios entra al catálogo y a los índices de una vez.
+// Una fila con errores se anota en el resultado y la importación sigue.
+public class ImportadorCatalogo {
+    private static final int LOTE_DEFAULT = 4096;
+
+    private final Plataforma plataforma;
+    private final int tamanoLote;
+    private final int hilos;
+
+    public ImportadorCatalogo(Plataforma plataforma) {
+        this(plataforma, LOTE_DEFAULT, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ImportadorCatalogo(Plataforma plataforma, int tamanoLote, int hilos) {
+        if (tamanoLote <= 0) throw new IllegalArgumentException("El tamaño de lote debe ser mayor a 0");
+        if (hilos <= 0) throw new IllegalArgumentException("El número de hilos debe ser mayor a 0");
+        this.plataforma = plataforma;
+        this.tamanoLote = tamanoLote;
+        this.hilos = hilos;
+    }
+
+    // Elige el formato por la extensión: .jsonl / .ndjson / .json son JSON por líneas, el resto CSV
+    public ResultadoImportacion importar(Path archivo) throws IOException {
+        String nombre = archivo.getFileName().toString().toLowerCase();
+        boolean json = nombre.endsWith(".jsonl") || nombre.endsWith(".ndjson") || nombre.endsWith(".json");
+        try (BufferedReader in = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            return importar(in, json);
+        }
+    }
+
+    public ResultadoImportacion importarCsv(Reader in) throws IOException {
+        return importar(comoBuffered(in), false);
+    }
+
+    public ResultadoImportacion importarJsonl(Reader in) throws IOException {
+        return importar(comoBuffered(in), true);
+    }
+
+    private static BufferedReader comoBuffered(Reader in) {
+        return in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in, 1 << 16);
+    }
+
+    private ResultadoImportacion importar(BufferedReader in, boolean json) throws IOException {
+        long inicio = System.nanoTime();
+        ResultadoImportacion res = new ResultadoImportacion();
+        Confirmacion confirmacion = new Confirmacion(res);
+        AtomicInteger numHilo = new AtomicInteger();
+        ExecutorService trabajadores = Executors.newFixedThreadPool(hilos, r -> {
+            Thread t = new Thread(r, "importacion-" + numHilo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        // Como mucho 2 lotes por hilo en vuelo: el lector no se adelanta más de eso a la confirmación
+        ArrayDeque<Future<Fila[]>> enVuelo = new ArrayDeque<>();
+        int maxEnVuelo = 2 * hilos;
+        try {
+            String[] cabecera = null;
+            long[] lineasLeidas = new long[1];
+            ArrayList<String> registros = new ArrayList<>(tamanoLote);
+            long[] lineas = new long[tamanoLote];
+            while (true) {
+                long linea = lineasLeidas[0] + 1;
+                String registro;
+                if (json) {
+                    registro = in.readLine();
+                    if (registro != null) lineasLeidas[0]++;
+                } else {
+                    registro = FormatoTexto.leerRegistroCsv(in, lineasLeidas);
+                }
+                if (registro == null) break;
+                if (registro.trim().isEmpty()) continue;
+                if (!json && cabecera == null) {
+                    cabecera = leerCabecera(registro);
+                    continue;
+                }
+                lineas[registros.size()] = linea;
+                registros.add(registro);
+                if (registros.size() == tamanoLote) {
+                    enVuelo.add(trabajadores.submit(new Analisis(registros, lineas, json, cabecera)));
+                    registros = new ArrayList<>(tamanoLote);
+                    lineas = new long[tamanoLote];
+                    if (enVuelo.size() >= maxEnVuelo) confirmacion.confirmar(esperar(enVuelo.poll()));
+                }
+            }
+            if (!registros.isEmpty()) enVuelo.add(trabajadores.submit(new Analisis(registros, lineas, json, cabecera)));
+            while (!enVuelo.isEmpty()) confirmacion.confirmar(esperar(enVuelo.poll()));
+        } finally {
+            for (Future<Fila[]> f : enVuelo) f.cancel(true);
+            trabajadores.shutdownNow();
+        }
+        res.setDuracionMs((System.nanoTime() - inicio) / 1_000_000);
+        return res;
+    }
+
+    private static String[] leerCabecera(String registro) {
+        ArrayList<String> campos = FormatoTexto.separarCsv(registro);
+        String[] cabecera = new String[campos.size()];
+        for (int i = 0; i < cabecera.length; i++) cabecera[i] = campos.get(i).trim().toLowerCase();
+        if (cabecera.length > 0 && cabecera[0].startsWith("\uFEFF")) cabecera[0] = cabecera[0].substring(1);
+        return cabecera;
+    }
+
+    private static Fila[] esperar(Future<Fila[]> lote) throws IOException {
+        try {
+            return lote.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Importación interrumpida");
+        } catch (ExecutionException e) {
+            throw new IOException("Fallo analizando un lote", e.getCause());
+        }
+    }
+
+    // ====================== Análisis (hilos de trabajo) ======================
+    private static final int ARTISTA = 0, ALBUM = 1, CANCION = 2, CREADOR = 3, PODCAST = 4;
+
+    // Fila ya validada; si 'error' no es null el resto de campos no se usa
+    private static final class Fila {
+        long linea;
+        String error;
+        int tipo;
+        String nombre;
+        String titulo;
+        String propietario; // artista o creador
+        String album;
+        String nombreReal;
+        String pais;
+        String texto; // letra o descripción
+        boolean verificado;
+        boolean explicit;
+        Date fecha;
+        int duracion;
+        int episodio;
+        int temporada;
+        GeneroMusical genero;
+        CategoriaPodcast categoria;
+    }
+
+    private static final class Analisis implements Callable<Fila[]> {
+        private final List<String> registros;
+        private final long[] lineas;
+        private final boolean json;
+        private final String[] cabecera;
+
+        Analisis(List<String> registros, long[] lineas, boolean json, String[] cabecera) {
+            this.registros = registros;
+            this.lineas = lineas;
+            this.json = json;
+            this.cabecera = cabecera;
+        }
+
+        @Override
+        public Fila[] call() {
+            Fila[] filas = new Fila[registros.size()];
+            for (int i = 0; i < filas.length; i++) {
+                Fila f = new Fila();
+                f.linea = lineas[i];
+                try {
+                    Map<String, String> campos = json
+                            ? FormatoTexto.leerObjetoJson(registros.get(i))
+                            : mapear(cabecera, FormatoTexto.separarCsv(registros.get(i)));
+                    validar(f, campos);
+                } catch (IllegalArgumentException e) {
+                    f.error = e.getMessage();
+                }
+                filas[i] = f;
+            }
+            return filas;
+        }
+    }
+
+    private static Map<String, String> mapear(String[] cabecera, List<String> valores) {
+        if (valores.size() > cabecera.length) {
+            throw new IllegalArgumentException("La fila tiene " + valores.size() + " columnas y la cabecera " + cabecera.length);
+        }
+        HashMap<String, String> campos = new HashMap<>();
+        for (int i = 0; i < valores.size(); i++) {
+            if (!valores.get(i).isEmpty()) campos.put(cabecera[i], valores.get(i));
+        }
+        return campos;
+    }
+
+    private static void validar(Fila f, Map<String, String> c) {
+        String tipo = obligatorio(c, "tipo").toLowerCase();
+        switch (tipo) {
+            case "artista":
+                f.tipo = ARTISTA;
+                f.nombre = obligatorio(c, "nombre");
+                f.nombreReal = c.getOrDefault("nombrereal", f.nombre);
+                f.pais = c.getOrDefault("pais", "");
+                f.verificado = booleano(c, "verificado");
+                break;
+            case "album":
+                f.tipo = ALBUM;
+                f.titulo = obligatorio(c, "titulo");
+                f.propietario = obligatorio(c, "artista");
+                f.fecha = fecha(c);
+                break;
+            case "cancion":
+                f.tipo = CANCION;
+                f.titulo = obligatorio(c, "titulo");
+                f.propietario = obligatorio(c, "artista");
+                f.album = c.get("album");
+                f.duracion = duracion(c);
+                f.genero = enumerado(GeneroMusical.class, obligatorio(c, "genero"), "Género");
+                f.texto = c.get("letra");
+                f.explicit = booleano(c, "explicit");
+                f.fecha = c.containsKey("fecha") ? fecha(c) : null;
+                break;
+            case "creador":
+                f.tipo = CREADOR;
+                f.nombre = obligatorio(c, "nombre");
+                f.nombreReal = c.getOrDefault("nombrereal", f.nombre);
+                f.texto = c.getOrDefault("descripcion", "");
+                break;
+            case "podcast":
+            case "episodio":
+                f.tipo = PODCAST;
+                f.titulo = obligatorio(c, "titulo");
+                f.propietario = obligatorio(c, "creador");
+                f.duracion = duracion(c);
+                f.episodio = entero(c, "episodio");
+                f.temporada = entero(c, "temporada");
+                if (f.episodio <= 0 || f.temporada <= 0) {
+                    throw new IllegalArgumentException("Número de episodio y temporada deben ser mayores a 0");
+                }
+                f.categoria = enumerado(CategoriaPodcast.class, obligatorio(c, "categoria"), "Categoría");
+                f.texto = c.get("descripcion");
+                f.fecha = c.containsKey("fecha") ? fecha(c) : null;
+                break;
+            default:
+                throw new IllegalArgumentException("Tipo de fila desconocido: " + tipo);
+        }
+    }
+
+    private static String obligatorio(Map<String, String> c, String campo) {
+        String v = c.get(campo);
+        if (v == null || v.trim().isEmpty()) throw new IllegalArgumentException("Falta el campo '" + campo + "'");
+        return v.trim();
+    }
+
+    private static int entero(Map<String, String> c, String campo) {
+        String v = obligatorio(c, campo);
+        try {
+            return Integer.parseInt(v);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'" + campo + "' no es un entero: " + v);
+        }
+    }
+
+    private static int duracion(Map<String, String> c) {
+        int d = entero(c, "duracion");
+        if (d <= 0) throw new IllegalArgumentException("La duración debe ser mayor a 0");
+        return d;
+    }
+
+    private static boolean booleano(Map<String, String> c, String campo) {
+        String v = c.get(campo);
+        if (v == null) return false;
+        switch (v.trim().toLowerCase()) {
+            case "true": case "si": case "sí": case "1": return true;
+            case "false": case "no": case "0": case "": return false;
+            default: throw new IllegalArgumentException("'" + campo + "' no es un booleano: " + v);
+        }
+    }
+
+    // Fechas ISO (aaaa-mm-dd), medianoche UTC; sin fecha, la actual
+    private static Date fecha(Map<String, String> c) {
+        String v = c.get("fecha");
+        if (v == null || v.trim().isEmpty()) return new Date();
+        try {
+            return Date.from(LocalDate.parse(v.trim()).atStartOfDay(ZoneOffset.UTC).toInstant());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Fecha no válida: " + v);
+        }
+    }
+
+    // Acepta el nombre de la constante o el visible ("Hip Hop", "True Crime")
+    private static <E extends Enum<E>> E enumerado(Class<E> tipo, String valor, String campo) {
+        String clave = valor.trim().toUpperCase().replace(' ', '_');
+        for (E e : tipo.getEnumConstants()) {
+            if (e.name().equals(clave) || e.toString().equalsIgnoreCase(valor.trim())) return e;
+        }
+        throw new IllegalArgumentException(campo + " desconocido: " + valor);
+    }
+
+    // ====================== Confirmación (hilo que importa) ======================
+    // Artistas, álbumes y creadores se dan de alta en el momento (las filas siguientes del mismo lote
+    // pueden referirse a ellos); canciones y episodios se acumulan y entran al catálogo con el lote.
+    // Una fila que ya existe (mismo nombre, mismo título en el álbum o entre los sencillos del artista,
+    // mismo episodio del creador) se omite, de modo que repetir una importación no duplica el catálogo.
+    // Los duplicados se comprueban contra la propia plataforma; solo los sencillos y episodios se
+    // agrupan en conjuntos, y únicamente durante el lote, así que la memoria no crece con el archivo.
+    private final class Confirmacion {
+        private final ResultadoImportacion res;
+        // Títulos en minúsculas de las canciones sueltas (sin álbum) de cada artista tocado en el lote
+        private final HashMap<Artista, HashSet<String>> sencillosPorArtista;
+        private final HashMap<Creador, HashSet<Long>> episodiosPorCreador;
+
+        Confirmacion(ResultadoImportacion res) {
+            this.res = res;
+            this.sencillosPorArtista = new HashMap<>();
+            this.episodiosPorCreador = new HashMap<>();
+        }
+
+        void confirmar(Fila[] filas) {
+            sencillosPorArtista.clear();
+            episodiosPorCreador.clear();
+            ArrayList<Contenido> nuevos = new ArrayList<>();
+            int canciones = 0;
+            int podcasts = 0;
+            for (Fila f : filas) {
+                res.filaLeida();
+                if (f.error != null) {
+                    res.error(f.linea, f.error);
+                    continue;
+                }
+                try {
+                    switch (f.tipo) {
+                        case ARTISTA: confirmarArtista(f); break;
+                        case ALBUM: confirmarAlbum(f); break;
+                        case CREADOR: confirmarCreador(f); break;
+                        case CANCION:
+                            Cancion c = crearCancion(f);
+                            if (c != null) {
+                                nuevos.add(c);
+                                canciones++;
+                            }
+                            break;
+                        default:
+                            Podcast p = crearPodcast(f);
+                            if (p != null) {
+                                nuevos.add(p);
+                                podcasts++;
+                            }
+                    }
+                } catch (ArtistaNoEncontradoException | ArtistaNoVerificadoException | AlbumYaExisteException
+                         | AlbumCompletoException | DuracionInvalidaException | LimiteEpisodiosException
+                         | IllegalArgumentException e) {
+                    res.error(f.linea, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+                }
+            }
+            plataforma.agregarContenidosCatalogo(nuevos);
+            res.cancionesImportadas(canciones);
+            res.podcastsImportados(podcasts);
+        }
+
+        private void confirmarArtista(Fila f) {
+            if (artista(f.nombre) != null) {
+                res.filaOmitida();
+                return;
+            }
+            plataforma.registrarArtista(f.nombre, f.nombreReal, f.pais, f.verificado);
+            res.artistaImportado();
+        }
+
+        private void confirmarCreador(Fila f) {
+            if (plataforma.buscarCreador(f.nombre) != null) {
+                res.filaOmitida();
+                return;
+            }
+            plataforma.registrarCreador(f.nombre, f.nombreReal, f.texto);
+            res.creadorImportado();
+        }
+
+        private void confirmarAlbum(Fila f) throws ArtistaNoEncontradoException, ArtistaNoVerificadoException,
+                AlbumYaExisteException {
+            Artista artista = artistaObligatorio(f.propietario);
+            if (artista.buscarAlbum(f.titulo) != null) {
+                res.filaOmitida();
+                return;
+            }
+            plataforma.crearAlbum(artista, f.titulo, f.fecha);
+            res.albumImportado();
+        }
+
+        private Cancion crearCancion(Fila f) throws ArtistaNoEncontradoException, AlbumCompletoException,
+                DuracionInvalidaException {
+            Artista artista = artistaObligatorio(f.propietario);
+            Cancion c;
+            if (f.album != null) {
+                Album album = artista.buscarAlbum(f.album);
+                if (album == null) throw new IllegalArgumentException("Álbum '" + f.album + "' no encontrado para " + f.propietario);
+                // Un álbum tiene como mucho getMaxCanciones() canciones: se recorre sin conjunto auxiliar
+                for (Cancion existente : album.getCanciones()) {
+                    if (existente.getTitulo().equalsIgnoreCase(f.titulo)) {
+                        res.filaOmitida();
+                        return null;
+                    }
+                }
+                c = album.crearCancion(f.titulo, f.duracion, f.genero, f.texto, f.explicit);
+            } else {
+                HashSet<String> sencillos = sencillosPorArtista.computeIfAbsent(artista, a -> {
+                    HashSet<String> s = new HashSet<>();
+                    for (Cancion existente : a.getDiscografia()) {
+                        if (existente.getAlbum() == null) s.add(existente.getTitulo().toLowerCase());
+                    }
+                    return s;
+                });
+                if (sencillos.contains(f.titulo.toLowerCase())) {
+                    res.filaOmitida();
+                    return null;
+                }
+                c = new Cancion(f.titulo, f.duracion, artista, f.genero, f.texto, f.explicit);
+                artista.publicarCancion(c);
+                sencillos.add(f.titulo.toLowerCase());
+            }
+            if (f.fecha != null) c.setFechaPublicacion(f.fecha);
+            return c;
+        }
+
+        private Podcast crearPodcast(Fila f) throws DuracionInvalidaException, LimiteEpisodiosException {
+            Creador creador = plataforma.buscarCreador(f.propietario);
+            if (creador == null) throw new IllegalArgumentException("Creador '" + f.propietario + "' no encontrado");
+            HashSet<Long> episodios = episodiosPorCreador.computeIfAbsent(creador, cr -> {
+                HashSet<Long> s = new HashSet<>();
+                for (Podcast p : cr.getEpisodios()) s.add(claveEpisodio(p.getTemporada(), p.getNumeroEpisodio()));
+                return s;
+            });
+            long clave = claveEpisodio(f.temporada, f.episodio);
+            if (episodios.contains(clave)) {
+                res.filaOmitida();
+                return null;
+            }
+            Podcast p = new Podcast(f.titulo, f.duracion, creador, f.episodio, f.temporada, f.categoria, f.texto);
+            creador.publicarPodcast(p);
+            episodios.add(clave);
+            if (f.fecha != null) p.setFechaPublicacion(f.fecha);
+            return p;
+        }
+
+        private Artista artista(String nombre) {
+            try {
+                return plataforma.buscarArtista(nombre);
+            } catch (ArtistaNoEncontradoException e) {
+                return null;
+            }
+        }
+
+        private Artista artistaObligatorio(String nombre) throws ArtistaNoEncontradoException {
+            return plataforma.buscarArtista(nombre);
+        }
+    }
+
+    private static long claveEpisodio(int temporada, int episodio) {
+        return ((long) temporada << 32) | (episodio & 0xFFFFFFFFL);
+    }
+}
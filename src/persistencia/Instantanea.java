@@ -0,0 +1,445 @@
+package persistencia;
+
+import modelo.artistas.Album;
+import modelo.artistas.Artista;
+import modelo.artistas.Creador;
+import modelo.contenido.Cancion;
+import modelo.contenido.Contenido;
+import modelo.contenido.Podcast;
+import modelo.plataforma.Anuncio;
+import modelo.plataforma.Plataforma;
+import modelo.plataforma.Playlist;
+import modelo.usuarios.Usuario;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+// Imagen binaria compacta del estado: cabecera [magia][versión][lsn][nombre], secciones por tipo
+// de entidad (cada una [int n][entradas]) y un CRC32 final de todo lo anterior.
+// El lsn indica desde qué registro del diario hay que reaplicar al recuperarla.
+final class Instantanea {
+    static final String PREFIJO = "instantanea-";
+    static final String EXTENSION = ".bin";
+    private static final int MAGIA = 0x53574931; // "SWI1"
+    // 2: añade las playlists propias de los usuarios y las seguidas; la 1 se sigue pudiendo leer
+    private static final short VERSION = 2;
+    private static final int BUFER = 1 << 16;
+
+    private Instantanea() {
+    }
+
+    // Se llama con las mutaciones detenidas: copia lo que cambian las mutaciones anotadas en el diario
+    static Captura capturar(Plataforma plataforma, long lsn) {
+        return new Captura(plataforma, lsn);
+    }
+
+    // Escribe la captura en un temporal; publicar() lo hace duradero y visible. Ya no hace falta
+    // detener las mutaciones: lo que no está en la captura no pasa por el diario.
+    static Path escribir(Path directorio, Captura captura) throws IOException {
+        Path temporal = directorio.resolve(nombre(captura.lsn) + ".tmp");
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new CheckedOutputStream(Files.newOutputStream(temporal), crc), BUFER))) {
+            out.writeInt(MAGIA);
+            out.writeShort(VERSION);
+            out.writeLong(captura.lsn);
+            Binario.escribirTexto(out, captura.nombre);
+
+            out.writeInt(captura.artistas.size());
+            for (int i = 0; i < captura.artistas.size(); i++) {
+                Artista a = captura.artistas.get(i);
+                Mutaciones.escribirArtista(out, a);
+                out.writeInt(captura.oyentes[i]);
+                Binario.escribirTexto(out, a.getBiografia());
+            }
+
+            out.writeInt(captura.albumes.size());
+            for (Album a : captura.albumes) Mutaciones.escribirAlbum(out, a);
+
+            out.writeInt(captura.creadores.size());
+            for (Creador c : captura.creadores) {
+                Mutaciones.escribirCreador(out, c);
+                out.writeInt(c.getSuscriptores());
+            }
+
+            out.writeInt(captura.catalogo.size());
+            for (int i = 0; i < captura.catalogo.size(); i++) {
+                Contenido c = captura.catalogo.get(i);
+                if (c instanceof Cancion) {
+                    out.writeByte(Mutaciones.CANCION);
+                    Mutaciones.escribirCancion(out, (Cancion) c);
+                } else {
+                    out.writeByte(Mutaciones.PODCAST);
+                    Mutaciones.escribirPodcast(out, (Podcast) c);
+                }
+                out.writeBoolean(c.isDisponible());
+                Binario.escribirFecha(out, c.getFechaPublicacion());
+                List<String> tags = c.getTags();
+                out.writeInt(tags.size());
+                for (String t : tags) Binario.escribirTexto(out, t);
+                out.writeLong(captura.reproducciones[i]);
+                out.writeLong(captura.likes[i]);
+            }
+
+            out.writeInt(captura.usuarios.size());
+            for (int i = 0; i < captura.usuarios.size(); i++) {
+                Mutaciones.escribirUsuario(out, captura.usuarios.get(i));
+                escribirIds(out, captura.historiales[i]);
+                escribirIds(out, captura.liked[i]);
+            }
+
+            out.writeInt(captura.publicas.size());
+            for (int i = 0; i < captura.publicas.size(); i++) {
+                Playlist p = captura.publicas.get(i);
+                Mutaciones.escribirPlaylist(out, p);
+                Binario.escribirTexto(out, p.getDescripcion());
+                out.writeInt(captura.seguidores[i]);
+                escribirIds(out, captura.contenidosPlaylist[i]);
+            }
+
+            // Playlists propias de los usuarios y a quién sigue cada uno (versión 2)
+            int desplazamiento = captura.publicas.size();
+            out.writeInt(captura.propias.size());
+            for (int i = 0; i < captura.propias.size(); i++) {
+                Playlist p = captura.propias.get(i);
+                Mutaciones.escribirPlaylist(out, p);
+                out.writeBoolean(p.isEsPublica());
+                Binario.escribirTexto(out, p.getDescripcion());
+                out.writeInt(captura.seguidores[desplazamiento + i]);
+                escribirIds(out, captura.contenidosPlaylist[desplazamiento + i]);
+            }
+            int conSeguidas = 0;
+            for (long[] ids : captura.seguidas) if (ids.length > 0) conSeguidas++;
+            out.writeInt(conSeguidas);
+            for (int i = 0; i < captura.usuarios.size(); i++) {
+                if (captura.seguidas[i].length == 0) continue;
+                out.writeLong(captura.usuarios.get(i).getIdNumerico());
+                escribirIds(out, captura.seguidas[i]);
+            }
+
+            out.writeInt(captura.anuncios.size());
+            for (int i = 0; i < captura.anuncios.size(); i++) {
+                Mutaciones.escribirAnuncio(out, captura.anuncios.get(i));
+                out.writeInt(captura.impresiones[i]);
+                out.writeBoolean(captura.activos[i]);
+            }
+
+            out.flush();
+            out.writeLong(crc.getValue());
+        }
+        return temporal;
+    }
+
+    static Path publicar(Path temporal, long lsn) throws IOException {
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+            canal.force(true);
+        }
+        Path destino = temporal.resolveSibling(nombre(lsn));
+        Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // El renombrado vive en el directorio: sin esto una caída podría perderlo después de borrar lo anterior
+        sincronizarDirectorio(destino.getParent());
+        return destino;
+    }
+
+    static void sincronizarDirectorio(Path directorio) throws IOException {
+        try (FileChannel canal = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        }
+    }
+
+    // Carga la instantánea sobre una plataforma recién creada y devuelve su lsn
+    static long leer(Path archivo, Restauracion restauracion, Plataforma plataforma) throws IOException {
+        verificarCrc(archivo);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(archivo), BUFER))) {
+            if (in.readInt() != MAGIA) throw new IOException("No es una instantánea: " + archivo);
+            short version = in.readShort();
+            if (version < 1 || version > VERSION) throw new IOException("Versión de instantánea no soportada: " + version);
+            long lsn = in.readLong();
+            Binario.leerTexto(in);
+
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                Artista a = restauracion.leerArtista(in);
+                a.setOyentesMensuales(in.readInt());
+                a.setBiografia(Binario.leerTexto(in));
+            }
+
+            n = in.readInt();
+            for (int i = 0; i < n; i++) restauracion.leerAlbum(in);
+
+            n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                Creador c = restauracion.leerCreador(in);
+                c.setSuscriptores(in.readInt());
+            }
+
+            // Los contadores se fijan al final: restaurar los likes de los usuarios también los incrementa
+            n = in.readInt();
+            ArrayList<Contenido> contenidos = new ArrayList<>(n);
+            long[] contadores = new long[2 * n];
+            for (int i = 0; i < n; i++) {
+                byte tipo = in.readByte();
+                Contenido c;
+                if (tipo == Mutaciones.CANCION) c = restauracion.leerCancion(in);
+                else if (tipo == Mutaciones.PODCAST) c = restauracion.leerPodcast(in);
+                else throw new IOException("Tipo de contenido desconocido: " + tipo);
+                boolean disponible = in.readBoolean();
+                Date fecha = Binario.leerFecha(in);
+                int numTags = in.readInt();
+                for (int t = 0; t < numTags; t++) {
+                    String tag = Binario.leerTexto(in);
+                    if (c != null) c.agregarTag(tag);
+                }
+                contadores[2 * i] = in.readLong();
+                contadores[2 * i + 1] = in.readLong();
+                contenidos.add(c);
+                if (c == null) continue;
+                if (!disponible) c.marcarNoDisponible();
+                c.setFechaPublicacion(fecha);
+            }
+
+            n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                Usuario u = restauracion.leerUsuario(in);
+                int numHistorial = in.readInt();
+                for (int h = 0; h < numHistorial; h++) {
+                    Contenido c = restauracion.contenido(in.readLong());
+                    if (u != null && c != null) u.agregarAlHistorial(c);
+                }
+                int numLikes = in.readInt();
+                for (int l = 0; l < numLikes; l++) {
+                    Contenido c = restauracion.contenido(in.readLong());
+                    if (u != null && c != null) u.darLike(c);
+                }
+            }
+
+            for (int i = 0; i < contenidos.size(); i++) {
+                Contenido c = contenidos.get(i);
+                if (c == null) continue;
+                c.aumentarReproducciones(contadores[2 * i] - c.getReproduccionesTotales());
+                c.aumentarLikes(contadores[2 * i + 1] - c.getLikesTotales());
+            }
+
+            // Los seguidores se fijan al final: restaurar a quién sigue cada usuario también los incrementa
+            ArrayList<Playlist> playlists = new ArrayList<>();
+            ArrayList<Integer> seguidores = new ArrayList<>();
+            n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                Playlist p = restauracion.leerPlaylist(in);
+                leerEstadoPlaylist(in, p, restauracion, playlists, seguidores);
+            }
+            if (version >= 2) {
+                n = in.readInt();
+                for (int i = 0; i < n; i++) {
+                    Playlist p = restauracion.leerPlaylistUsuario(in);
+                    boolean publica = in.readBoolean();
+                    if (p != null) p.setEsPublica(publica);
+                    leerEstadoPlaylist(in, p, restauracion, playlists, seguidores);
+                }
+                n = in.readInt();
+                for (int i = 0; i < n; i++) {
+                    long idUsuario = in.readLong();
+                    int numSeguidas = in.readInt();
+                    for (int k = 0; k < numSeguidas; k++) restauracion.seguirPlaylist(idUsuario, in.readLong());
+                }
+            }
+            for (int i = 0; i < playlists.size(); i++) playlists.get(i).setSeguidores(seguidores.get(i));
+
+            // Los anuncios de la instantánea sustituyen a los que la plataforma crea por defecto
+            for (Anuncio a : plataforma.getAnuncios()) plataforma.eliminarAnuncio(a);
+            n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                Anuncio a = restauracion.leerAnuncio(in);
+                int impresiones = in.readInt();
+                boolean activo = in.readBoolean();
+                if (a == null) continue;
+                a.setImpresiones(impresiones);
+                a.setActivo(activo);
+            }
+            return lsn;
+        }
+    }
+
+    private static void leerEstadoPlaylist(DataInputStream in, Playlist p, Restauracion restauracion,
+                                           ArrayList<Playlist> playlists, ArrayList<Integer> seguidores)
+            throws IOException {
+        String descripcion = Binario.leerTexto(in);
+        int numSeguidores = in.readInt();
+        int numContenidos = in.readInt();
+        for (int k = 0; k < numContenidos; k++) {
+            long idContenido = in.readLong();
+            if (p != null) restauracion.agregarAPlaylist(p.getIdNumerico(), idContenido);
+        }
+        if (p == null) return;
+        p.setDescripcion(descripcion);
+        playlists.add(p);
+        seguidores.add(numSeguidores);
+    }
+
+    // Se comprueba el archivo entero antes de tocar la plataforma: o se restaura completa o nada
+    private static void verificarCrc(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long cuerpo = canal.size() - Long.BYTES;
+            if (cuerpo < 0) throw new IOException("Instantánea truncada: " + archivo);
+            CRC32 crc = new CRC32();
+            ByteBuffer bufer = ByteBuffer.allocate(BUFER);
+            long leidos = 0;
+            while (leidos < cuerpo) {
+                bufer.clear().limit((int) Math.min(BUFER, cuerpo - leidos));
+                int n = canal.read(bufer, leidos);
+                if (n < 0) throw new IOException("Instantánea truncada: " + archivo);
+                bufer.flip();
+                crc.update(bufer);
+                leidos += n;
+            }
+            ByteBuffer cola = ByteBuffer.allocate(Long.BYTES);
+            while (cola.hasRemaining()) {
+                if (canal.read(cola, cuerpo + cola.position()) < 0) throw new IOException("Instantánea truncada: " + archivo);
+            }
+            if (cola.getLong(0) != crc.getValue()) throw new IOException("Instantánea corrupta (CRC): " + archivo);
+        }
+    }
+
+    // La de mayor lsn, o null si no hay ninguna
+    static Path ultima(Path directorio) throws IOException {
+        Path mejor = null;
+        long mejorLsn = -1;
+        for (Path p : listar(directorio)) {
+            long lsn = lsnDe(p);
+            if (lsn > mejorLsn) {
+                mejor = p;
+                mejorLsn = lsn;
+            }
+        }
+        return mejor;
+    }
+
+    static void eliminarAnteriores(Path directorio, long lsn) throws IOException {
+        for (Path p : listar(directorio)) {
+            if (lsnDe(p) < lsn) Files.deleteIfExists(p);
+        }
+    }
+
+    static long lsnDe(Path archivo) {
+        String n = archivo.getFileName().toString();
+        return Long.parseUnsignedLong(n.substring(PREFIJO.length(), n.length() - EXTENSION.length()), 16);
+    }
+
+    private static String nombre(long lsn) {
+        return PREFIJO + String.format("%016x", lsn) + EXTENSION;
+    }
+
+    private static List<Path> listar(Path directorio) throws IOException {
+        ArrayList<Path> res = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(directorio, PREFIJO + "*" + EXTENSION)) {
+            for (Path p : ds) res.add(p);
+        }
+        return res;
+    }
+
+    private static void escribirIds(DataOutputStream out, long[] ids) throws IOException {
+        out.writeInt(ids.length);
+        for (long id : ids) out.writeLong(id);
+    }
+
+    private static long[] ids(List<? extends Contenido> contenidos) {
+        long[] ids = new long[contenidos.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = contenidos.get(i).getIdNumerico();
+        return ids;
+    }
+
+    // Copia de lo que cambian las mutaciones del diario (altas, contadores, historiales, likes, contenidos
+    // de playlists, seguidas, anuncios), tomada con ellas detenidas para que cuadre con el lsn. Lo demás
+    // (títulos, etiquetas, biografías...) solo cambia tocando las entidades, no llega al diario, y se lee
+    // al serializar.
+    static final class Captura {
+        private final String nombre;
+        private final long lsn;
+        private final List<Artista> artistas;
+        private final int[] oyentes;
+        private final List<Album> albumes;
+        private final List<Creador> creadores;
+        private final List<Contenido> catalogo;
+        private final long[] reproducciones;
+        private final long[] likes;
+        private final List<Usuario> usuarios;
+        private final long[][] historiales;
+        private final long[][] liked;
+        private final long[][] seguidas;
+        private final List<Playlist> publicas;
+        private final List<Playlist> propias;
+        // Públicas primero y luego las propias, en el mismo orden que las listas
+        private final int[] seguidores;
+        private final long[][] contenidosPlaylist;
+        private final List<Anuncio> anuncios;
+        private final int[] impresiones;
+        private final boolean[] activos;
+
+        private Captura(Plataforma plataforma, long lsn) {
+            this.nombre = plataforma.getNombre();
+            this.lsn = lsn;
+
+            this.artistas = plataforma.getArtistas();
+            this.oyentes = new int[artistas.size()];
+            for (int i = 0; i < oyentes.length; i++) oyentes[i] = artistas.get(i).getOyentesMensuales();
+            this.albumes = plataforma.getAlbumes();
+            this.creadores = plataforma.getTodosLosCreadores();
+
+            this.catalogo = plataforma.getCatalogo();
+            this.reproducciones = new long[catalogo.size()];
+            this.likes = new long[catalogo.size()];
+            for (int i = 0; i < reproducciones.length; i++) {
+                reproducciones[i] = catalogo.get(i).getReproduccionesTotales();
+                likes[i] = catalogo.get(i).getLikesTotales();
+            }
+
+            this.usuarios = plataforma.getTodosLosUsuarios();
+            this.historiales = new long[usuarios.size()][];
+            this.liked = new long[usuarios.size()][];
+            this.seguidas = new long[usuarios.size()][];
+            this.propias = new ArrayList<>();
+            for (int i = 0; i < usuarios.size(); i++) {
+                Usuario u = usuarios.get(i);
+                historiales[i] = u.getHistorialIds();
+                liked[i] = ids(u.getContenidosLiked());
+                List<Playlist> sigue = u.getPlaylistsSeguidas();
+                seguidas[i] = new long[sigue.size()];
+                for (int k = 0; k < seguidas[i].length; k++) seguidas[i][k] = sigue.get(k).getIdNumerico();
+                propias.addAll(u.getMisPlaylists());
+            }
+
+            this.publicas = plataforma.getPlaylistsPublicas();
+            int total = publicas.size() + propias.size();
+            this.seguidores = new int[total];
+            this.contenidosPlaylist = new long[total][];
+            for (int i = 0; i < total; i++) {
+                Playlist p = i < publicas.size() ? publicas.get(i) : propias.get(i - publicas.size());
+                seguidores[i] = p.getSeguidores();
+                contenidosPlaylist[i] = ids(p.getContenidos());
+            }
+
+            this.anuncios = plataforma.getAnuncios();
+            this.impresiones = new int[anuncios.size()];
+            this.activos = new boolean[anuncios.size()];
+            for (int i = 0; i < impresiones.length; i++) {
+                impresiones[i] = anuncios.get(i).getImpresiones();
+                activos[i] = anuncios.get(i).isActivo();
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package persistencia;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+// Lectura fila a fila de una exportación en binario columnar (comprimida o no). Solo se tiene
+// en memoria el grupo de filas actual; los valores se leen por índice de columna.
+public class LectorColumnar implements Closeable {
+    private static final int BUFER = 1 << 16;
+
+    private final DataInputStream in;
+    private final String[] nombres;
+    private final byte[] tipos;
+    private final ByteBuffer[] columnas;
+    private final long[] enteros;
+    private final boolean[] booleanos;
+    private final String[] textos;
+    private int filasGrupo;
+    private int fila;
+    private boolean terminado;
+
+    public LectorColumnar(Path archivo) throws IOException {
+        InputStream bruto = new BufferedInputStream(Files.newInputStream(archivo), BUFER);
+        bruto.mark(2);
+        boolean gzip = bruto.read() == 0x1f && bruto.read() == 0x8b;
+        bruto.reset();
+        this.in = new DataInputStream(gzip ? new BufferedInputStream(new GZIPInputStream(bruto, BUFER), BUFER) : bruto);
+        try {
+            if (in.readInt() != EscritorTabla.MAGIA_COLUMNAR) throw new IOException("No es una exportación columnar: " + archivo);
+            short version = in.readShort();
+            if (version != EscritorTabla.VERSION_COLUMNAR) throw new IOException("Versión columnar no soportada: " + version);
+            int n = in.readInt();
+            if (n < 0 || n > 4096) throw new IOException("Número de columnas no válido: " + n);
+            this.nombres = new String[n];
+            this.tipos = new byte[n];
+            for (int i = 0; i < n; i++) {
+                nombres[i] = Binario.leerTexto(in);
+                tipos[i] = in.readByte();
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        this.columnas = new ByteBuffer[nombres.length];
+        this.enteros = new long[nombres.length];
+        this.booleanos = new boolean[nombres.length];
+        this.textos = new String[nombres.length];
+    }
+
+    public int getNumColumnas() {
+        return nombres.length;
+    }
+
+    public String getNombreColumna(int columna) {
+        return nombres[columna];
+    }
+
+    public int indiceDe(String nombre) {
+        for (int i = 0; i < nombres.length; i++) if (nombres[i].equals(nombre)) return i;
+        return -1;
+    }
+
+    // Avanza a la siguiente fila; false al final del archivo
+    public boolean siguiente() throws IOException {
+        if (terminado) return false;
+        if (fila + 1 >= filasGrupo && !leerGrupo()) return false;
+        fila++;
+        for (int c = 0; c < columnas.length; c++) {
+            ByteBuffer b = columnas[c];
+            switch (tipos[c]) {
+                case EscritorTabla.ENTERO:
+                    enteros[c] = b.getLong();
+                    break;
+                case EscritorTabla.BOOLEANO:
+                    booleanos[c] = b.get() != 0;
+                    break;
+                default:
+                    int len = b.getInt();
+                    if (len < 0) {
+                        textos[c] = null;
+                    } else {
+                        textos[c] = new String(b.array(), b.position(), len, StandardCharsets.UTF_8);
+                        b.position(b.position() + len);
+                    }
+            }
+        }
+        return true;
+    }
+
+    public long entero(int columna) {
+        return enteros[columna];
+    }
+
+    public boolean booleano(int columna) {
+        return booleanos[columna];
+    }
+
+    public String texto(int columna) {
+        return textos[columna];
+    }
+
+    private boolean leerGrupo() throws IOException {
+        int filas = in.readInt();
+        if (filas == 0) {
+            terminado = true;
+            return false;
+        }
+        if (filas < 0) throw new IOException("Grupo de filas no válido: " + filas);
+        for (int c = 0; c < columnas.length; c++) {
+            int bytes = in.readInt();
+            if (bytes < 0) throw new IOException("Columna de tamaño no válido: " + bytes);
+            ByteBuffer b = columnas[c];
+            if (b == null || b.capacity() < bytes) columnas[c] = b = ByteBuffer.allocate(bytes);
+            b.clear().limit(bytes);
+            in.readFully(b.array(), 0, bytes);
+        }
+        filasGrupo = filas;
+        fila = -1;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
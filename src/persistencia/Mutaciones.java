@@ -0,0 +1,110 @@
+package persistencia;
+
+import modelo.artistas.Album;
+import modelo.artistas.Artista;
+import modelo.artistas.Creador;
+import modelo.contenido.Cancion;
+import modelo.contenido.Podcast;
+import modelo.plataforma.Anuncio;
+import modelo.plataforma.Playlist;
+import modelo.usuarios.Usuario;
+import modelo.usuarios.UsuarioPremium;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+// Tipos de registro del diario y forma binaria del alta de cada entidad.
+// La instantánea reutiliza las mismas altas y les añade el estado acumulado.
+final class Mutaciones {
+    static final byte USUARIO = 1;
+    static final byte ARTISTA = 2;
+    static final byte ALBUM = 3;
+    static final byte CANCION = 4;
+    static final byte CREADOR = 5;
+    static final byte PODCAST = 6;
+    static final byte PLAYLIST = 7;
+    static final byte PLAYLIST_AGREGAR = 8;
+    static final byte PLAYLIST_QUITAR = 9;
+    static final byte REPRODUCCION = 10;
+    static final byte LIKE = 11;
+    static final byte ANUNCIO = 12;
+    static final byte ANUNCIO_ELIMINAR = 13;
+    static final byte ANUNCIO_IMPRESION = 14;
+    static final byte PLAYLIST_USUARIO = 15;
+    static final byte PLAYLIST_SEGUIR = 16;
+    static final byte PLAYLIST_DEJAR = 17;
+
+    private Mutaciones() {
+    }
+
+    static void escribirUsuario(DataOutput out, Usuario u) throws IOException {
+        out.writeLong(u.getIdNumerico());
+        out.writeBoolean(u instanceof UsuarioPremium);
+        Binario.escribirTexto(out, u.getNombre());
+        Binario.escribirTexto(out, u.getEmail());
+        Binario.escribirTexto(out, u.getPassword());
+        Binario.escribirOrdinal(out, u.getSuscripcion());
+    }
+
+    static void escribirArtista(DataOutput out, Artista a) throws IOException {
+        out.writeLong(a.getIdNumerico());
+        Binario.escribirTexto(out, a.getNombreArtistico());
+        Binario.escribirTexto(out, a.getNombreReal());
+        Binario.escribirTexto(out, a.getPaisOrigen());
+        out.writeBoolean(a.isVerificado());
+    }
+
+    static void escribirAlbum(DataOutput out, Album a) throws IOException {
+        out.writeLong(a.getIdNumerico());
+        out.writeLong(idDe(a.getArtista()));
+        Binario.escribirTexto(out, a.getTitulo());
+        Binario.escribirFecha(out, a.getFechaLanzamiento());
+    }
+
+    static void escribirCancion(DataOutput out, Cancion c) throws IOException {
+        out.writeLong(c.getIdNumerico());
+        out.writeLong(c.getAlbum() != null ? c.getAlbum().getIdNumerico() : 0);
+        out.writeLong(idDe(c.getArtista()));
+        Binario.escribirTexto(out, c.getTitulo());
+        out.writeInt(c.getDuracionSegundos());
+        Binario.escribirOrdinal(out, c.getGenero());
+        Binario.escribirTexto(out, c.getLetra());
+        out.writeBoolean(c.isExplicit());
+    }
+
+    static void escribirCreador(DataOutput out, Creador c) throws IOException {
+        out.writeLong(c.getIdNumerico());
+        Binario.escribirTexto(out, c.getNombreCanal());
+        Binario.escribirTexto(out, c.getNombre());
+        Binario.escribirTexto(out, c.getDescripcion());
+    }
+
+    static void escribirPodcast(DataOutput out, Podcast p) throws IOException {
+        out.writeLong(p.getIdNumerico());
+        out.writeLong(p.getCreador() != null ? p.getCreador().getIdNumerico() : 0);
+        Binario.escribirTexto(out, p.getTitulo());
+        out.writeInt(p.getDuracionSegundos());
+        out.writeInt(p.getNumeroEpisodio());
+        out.writeInt(p.getTemporada());
+        Binario.escribirOrdinal(out, p.getCategoria());
+        Binario.escribirTexto(out, p.getDescripcion());
+    }
+
+    static void escribirPlaylist(DataOutput out, Playlist p) throws IOException {
+        out.writeLong(p.getIdNumerico());
+        out.writeLong(p.getCreador() != null ? p.getCreador().getIdNumerico() : 0);
+        Binario.escribirTexto(out, p.getNombre());
+    }
+
+    static void escribirAnuncio(DataOutput out, Anuncio a) throws IOException {
+        out.writeLong(a.getIdNumerico());
+        Binario.escribirTexto(out, a.getEmpresa());
+        Binario.escribirOrdinal(out, a.getTipo());
+        out.writeDouble(a.getPresupuesto());
+        Binario.escribirTexto(out, a.getAudioURL());
+    }
+
+    private static long idDe(Artista a) {
+        return a != null ? a.getIdNumerico() : 0;
+    }
+}
@@ -0,0 +1,317 @@
+package persistencia;
+
+import interfaces.ObservadorPlataforma;
+import modelo.artistas.Album;
+import modelo.artistas.Artista;
+import modelo.artistas.Creador;
+import modelo.contenido.Cancion;
+import modelo.contenido.Contenido;
+import modelo.contenido.Podcast;
+import modelo.plataforma.Anuncio;
+import modelo.plataforma.Plataforma;
+import modelo.plataforma.Playlist;
+import modelo.usuarios.Usuario;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Durabilidad del estado de la plataforma: diario de mutaciones con confirmación en grupo
+// más instantáneas binarias periódicas. Al abrir se carga la última instantánea y se reaplica
+// la cola del diario; a partir de ahí cada mutación hecha a través de Plataforma se anota.
+// Lo que se modifica directamente sobre las entidades solo llega a disco con la siguiente instantánea,
+// y el modelo de recomendación no se persiste (se reentrena a partir del estado restaurado).
+public class PersistenciaPlataforma implements ObservadorPlataforma, Closeable {
+    private static final long INTERVALO_DEFAULT_MS = 2;
+    private static final int LOTE_DEFAULT = 64 * 1024;
+
+    private final Plataforma plataforma;
+    private final Path directorio;
+    private final DiarioMutaciones diario;
+    private final long registrosReaplicados;
+    private final long registrosDescartados;
+    // Búfer de codificación por hilo: los registros se arman sin asignar memoria en cada mutación
+    private final ThreadLocal<Codificador> codificadores;
+    private ScheduledExecutorService programador;
+    private volatile long lsnInstantanea;
+    private volatile IOException ultimoFallo;
+
+    private PersistenciaPlataforma(Plataforma plataforma, Path directorio, DiarioMutaciones diario,
+                                   long lsnInstantanea, Restauracion restauracion) {
+        this.plataforma = plataforma;
+        this.directorio = directorio;
+        this.diario = diario;
+        this.lsnInstantanea = lsnInstantanea;
+        this.registrosReaplicados = restauracion.getAplicados();
+        this.registrosDescartados = restauracion.getDescartados();
+        this.codificadores = ThreadLocal.withInitial(Codificador::new);
+    }
+
+    public static PersistenciaPlataforma abrir(Path directorio, Plataforma plataforma) throws IOException {
+        return abrir(directorio, plataforma, INTERVALO_DEFAULT_MS, LOTE_DEFAULT);
+    }
+
+    // Recupera el estado guardado en 'directorio' sobre una plataforma recién creada y empieza a anotar.
+    // intervaloMs: cuánto espera el escritor a juntar registros antes de cada fsync; tamanoLote: bytes que lo adelantan
+    public static PersistenciaPlataforma abrir(Path directorio, Plataforma plataforma, long intervaloMs, int tamanoLote)
+            throws IOException {
+        Files.createDirectories(directorio);
+        Restauracion restauracion = new Restauracion(plataforma);
+        Path instantanea = Instantanea.ultima(directorio);
+        long desde = instantanea != null ? Instantanea.leer(instantanea, restauracion, plataforma) : 0;
+        long siguiente = DiarioMutaciones.recorrer(directorio, desde, restauracion::aplicar);
+
+        DiarioMutaciones diario = new DiarioMutaciones(directorio, siguiente, intervaloMs, tamanoLote);
+        PersistenciaPlataforma p = new PersistenciaPlataforma(plataforma, directorio, diario, desde, restauracion);
+        plataforma.agregarObservador(p);
+        // Sin instantánea previa se toma una base con lo que ya hubiera en memoria (p. ej. el anuncio por defecto)
+        if (instantanea == null) p.tomarInstantanea();
+        return p;
+    }
+
+    // Con las mutaciones detenidas solo se fija el lsn, se copia el estado que cambian las mutaciones
+    // anotadas y se rota el diario; la serialización, el fsync y el borrado de lo que queda cubierto
+    // se hacen ya con la plataforma funcionando
+    public synchronized long tomarInstantanea() throws IOException {
+        Instantanea.Captura captura;
+        long lsn;
+        try {
+            plataforma.detenerMutaciones();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrumpido esperando a detener las mutaciones");
+        }
+        try {
+            lsn = diario.getSiguienteLsn();
+            captura = Instantanea.capturar(plataforma, lsn);
+            diario.rotar();
+        } finally {
+            plataforma.reanudarMutaciones();
+        }
+        Path temporal = Instantanea.escribir(directorio, captura);
+        Instantanea.publicar(temporal, lsn);
+        Instantanea.eliminarAnteriores(directorio, lsn);
+        diario.eliminarSegmentosAnteriores(lsn);
+        lsnInstantanea = lsn;
+        return lsn;
+    }
+
+    public synchronized void programarInstantaneas(long periodoMs) {
+        if (periodoMs <= 0) throw new IllegalArgumentException("El periodo debe ser mayor a 0");
+        if (programador != null) programador.shutdownNow();
+        programador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "instantaneas-" + plataforma.getNombre());
+            t.setDaemon(true);
+            return t;
+        });
+        programador.scheduleWithFixedDelay(() -> {
+            try {
+                tomarInstantanea();
+            } catch (IOException e) {
+                ultimoFallo = e;
+            }
+        }, periodoMs, periodoMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Espera a que todo lo anotado hasta ahora esté en disco
+    public void sincronizar() throws IOException {
+        diario.sincronizar();
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (programador != null) programador.shutdownNow();
+            programador = null;
+        }
+        plataforma.quitarObservador(this);
+        diario.close();
+    }
+
+    public long getLsnInstantanea() {
+        return lsnInstantanea;
+    }
+
+    public long getSiguienteLsn() {
+        return diario.getSiguienteLsn();
+    }
+
+    public long getLsnDurable() {
+        return diario.getLsnDurable();
+    }
+
+    public long getLotesEscritos() {
+        return diario.getLotesEscritos();
+    }
+
+    public long getRegistrosReaplicados() {
+        return registrosReaplicados;
+    }
+
+    public long getRegistrosDescartados() {
+        return registrosDescartados;
+    }
+
+    public IOException getUltimoFallo() {
+        return ultimoFallo;
+    }
+
+    // ====================== Observador ======================
+    @Override
+    public void alRegistrarUsuario(Usuario usuario) {
+        Codificador c = codificador(Mutaciones.USUARIO);
+        try {
+            Mutaciones.escribirUsuario(c.out, usuario);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        c.anotar(diario);
+    }
+
+    @Override
+    public void alRegistrarArtista(Artista artista) {
+        Codificador c = codificador(Mutaciones.ARTISTA);
+        try {
+            Mutaciones.escribirArtista(c.out, artista);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        c.anotar(diario);
+    }
+
+    @Override
+    public void alCrearAlbum(Album album) {
+        Codificador c = codificador(Mutaciones.ALBUM);
+        try {
+            Mutaciones.escribirAlbum(c.out, album);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        c.anotar(diario);
+    }
+
+    @Override
+    public void alAgregarContenido(Contenido contenido) {
+        Codificador c;
+        try {
+            if (contenido instanceof Cancion) {
+                c = codificador(Mutaciones.CANCION);
+                Mutaciones.escribirCancion(c.out, (Cancion) contenido);
+            } else {
+                c = codificador(Mutaciones.PODCAST);
+                Mutaciones.escribirPodcast(c.out, (Podcast) contenido);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        c.anotar(diario);
+    }
+
+    @Override
+    public void alRegistrarCreador(Creador creador) {
+        Codificador c = codificador(Mutaciones.CREADOR);
+        try {
+            Mutaciones.escribirCreador(c.out, creador);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        c.anotar(diario);
+    }
+
+    @Override
+    public void alCrearPlaylist(Playlist playlist) {
+        Codificador c = codificador(Mutaciones.PLAYLIST);
+        try {
+            Mutaciones.escribirPlaylist(c.out, playlist);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        c.anotar(diario);
+    }
+
+    @Override
+    public void alCrearPlaylistUsuario(Playlist playlist) {
+        Codificador c = codificador(Mutaciones.PLAYLIST_USUARIO);
+        try {
+            Mutaciones.escribirPlaylist(c.out, playlist);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        c.anotar(diario);
+    }
+
+    @Override
+    public void alAgregarAnuncio(Anuncio anuncio) {
+        Codificador c = codificador(Mutaciones.ANUNCIO);
+        try {
+            Mutaciones.escribirAnuncio(c.out, anuncio);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        c.anotar(diario);
+    }
+
+    // Los registros de dos ids van directos al búfer del diario
+    @Override
+    public void alAgregarAPlaylist(Playlist playlist, Contenido contenido) {
+        diario.anotar(Mutaciones.PLAYLIST_AGREGAR, playlist.getIdNumerico(), contenido.getIdNumerico());
+    }
+
+    @Override
+    public void alQuitarDePlaylist(Playlist playlist, Contenido contenido) {
+        diario.anotar(Mutaciones.PLAYLIST_QUITAR, playlist.getIdNumerico(), contenido.getIdNumerico());
+    }
+
+    @Override
+    public void alSeguirPlaylist(Usuario usuario, Playlist playlist) {
+        diario.anotar(Mutaciones.PLAYLIST_SEGUIR, usuario.getIdNumerico(), playlist.getIdNumerico());
+    }
+
+    @Override
+    public void alDejarDeSeguirPlaylist(Usuario usuario, Playlist playlist) {
+        diario.anotar(Mutaciones.PLAYLIST_DEJAR, usuario.getIdNumerico(), playlist.getIdNumerico());
+    }
+
+    @Override
+    public void alReproducir(Usuario usuario, Contenido contenido) {
+        diario.anotar(Mutaciones.REPRODUCCION, usuario.getIdNumerico(), contenido.getIdNumerico());
+    }
+
+    @Override
+    public void alDarLike(Usuario usuario, Contenido contenido) {
+        diario.anotar(Mutaciones.LIKE, usuario.getIdNumerico(), contenido.getIdNumerico());
+    }
+
+    @Override
+    public void alEliminarAnuncio(Anuncio anuncio) {
+        diario.anotar(Mutaciones.ANUNCIO_ELIMINAR, anuncio.getIdNumerico(), 0);
+    }
+
+    @Override
+    public void alReproducirAnuncio(Usuario usuario, Anuncio anuncio) {
+        diario.anotar(Mutaciones.ANUNCIO_IMPRESION, usuario != null ? usuario.getIdNumerico() : 0, anuncio.getIdNumerico());
+    }
+
+    private Codificador codificador(byte tipo) {
+        Codificador c = codificadores.get();
+        c.salida.reset();
+        c.salida.write(tipo);
+        return c;
+    }
+
+    private static final class Codificador {
+        final Binario.Salida salida = new Binario.Salida(256);
+        final DataOutputStream out = new DataOutputStream(salida);
+
+        void anotar(DiarioMutaciones diario) {
+            diario.anotar(salida.datos(), salida.size());
+        }
+    }
+}
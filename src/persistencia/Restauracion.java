@@ -0,0 +1,298 @@
+package persistencia;
+
+import enums.CategoriaPodcast;
+import enums.GeneroMusical;
+import enums.TipoAnuncion;
+import enums.TipoSuscripcion;
+import excepciones.artista.AlbumCompletoException;
+import excepciones.artista.AlbumYaExisteException;
+import excepciones.artista.LimiteEpisodiosException;
+import excepciones.contenido.DuracionInvalidaException;
+import excepciones.plataforma.UsuarioYaExisteException;
+import excepciones.playlist.ContenidoDuplicadoException;
+import excepciones.playlist.PlaylistLlenaException;
+import excepciones.usuario.EmailInvalidoException;
+import excepciones.usuario.PasswordDebilException;
+import modelo.artistas.Album;
+import modelo.artistas.Artista;
+import modelo.artistas.Creador;
+import modelo.contenido.Cancion;
+import modelo.contenido.Contenido;
+import modelo.contenido.Podcast;
+import modelo.plataforma.Anuncio;
+import modelo.plataforma.Plataforma;
+import modelo.plataforma.Playlist;
+import modelo.usuarios.Usuario;
+import modelo.usuarios.UsuarioGratuito;
+import modelo.usuarios.UsuarioPremium;
+import utilidades.MapaLongObjeto;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.Date;
+
+// Reconstruye entidades sobre la plataforma conservando sus ids y aplica los registros del diario.
+// Las altas pasan por la API pública de Plataforma (sin observadores todavía) para que índices,
+// ranking y métricas queden igual que en el arranque original. Un registro que ya no encaja
+// (p. ej. referencia a una entidad desconocida) se descarta y se cuenta, sin abortar la recuperación.
+final class Restauracion {
+    private final Plataforma plataforma;
+    private final MapaLongObjeto<Artista> artistas;
+    private final MapaLongObjeto<Album> albumes;
+    private final MapaLongObjeto<Creador> creadores;
+    private final MapaLongObjeto<Contenido> contenidos;
+    private final MapaLongObjeto<Playlist> playlists;
+    private final MapaLongObjeto<Anuncio> anuncios;
+    private long aplicados;
+    private long descartados;
+
+    Restauracion(Plataforma plataforma) {
+        this.plataforma = plataforma;
+        this.artistas = new MapaLongObjeto<>();
+        this.albumes = new MapaLongObjeto<>();
+        this.creadores = new MapaLongObjeto<>();
+        this.contenidos = new MapaLongObjeto<>();
+        this.playlists = new MapaLongObjeto<>();
+        this.anuncios = new MapaLongObjeto<>();
+    }
+
+    // Registro del diario: [byte tipo][campos]
+    void aplicar(byte tipo, DataInput in) throws IOException {
+        boolean ok;
+        switch (tipo) {
+            case Mutaciones.USUARIO: ok = leerUsuario(in) != null; break;
+            case Mutaciones.ARTISTA: ok = leerArtista(in) != null; break;
+            case Mutaciones.ALBUM: ok = leerAlbum(in) != null; break;
+            case Mutaciones.CANCION: ok = leerCancion(in) != null; break;
+            case Mutaciones.CREADOR: ok = leerCreador(in) != null; break;
+            case Mutaciones.PODCAST: ok = leerPodcast(in) != null; break;
+            case Mutaciones.PLAYLIST: ok = leerPlaylist(in) != null; break;
+            case Mutaciones.PLAYLIST_AGREGAR: ok = agregarAPlaylist(in.readLong(), in.readLong()); break;
+            case Mutaciones.PLAYLIST_QUITAR: ok = quitarDePlaylist(in.readLong(), in.readLong()); break;
+            case Mutaciones.REPRODUCCION: ok = reproducir(in.readLong(), in.readLong()); break;
+            case Mutaciones.LIKE: ok = darLike(in.readLong(), in.readLong()); break;
+            case Mutaciones.ANUNCIO: ok = leerAnuncio(in) != null; break;
+            case Mutaciones.ANUNCIO_ELIMINAR: ok = eliminarAnuncio(in.readLong()); break;
+            case Mutaciones.ANUNCIO_IMPRESION: in.readLong(); ok = registrarImpresion(in.readLong()); break;
+            case Mutaciones.PLAYLIST_USUARIO: ok = leerPlaylistUsuario(in) != null; break;
+            case Mutaciones.PLAYLIST_SEGUIR: ok = seguirPlaylist(in.readLong(), in.readLong()); break;
+            case Mutaciones.PLAYLIST_DEJAR: ok = dejarDeSeguirPlaylist(in.readLong(), in.readLong()); break;
+            default: throw new IOException("Tipo de registro desconocido: " + tipo);
+        }
+        if (ok) aplicados++;
+        else descartados++;
+    }
+
+    long getAplicados() {
+        return aplicados;
+    }
+
+    long getDescartados() {
+        return descartados;
+    }
+
+    // ====================== Altas ======================
+    Usuario leerUsuario(DataInput in) throws IOException {
+        long id = in.readLong();
+        boolean premium = in.readBoolean();
+        String nombre = Binario.leerTexto(in);
+        String email = Binario.leerTexto(in);
+        String password = Binario.leerTexto(in);
+        TipoSuscripcion suscripcion = Binario.leerOrdinal(in, TipoSuscripcion.values());
+        try {
+            Usuario u = premium ? new UsuarioPremium(id, nombre, email, password, suscripcion)
+                    : new UsuarioGratuito(id, nombre, email, password);
+            plataforma.registrarUsuario(u);
+            return u;
+        } catch (UsuarioYaExisteException | EmailInvalidoException | PasswordDebilException e) {
+            return null;
+        }
+    }
+
+    Artista leerArtista(DataInput in) throws IOException {
+        long id = in.readLong();
+        String nombreArtistico = Binario.leerTexto(in);
+        String nombreReal = Binario.leerTexto(in);
+        String pais = Binario.leerTexto(in);
+        boolean verificado = in.readBoolean();
+        Artista a = plataforma.registrarArtista(new Artista(id, nombreArtistico, nombreReal, pais, verificado));
+        artistas.put(id, a);
+        return a;
+    }
+
+    Album leerAlbum(DataInput in) throws IOException {
+        long id = in.readLong();
+        Artista artista = artistas.get(in.readLong());
+        String titulo = Binario.leerTexto(in);
+        Date fecha = Binario.leerFecha(in);
+        if (artista == null) return null;
+        try {
+            Album a = new Album(id, titulo, artista, fecha);
+            plataforma.agregarAlbum(a);
+            albumes.put(id, a);
+            return a;
+        } catch (AlbumYaExisteException e) {
+            return null;
+        }
+    }
+
+    Cancion leerCancion(DataInput in) throws IOException {
+        long id = in.readLong();
+        Album album = albumes.get(in.readLong());
+        Artista artista = artistas.get(in.readLong());
+        String titulo = Binario.leerTexto(in);
+        int duracion = in.readInt();
+        GeneroMusical genero = Binario.leerOrdinal(in, GeneroMusical.values());
+        String letra = Binario.leerTexto(in);
+        boolean explicit = in.readBoolean();
+        try {
+            Cancion c = new Cancion(id, titulo, duracion, artista, genero, letra, explicit);
+            if (album != null && album.getNumCanciones() < album.getMaxCanciones()) album.agregarCancion(c);
+            plataforma.agregarContenidoCatalogo(c);
+            contenidos.put(id, c);
+            return c;
+        } catch (DuracionInvalidaException | AlbumCompletoException e) {
+            return null;
+        }
+    }
+
+    Creador leerCreador(DataInput in) throws IOException {
+        long id = in.readLong();
+        String canal = Binario.leerTexto(in);
+        String nombre = Binario.leerTexto(in);
+        String descripcion = Binario.leerTexto(in);
+        Creador c = plataforma.registrarCreador(new Creador(id, canal, nombre, descripcion));
+        creadores.put(id, c);
+        return c;
+    }
+
+    Podcast leerPodcast(DataInput in) throws IOException {
+        long id = in.readLong();
+        Creador creador = creadores.get(in.readLong());
+        String titulo = Binario.leerTexto(in);
+        int duracion = in.readInt();
+        int episodio = in.readInt();
+        int temporada = in.readInt();
+        CategoriaPodcast categoria = Binario.leerOrdinal(in, CategoriaPodcast.values());
+        String descripcion = Binario.leerTexto(in);
+        if (creador == null) return null;
+        try {
+            Podcast p = new Podcast(id, titulo, duracion, creador, episodio, temporada, categoria, descripcion);
+            plataforma.publicarPodcast(p);
+            contenidos.put(id, p);
+            return p;
+        } catch (DuracionInvalidaException | LimiteEpisodiosException e) {
+            return null;
+        }
+    }
+
+    // Solo las playlists públicas pasan por la plataforma, y estas siempre son de usuarios gratuitos
+    Playlist leerPlaylist(DataInput in) throws IOException {
+        long id = in.readLong();
+        Usuario creador = plataforma.buscarUsuarioPorId(in.readLong());
+        String nombre = Binario.leerTexto(in);
+        if (!(creador instanceof UsuarioGratuito)) return null;
+        Playlist p = plataforma.agregarPlaylistPublica(new Playlist(id, nombre, creador, true, ""));
+        playlists.put(id, p);
+        return p;
+    }
+
+    // Playlist propia de un usuario (privada al crearse)
+    Playlist leerPlaylistUsuario(DataInput in) throws IOException {
+        long id = in.readLong();
+        Usuario creador = plataforma.buscarUsuarioPorId(in.readLong());
+        String nombre = Binario.leerTexto(in);
+        if (creador == null) return null;
+        Playlist p = plataforma.agregarPlaylistUsuario(new Playlist(id, nombre, creador, false, ""));
+        playlists.put(id, p);
+        return p;
+    }
+
+    Anuncio leerAnuncio(DataInput in) throws IOException {
+        long id = in.readLong();
+        String empresa = Binario.leerTexto(in);
+        TipoAnuncion tipo = Binario.leerOrdinal(in, TipoAnuncion.values());
+        double presupuesto = in.readDouble();
+        String audioURL = Binario.leerTexto(in);
+        if (tipo == null) return null;
+        Anuncio a = new Anuncio(id, empresa, tipo, presupuesto, audioURL);
+        plataforma.agregarAnuncio(a);
+        anuncios.put(id, a);
+        return a;
+    }
+
+    // ====================== Mutaciones ======================
+    boolean agregarAPlaylist(long idPlaylist, long idContenido) {
+        Playlist p = playlists.get(idPlaylist);
+        Contenido c = contenidos.get(idContenido);
+        if (p == null || c == null) return false;
+        try {
+            plataforma.agregarAPlaylist(p, c);
+            return true;
+        } catch (PlaylistLlenaException | ContenidoDuplicadoException e) {
+            return false;
+        }
+    }
+
+    boolean quitarDePlaylist(long idPlaylist, long idContenido) {
+        Playlist p = playlists.get(idPlaylist);
+        Contenido c = contenidos.get(idContenido);
+        return p != null && c != null && plataforma.quitarDePlaylist(p, c);
+    }
+
+    boolean seguirPlaylist(long idUsuario, long idPlaylist) {
+        Usuario u = plataforma.buscarUsuarioPorId(idUsuario);
+        Playlist p = playlists.get(idPlaylist);
+        return u != null && p != null && plataforma.seguirPlaylist(u, p);
+    }
+
+    boolean dejarDeSeguirPlaylist(long idUsuario, long idPlaylist) {
+        Usuario u = plataforma.buscarUsuarioPorId(idUsuario);
+        Playlist p = playlists.get(idPlaylist);
+        return u != null && p != null && plataforma.dejarDeSeguirPlaylist(u, p);
+    }
+
+    // Se aplican los efectos ya validados en su día, sin volver a comprobar límites ni anuncios
+    boolean reproducir(long idUsuario, long idContenido) {
+        Usuario u = plataforma.buscarUsuarioPorId(idUsuario);
+        Contenido c = contenidos.get(idContenido);
+        if (u == null || c == null) return false;
+        c.aumentarReproducciones();
+        if (c instanceof Cancion && ((Cancion) c).getArtista() != null) ((Cancion) c).getArtista().incrementarOyentes();
+        u.agregarAlHistorial(c);
+        return true;
+    }
+
+    boolean darLike(long idUsuario, long idContenido) {
+        Usuario u = plataforma.buscarUsuarioPorId(idUsuario);
+        Contenido c = contenidos.get(idContenido);
+        if (u == null || c == null) return false;
+        plataforma.darLike(u, c);
+        return true;
+    }
+
+    boolean eliminarAnuncio(long idAnuncio) {
+        Anuncio a = anuncios.eliminar(idAnuncio);
+        return a != null && plataforma.eliminarAnuncio(a);
+    }
+
+    boolean registrarImpresion(long idAnuncio) {
+        Anuncio a = anuncios.get(idAnuncio);
+        if (a == null) return false;
+        if (a.puedeMostrarse()) a.registrarImpresion();
+        return true;
+    }
+
+    // ====================== Búsquedas para la instantánea ======================
+    Contenido contenido(long id) {
+        return contenidos.get(id);
+    }
+
+    Playlist playlist(long id) {
+        return playlists.get(id);
+    }
+
+    Anuncio anuncio(long id) {
+        return anuncios.get(id);
+    }
+}
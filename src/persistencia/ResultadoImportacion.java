@@ -0,0 +1,96 @@
+package persistencia;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Resumen de una importación: cuántas filas entraron por tipo, cuántas se omitieron por existir ya
+// y los errores por fila (se guardan los primeros MAX_ERRORES_GUARDADOS; el total siempre se cuenta)
+public class ResultadoImportacion {
+    public static final int MAX_ERRORES_GUARDADOS = 1000;
+
+    private long filasLeidas;
+    private long artistas;
+    private long albumes;
+    private long canciones;
+    private long creadores;
+    private long podcasts;
+    private long omitidas;
+    private long numErrores;
+    private long duracionMs;
+    private final ArrayList<FilaErronea> errores;
+
+    ResultadoImportacion() {
+        this.errores = new ArrayList<>();
+    }
+
+    public static final class FilaErronea {
+        private final long linea;
+        private final String motivo;
+
+        FilaErronea(long linea, String motivo) {
+            this.linea = linea;
+            this.motivo = motivo;
+        }
+
+        public long getLinea() { return linea; }
+
+        public String getMotivo() { return motivo; }
+
+        @Override
+        public String toString() {
+            return "Línea " + linea + ": " + motivo;
+        }
+    }
+
+    void filaLeida() { filasLeidas++; }
+
+    void artistaImportado() { artistas++; }
+
+    void albumImportado() { albumes++; }
+
+    void cancionesImportadas(int n) { canciones += n; }
+
+    void creadorImportado() { creadores++; }
+
+    void podcastsImportados(int n) { podcasts += n; }
+
+    void filaOmitida() { omitidas++; }
+
+    void error(long linea, String motivo) {
+        numErrores++;
+        if (errores.size() < MAX_ERRORES_GUARDADOS) errores.add(new FilaErronea(linea, motivo));
+    }
+
+    void setDuracionMs(long duracionMs) { this.duracionMs = duracionMs; }
+
+    public long getFilasLeidas() { return filasLeidas; }
+
+    public long getArtistasImportados() { return artistas; }
+
+    public long getAlbumesImportados() { return albumes; }
+
+    public long getCancionesImportadas() { return canciones; }
+
+    public long getCreadoresImportados() { return creadores; }
+
+    public long getPodcastsImportados() { return podcasts; }
+
+    public long getFilasImportadas() { return artistas + albumes + canciones + creadores + podcasts; }
+
+    public long getFilasOmitidas() { return omitidas; }
+
+    public long getNumErrores() { return numErrores; }
+
+    public List<FilaErronea> getErrores() { return Collections.unmodifiableList(errores); }
+
+    public long getDuracionMs() { return duracionMs; }
+
+    @Override
+    public String toString() {
+        return String.format("Importación: %d filas leídas, %d importadas (%d artistas, %d álbumes, %d canciones, "
+                        + "%d creadores, %d podcasts), %d omitidas, %d errores en %d ms",
+                filasLeidas, getFilasImportadas(), artistas, albumes, canciones, creadores, podcasts,
+                omitidas, numErrores, duracionMs);
+    }
+}
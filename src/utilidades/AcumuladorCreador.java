@@ -0,0 +1,171 @@
+package utilidades;
+
+import interfaces.ObservadorContenido;
+import modelo.artistas.Creador;
+import modelo.contenido.Contenido;
+import modelo.contenido.Podcast;
+
+import java.util.HashMap;
+
+// Agregados de un creador mantenidos al vuelo: se actualizan al publicar o retirar episodios y cuando
+// cambian reproducciones, likes o temporada de alguno. Cada episodio lleva su propio observador, que recuerda
+// los últimos contadores vistos y aplica solo la diferencia. Las estadísticas se sirven como instantánea
+// inmutable que solo se reconstruye si algo cambió desde la anterior.
+public class AcumuladorCreador {
+    private final Creador creador;
+    private final HashMap<Podcast, Episodio> episodios;
+    private final MapaIntInt porTemporada;
+    private int numEpisodios;
+    private long reproducciones;
+    private long likes;
+    private long duracionSegundos;
+    private long siguienteOrden;
+    // Más reproducciones (> 0); en empate, el publicado antes. null si ninguno tiene reproducciones
+    private Episodio masPopular;
+    private long version;
+    private EstadisticasCreador instantanea;
+    private long versionInstantanea;
+
+    public AcumuladorCreador(Creador creador) {
+        this.creador = creador;
+        this.episodios = new HashMap<>();
+        this.porTemporada = new MapaIntInt();
+        this.versionInstantanea = -1;
+    }
+
+    // El observador se engancha antes de leer los contadores: lo que llegue entre medias no se pierde
+    public void agregar(Podcast podcast) {
+        Episodio e;
+        synchronized (this) {
+            e = episodios.get(podcast);
+            if (e != null) {
+                // El mismo episodio publicado dos veces cuenta dos veces, como en la lista del creador
+                e.veces++;
+                sumarEpisodio(e, 1);
+                version++;
+                return;
+            }
+            e = new Episodio(podcast, siguienteOrden++, podcast.getTemporada());
+            episodios.put(podcast, e);
+            sumarEpisodio(e, 1);
+            version++;
+        }
+        podcast.agregarObservador(e);
+        e.alCambiarReproducciones(podcast);
+        e.alCambiarLikes(podcast);
+    }
+
+    public void quitar(Podcast podcast) {
+        Episodio e;
+        synchronized (this) {
+            e = episodios.get(podcast);
+            if (e == null) return;
+            sumarEpisodio(e, -1);
+            version++;
+            if (--e.veces > 0) return;
+            episodios.remove(podcast);
+            if (masPopular == e) recalcularMasPopular();
+        }
+        podcast.quitarObservador(e);
+    }
+
+    public synchronized EstadisticasCreador obtenerEstadisticas() {
+        int suscriptores = creador.getSuscriptores();
+        if (instantanea == null || versionInstantanea != version || instantanea.getTotalSuscriptores() != suscriptores) {
+            MapaIntInt temporadas = new MapaIntInt(porTemporada.tamano());
+            porTemporada.paraCada((temporada, n) -> {
+                if (n != 0) temporadas.put(temporada, n);
+            });
+            instantanea = new EstadisticasCreador(creador, numEpisodios, reproducciones, likes, duracionSegundos,
+                    suscriptores, masPopular != null ? masPopular.podcast : null, temporadas);
+            versionInstantanea = version;
+        }
+        return instantanea;
+    }
+
+    public synchronized long getReproducciones() {
+        return reproducciones;
+    }
+
+    public synchronized int getNumEpisodios() {
+        return numEpisodios;
+    }
+
+    // Altas y bajas de una copia del episodio (signo = 1 o -1), con los contadores ya vistos
+    private void sumarEpisodio(Episodio e, int signo) {
+        numEpisodios += signo;
+        reproducciones += signo * e.reproducciones;
+        likes += signo * e.likes;
+        duracionSegundos += signo * (long) e.podcast.getDuracionSegundos();
+        porTemporada.sumar(e.temporada, signo);
+    }
+
+    private void recalcularMasPopular() {
+        masPopular = null;
+        for (Episodio e : episodios.values()) {
+            if (e.reproducciones > 0 && (masPopular == null || supera(e, masPopular))) masPopular = e;
+        }
+    }
+
+    private static boolean supera(Episodio a, Episodio b) {
+        return a.reproducciones > b.reproducciones || (a.reproducciones == b.reproducciones && a.orden < b.orden);
+    }
+
+    private final class Episodio implements ObservadorContenido {
+        private final Podcast podcast;
+        private final long orden;
+        private int temporada;
+        private int veces;
+        private long reproducciones;
+        private long likes;
+
+        private Episodio(Podcast podcast, long orden, int temporada) {
+            this.podcast = podcast;
+            this.orden = orden;
+            this.temporada = temporada;
+            this.veces = 1;
+        }
+
+        @Override
+        public void alCambiarReproducciones(Contenido contenido) {
+            synchronized (AcumuladorCreador.this) {
+                if (episodios.get(podcast) != this) return;
+                long actual = contenido.getReproduccionesTotales();
+                long delta = actual - reproducciones;
+                if (delta == 0) return;
+                reproducciones = actual;
+                AcumuladorCreador.this.reproducciones += veces * delta;
+                if (delta > 0) {
+                    if (actual > 0 && (masPopular == null || masPopular == this || supera(this, masPopular))) masPopular = this;
+                } else if (masPopular == this) {
+                    recalcularMasPopular();
+                }
+                version++;
+            }
+        }
+
+        @Override
+        public void alCambiarLikes(Contenido contenido) {
+            synchronized (AcumuladorCreador.this) {
+                if (episodios.get(podcast) != this) return;
+                long actual = contenido.getLikesTotales();
+                long delta = actual - likes;
+                if (delta == 0) return;
+                likes = actual;
+                AcumuladorCreador.this.likes += veces * delta;
+                version++;
+            }
+        }
+
+        @Override
+        public void alCambiarTemporada(Podcast p, int temporadaAnterior) {
+            synchronized (AcumuladorCreador.this) {
+                if (episodios.get(podcast) != this || p.getTemporada() == temporada) return;
+                porTemporada.sumar(temporada, -veces);
+                temporada = p.getTemporada();
+                porTemporada.sumar(temporada, veces);
+                version++;
+            }
+        }
+    }
+}
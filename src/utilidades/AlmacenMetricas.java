@@ -0,0 +1,409 @@
+package utilidades;
+
+import enums.CategoriaPodcast;
+import enums.GeneroMusical;
+import interfaces.ObservadorContenido;
+import modelo.contenido.Cancion;
+import modelo.contenido.Contenido;
+import modelo.contenido.Podcast;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Métricas del catálogo en columnas fuera del heap (ByteBuffer directo), una fila por contenido.
+// El ordinal de fila es compacto y se asigna al registrar; las columnas crecen por bloques, sin copiar.
+// Rankings filtrados y totales por propietario recorren arrays contiguos de primitivos en lugar del grafo
+// de objetos. Los contenidos siguen siendo la fuente de verdad: cada fila se refresca vía observador.
+public class AlmacenMetricas {
+    public static final int FILAS_POR_BLOQUE = 1 << 16;
+
+    private static final int TIPO_CANCION = 1;
+    private static final int TIPO_PODCAST = 2;
+    // Columna de estado: bit 0 disponible, bits 1-2 tipo, bits 8-15 género o categoría (ordinal + 1)
+    private static final int BIT_DISPONIBLE = 1;
+    private static final int DESPLAZAMIENTO_TIPO = 1;
+    private static final int DESPLAZAMIENTO_CLASE = 8;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    // Resultado de sumar las filas de un propietario (artista o creador)
+    public static final class Totales {
+        private final int numContenidos;
+        private final long reproducciones;
+        private final long likes;
+        private final long duracionSegundos;
+        private final Contenido masPopular;
+
+        private Totales(int numContenidos, long reproducciones, long likes, long duracionSegundos,
+                        Contenido masPopular) {
+            this.numContenidos = numContenidos;
+            this.reproducciones = reproducciones;
+            this.likes = likes;
+            this.duracionSegundos = duracionSegundos;
+            this.masPopular = masPopular;
+        }
+
+        public int getNumContenidos() { return numContenidos; }
+        public long getReproducciones() { return reproducciones; }
+        public long getLikes() { return likes; }
+        public long getDuracionSegundos() { return duracionSegundos; }
+        public Contenido getMasPopular() { return masPopular; }
+    }
+
+    // Bloque de FILAS_POR_BLOQUE filas: una región directa por columna
+    private static final class Bloque {
+        final ByteBuffer reproducciones = ByteBuffer.allocateDirect(FILAS_POR_BLOQUE * Long.BYTES).order(ByteOrder.nativeOrder());
+        final ByteBuffer likes = ByteBuffer.allocateDirect(FILAS_POR_BLOQUE * Long.BYTES).order(ByteOrder.nativeOrder());
+        final ByteBuffer duracion = ByteBuffer.allocateDirect(FILAS_POR_BLOQUE * Integer.BYTES).order(ByteOrder.nativeOrder());
+        final ByteBuffer estado = ByteBuffer.allocateDirect(FILAS_POR_BLOQUE * Integer.BYTES).order(ByteOrder.nativeOrder());
+        // Id del artista o creador en cuya lista de porPropietario está la fila (0: en ninguna)
+        final ByteBuffer propietario = ByteBuffer.allocateDirect(FILAS_POR_BLOQUE * Long.BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    // Observador propio de cada fila: conoce su ordinal y no hace falta buscarlo en un mapa
+    private final class Fila implements ObservadorContenido {
+        private final int ordinal;
+
+        private Fila(int ordinal) {
+            this.ordinal = ordinal;
+        }
+
+        @Override
+        public void alCambiarReproducciones(Contenido contenido) {
+            escribirReproducciones(ordinal, contenido);
+        }
+
+        @Override
+        public void alFijarReproducciones(Contenido contenido) {
+            LONGS.setVolatile(bloque(ordinal).reproducciones, posicion(ordinal) * Long.BYTES,
+                    contenido.getReproduccionesTotales());
+        }
+
+        @Override
+        public void alCambiarLikes(Contenido contenido) {
+            escribirLikes(ordinal, contenido);
+        }
+
+        @Override
+        public void alCambiarDisponibilidad(Contenido contenido) {
+            escribirEstado(ordinal, contenido);
+        }
+
+        @Override
+        public void alCambiarGenero(Cancion cancion, GeneroMusical generoAnterior) {
+            escribirEstado(ordinal, cancion);
+        }
+
+        @Override
+        public void alCambiarCategoria(Podcast podcast, CategoriaPodcast categoriaAnterior) {
+            escribirEstado(ordinal, podcast);
+        }
+
+        @Override
+        public void alCambiarPropietario(Contenido contenido, long propietario) {
+            reasignar(ordinal, propietario);
+        }
+    }
+
+    private volatile Bloque[] bloques;
+    private volatile int numFilas;
+    private final ListaConcurrente<Contenido> contenidos;
+    private final MapaLongObjetoConcurrente<ListaOrdinales> porPropietario;
+
+    public AlmacenMetricas() {
+        this.bloques = new Bloque[0];
+        this.numFilas = 0;
+        this.contenidos = new ListaConcurrente<>();
+        this.porPropietario = new MapaLongObjetoConcurrente<>();
+    }
+
+    // Asigna la siguiente fila al contenido y la rellena; devuelve su ordinal
+    public synchronized int registrar(Contenido contenido) {
+        int ordinal = numFilas;
+        if (ordinal / FILAS_POR_BLOQUE == bloques.length) {
+            Bloque[] nuevos = Arrays.copyOf(bloques, bloques.length + 1);
+            nuevos[bloques.length] = new Bloque();
+            bloques = nuevos;
+        }
+        Bloque b = bloque(ordinal);
+        int i = posicion(ordinal);
+        INTS.setVolatile(b.duracion, i * Integer.BYTES, contenido.getDuracionSegundos());
+        escribirEstado(ordinal, contenido);
+        contenidos.agregar(contenido);
+
+        // Primero el observador y luego los contadores y el propietario: ningún cambio se queda sin reflejar
+        contenido.agregarObservador(new Fila(ordinal));
+        escribirReproducciones(ordinal, contenido);
+        escribirLikes(ordinal, contenido);
+        numFilas = ordinal + 1;
+        reasignar(ordinal, propietario(contenido));
+        return ordinal;
+    }
+
+    // Mueve la fila a la lista de otro propietario; 0 la deja fuera de los totales de todos
+    public synchronized void reasignar(int ordinal, long propietario) {
+        comprobar(ordinal);
+        ByteBuffer columna = bloque(ordinal).propietario;
+        int pos = posicion(ordinal) * Long.BYTES;
+        long anterior = (long) LONGS.getVolatile(columna, pos);
+        if (anterior == propietario) return;
+        if (anterior != 0) {
+            ListaOrdinales lista = porPropietario.get(anterior);
+            synchronized (lista) {
+                lista.eliminar(ordinal);
+            }
+        }
+        if (propietario != 0) {
+            ListaOrdinales lista = porPropietario.get(propietario);
+            if (lista == null) porPropietario.put(propietario, lista = new ListaOrdinales());
+            synchronized (lista) {
+                lista.agregar(ordinal);
+            }
+        }
+        LONGS.setVolatile(columna, pos, propietario);
+    }
+
+    public int tamano() {
+        return numFilas;
+    }
+
+    public Contenido getContenido(int ordinal) {
+        return contenidos.get(ordinal);
+    }
+
+    public long getReproducciones(int ordinal) {
+        comprobar(ordinal);
+        return (long) LONGS.getVolatile(bloque(ordinal).reproducciones, posicion(ordinal) * Long.BYTES);
+    }
+
+    public long getLikes(int ordinal) {
+        comprobar(ordinal);
+        return (long) LONGS.getVolatile(bloque(ordinal).likes, posicion(ordinal) * Long.BYTES);
+    }
+
+    public int getDuracionSegundos(int ordinal) {
+        comprobar(ordinal);
+        return (int) INTS.getVolatile(bloque(ordinal).duracion, posicion(ordinal) * Integer.BYTES);
+    }
+
+    public boolean isDisponible(int ordinal) {
+        comprobar(ordinal);
+        return (estado(ordinal) & BIT_DISPONIBLE) != 0;
+    }
+
+    // Los n contenidos disponibles más reproducidos (empate: el registrado antes)
+    public ArrayList<Contenido> obtenerTop(int n) {
+        return top(n, 0, 0);
+    }
+
+    public ArrayList<Contenido> obtenerTopCanciones(int n, GeneroMusical genero) {
+        return top(n, TIPO_CANCION, genero != null ? genero.ordinal() + 1 : 0);
+    }
+
+    public ArrayList<Contenido> obtenerTopPodcasts(int n, CategoriaPodcast categoria) {
+        return top(n, TIPO_PODCAST, categoria != null ? categoria.ordinal() + 1 : 0);
+    }
+
+    // Contenidos disponibles con duración en [min, max] segundos, en orden de registro
+    public ArrayList<Contenido> filtrarPorDuracion(int minSegundos, int maxSegundos) {
+        ArrayList<Contenido> res = new ArrayList<>();
+        int filas = numFilas;
+        Bloque[] bs = bloques;
+        for (int base = 0; base < filas; base += FILAS_POR_BLOQUE) {
+            Bloque b = bs[base / FILAS_POR_BLOQUE];
+            int hasta = Math.min(FILAS_POR_BLOQUE, filas - base);
+            for (int i = 0; i < hasta; i++) {
+                int d = b.duracion.getInt(i * Integer.BYTES);
+                if (d < minSegundos || d > maxSegundos) continue;
+                if ((b.estado.getInt(i * Integer.BYTES) & BIT_DISPONIBLE) != 0) res.add(contenidos.get(base + i));
+            }
+        }
+        return res;
+    }
+
+    public long getTotalReproducciones() {
+        long total = 0;
+        int filas = numFilas;
+        Bloque[] bs = bloques;
+        for (int base = 0; base < filas; base += FILAS_POR_BLOQUE) {
+            Bloque b = bs[base / FILAS_POR_BLOQUE];
+            int hasta = Math.min(FILAS_POR_BLOQUE, filas - base);
+            for (int i = 0; i < hasta; i++) total += b.reproducciones.getLong(i * Long.BYTES);
+        }
+        return total;
+    }
+
+    // Suma las filas de un artista (sus canciones) o de un creador (sus episodios)
+    public Totales totalesDe(long idPropietario) {
+        ListaOrdinales lista = porPropietario.get(idPropietario);
+        if (lista == null) return new Totales(0, 0, 0, 0, null);
+        int[] ordinales;
+        synchronized (lista) {
+            ordinales = lista.aArreglo();
+        }
+        long reproducciones = 0, likes = 0, duracion = 0, max = -1;
+        int mejor = -1;
+        for (int o : ordinales) {
+            long r = getReproducciones(o);
+            reproducciones += r;
+            likes += getLikes(o);
+            duracion += getDuracionSegundos(o);
+            if (r > max) {
+                max = r;
+                mejor = o;
+            }
+        }
+        return new Totales(ordinales.length, reproducciones, likes, duracion, mejor >= 0 ? contenidos.get(mejor) : null);
+    }
+
+    // Selección con un montículo mínimo de (reproducciones, ordinal) en arrays primitivos
+    private ArrayList<Contenido> top(int n, int tipo, int clase) {
+        if (n <= 0) return new ArrayList<>();
+        int filas = numFilas;
+        Bloque[] bs = bloques;
+        long[] valores = new long[Math.min(n, Math.max(filas, 1))];
+        int[] ordinales = new int[valores.length];
+        int tam = 0;
+        for (int base = 0; base < filas; base += FILAS_POR_BLOQUE) {
+            Bloque b = bs[base / FILAS_POR_BLOQUE];
+            int hasta = Math.min(FILAS_POR_BLOQUE, filas - base);
+            for (int i = 0; i < hasta; i++) {
+                int e = b.estado.getInt(i * Integer.BYTES);
+                if ((e & BIT_DISPONIBLE) == 0) continue;
+                if (tipo != 0 && ((e >>> DESPLAZAMIENTO_TIPO) & 3) != tipo) continue;
+                if (clase != 0 && ((e >>> DESPLAZAMIENTO_CLASE) & 0xFF) != clase) continue;
+                long r = b.reproducciones.getLong(i * Long.BYTES);
+                int o = base + i;
+                if (tam < valores.length) {
+                    valores[tam] = r;
+                    ordinales[tam] = o;
+                    subir(valores, ordinales, tam++);
+                } else if (peor(valores[0], ordinales[0], r, o)) {
+                    valores[0] = r;
+                    ordinales[0] = o;
+                    bajar(valores, ordinales, tam);
+                }
+            }
+        }
+        // Vaciar el montículo deja los elementos del peor al mejor
+        Contenido[] orden = new Contenido[tam];
+        for (int k = tam - 1; k >= 0; k--) {
+            orden[k] = contenidos.get(ordinales[0]);
+            valores[0] = valores[k];
+            ordinales[0] = ordinales[k];
+            bajar(valores, ordinales, k);
+        }
+        return new ArrayList<>(Arrays.asList(orden));
+    }
+
+    // true si (r1, o1) queda por debajo de (r2, o2) en el ranking
+    private static boolean peor(long r1, int o1, long r2, int o2) {
+        return r1 < r2 || (r1 == r2 && o1 > o2);
+    }
+
+    private static void subir(long[] valores, int[] ordinales, int i) {
+        while (i > 0) {
+            int padre = (i - 1) >>> 1;
+            if (!peor(valores[i], ordinales[i], valores[padre], ordinales[padre])) break;
+            intercambiar(valores, ordinales, i, padre);
+            i = padre;
+        }
+    }
+
+    private static void bajar(long[] valores, int[] ordinales, int tam) {
+        int i = 0;
+        while (true) {
+            int menor = i, izq = 2 * i + 1, der = izq + 1;
+            if (izq < tam && peor(valores[izq], ordinales[izq], valores[menor], ordinales[menor])) menor = izq;
+            if (der < tam && peor(valores[der], ordinales[der], valores[menor], ordinales[menor])) menor = der;
+            if (menor == i) return;
+            intercambiar(valores, ordinales, i, menor);
+            i = menor;
+        }
+    }
+
+    private static void intercambiar(long[] valores, int[] ordinales, int a, int b) {
+        long v = valores[a];
+        valores[a] = valores[b];
+        valores[b] = v;
+        int o = ordinales[a];
+        ordinales[a] = ordinales[b];
+        ordinales[b] = o;
+    }
+
+    // Escribe y comprueba: si otro hilo dejó un valor más antiguo, se vuelve a escribir el actual
+    private void escribirReproducciones(int ordinal, Contenido contenido) {
+        escribirMaximo(bloque(ordinal).reproducciones, posicion(ordinal) * Long.BYTES, contenido.getReproduccionesTotales());
+    }
+
+    private void escribirLikes(int ordinal, Contenido contenido) {
+        escribirMaximo(bloque(ordinal).likes, posicion(ordinal) * Long.BYTES, contenido.getLikesTotales());
+    }
+
+    // Los contadores solo crecen al sumar: una sola lectura del contenido y un CAS que nunca baja la celda.
+    // Si dos avisos se cruzan, el que leyó menos no pisa al otro (fijar un valor menor va por alFijarReproducciones).
+    private static void escribirMaximo(ByteBuffer columna, int pos, long valor) {
+        long actual;
+        do {
+            actual = (long) LONGS.getVolatile(columna, pos);
+            if (actual >= valor) return;
+        } while (!LONGS.compareAndSet(columna, pos, actual, valor));
+    }
+
+    private void escribirEstado(int ordinal, Contenido contenido) {
+        ByteBuffer columna = bloque(ordinal).estado;
+        int pos = posicion(ordinal) * Integer.BYTES;
+        int valor;
+        do {
+            valor = estadoDe(contenido);
+            INTS.setVolatile(columna, pos, valor);
+        } while (valor != estadoDe(contenido));
+    }
+
+    private static int estadoDe(Contenido contenido) {
+        int e = contenido.isDisponible() ? BIT_DISPONIBLE : 0;
+        if (contenido instanceof Cancion) {
+            GeneroMusical g = ((Cancion) contenido).getGenero();
+            e |= TIPO_CANCION << DESPLAZAMIENTO_TIPO;
+            if (g != null) e |= (g.ordinal() + 1) << DESPLAZAMIENTO_CLASE;
+        } else if (contenido instanceof Podcast) {
+            CategoriaPodcast c = ((Podcast) contenido).getCategoria();
+            e |= TIPO_PODCAST << DESPLAZAMIENTO_TIPO;
+            if (c != null) e |= (c.ordinal() + 1) << DESPLAZAMIENTO_CLASE;
+        }
+        return e;
+    }
+
+    private static long propietario(Contenido contenido) {
+        if (contenido instanceof Cancion && ((Cancion) contenido).getArtista() != null) {
+            return ((Cancion) contenido).getArtista().getIdNumerico();
+        }
+        if (contenido instanceof Podcast && ((Podcast) contenido).getCreador() != null) {
+            return ((Podcast) contenido).getCreador().getIdNumerico();
+        }
+        return 0;
+    }
+
+    private int estado(int ordinal) {
+        return (int) INTS.getVolatile(bloque(ordinal).estado, posicion(ordinal) * Integer.BYTES);
+    }
+
+    private Bloque bloque(int ordinal) {
+        return bloques[ordinal / FILAS_POR_BLOQUE];
+    }
+
+    private static int posicion(int ordinal) {
+        return ordinal % FILAS_POR_BLOQUE;
+    }
+
+    private void comprobar(int ordinal) {
+        if (ordinal < 0 || ordinal >= numFilas) {
+            throw new IndexOutOfBoundsException("Ordinal fuera de rango: " + ordinal);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package utilidades;
+
+import modelo.contenido.Contenido;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Caché LRU acotada de recomendaciones por usuario, con caducidad (TTL).
+// Cada entrada recuerda la versión del modelo, del catálogo (contenidos anexados a ese modelo)
+// y del historial con que se calculó: si cualquiera ha cambiado, la entrada ya no sirve.
+public class CacheRecomendaciones {
+    public static final int CAPACIDAD_DEFAULT = 10_000;
+    public static final long TTL_DEFAULT_MS = 10 * 60 * 1000L;
+
+    private static final class Entrada {
+        final List<Contenido> resultado;
+        final long versionModelo;
+        final long versionCatalogo;
+        final long versionHistorial;
+        final long caducaEn;
+
+        Entrada(List<Contenido> resultado, long versionModelo, long versionCatalogo, long versionHistorial,
+                long caducaEn) {
+            this.resultado = resultado;
+            this.versionModelo = versionModelo;
+            this.versionCatalogo = versionCatalogo;
+            this.versionHistorial = versionHistorial;
+            this.caducaEn = caducaEn;
+        }
+    }
+
+    private final int capacidad;
+    private final long ttlMs;
+    private final LongSupplier reloj;
+    private final LinkedHashMap<String, Entrada> entradas;
+    private final AtomicLong aciertos;
+    private final AtomicLong fallos;
+
+    public CacheRecomendaciones() {
+        this(CAPACIDAD_DEFAULT, TTL_DEFAULT_MS);
+    }
+
+    public CacheRecomendaciones(int capacidad, long ttlMs) {
+        this(capacidad, ttlMs, System::currentTimeMillis);
+    }
+
+    public CacheRecomendaciones(int capacidad, long ttlMs, LongSupplier reloj) {
+        if (capacidad <= 0 || ttlMs <= 0) {
+            throw new IllegalArgumentException("Capacidad y TTL deben ser mayores a 0");
+        }
+        this.capacidad = capacidad;
+        this.ttlMs = ttlMs;
+        this.reloj = reloj;
+        // Orden de acceso: el primero es siempre el menos usado recientemente
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                return size() > CacheRecomendaciones.this.capacidad;
+            }
+        };
+        this.aciertos = new AtomicLong();
+        this.fallos = new AtomicLong();
+    }
+
+    public ArrayList<Contenido> obtener(String idUsuario, long versionModelo, long versionHistorial) {
+        return obtener(idUsuario, versionModelo, 0, versionHistorial);
+    }
+
+    // null si no hay entrada vigente para esas versiones
+    public ArrayList<Contenido> obtener(String idUsuario, long versionModelo, long versionCatalogo, long versionHistorial) {
+        synchronized (entradas) {
+            Entrada e = entradas.get(idUsuario);
+            if (e != null && e.versionModelo == versionModelo && e.versionCatalogo == versionCatalogo
+                    && e.versionHistorial == versionHistorial
+                    && reloj.getAsLong() < e.caducaEn) {
+                aciertos.incrementAndGet();
+                return new ArrayList<>(e.resultado);
+            }
+            if (e != null) entradas.remove(idUsuario);
+        }
+        fallos.incrementAndGet();
+        return null;
+    }
+
+    public void guardar(String idUsuario, long versionModelo, long versionHistorial, List<Contenido> resultado) {
+        guardar(idUsuario, versionModelo, 0, versionHistorial, resultado);
+    }
+
+    public void guardar(String idUsuario, long versionModelo, long versionCatalogo, long versionHistorial,
+                        List<Contenido> resultado) {
+        Entrada e = new Entrada(List.copyOf(resultado), versionModelo, versionCatalogo, versionHistorial,
+                reloj.getAsLong() + ttlMs);
+        synchronized (entradas) {
+            entradas.put(idUsuario, e);
+        }
+    }
+
+    public void invalidar(String idUsuario) {
+        synchronized (entradas) {
+            entradas.remove(idUsuario);
+        }
+    }
+
+    public void limpiar() {
+        synchronized (entradas) {
+            entradas.clear();
+        }
+    }
+
+    public int tamano() {
+        synchronized (entradas) {
+            return entradas.size();
+        }
+    }
+
+    public boolean contiene(String idUsuario) {
+        synchronized (entradas) {
+            return entradas.containsKey(idUsuario);
+        }
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    public long getAciertos() {
+        return aciertos.get();
+    }
+
+    public long getFallos() {
+        return fallos.get();
+    }
+}
@@ -0,0 +1,79 @@
+package utilidades;
+
+import modelo.contenido.Contenido;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// Catálogo con una partición de solo anexión por tipo concreto (Cancion, Podcast...) y una vista unificada.
+// Las consultas por tipo recorren solo su partición, sin instanceof ni casts sobre todo el catálogo.
+public class CatalogoParticionado implements Iterable<Contenido> {
+    private final ListaConcurrente<Contenido> todos;
+    private final ConcurrentHashMap<Class<?>, ListaConcurrente<? extends Contenido>> particiones;
+
+    public CatalogoParticionado() {
+        this.todos = new ListaConcurrente<>();
+        this.particiones = new ConcurrentHashMap<>();
+    }
+
+    // Serializado para que la vista unificada y cada partición conserven el mismo orden relativo
+    @SuppressWarnings("unchecked")
+    public synchronized void agregar(Contenido contenido) {
+        ListaConcurrente<Contenido> particion = (ListaConcurrente<Contenido>)
+                particiones.computeIfAbsent(contenido.getClass(), k -> new ListaConcurrente<>());
+        todos.agregar(contenido);
+        particion.agregar(contenido);
+    }
+
+    // Alta en bloque con una sola toma del monitor
+    public synchronized void agregarTodos(List<? extends Contenido> contenidos) {
+        for (Contenido c : contenidos) agregar(c);
+    }
+
+    // Partición del tipo concreto indicado (vacía si aún no hay contenidos de ese tipo)
+    @SuppressWarnings("unchecked")
+    public <T extends Contenido> ListaConcurrente<T> particion(Class<T> tipo) {
+        return (ListaConcurrente<T>) particiones.computeIfAbsent(tipo, k -> new ListaConcurrente<>());
+    }
+
+    public ListaConcurrente<Contenido> todos() {
+        return todos;
+    }
+
+    public <T extends Contenido> ArrayList<T> aArrayList(Class<T> tipo) {
+        return particion(tipo).aArrayList();
+    }
+
+    public ArrayList<Contenido> aArrayList() {
+        return todos.aArrayList();
+    }
+
+    public List<Contenido> vista() {
+        return todos.vista();
+    }
+
+    public Stream<Contenido> stream() {
+        return todos.stream();
+    }
+
+    public <T extends Contenido> Stream<T> stream(Class<T> tipo) {
+        return particion(tipo).stream();
+    }
+
+    public int tamano() {
+        return todos.tamano();
+    }
+
+    public int tamano(Class<? extends Contenido> tipo) {
+        ListaConcurrente<? extends Contenido> particion = particiones.get(tipo);
+        return particion != null ? particion.tamano() : 0;
+    }
+
+    @Override
+    public Iterator<Contenido> iterator() {
+        return todos.iterator();
+    }
+}
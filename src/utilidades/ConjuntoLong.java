@@ -0,0 +1,134 @@
+package utilidades;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+// Conjunto de long con direccionamiento abierto: un solo array, sin Long encajados.
+// El 0 marca hueco libre y se guarda aparte. No es seguro entre hilos.
+public class ConjuntoLong {
+    private static final float CARGA_MAXIMA = 0.75f;
+
+    private long[] claves;
+    private int mascara;
+    private int tamano;
+    private int limite;
+    private boolean hayCero;
+
+    public ConjuntoLong() {
+        this(16);
+    }
+
+    public ConjuntoLong(int capacidadEsperada) {
+        if (capacidadEsperada < 0) throw new IllegalArgumentException("La capacidad no puede ser negativa");
+        redimensionar(Dispersion.capacidadPara(capacidadEsperada, CARGA_MAXIMA));
+    }
+
+    // true si no estaba
+    public boolean agregar(long valor) {
+        if (valor == 0) {
+            if (hayCero) return false;
+            hayCero = true;
+            tamano++;
+            return true;
+        }
+        int pos = Dispersion.indice(valor, mascara);
+        long k;
+        while ((k = claves[pos]) != 0) {
+            if (k == valor) return false;
+            pos = (pos + 1) & mascara;
+        }
+        claves[pos] = valor;
+        if (++tamano > limite) redimensionar(claves.length * 2);
+        return true;
+    }
+
+    public boolean contiene(long valor) {
+        if (valor == 0) return hayCero;
+        int pos = Dispersion.indice(valor, mascara);
+        long k;
+        while ((k = claves[pos]) != 0) {
+            if (k == valor) return true;
+            pos = (pos + 1) & mascara;
+        }
+        return false;
+    }
+
+    public boolean eliminar(long valor) {
+        if (valor == 0) {
+            if (!hayCero) return false;
+            hayCero = false;
+            tamano--;
+            return true;
+        }
+        int pos = Dispersion.indice(valor, mascara);
+        long k;
+        while ((k = claves[pos]) != 0) {
+            if (k == valor) {
+                desplazarDesde(pos);
+                tamano--;
+                return true;
+            }
+            pos = (pos + 1) & mascara;
+        }
+        return false;
+    }
+
+    public void paraCada(LongConsumer consumidor) {
+        if (hayCero) consumidor.accept(0);
+        for (long k : claves) if (k != 0) consumidor.accept(k);
+    }
+
+    public long[] aArreglo() {
+        long[] res = new long[tamano];
+        int n = 0;
+        if (hayCero) n++;
+        for (long k : claves) if (k != 0) res[n++] = k;
+        return res;
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public boolean estaVacio() {
+        return tamano == 0;
+    }
+
+    public void limpiar() {
+        Arrays.fill(claves, 0);
+        hayCero = false;
+        tamano = 0;
+    }
+
+    private void desplazarDesde(int pos) {
+        while (true) {
+            int ultimo = pos;
+            long k;
+            while (true) {
+                pos = (pos + 1) & mascara;
+                k = claves[pos];
+                if (k == 0) {
+                    claves[ultimo] = 0;
+                    return;
+                }
+                int ideal = Dispersion.indice(k, mascara);
+                if (ultimo <= pos ? ultimo >= ideal || ideal > pos : ultimo >= ideal && ideal > pos) break;
+            }
+            claves[ultimo] = k;
+        }
+    }
+
+    private void redimensionar(int capacidad) {
+        long[] viejas = claves;
+        claves = new long[capacidad];
+        mascara = capacidad - 1;
+        limite = (int) (capacidad * CARGA_MAXIMA);
+        if (viejas == null) return;
+        for (long k : viejas) {
+            if (k == 0) continue;
+            int pos = Dispersion.indice(k, mascara);
+            while (claves[pos] != 0) pos = (pos + 1) & mascara;
+            claves[pos] = k;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package utilidades;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Contadores enteros por id de etiqueta (DiccionarioEtiquetas), por segmentos que crecen sin copiar:
+// los incrementos concurrentes nunca se pierden al ampliar.
+public class ContadorEtiquetas {
+    private static final int BITS_SEGMENTO = 10;
+    private static final int TAMANO_SEGMENTO = 1 << BITS_SEGMENTO;
+    private static final int MASCARA = TAMANO_SEGMENTO - 1;
+
+    private volatile AtomicIntegerArray[] segmentos;
+
+    public ContadorEtiquetas() {
+        this.segmentos = new AtomicIntegerArray[1];
+        this.segmentos[0] = new AtomicIntegerArray(TAMANO_SEGMENTO);
+    }
+
+    public int sumar(int id, int delta) {
+        return segmento(id).addAndGet(id & MASCARA, delta);
+    }
+
+    public int incrementar(int id) {
+        return sumar(id, 1);
+    }
+
+    // No baja de cero
+    public int decrementar(int id) {
+        AtomicIntegerArray s = segmento(id);
+        return s.updateAndGet(id & MASCARA, v -> v > 0 ? v - 1 : 0);
+    }
+
+    public int get(int id) {
+        AtomicIntegerArray[] segs = segmentos;
+        int s = id >>> BITS_SEGMENTO;
+        if (id < 0 || s >= segs.length || segs[s] == null) return 0;
+        return segs[s].get(id & MASCARA);
+    }
+
+    // Ids con contador > 0 de mayor a menor (a igualdad, el id menor primero)
+    public int[] ordenados() {
+        AtomicIntegerArray[] segs = segmentos;
+        long[] claves = new long[segs.length * TAMANO_SEGMENTO];
+        int n = 0;
+        for (int s = 0; s < segs.length; s++) {
+            if (segs[s] == null) continue;
+            for (int i = 0; i < TAMANO_SEGMENTO; i++) {
+                int v = segs[s].get(i);
+                // Clave compuesta: contador en los bits altos (invertido) e id en los bajos
+                if (v > 0) claves[n++] = ((long) (Integer.MAX_VALUE - v) << 32) | ((s << BITS_SEGMENTO) | i);
+            }
+        }
+        Arrays.sort(claves, 0, n);
+        int[] res = new int[n];
+        for (int i = 0; i < n; i++) res[i] = (int) claves[i];
+        return res;
+    }
+
+    private AtomicIntegerArray segmento(int id) {
+        if (id < 0) throw new IllegalArgumentException("Id de etiqueta negativo: " + id);
+        int s = id >>> BITS_SEGMENTO;
+        AtomicIntegerArray[] segs = segmentos;
+        if (s < segs.length && segs[s] != null) return segs[s];
+        synchronized (this) {
+            segs = segmentos;
+            if (s >= segs.length) segs = Arrays.copyOf(segs, Math.max(s + 1, segs.length * 2));
+            if (segs[s] == null) segs[s] = new AtomicIntegerArray(TAMANO_SEGMENTO);
+            segmentos = segs;
+            return segs[s];
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package utilidades;
+
+import modelo.contenido.Contenido;
+
+// Resultado de recomendación: contenido y su puntuación en [0, 1]
+public final class ContenidoPuntuado {
+    private final Contenido contenido;
+    private final double puntuacion;
+
+    public ContenidoPuntuado(Contenido contenido, double puntuacion) {
+        this.contenido = contenido;
+        this.puntuacion = puntuacion;
+    }
+
+    public Contenido getContenido() {
+        return contenido;
+    }
+
+    public double getPuntuacion() {
+        return puntuacion;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%.3f)", contenido.getTitulo(), puntuacion);
+    }
+}
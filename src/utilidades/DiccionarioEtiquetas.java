@@ -0,0 +1,73 @@
+package utilidades;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Asigna a cada etiqueta un identificador entero estable y compacto
+public class DiccionarioEtiquetas {
+    public static final int NO_ENCONTRADA = -1;
+
+    private final ConcurrentHashMap<String, Integer> ids;
+    private final ArrayList<String> nombres;
+
+    public DiccionarioEtiquetas() {
+        this.ids = new ConcurrentHashMap<>();
+        this.nombres = new ArrayList<>();
+    }
+
+    public int internar(String etiqueta) {
+        Integer id = ids.get(etiqueta);
+        if (id != null) return id;
+        synchronized (nombres) {
+            return ids.computeIfAbsent(etiqueta, e -> {
+                nombres.add(e);
+                return nombres.size() - 1;
+            });
+        }
+    }
+
+    public int buscar(String etiqueta) {
+        Integer id = ids.get(etiqueta);
+        return id != null ? id : NO_ENCONTRADA;
+    }
+
+    public String nombre(int id) {
+        synchronized (nombres) {
+            return nombres.get(id);
+        }
+    }
+
+    public int tamano() {
+        return ids.size();
+    }
+
+    // Vector disperso: ids ordenados y sin repetir
+    public int[] internarTodas(Collection<String> etiquetas) {
+        int[] res = new int[etiquetas.size()];
+        int n = 0;
+        for (String e : etiquetas) res[n++] = internar(e);
+        return ordenarSinRepetidos(res, n);
+    }
+
+    // Como internarTodas pero sin dar de alta etiquetas nuevas (se ignoran)
+    public int[] buscarTodas(Collection<String> etiquetas) {
+        int[] res = new int[etiquetas.size()];
+        int n = 0;
+        for (String e : etiquetas) {
+            int id = buscar(e);
+            if (id != NO_ENCONTRADA) res[n++] = id;
+        }
+        return ordenarSinRepetidos(res, n);
+    }
+
+    private static int[] ordenarSinRepetidos(int[] valores, int n) {
+        Arrays.sort(valores, 0, n);
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            if (k == 0 || valores[i] != valores[k - 1]) valores[k++] = valores[i];
+        }
+        return Arrays.copyOf(valores, k);
+    }
+}
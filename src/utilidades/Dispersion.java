@@ -0,0 +1,34 @@
+package utilidades;
+
+// Funciones de dispersión compartidas por las colecciones de primitivos
+final class Dispersion {
+    private static final int CAPACIDAD_MINIMA = 4;
+    private static final int CAPACIDAD_MAXIMA = 1 << 30;
+
+    private Dispersion() {
+    }
+
+    // Posición inicial del sondeo: bits bajos de la clave mezclada
+    static int indice(long clave, int mascara) {
+        return (int) mezclar(clave) & mascara;
+    }
+
+    static int indice(int clave, int mascara) {
+        int h = clave * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mascara;
+    }
+
+    // Finalizador de SplitMix64: ids consecutivos acaban repartidos por toda la tabla
+    static long mezclar(long x) {
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+
+    // Menor potencia de 2 que deja 'elementos' por debajo de la carga máxima
+    static int capacidadPara(int elementos, float cargaMaxima) {
+        long necesaria = (long) Math.ceil(elementos / (double) cargaMaxima) + 1;
+        if (necesaria > CAPACIDAD_MAXIMA) throw new IllegalArgumentException("Capacidad demasiado grande");
+        return Math.max(CAPACIDAD_MINIMA, Integer.highestOneBit((int) necesaria - 1) << 1);
+    }
+}
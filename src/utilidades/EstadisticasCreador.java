@@ -15,14 +15,48 @@ public class EstadisticasCreador {
     private int totalLikes;
     private int duracionTotalSegundos;
     private Podcast episodioMasPopular;
-    private HashMap<Integer, Integer> episodiosPorTemporada;
+    private MapaIntInt episodiosPorTemporada;
 
     public EstadisticasCreador(Creador creador) {
         this.creador = creador;
-        this.episodiosPorTemporada = new HashMap<>();
+        this.episodiosPorTemporada = new MapaIntInt();
         calcularEstadisticas();
     }
 
+    // Totales leídos de las columnas del almacén; solo el reparto por temporada mira los episodios
+    public EstadisticasCreador(Creador creador, AlmacenMetricas metricas) {
+        this.creador = creador;
+        this.episodiosPorTemporada = new MapaIntInt();
+        AlmacenMetricas.Totales t = metricas.totalesDe(creador.getIdNumerico());
+        totalEpisodios = t.getNumContenidos();
+        totalReproducciones = saturar(t.getReproducciones());
+        totalLikes = saturar(t.getLikes());
+        duracionTotalSegundos = saturar(t.getDuracionSegundos());
+        totalSuscriptores = creador.getSuscriptores();
+        episodioMasPopular = t.getMasPopular() instanceof Podcast && t.getReproducciones() > 0
+                ? (Podcast) t.getMasPopular() : null;
+        promedioReproducciones = totalEpisodios == 0 ? 0 : (double) t.getReproducciones() / totalEpisodios;
+        for (Podcast p : creador.getEpisodios()) episodiosPorTemporada.sumar(p.getTemporada(), 1);
+    }
+
+    // Instantánea ya calculada (la mantiene AcumuladorCreador); el reparto por temporada pasa a ser suyo
+    EstadisticasCreador(Creador creador, int episodios, long reproducciones, long likes, long duracionSegundos,
+                        int suscriptores, Podcast masPopular, MapaIntInt porTemporada) {
+        this.creador = creador;
+        this.episodiosPorTemporada = porTemporada;
+        totalEpisodios = episodios;
+        totalReproducciones = saturar(reproducciones);
+        totalLikes = saturar(likes);
+        duracionTotalSegundos = saturar(duracionSegundos);
+        totalSuscriptores = suscriptores;
+        episodioMasPopular = masPopular;
+        promedioReproducciones = episodios == 0 ? 0 : (double) reproducciones / episodios;
+    }
+
+    private static int saturar(long valor) {
+        return (int) Math.min(Integer.MAX_VALUE, valor);
+    }
+
     private void calcularEstadisticas() {
         if (creador.getEpisodios().isEmpty()) {
             totalEpisodios = 0;
@@ -54,7 +88,7 @@ public class EstadisticasCreador {
             }
 
             int temporada = podcast.getTemporada();
-            episodiosPorTemporada.put(temporada, episodiosPorTemporada.getOrDefault(temporada, 0) + 1);
+            episodiosPorTemporada.sumar(temporada, 1);
         }
 
         promedioReproducciones = (double) totalReproducciones / totalEpisodios;
@@ -130,7 +164,7 @@ public class EstadisticasCreador {
     }
 
     public HashMap<Integer, Integer> getEpisodiosPorTemporada() {
-        return new HashMap<>(episodiosPorTemporada);
+        return episodiosPorTemporada.aHashMap();
     }
 
     @Override
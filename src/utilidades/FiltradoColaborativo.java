@@ -0,0 +1,289 @@
+package utilidades;
+
+import modelo.contenido.Contenido;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ObjDoubleConsumer;
+import java.util.stream.IntStream;
+
+// Filtrado colaborativo usuario-usuario e ítem-ítem sobre los historiales.
+// Los k vecinos más similares (coseno) se precalculan en paralelo al construir el modelo,
+// de modo que servir una recomendación no requiere comparaciones por pares.
+public class FiltradoColaborativo {
+    public static final int K_DEFAULT = 20;
+
+    private final MapaLongInt ordinalUsuario;
+    private final long[] idsUsuario;
+    private final Contenido[] items;
+    private final MapaLongInt ordinalItem;
+    private final int[][] itemsPorUsuario;
+    private final int[][] vecinosUsuario;
+    private final double[][] similitudUsuario;
+    private final int[][] vecinosItem;
+    private final double[][] similitudItem;
+
+    // Historiales en forma de columnas: id de usuario y su historial, en el mismo orden
+    private static final class Filas<C extends Collection<Contenido>> {
+        long[] ids;
+        final ArrayList<C> historiales;
+
+        Filas(int capacidad) {
+            this.ids = new long[Math.max(capacidad, 1)];
+            this.historiales = new ArrayList<>(capacidad);
+        }
+
+        void agregar(long id, C historial) {
+            int n = historiales.size();
+            if (n == ids.length) ids = Arrays.copyOf(ids, n * 2);
+            ids[n] = id;
+            historiales.add(historial);
+        }
+
+        static <C extends Collection<Contenido>> Filas<C> desdeTexto(Map<String, C> historiales) {
+            Filas<C> f = new Filas<>(historiales.size());
+            for (Map.Entry<String, C> e : historiales.entrySet()) {
+                long id = GeneradorIds.desdeTexto(e.getKey());
+                if (id == GeneradorIds.INVALIDO) throw new IllegalArgumentException("Id de usuario inválido: " + e.getKey());
+                f.agregar(id, e.getValue());
+            }
+            return f;
+        }
+
+        static <C extends Collection<Contenido>> Filas<C> desdeMapa(MapaLongObjetoConcurrente<C> historiales) {
+            Filas<C> f = new Filas<>(historiales.tamano());
+            historiales.paraCada(f::agregar);
+            return f;
+        }
+    }
+
+    public FiltradoColaborativo(Map<String, ? extends Collection<Contenido>> historiales) {
+        this(historiales, K_DEFAULT, ForkJoinPool.commonPool());
+    }
+
+    public FiltradoColaborativo(Map<String, ? extends Collection<Contenido>> historiales, int k, ForkJoinPool pool) {
+        this(Filas.desdeTexto(historiales), k, pool);
+    }
+
+    public FiltradoColaborativo(MapaLongObjetoConcurrente<? extends Collection<Contenido>> historiales) {
+        this(historiales, K_DEFAULT, ForkJoinPool.commonPool());
+    }
+
+    public FiltradoColaborativo(MapaLongObjetoConcurrente<? extends Collection<Contenido>> historiales, int k,
+                                ForkJoinPool pool) {
+        this(Filas.desdeMapa(historiales), k, pool);
+    }
+
+    private FiltradoColaborativo(Filas<? extends Collection<Contenido>> filas, int k, ForkJoinPool pool) {
+        int numUsuarios = filas.historiales.size();
+        this.idsUsuario = Arrays.copyOf(filas.ids, numUsuarios);
+        this.ordinalUsuario = new MapaLongInt(numUsuarios);
+        this.ordinalItem = new MapaLongInt();
+        ArrayList<Contenido> listaItems = new ArrayList<>();
+        this.itemsPorUsuario = new int[numUsuarios][];
+
+        for (int u = 0; u < numUsuarios; u++) {
+            ordinalUsuario.put(idsUsuario[u], u);
+            Collection<Contenido> historial = filas.historiales.get(u);
+            ConjuntoLong distintos = new ConjuntoLong(historial.size());
+            int[] fila = new int[historial.size()];
+            int n = 0;
+            for (Contenido c : historial) {
+                if (!distintos.agregar(c.getIdNumerico())) continue;
+                int i = ordinalItem.get(c.getIdNumerico(), -1);
+                if (i < 0) {
+                    i = listaItems.size();
+                    listaItems.add(c);
+                    ordinalItem.put(c.getIdNumerico(), i);
+                }
+                fila[n++] = i;
+            }
+            fila = Arrays.copyOf(fila, n);
+            Arrays.sort(fila);
+            itemsPorUsuario[u] = fila;
+        }
+        this.items = listaItems.toArray(new Contenido[0]);
+        int[][] usuariosPorItem = transponer(itemsPorUsuario, items.length);
+
+        this.vecinosUsuario = new int[itemsPorUsuario.length][];
+        this.similitudUsuario = new double[itemsPorUsuario.length][];
+        calcularVecinos(itemsPorUsuario, usuariosPorItem, k, pool, vecinosUsuario, similitudUsuario);
+
+        this.vecinosItem = new int[items.length][];
+        this.similitudItem = new double[items.length][];
+        calcularVecinos(usuariosPorItem, itemsPorUsuario, k, pool, vecinosItem, similitudItem);
+    }
+
+    // Puntuación colaborativa normalizada a [0, 1]: vecinos del usuario + vecinos de lo que ya escuchó
+    public Puntuaciones puntuar(long idUsuario, Collection<Contenido> historial) {
+        Puntuaciones puntuaciones = new Puntuaciones();
+
+        int u = ordinalUsuario.get(idUsuario, -1);
+        if (u >= 0) {
+            for (int j = 0; j < vecinosUsuario[u].length; j++) {
+                double s = similitudUsuario[u][j];
+                for (int item : itemsPorUsuario[vecinosUsuario[u][j]]) puntuaciones.sumar(items[item], s);
+            }
+        }
+        ConjuntoLong vistos = new ConjuntoLong(historial.size());
+        for (Contenido c : historial) {
+            if (!vistos.agregar(c.getIdNumerico())) continue;
+            int i = ordinalItem.get(c.getIdNumerico(), -1);
+            if (i < 0) continue;
+            for (int j = 0; j < vecinosItem[i].length; j++) {
+                puntuaciones.sumar(items[vecinosItem[i][j]], similitudItem[i][j]);
+            }
+        }
+        puntuaciones.normalizar();
+        return puntuaciones;
+    }
+
+    // Puntuaciones dispersas en arrays primitivos, en orden de primera aparición. Solo ocupan lo que
+    // tocan los vecinos; los contenidos ya consumidos (descartar) no vuelven a salir en recorrer()
+    public static final class Puntuaciones {
+        private final MapaLongInt posiciones = new MapaLongInt();
+        private Contenido[] contenidos = new Contenido[16];
+        private double[] valores = new double[16];
+        private boolean[] descartados = new boolean[16];
+        private int tamano;
+
+        void sumar(Contenido c, double valor) {
+            int pos = posiciones.get(c.getIdNumerico(), -1);
+            if (pos >= 0) {
+                valores[pos] += valor;
+                return;
+            }
+            if (tamano == contenidos.length) {
+                contenidos = Arrays.copyOf(contenidos, tamano * 2);
+                valores = Arrays.copyOf(valores, tamano * 2);
+                descartados = Arrays.copyOf(descartados, tamano * 2);
+            }
+            posiciones.put(c.getIdNumerico(), tamano);
+            contenidos[tamano] = c;
+            valores[tamano++] = valor;
+        }
+
+        void normalizar() {
+            double max = 0;
+            for (int i = 0; i < tamano; i++) max = Math.max(max, valores[i]);
+            if (max > 0) for (int i = 0; i < tamano; i++) valores[i] /= max;
+        }
+
+        // Puntuación del contenido, o -1 si ningún vecino lo aporta
+        public double get(Contenido c) {
+            int pos = posiciones.get(c.getIdNumerico(), -1);
+            return pos < 0 ? -1 : valores[pos];
+        }
+
+        public void descartar(Contenido c) {
+            int pos = posiciones.get(c.getIdNumerico(), -1);
+            if (pos >= 0) descartados[pos] = true;
+        }
+
+        public void recorrer(ObjDoubleConsumer<Contenido> consumidor) {
+            for (int i = 0; i < tamano; i++) if (!descartados[i]) consumidor.accept(contenidos[i], valores[i]);
+        }
+
+        public int tamano() {
+            return tamano;
+        }
+    }
+
+    public long[] obtenerUsuariosSimilares(long idUsuario) {
+        int u = ordinalUsuario.get(idUsuario, -1);
+        if (u < 0) return new long[0];
+        long[] res = new long[vecinosUsuario[u].length];
+        for (int j = 0; j < res.length; j++) res[j] = idsUsuario[vecinosUsuario[u][j]];
+        return res;
+    }
+
+    public ArrayList<String> obtenerUsuariosSimilares(String idUsuario) {
+        ArrayList<String> res = new ArrayList<>();
+        for (long id : obtenerUsuariosSimilares(GeneradorIds.desdeTexto(idUsuario))) res.add(GeneradorIds.aTexto(id));
+        return res;
+    }
+
+    public ArrayList<Contenido> obtenerItemsSimilares(Contenido contenido) {
+        ArrayList<Contenido> res = new ArrayList<>();
+        int i = ordinalItem.get(contenido.getIdNumerico(), -1);
+        if (i < 0) return res;
+        for (int j : vecinosItem[i]) res.add(items[j]);
+        return res;
+    }
+
+    public int getNumUsuarios() {
+        return itemsPorUsuario.length;
+    }
+
+    public int getNumItems() {
+        return items.length;
+    }
+
+    private static int[][] transponer(int[][] filas, int numColumnas) {
+        int[] tamanos = new int[numColumnas];
+        for (int[] fila : filas) for (int c : fila) tamanos[c]++;
+        int[][] columnas = new int[numColumnas][];
+        for (int c = 0; c < numColumnas; c++) columnas[c] = new int[tamanos[c]];
+        Arrays.fill(tamanos, 0);
+        for (int f = 0; f < filas.length; f++) {
+            for (int c : filas[f]) columnas[c][tamanos[c]++] = f;
+        }
+        return columnas;
+    }
+
+    // Para cada fila, las k filas con mayor similitud coseno; solo se comparan filas que comparten alguna columna
+    private static void calcularVecinos(int[][] filas, int[][] columnas, int k, ForkJoinPool pool,
+                                        int[][] vecinos, double[][] similitudes) {
+        ThreadLocal<int[]> acumuladores = ThreadLocal.withInitial(() -> new int[filas.length]);
+        Runnable tarea = () -> IntStream.range(0, filas.length).parallel().forEach(f -> {
+            int[] coincidencias = acumuladores.get();
+            int[] tocados = new int[16];
+            int numTocados = 0;
+            for (int c : filas[f]) {
+                for (int otra : columnas[c]) {
+                    if (otra == f) continue;
+                    if (coincidencias[otra]++ == 0) {
+                        if (numTocados == tocados.length) tocados = Arrays.copyOf(tocados, numTocados * 2);
+                        tocados[numTocados++] = otra;
+                    }
+                }
+            }
+
+            int[] mejores = new int[Math.min(k, numTocados)];
+            double[] sims = new double[mejores.length];
+            int n = 0;
+            for (int t = 0; t < numTocados; t++) {
+                int otra = tocados[t];
+                double s = coincidencias[otra] / Math.sqrt((double) filas[f].length * filas[otra].length);
+                coincidencias[otra] = 0;
+                if (mejores.length == 0) continue;
+                if (n < mejores.length) n++;
+                else if (s <= sims[n - 1]) continue;
+                // Inserción ordenada (k es pequeño)
+                int pos = n - 1;
+                while (pos > 0 && sims[pos - 1] < s) {
+                    sims[pos] = sims[pos - 1];
+                    mejores[pos] = mejores[pos - 1];
+                    pos--;
+                }
+                sims[pos] = s;
+                mejores[pos] = otra;
+            }
+            vecinos[f] = mejores;
+            similitudes[f] = sims;
+        });
+
+        try {
+            pool.submit(tarea).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Cálculo de vecinos interrumpido", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error calculando vecinos", e.getCause());
+        }
+    }
+}
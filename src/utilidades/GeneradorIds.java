@@ -0,0 +1,94 @@
+package utilidades;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Identificadores de 64 bits al estilo Snowflake: 41 bits de milisegundos desde EPOCA,
+// 10 bits de nodo y 12 de secuencia. Son crecientes, únicos por nodo y no tocan SecureRandom.
+// La forma de texto (16 dígitos hexadecimales) solo se genera cuando alguien la pide.
+public final class GeneradorIds {
+    public static final long EPOCA = 1704067200000L; // 2024-01-01T00:00:00Z
+    public static final long INVALIDO = -1L;
+    public static final int MAX_NODO = 1023;
+
+    private static final int BITS_SECUENCIA = 12;
+    private static final int BITS_NODO = 10;
+    private static final long MASCARA_SECUENCIA = (1L << BITS_SECUENCIA) - 1;
+    private static final long MASCARA_NODO = (long) MAX_NODO << BITS_SECUENCIA;
+    private static final int DESPLAZAMIENTO_TIEMPO = BITS_SECUENCIA + BITS_NODO;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final AtomicLong ultimo = new AtomicLong();
+    private static volatile long nodo = 0;
+
+    private GeneradorIds() {
+    }
+
+    public static void configurarNodo(int nuevoNodo) {
+        if (nuevoNodo < 0 || nuevoNodo > MAX_NODO) {
+            throw new IllegalArgumentException("El nodo debe estar entre 0 y " + MAX_NODO);
+        }
+        nodo = nuevoNodo;
+    }
+
+    public static long siguiente() {
+        while (true) {
+            long anterior = ultimo.get();
+            long base = ((System.currentTimeMillis() - EPOCA) << DESPLAZAMIENTO_TIEMPO) | (nodo << BITS_SECUENCIA);
+            long candidato;
+            if (base > anterior) {
+                candidato = base;
+            } else {
+                // El anterior puede venir de otro nodo (avanzarHasta al restaurar): se conservan su tiempo y
+                // su secuencia, pero con los bits de este nodo
+                long propio = (anterior & ~MASCARA_NODO) | (nodo << BITS_SECUENCIA);
+                if (propio > anterior) {
+                    candidato = propio;
+                } else if (propio == anterior && (anterior & MASCARA_SECUENCIA) != MASCARA_SECUENCIA) {
+                    candidato = anterior + 1;
+                } else {
+                    // Secuencia agotada, reloj atrasado o nodo anterior mayor: se toma prestado el siguiente milisegundo
+                    candidato = (((anterior >>> DESPLAZAMIENTO_TIEMPO) + 1) << DESPLAZAMIENTO_TIEMPO)
+                            | (nodo << BITS_SECUENCIA);
+                }
+            }
+            if (ultimo.compareAndSet(anterior, candidato)) return candidato;
+        }
+    }
+
+    // Garantiza que los ids generados a partir de ahora sean mayores que 'id' (al restaurar entidades persistidas)
+    public static void avanzarHasta(long id) {
+        long anterior;
+        while ((anterior = ultimo.get()) < id) {
+            if (ultimo.compareAndSet(anterior, id)) return;
+        }
+    }
+
+    public static String aTexto(long id) {
+        char[] res = new char[16];
+        for (int i = 15; i >= 0; i--) {
+            res[i] = HEX[(int) (id & 0xF)];
+            id >>>= 4;
+        }
+        return new String(res);
+    }
+
+    // INVALIDO si el texto no es un id bien formado
+    public static long desdeTexto(String texto) {
+        if (texto == null || texto.length() != 16) return INVALIDO;
+        long id = 0;
+        for (int i = 0; i < 16; i++) {
+            int d = Character.digit(texto.charAt(i), 16);
+            if (d < 0) return INVALIDO;
+            id = (id << 4) | d;
+        }
+        return id;
+    }
+
+    public static long marcaTiempo(long id) {
+        return (id >>> DESPLAZAMIENTO_TIEMPO) + EPOCA;
+    }
+
+    public static int nodoDe(long id) {
+        return (int) ((id >>> BITS_SECUENCIA) & MAX_NODO);
+    }
+}
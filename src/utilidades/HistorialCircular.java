@@ -0,0 +1,99 @@
+package utilidades;
+
+import modelo.contenido.Contenido;
+
+import java.util.ArrayList;
+
+// Búfer circular de ids de contenido (long[]) de capacidad fija, con conteo de apariciones por id
+// para consultas de pertenencia O(1). Para devolver los contenidos se guarda una sola referencia
+// por contenido distinto, que se suelta cuando su última aparición sale del búfer.
+public class HistorialCircular {
+    private final long[] ids;
+    private final MapaLongInt apariciones;
+    private final MapaLongObjeto<Contenido> distintos;
+    private int inicio;
+    private int tamano;
+
+    public HistorialCircular(int capacidad) {
+        if (capacidad <= 0) throw new IllegalArgumentException("La capacidad debe ser mayor a 0");
+        this.ids = new long[capacidad];
+        this.apariciones = new MapaLongInt();
+        this.distintos = new MapaLongObjeto<>();
+        this.inicio = 0;
+        this.tamano = 0;
+    }
+
+    public void agregar(Contenido contenido) {
+        long id = contenido.getIdNumerico();
+        if (tamano == ids.length) {
+            // Lleno: se sobrescribe el más antiguo
+            expulsar(ids[inicio]);
+            ids[inicio] = id;
+            inicio = (inicio + 1) % ids.length;
+        } else {
+            ids[(inicio + tamano) % ids.length] = id;
+            tamano++;
+        }
+        int n = apariciones.get(id, 0);
+        apariciones.put(id, n + 1);
+        if (n == 0) distintos.put(id, contenido);
+    }
+
+    private void expulsar(long id) {
+        int n = apariciones.get(id, 0);
+        if (n > 1) {
+            apariciones.put(id, n - 1);
+        } else {
+            apariciones.eliminar(id);
+            distintos.eliminar(id);
+        }
+    }
+
+    public boolean contiene(Contenido contenido) {
+        return apariciones.contiene(contenido.getIdNumerico());
+    }
+
+    public boolean contiene(long id) {
+        return apariciones.contiene(id);
+    }
+
+    public int contarApariciones(Contenido contenido) {
+        return apariciones.get(contenido.getIdNumerico(), 0);
+    }
+
+    public int contarDistintos() {
+        return apariciones.tamano();
+    }
+
+    // Del más antiguo al más reciente
+    public ArrayList<Contenido> aLista() {
+        ArrayList<Contenido> lista = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) lista.add(distintos.get(ids[(inicio + i) % ids.length]));
+        return lista;
+    }
+
+    public long[] aIds() {
+        long[] res = new long[tamano];
+        for (int i = 0; i < tamano; i++) res[i] = ids[(inicio + i) % ids.length];
+        return res;
+    }
+
+    public void limpiar() {
+        apariciones.limpiar();
+        distintos.limpiar();
+        inicio = 0;
+        tamano = 0;
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public int capacidad() {
+        return ids.length;
+    }
+
+    public boolean estaVacio() {
+        return tamano == 0;
+    }
+}
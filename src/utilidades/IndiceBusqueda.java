@@ -0,0 +1,214 @@
+package utilidades;
+
+import interfaces.ObservadorContenido;
+import modelo.contenido.Contenido;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice invertido de títulos: n-gramas de 1 a 3 caracteres para búsquedas por subcadena y tokens para
+// búsquedas por prefijo. Una consulta de 1 o 2 caracteres es directamente su lista de n-gramas.
+// Las búsquedas comparten un bloqueo de lectura; altas y cambios de título toman el de escritura.
+public class IndiceBusqueda implements ObservadorContenido {
+    private static final int TAMANO_NGRAMA = 3;
+
+    private final ArrayList<Contenido> contenidos;
+    private final ArrayList<String> titulosNormalizados;
+    private final HashMap<Contenido, Integer> ordinales;
+    private final HashMap<String, ListaOrdinales> ngramas;
+    private final TreeMap<String, ListaOrdinales> tokens;
+    private final ReentrantReadWriteLock lock;
+
+    public IndiceBusqueda() {
+        this.contenidos = new ArrayList<>();
+        this.titulosNormalizados = new ArrayList<>();
+        this.ordinales = new HashMap<>();
+        this.ngramas = new HashMap<>();
+        this.tokens = new TreeMap<>();
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    public void agregar(Contenido contenido) {
+        lock.writeLock().lock();
+        try {
+            if (ordinales.containsKey(contenido)) return;
+            int ordinal = contenidos.size();
+            String titulo = normalizar(contenido.getTitulo());
+            contenidos.add(contenido);
+            titulosNormalizados.add(titulo);
+            ordinales.put(contenido, ordinal);
+            indexarTitulo(ordinal, titulo);
+            // Dentro del bloqueo: un cambio de título concurrente espera a que el alta termine y se ve
+            contenido.agregarObservador(this);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Alta en bloque: los títulos se normalizan fuera del bloqueo y se indexan con una sola toma de escritura
+    public void agregarTodos(List<? extends Contenido> nuevos) {
+        String[] titulos = new String[nuevos.size()];
+        for (int i = 0; i < titulos.length; i++) titulos[i] = normalizar(nuevos.get(i).getTitulo());
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < titulos.length; i++) {
+                Contenido contenido = nuevos.get(i);
+                if (ordinales.containsKey(contenido)) continue;
+                int ordinal = contenidos.size();
+                contenidos.add(contenido);
+                titulosNormalizados.add(titulos[i]);
+                ordinales.put(contenido, ordinal);
+                indexarTitulo(ordinal, titulos[i]);
+                contenido.agregarObservador(this);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void alCambiarTitulo(Contenido contenido, String tituloAnterior) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinales.get(contenido);
+            if (ordinal == null) return;
+            // Se retira lo indexado para el título anterior (su forma normalizada guardada) antes de indexar el nuevo
+            String titulo = normalizar(contenido.getTitulo());
+            desindexarTitulo(ordinal, titulosNormalizados.get(ordinal));
+            titulosNormalizados.set(ordinal, titulo);
+            indexarTitulo(ordinal, titulo);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Mismo criterio que la búsqueda lineal: subcadena sin distinguir mayúsculas
+    public ArrayList<Contenido> buscar(String texto) {
+        lock.readLock().lock();
+        try {
+            return buscarSinBloqueo(normalizar(texto));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private ArrayList<Contenido> buscarSinBloqueo(String consulta) {
+        ArrayList<Contenido> res = new ArrayList<>();
+
+        if (consulta.isEmpty()) return new ArrayList<>(contenidos);
+        if (consulta.length() < TAMANO_NGRAMA) {
+            // Los n-gramas cortos se indexan todos: la lista ya es la respuesta exacta, en orden de alta
+            ListaOrdinales lista = ngramas.get(consulta);
+            if (lista == null) return res;
+            for (int i = 0; i < lista.tamano(); i++) res.add(contenidos.get(lista.get(i)));
+            return res;
+        }
+
+        HashSet<String> gramasConsulta = new HashSet<>();
+        for (int i = 0; i + TAMANO_NGRAMA <= consulta.length(); i++) {
+            gramasConsulta.add(consulta.substring(i, i + TAMANO_NGRAMA));
+        }
+        ListaOrdinales[] listas = new ListaOrdinales[gramasConsulta.size()];
+        int k = 0;
+        for (String g : gramasConsulta) {
+            ListaOrdinales lista = ngramas.get(g);
+            if (lista == null) return res;
+            listas[k++] = lista;
+        }
+
+        for (int ordinal : ListaOrdinales.interseccion(listas)) {
+            if (titulosNormalizados.get(ordinal).contains(consulta)) res.add(contenidos.get(ordinal));
+        }
+        return res;
+    }
+
+    // Contenidos con alguna palabra del título que empieza por el prefijo
+    public ArrayList<Contenido> buscarPorPrefijo(String prefijo) {
+        String p = normalizar(prefijo);
+        if (p.isEmpty()) return new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            return buscarPorPrefijoSinBloqueo(p);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Las listas de los tokens se concatenan y se ordenan una vez; un título con varios tokens que
+    // empiezan por el prefijo aparece repetido y se descarta al recorrer el arreglo ordenado
+    private ArrayList<Contenido> buscarPorPrefijoSinBloqueo(String p) {
+        Map<String, ListaOrdinales> rango = tokens.subMap(p, true, p + Character.MAX_VALUE, true);
+        int total = 0;
+        for (ListaOrdinales lista : rango.values()) total += lista.tamano();
+        int[] candidatos = new int[total];
+        int n = 0;
+        for (ListaOrdinales lista : rango.values()) {
+            for (int i = 0; i < lista.tamano(); i++) candidatos[n++] = lista.get(i);
+        }
+        Arrays.sort(candidatos);
+
+        ArrayList<Contenido> res = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (i > 0 && candidatos[i] == candidatos[i - 1]) continue;
+            res.add(contenidos.get(candidatos[i]));
+        }
+        return res;
+    }
+
+    public int getNumContenidos() {
+        lock.readLock().lock();
+        try {
+            return contenidos.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void indexarTitulo(int ordinal, String titulo) {
+        for (int n = 1; n <= TAMANO_NGRAMA; n++) {
+            for (int i = 0; i + n <= titulo.length(); i++) {
+                ngramas.computeIfAbsent(titulo.substring(i, i + n), g -> new ListaOrdinales()).agregar(ordinal);
+            }
+        }
+        for (String token : tokenizar(titulo)) {
+            tokens.computeIfAbsent(token, t -> new ListaOrdinales()).agregar(ordinal);
+        }
+    }
+
+    private void desindexarTitulo(int ordinal, String titulo) {
+        for (int n = 1; n <= TAMANO_NGRAMA; n++) {
+            for (int i = 0; i + n <= titulo.length(); i++) eliminarDe(ngramas, titulo.substring(i, i + n), ordinal);
+        }
+        for (String token : tokenizar(titulo)) eliminarDe(tokens, token, ordinal);
+    }
+
+    private static void eliminarDe(Map<String, ListaOrdinales> postings, String clave, int ordinal) {
+        ListaOrdinales lista = postings.get(clave);
+        if (lista != null && lista.eliminar(ordinal) && lista.tamano() == 0) postings.remove(clave);
+    }
+
+    private static ArrayList<String> tokenizar(String titulo) {
+        ArrayList<String> res = new ArrayList<>();
+        int inicio = -1;
+        for (int i = 0; i <= titulo.length(); i++) {
+            boolean alfanumerico = i < titulo.length() && Character.isLetterOrDigit(titulo.charAt(i));
+            if (alfanumerico && inicio < 0) {
+                inicio = i;
+            } else if (!alfanumerico && inicio >= 0) {
+                res.add(titulo.substring(inicio, i));
+                inicio = -1;
+            }
+        }
+        return res;
+    }
+
+    private static String normalizar(String texto) {
+        return texto == null ? "" : texto.toLowerCase();
+    }
+}
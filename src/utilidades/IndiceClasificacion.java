@@ -0,0 +1,109 @@
+package utilidades;
+
+import enums.CategoriaPodcast;
+import enums.GeneroMusical;
+import interfaces.ObservadorContenido;
+import modelo.contenido.Cancion;
+import modelo.contenido.Podcast;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índices secundarios género -> canciones y categoría -> podcasts
+public class IndiceClasificacion implements ObservadorContenido {
+    private final EnumMap<GeneroMusical, LinkedHashSet<Cancion>> porGenero;
+    private final EnumMap<CategoriaPodcast, LinkedHashSet<Podcast>> porCategoria;
+    private final ReentrantReadWriteLock lock;
+
+    public IndiceClasificacion() {
+        this.porGenero = new EnumMap<>(GeneroMusical.class);
+        this.porCategoria = new EnumMap<>(CategoriaPodcast.class);
+        this.lock = new ReentrantReadWriteLock();
+        for (GeneroMusical g : GeneroMusical.values()) porGenero.put(g, new LinkedHashSet<>());
+        for (CategoriaPodcast c : CategoriaPodcast.values()) porCategoria.put(c, new LinkedHashSet<>());
+    }
+
+    public void agregar(Cancion cancion) {
+        lock.writeLock().lock();
+        try {
+            if (cancion.getGenero() != null) porGenero.get(cancion.getGenero()).add(cancion);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        cancion.agregarObservador(this);
+    }
+
+    public void agregar(Podcast podcast) {
+        lock.writeLock().lock();
+        try {
+            if (podcast.getCategoria() != null) porCategoria.get(podcast.getCategoria()).add(podcast);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        podcast.agregarObservador(this);
+    }
+
+    @Override
+    public void alCambiarGenero(Cancion cancion, GeneroMusical generoAnterior) {
+        lock.writeLock().lock();
+        try {
+            if (generoAnterior != null && !porGenero.get(generoAnterior).remove(cancion)) return;
+            if (cancion.getGenero() != null) porGenero.get(cancion.getGenero()).add(cancion);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void alCambiarCategoria(Podcast podcast, CategoriaPodcast categoriaAnterior) {
+        lock.writeLock().lock();
+        try {
+            if (categoriaAnterior != null && !porCategoria.get(categoriaAnterior).remove(podcast)) return;
+            if (podcast.getCategoria() != null) porCategoria.get(podcast.getCategoria()).add(podcast);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ArrayList<Cancion> getCanciones(GeneroMusical genero) {
+        if (genero == null) return new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(porGenero.get(genero));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public ArrayList<Podcast> getPodcasts(CategoriaPodcast categoria) {
+        if (categoria == null) return new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(porCategoria.get(categoria));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int contarCanciones(GeneroMusical genero) {
+        if (genero == null) return 0;
+        lock.readLock().lock();
+        try {
+            return porGenero.get(genero).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int contarPodcasts(CategoriaPodcast categoria) {
+        if (categoria == null) return 0;
+        lock.readLock().lock();
+        try {
+            return porCategoria.get(categoria).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package utilidades;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+// MinHash + LSH por bandas sobre conjuntos de etiquetas (ids internados).
+// Dos conjuntos con Jaccard J coinciden en alguna banda con probabilidad 1 - (1 - J^filas)^bandas:
+// más bandas suben el recall, más filas por banda reducen los candidatos (y la latencia).
+public class IndiceLSH {
+    public static final int BANDAS_DEFAULT = 16;
+    public static final int FILAS_DEFAULT = 2;
+    private static final long SEMILLA = 0x5EEDCAFEL;
+
+    private final int bandas;
+    private final int filas;
+    private final long[] multiplicadores;
+    private final long[] desplazamientos;
+    private final HashMap<Long, ListaOrdinales>[] cubetas;
+
+    public IndiceLSH(int[][] conjuntos) {
+        this(conjuntos, BANDAS_DEFAULT, FILAS_DEFAULT);
+    }
+
+    @SuppressWarnings("unchecked")
+    public IndiceLSH(int[][] conjuntos, int bandas, int filas) {
+        if (bandas <= 0 || filas <= 0) {
+            throw new IllegalArgumentException("Bandas y filas deben ser mayores a 0");
+        }
+        this.bandas = bandas;
+        this.filas = filas;
+        this.multiplicadores = new long[bandas * filas];
+        this.desplazamientos = new long[bandas * filas];
+        Random random = new Random(SEMILLA);
+        for (int i = 0; i < multiplicadores.length; i++) {
+            multiplicadores[i] = random.nextLong() | 1L;
+            desplazamientos[i] = random.nextLong();
+        }
+
+        this.cubetas = (HashMap<Long, ListaOrdinales>[]) new HashMap<?, ?>[bandas];
+        for (int b = 0; b < bandas; b++) cubetas[b] = new HashMap<>();
+        for (int ordinal = 0; ordinal < conjuntos.length; ordinal++) {
+            if (conjuntos[ordinal].length == 0) continue;
+            long[] claves = clavesBandas(conjuntos[ordinal]);
+            for (int b = 0; b < bandas; b++) {
+                // Los ordinales llegan crecientes: cada inserción es un append
+                cubetas[b].computeIfAbsent(claves[b], k -> new ListaOrdinales()).agregar(ordinal);
+            }
+        }
+    }
+
+    // Ordinales (ordenados y sin repetir) que comparten al menos una banda con el conjunto
+    public int[] candidatos(int[] conjunto) {
+        if (conjunto.length == 0) return new int[0];
+        long[] claves = clavesBandas(conjunto);
+        int[] res = new int[16];
+        int n = 0;
+        for (int b = 0; b < bandas; b++) {
+            ListaOrdinales cubeta = cubetas[b].get(claves[b]);
+            if (cubeta == null) continue;
+            if (n + cubeta.tamano() > res.length) res = Arrays.copyOf(res, Math.max(res.length * 2, n + cubeta.tamano()));
+            for (int i = 0; i < cubeta.tamano(); i++) res[n++] = cubeta.get(i);
+        }
+        Arrays.sort(res, 0, n);
+        int distintos = 0;
+        for (int i = 0; i < n; i++) {
+            if (distintos == 0 || res[i] != res[distintos - 1]) res[distintos++] = res[i];
+        }
+        return Arrays.copyOf(res, distintos);
+    }
+
+    public int getBandas() {
+        return bandas;
+    }
+
+    public int getFilas() {
+        return filas;
+    }
+
+    private long[] clavesBandas(int[] conjunto) {
+        long[] claves = new long[bandas];
+        for (int b = 0; b < bandas; b++) {
+            long clave = b;
+            for (int f = 0; f < filas; f++) {
+                int h = b * filas + f;
+                long minimo = Long.MAX_VALUE;
+                for (int id : conjunto) {
+                    minimo = Math.min(minimo, Dispersion.mezclar(id * multiplicadores[h] + desplazamientos[h]));
+                }
+                clave = Dispersion.mezclar(clave ^ minimo);
+            }
+            claves[b] = clave;
+        }
+        return claves;
+    }
+}
@@ -0,0 +1,180 @@
+package utilidades;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Lista de solo anexión por segmentos: escrituras serializadas, lecturas sin bloqueo
+public class ListaConcurrente<T> implements Iterable<T> {
+    private static final int BITS_SEGMENTO = 10;
+    private static final int TAMANO_SEGMENTO = 1 << BITS_SEGMENTO;
+    private static final int MASCARA = TAMANO_SEGMENTO - 1;
+
+    private volatile Object[][] segmentos;
+    private volatile int tamano;
+
+    public ListaConcurrente() {
+        this.segmentos = new Object[4][];
+        this.tamano = 0;
+    }
+
+    public synchronized void agregar(T elemento) {
+        int i = tamano;
+        int s = i >>> BITS_SEGMENTO;
+        Object[][] segs = segmentos;
+        if (s == segs.length) segs = Arrays.copyOf(segs, segs.length * 2);
+        if (segs[s] == null) segs[s] = new Object[TAMANO_SEGMENTO];
+        segs[s][i & MASCARA] = elemento;
+        segmentos = segs;
+        // La escritura volátil del tamaño publica el elemento a los lectores
+        tamano = i + 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int indice) {
+        if (indice < 0 || indice >= tamano) {
+            throw new IndexOutOfBoundsException("Índice " + indice + " fuera de rango");
+        }
+        return (T) segmentos[indice >>> BITS_SEGMENTO][indice & MASCARA];
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public boolean estaVacia() {
+        return tamano == 0;
+    }
+
+    public ArrayList<T> aArrayList() {
+        int n = tamano;
+        ArrayList<T> copia = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) copia.add(get(i));
+        return copia;
+    }
+
+    // Itera sobre los elementos publicados al crear el iterador
+    @Override
+    public Iterator<T> iterator() {
+        final int limite = tamano;
+        return new Iterator<>() {
+            private int siguiente = 0;
+
+            @Override
+            public boolean hasNext() {
+                return siguiente < limite;
+            }
+
+            @Override
+            public T next() {
+                if (siguiente >= limite) throw new NoSuchElementException();
+                return get(siguiente++);
+            }
+        };
+    }
+
+    // Recorre los elementos publicados al crearlo; se divide por rangos de índices para streams paralelos
+    @Override
+    public Spliterator<T> spliterator() {
+        return new Division(0, tamano);
+    }
+
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    // Vista inmutable de los elementos publicados hasta ahora, sin copiarlos (la lista solo crece)
+    public List<T> vista() {
+        return new Vista(tamano);
+    }
+
+    private final class Vista extends AbstractList<T> implements RandomAccess {
+        private final int limite;
+
+        Vista(int limite) {
+            this.limite = limite;
+        }
+
+        @Override
+        public T get(int indice) {
+            if (indice < 0 || indice >= limite) {
+                throw new IndexOutOfBoundsException("Índice " + indice + " fuera de rango");
+            }
+            return ListaConcurrente.this.get(indice);
+        }
+
+        @Override
+        public int size() {
+            return limite;
+        }
+
+        @Override
+        public Spliterator<T> spliterator() {
+            return new Division(0, limite);
+        }
+    }
+
+    private final class Division implements Spliterator<T> {
+        private static final int MINIMO_DIVISION = 1024;
+
+        private int desde;
+        private final int hasta;
+
+        Division(int desde, int hasta) {
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> accion) {
+            if (desde >= hasta) return false;
+            accion.accept(get(desde++));
+            return true;
+        }
+
+        // Recorre segmento a segmento sin comprobar el rango en cada elemento
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super T> accion) {
+            Object[][] segs = segmentos;
+            int i = desde;
+            desde = hasta;
+            while (i < hasta) {
+                Object[] seg = segs[i >>> BITS_SEGMENTO];
+                int fin = Math.min(hasta, ((i >>> BITS_SEGMENTO) + 1) << BITS_SEGMENTO);
+                for (; i < fin; i++) accion.accept((T) seg[i & MASCARA]);
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int medio = (desde + hasta) >>> 1;
+            if (hasta - desde < MINIMO_DIVISION) return null;
+            Division izquierda = new Division(desde, medio);
+            desde = medio;
+            return izquierda;
+        }
+
+        @Override
+        public long estimateSize() {
+            return hasta - desde;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package utilidades;
+
+import java.util.Arrays;
+
+// Lista ordenada y sin duplicados de enteros primitivos (posting list de los índices)
+public class ListaOrdinales {
+    private static final int CAPACIDAD_INICIAL = 4;
+
+    private int[] valores;
+    private int tamano;
+
+    public ListaOrdinales() {
+        this.valores = new int[CAPACIDAD_INICIAL];
+        this.tamano = 0;
+    }
+
+    public void agregar(int valor) {
+        if (tamano == 0 || valor > valores[tamano - 1]) {
+            asegurarCapacidad();
+            valores[tamano++] = valor;
+            return;
+        }
+        int pos = Arrays.binarySearch(valores, 0, tamano, valor);
+        if (pos >= 0) return;
+        pos = -pos - 1;
+        asegurarCapacidad();
+        System.arraycopy(valores, pos, valores, pos + 1, tamano - pos);
+        valores[pos] = valor;
+        tamano++;
+    }
+
+    public boolean eliminar(int valor) {
+        int pos = Arrays.binarySearch(valores, 0, tamano, valor);
+        if (pos < 0) return false;
+        System.arraycopy(valores, pos + 1, valores, pos, tamano - pos - 1);
+        tamano--;
+        return true;
+    }
+
+    public boolean contiene(int valor) {
+        return Arrays.binarySearch(valores, 0, tamano, valor) >= 0;
+    }
+
+    public int get(int posicion) {
+        return valores[posicion];
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public int[] aArreglo() {
+        return Arrays.copyOf(valores, tamano);
+    }
+
+    // Intersección de listas ordenadas, empezando por la más corta
+    public static int[] interseccion(ListaOrdinales[] listas) {
+        if (listas.length == 0) return new int[0];
+        ListaOrdinales[] ordenadas = listas.clone();
+        Arrays.sort(ordenadas, (a, b) -> Integer.compare(a.tamano, b.tamano));
+
+        int[] resultado = ordenadas[0].aArreglo();
+        int n = resultado.length;
+        for (int i = 1; i < ordenadas.length && n > 0; i++) {
+            int k = 0;
+            for (int j = 0; j < n; j++) {
+                if (ordenadas[i].contiene(resultado[j])) resultado[k++] = resultado[j];
+            }
+            n = k;
+        }
+        return Arrays.copyOf(resultado, n);
+    }
+
+    private void asegurarCapacidad() {
+        if (tamano == valores.length) {
+            valores = Arrays.copyOf(valores, valores.length * 2);
+        }
+    }
+}
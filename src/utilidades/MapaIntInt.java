@@ -0,0 +1,128 @@
+package utilidades;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+// Mapa int -> int con direccionamiento abierto, sin Integer encajados.
+// La clave 0 marca hueco libre y se guarda aparte. No es seguro entre hilos.
+public class MapaIntInt {
+    public interface Consumidor {
+        void aceptar(int clave, int valor);
+    }
+
+    private static final float CARGA_MAXIMA = 0.75f;
+
+    private int[] claves;
+    private int[] valores;
+    private int mascara;
+    private int tamano;
+    private int limite;
+    private boolean hayCero;
+    private int valorCero;
+
+    public MapaIntInt() {
+        this(8);
+    }
+
+    public MapaIntInt(int capacidadEsperada) {
+        if (capacidadEsperada < 0) throw new IllegalArgumentException("La capacidad no puede ser negativa");
+        redimensionar(Dispersion.capacidadPara(capacidadEsperada, CARGA_MAXIMA));
+    }
+
+    public int get(int clave, int porDefecto) {
+        if (clave == 0) return hayCero ? valorCero : porDefecto;
+        int pos = Dispersion.indice(clave, mascara);
+        int k;
+        while ((k = claves[pos]) != 0) {
+            if (k == clave) return valores[pos];
+            pos = (pos + 1) & mascara;
+        }
+        return porDefecto;
+    }
+
+    public void put(int clave, int valor) {
+        int pos = posicionPara(clave);
+        if (pos < 0) valorCero = valor;
+        else valores[pos] = valor;
+        asentar(pos);
+    }
+
+    // Suma 'delta' al valor (0 si no existía) y devuelve el resultado
+    public int sumar(int clave, int delta) {
+        int pos = posicionPara(clave);
+        int res;
+        if (pos < 0) res = valorCero += delta;
+        else res = valores[pos] += delta;
+        asentar(pos);
+        return res;
+    }
+
+    public void paraCada(Consumidor consumidor) {
+        if (hayCero) consumidor.aceptar(0, valorCero);
+        for (int i = 0; i < claves.length; i++) {
+            if (claves[i] != 0) consumidor.aceptar(claves[i], valores[i]);
+        }
+    }
+
+    public HashMap<Integer, Integer> aHashMap() {
+        HashMap<Integer, Integer> res = new HashMap<>();
+        paraCada(res::put);
+        return res;
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public void limpiar() {
+        Arrays.fill(claves, 0);
+        hayCero = false;
+        valorCero = 0;
+        tamano = 0;
+    }
+
+    // Hueco de la clave (creándolo con valor 0 si no existe); -1 para la clave 0
+    private int posicionPara(int clave) {
+        if (clave == 0) {
+            if (!hayCero) {
+                hayCero = true;
+                valorCero = 0;
+                tamano++;
+            }
+            return -1;
+        }
+        int pos = Dispersion.indice(clave, mascara);
+        int k;
+        while ((k = claves[pos]) != 0) {
+            if (k == clave) return pos;
+            pos = (pos + 1) & mascara;
+        }
+        claves[pos] = clave;
+        valores[pos] = 0;
+        tamano++;
+        return pos;
+    }
+
+    // Crece después de escribir, para que la posición devuelta por posicionPara siga siendo válida
+    private void asentar(int pos) {
+        if (pos >= 0 && tamano > limite) redimensionar(claves.length * 2);
+    }
+
+    private void redimensionar(int capacidad) {
+        int[] viejasClaves = claves;
+        int[] viejosValores = valores;
+        claves = new int[capacidad];
+        valores = new int[capacidad];
+        mascara = capacidad - 1;
+        limite = (int) (capacidad * CARGA_MAXIMA);
+        if (viejasClaves == null) return;
+        for (int i = 0; i < viejasClaves.length; i++) {
+            int k = viejasClaves[i];
+            if (k == 0) continue;
+            int pos = Dispersion.indice(k, mascara);
+            while (claves[pos] != 0) pos = (pos + 1) & mascara;
+            claves[pos] = k;
+            valores[pos] = viejosValores[i];
+        }
+    }
+}
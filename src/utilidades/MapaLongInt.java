@@ -0,0 +1,138 @@
+package utilidades;
+
+import java.util.Arrays;
+
+// Mapa long -> int con direccionamiento abierto; pensado para ordinales (id -> posición).
+// La clave 0 marca hueco libre y se guarda aparte. No es seguro entre hilos.
+public class MapaLongInt {
+    private static final float CARGA_MAXIMA = 0.75f;
+
+    private long[] claves;
+    private int[] valores;
+    private int mascara;
+    private int tamano;
+    private int limite;
+    private boolean hayCero;
+    private int valorCero;
+
+    public MapaLongInt() {
+        this(16);
+    }
+
+    public MapaLongInt(int capacidadEsperada) {
+        if (capacidadEsperada < 0) throw new IllegalArgumentException("La capacidad no puede ser negativa");
+        redimensionar(Dispersion.capacidadPara(capacidadEsperada, CARGA_MAXIMA));
+    }
+
+    public int get(long clave, int porDefecto) {
+        if (clave == 0) return hayCero ? valorCero : porDefecto;
+        int pos = Dispersion.indice(clave, mascara);
+        long k;
+        while ((k = claves[pos]) != 0) {
+            if (k == clave) return valores[pos];
+            pos = (pos + 1) & mascara;
+        }
+        return porDefecto;
+    }
+
+    public boolean contiene(long clave) {
+        if (clave == 0) return hayCero;
+        int pos = Dispersion.indice(clave, mascara);
+        long k;
+        while ((k = claves[pos]) != 0) {
+            if (k == clave) return true;
+            pos = (pos + 1) & mascara;
+        }
+        return false;
+    }
+
+    public void put(long clave, int valor) {
+        if (clave == 0) {
+            if (!hayCero) tamano++;
+            hayCero = true;
+            valorCero = valor;
+            return;
+        }
+        int pos = Dispersion.indice(clave, mascara);
+        long k;
+        while ((k = claves[pos]) != 0) {
+            if (k == clave) {
+                valores[pos] = valor;
+                return;
+            }
+            pos = (pos + 1) & mascara;
+        }
+        claves[pos] = clave;
+        valores[pos] = valor;
+        if (++tamano > limite) redimensionar(claves.length * 2);
+    }
+
+    // true si la clave estaba
+    public boolean eliminar(long clave) {
+        if (clave == 0) {
+            if (!hayCero) return false;
+            hayCero = false;
+            tamano--;
+            return true;
+        }
+        int pos = Dispersion.indice(clave, mascara);
+        long k;
+        while ((k = claves[pos]) != 0) {
+            if (k == clave) {
+                desplazarDesde(pos);
+                tamano--;
+                return true;
+            }
+            pos = (pos + 1) & mascara;
+        }
+        return false;
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public void limpiar() {
+        Arrays.fill(claves, 0);
+        hayCero = false;
+        tamano = 0;
+    }
+
+    // Borrado con desplazamiento hacia atrás: las claves que venían detrás ocupan el hueco si les toca
+    private void desplazarDesde(int pos) {
+        while (true) {
+            int ultimo = pos;
+            long k;
+            while (true) {
+                pos = (pos + 1) & mascara;
+                k = claves[pos];
+                if (k == 0) {
+                    claves[ultimo] = 0;
+                    return;
+                }
+                int ideal = Dispersion.indice(k, mascara);
+                if (ultimo <= pos ? ultimo >= ideal || ideal > pos : ultimo >= ideal && ideal > pos) break;
+            }
+            claves[ultimo] = k;
+            valores[ultimo] = valores[pos];
+        }
+    }
+
+    private void redimensionar(int capacidad) {
+        long[] viejasClaves = claves;
+        int[] viejosValores = valores;
+        claves = new long[capacidad];
+        valores = new int[capacidad];
+        mascara = capacidad - 1;
+        limite = (int) (capacidad * CARGA_MAXIMA);
+        if (viejasClaves == null) return;
+        for (int i = 0; i < viejasClaves.length; i++) {
+            long k = viejasClaves[i];
+            if (k == 0) continue;
+            int pos = Dispersion.indice(k, mascara);
+            while (claves[pos] != 0) pos = (pos + 1) & mascara;
+            claves[pos] = k;
+            valores[pos] = viejosValores[i];
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package utilidades;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+
+// Mapa long -> objeto con direccionamiento abierto (sondeo lineal): dos arrays paralelos,
+// sin nodos ni claves encajadas. La clave 0 marca hueco libre y se guarda aparte.
+// No es seguro entre hilos (ver MapaLongObjetoConcurrente). No admite valores null.
+public class MapaLongObjeto<V> {
+    public interface Consumidor<V> {
+        void aceptar(long clave, V valor);
+    }
+
+    private static final float CARGA_MAXIMA = 0.75f;
+
+    private long[] claves;
+    private Object[] valores;
+    private int mascara;
+    private int tamano;
+    private int limite;
+    private boolean hayCero;
+    private Object valorCero;
+
+    public MapaLongObjeto() {
+        this(16);
+    }
+
+    public MapaLongObjeto(int capacidadEsperada) {
+        if (capacidadEsperada < 0) throw new IllegalArgumentException("La capacidad no puede ser negativa");
+        redimensionar(Dispersion.capacidadPara(capacidadEsperada, CARGA_MAXIMA));
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long clave) {
+        if (clave == 0) return (V) valorCero;
+        int pos = Dispersion.indice(clave, mascara);
+        long k;
+        while ((k = claves[pos]) != 0) {
+            if (k == clave) return (V) valores[pos];
+            pos = (pos + 1) & mascara;
+        }
+        return null;
+    }
+
+    public boolean contiene(long clave) {
+        return get(clave) != null;
+    }
+
+    // Lectura que tolera un escritor concurrente: no lanza ni se queda en bucle, pero el resultado
+    // solo vale si el llamante comprueba después que nadie escribió (MapaLongObjetoConcurrente)
+    @SuppressWarnings("unchecked")
+    V getOptimista(long clave) {
+        if (clave == 0) return (V) valorCero;
+        long[] ks = claves;
+        Object[] vs = valores;
+        if (ks.length != vs.length) return null; // a medio redimensionar: la validación fallará
+        int m = ks.length - 1;
+        int pos = Dispersion.indice(clave, m);
+        for (int n = 0; n < ks.length; n++) {
+            long k = ks[pos];
+            if (k == 0) return null;
+            if (k == clave) return (V) vs[pos];
+            pos = (pos + 1) & m;
+        }
+        return null;
+    }
+
+    // Devuelve el valor anterior (o null)
+    @SuppressWarnings("unchecked")
+    public V put(long clave, V valor) {
+        if (valor == null) throw new IllegalArgumentException("El valor no puede ser null");
+        if (clave == 0) {
+            V anterior = (V) valorCero;
+            if (!hayCero) tamano++;
+            hayCero = true;
+            valorCero = valor;
+            return anterior;
+        }
+        int pos = Dispersion.indice(clave, mascara);
+        long k;
+        while ((k = claves[pos]) != 0) {
+            if (k == clave) {
+                V anterior = (V) valores[pos];
+                valores[pos] = valor;
+                return anterior;
+            }
+            pos = (pos + 1) & mascara;
+        }
+        claves[pos] = clave;
+        valores[pos] = valor;
+        if (++tamano > limite) redimensionar(claves.length * 2);
+        return null;
+    }
+
+    // Sustituye el valor por f(anterior); anterior es null si no había y un resultado null elimina la clave
+    public V calcular(long clave, UnaryOperator<V> f) {
+        V anterior = get(clave);
+        V nuevo = f.apply(anterior);
+        if (nuevo == null) {
+            if (anterior != null) eliminar(clave);
+        } else if (nuevo != anterior) {
+            put(clave, nuevo);
+        }
+        return nuevo;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V eliminar(long clave) {
+        if (clave == 0) {
+            V anterior = (V) valorCero;
+            if (hayCero) tamano--;
+            hayCero = false;
+            valorCero = null;
+            return anterior;
+        }
+        int pos = Dispersion.indice(clave, mascara);
+        long k;
+        while ((k = claves[pos]) != 0) {
+            if (k == clave) {
+                V anterior = (V) valores[pos];
+                desplazarDesde(pos);
+                tamano--;
+                return anterior;
+            }
+            pos = (pos + 1) & mascara;
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void paraCada(Consumidor<? super V> consumidor) {
+        if (hayCero) consumidor.aceptar(0, (V) valorCero);
+        for (int i = 0; i < claves.length; i++) {
+            if (claves[i] != 0) consumidor.aceptar(claves[i], (V) valores[i]);
+        }
+    }
+
+    public ArrayList<V> valores() {
+        ArrayList<V> res = new ArrayList<>(tamano);
+        paraCada((k, v) -> res.add(v));
+        return res;
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public boolean estaVacio() {
+        return tamano == 0;
+    }
+
+    public void limpiar() {
+        Arrays.fill(claves, 0);
+        Arrays.fill(valores, null);
+        hayCero = false;
+        valorCero = null;
+        tamano = 0;
+    }
+
+    // Borrado con desplazamiento hacia atrás: no deja lápidas que alarguen los sondeos
+    private void desplazarDesde(int pos) {
+        while (true) {
+            int ultimo = pos;
+            long k;
+            while (true) {
+                pos = (pos + 1) & mascara;
+                k = claves[pos];
+                if (k == 0) {
+                    claves[ultimo] = 0;
+                    valores[ultimo] = null;
+                    return;
+                }
+                int ideal = Dispersion.indice(k, mascara);
+                if (ultimo <= pos ? ultimo >= ideal || ideal > pos : ultimo >= ideal && ideal > pos) break;
+            }
+            claves[ultimo] = k;
+            valores[ultimo] = valores[pos];
+        }
+    }
+
+    private void redimensionar(int capacidad) {
+        long[] viejasClaves = claves;
+        Object[] viejosValores = valores;
+        claves = new long[capacidad];
+        valores = new Object[capacidad];
+        mascara = capacidad - 1;
+        limite = (int) (capacidad * CARGA_MAXIMA);
+        if (viejasClaves == null) return;
+        for (int i = 0; i < viejasClaves.length; i++) {
+            long k = viejasClaves[i];
+            if (k == 0) continue;
+            int pos = Dispersion.indice(k, mascara);
+            while (claves[pos] != 0) pos = (pos + 1) & mascara;
+            claves[pos] = k;
+            valores[pos] = viejosValores[i];
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package utilidades;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// MapaLongObjeto repartido en segmentos, cada uno con su propio cerrojo: los hilos que tocan
+// claves distintas casi nunca compiten. El segmento sale de los bits altos de la clave mezclada
+// y la posición dentro de él de los bajos, así que no se correlacionan.
+// get() es una lectura optimista (StampedLock): no escribe nada compartido y solo toma el cerrojo
+// de lectura si un escritor pasó por el segmento mientras leía. Las escrituras no son reentrantes:
+// la función de calcular() no debe volver a escribir en este mapa.
+public class MapaLongObjetoConcurrente<V> {
+    private static final int SEGMENTOS_DEFAULT = 64;
+
+    private final MapaLongObjeto<V>[] segmentos;
+    private final StampedLock[] cerrojos;
+    private final int mascaraSegmentos;
+
+    public MapaLongObjetoConcurrente() {
+        this(SEGMENTOS_DEFAULT, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    public MapaLongObjetoConcurrente(int numSegmentos, int capacidadEsperada) {
+        if (numSegmentos <= 0 || numSegmentos > (1 << 24) || Integer.bitCount(numSegmentos) != 1) {
+            throw new IllegalArgumentException("El número de segmentos debe ser potencia de 2");
+        }
+        this.segmentos = (MapaLongObjeto<V>[]) new MapaLongObjeto<?>[numSegmentos];
+        this.cerrojos = new StampedLock[numSegmentos];
+        for (int i = 0; i < numSegmentos; i++) {
+            segmentos[i] = new MapaLongObjeto<>(capacidadEsperada / numSegmentos);
+            cerrojos[i] = new StampedLock();
+        }
+        this.mascaraSegmentos = numSegmentos - 1;
+    }
+
+    public V get(long clave) {
+        int i = segmento(clave);
+        StampedLock cerrojo = cerrojos[i];
+        long sello = cerrojo.tryOptimisticRead();
+        if (sello != 0) {
+            V v = segmentos[i].getOptimista(clave);
+            if (cerrojo.validate(sello)) return v;
+        }
+        sello = cerrojo.readLock();
+        try {
+            return segmentos[i].get(clave);
+        } finally {
+            cerrojo.unlockRead(sello);
+        }
+    }
+
+    public V getOrDefault(long clave, V porDefecto) {
+        V v = get(clave);
+        return v != null ? v : porDefecto;
+    }
+
+    public boolean contiene(long clave) {
+        return get(clave) != null;
+    }
+
+    public V put(long clave, V valor) {
+        int i = segmento(clave);
+        long sello = cerrojos[i].writeLock();
+        try {
+            return segmentos[i].put(clave, valor);
+        } finally {
+            cerrojos[i].unlockWrite(sello);
+        }
+    }
+
+    // Inserta solo si no había valor; devuelve el existente o null si se insertó
+    public V putSiAusente(long clave, V valor) {
+        int i = segmento(clave);
+        long sello = cerrojos[i].writeLock();
+        try {
+            V actual = segmentos[i].get(clave);
+            if (actual == null) segmentos[i].put(clave, valor);
+            return actual;
+        } finally {
+            cerrojos[i].unlockWrite(sello);
+        }
+    }
+
+    // Atómico respecto a las demás operaciones sobre la misma clave
+    public V calcular(long clave, UnaryOperator<V> f) {
+        int i = segmento(clave);
+        long sello = cerrojos[i].writeLock();
+        try {
+            return segmentos[i].calcular(clave, f);
+        } finally {
+            cerrojos[i].unlockWrite(sello);
+        }
+    }
+
+    public V eliminar(long clave) {
+        int i = segmento(clave);
+        long sello = cerrojos[i].writeLock();
+        try {
+            return segmentos[i].eliminar(clave);
+        } finally {
+            cerrojos[i].unlockWrite(sello);
+        }
+    }
+
+    // Recorre segmento a segmento: cada uno se ve consistente, el conjunto no es una instantánea
+    public void paraCada(MapaLongObjeto.Consumidor<? super V> consumidor) {
+        for (int i = 0; i < segmentos.length; i++) {
+            long sello = cerrojos[i].readLock();
+            try {
+                segmentos[i].paraCada(consumidor);
+            } finally {
+                cerrojos[i].unlockRead(sello);
+            }
+        }
+    }
+
+    public int tamano() {
+        int total = 0;
+        for (int i = 0; i < segmentos.length; i++) {
+            long sello = cerrojos[i].readLock();
+            try {
+                total += segmentos[i].tamano();
+            } finally {
+                cerrojos[i].unlockRead(sello);
+            }
+        }
+        return total;
+    }
+
+    public boolean estaVacio() {
+        return tamano() == 0;
+    }
+
+    public void limpiar() {
+        for (int i = 0; i < segmentos.length; i++) {
+            long sello = cerrojos[i].writeLock();
+            try {
+                segmentos[i].limpiar();
+            } finally {
+                cerrojos[i].unlockWrite(sello);
+            }
+        }
+    }
+
+    // Vista de solo lectura de los valores; cada segmento se copia al llegar a él (nunca el mapa entero)
+    public Collection<V> valores() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return Spliterators.iterator(divisor());
+            }
+
+            @Override
+            public Spliterator<V> spliterator() {
+                return divisor();
+            }
+
+            @Override
+            public int size() {
+                return tamano();
+            }
+        };
+    }
+
+    // Se parte por rangos de segmentos, así que un stream paralelo reparte el recorrido entre hilos
+    public Stream<V> stream() {
+        return StreamSupport.stream(divisor(), false);
+    }
+
+    private Spliterator<V> divisor() {
+        return new DivisorSegmentos(0, segmentos.length, tamano());
+    }
+
+    private ArrayList<V> copiarSegmento(int i) {
+        long sello = cerrojos[i].readLock();
+        try {
+            return segmentos[i].valores();
+        } finally {
+            cerrojos[i].unlockRead(sello);
+        }
+    }
+
+    // Recorre los segmentos [siguiente, fin) copiando uno cada vez; débilmente consistente como paraCada
+    private final class DivisorSegmentos implements Spliterator<V> {
+        private int siguiente;
+        private final int fin;
+        private long estimado;
+        private Iterator<V> actual = Collections.emptyIterator();
+
+        DivisorSegmentos(int desde, int fin, long estimado) {
+            this.siguiente = desde;
+            this.fin = fin;
+            this.estimado = estimado;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super V> accion) {
+            while (!actual.hasNext()) {
+                if (siguiente >= fin) return false;
+                actual = copiarSegmento(siguiente++).iterator();
+            }
+            accion.accept(actual.next());
+            return true;
+        }
+
+        @Override
+        public Spliterator<V> trySplit() {
+            if (fin - siguiente < 2) return null;
+            int medio = (siguiente + fin) >>> 1;
+            estimado >>>= 1;
+            DivisorSegmentos prefijo = new DivisorSegmentos(siguiente, medio, estimado);
+            siguiente = medio;
+            return prefijo;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimado;
+        }
+
+        @Override
+        public int characteristics() {
+            return NONNULL | CONCURRENT;
+        }
+    }
+
+    private int segmento(long clave) {
+        return (int) (Dispersion.mezclar(clave) >>> 40) & mascaraSegmentos;
+    }
+}
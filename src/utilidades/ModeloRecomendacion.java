@@ -0,0 +1,181 @@
+package utilidades;
+
+import modelo.contenido.Contenido;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+// Instantánea del modelo de recomendación: se construye aparte y se publica de una vez.
+// Catálogo, motor, índice LSH y vecinos no cambian nunca. Historiales, preferencias y popularidad, en
+// cambio, son estado vivo que se actualiza sobre el modelo publicado y que conMotor/conIndice pasan tal
+// cual al siguiente (las actualizaciones toman la lectura del cerrojo de publicación y publicar la escritura, así
+// que ninguna se pierde). Cada fila de preferencias sí es una lista inmutable que se sustituye entera.
+// Los pendientes son propios de cada instantánea: solo se anexan y no se comparten con la siguiente.
+public final class ModeloRecomendacion {
+
+    // Contenido añadido después de construir el motor, con su vector de etiquetas
+    static final class Pendiente {
+        final Contenido contenido;
+        final int[] vector;
+
+        Pendiente(Contenido contenido, int[] vector) {
+            this.contenido = contenido;
+            this.vector = vector;
+        }
+    }
+
+    private final long version;
+    private final boolean entrenado;
+    private final List<Contenido> catalogo;
+    private final MotorEtiquetas motor;
+    private final IndiceLSH indiceLSH;
+    private final FiltradoColaborativo colaborativo;
+    // Filas por id numérico de usuario: sin claves String ni Long encajados
+    private final MapaLongObjetoConcurrente<List<Contenido>> historiales;
+    private final MapaLongObjetoConcurrente<List<String>> preferencias;
+    private final DiccionarioEtiquetas diccionario;
+    private final ContadorEtiquetas popularidad;
+    private final ListaConcurrente<Pendiente> pendientes;
+
+    ModeloRecomendacion(long version, boolean entrenado, List<Contenido> catalogo, MotorEtiquetas motor,
+                        IndiceLSH indiceLSH, FiltradoColaborativo colaborativo,
+                        MapaLongObjetoConcurrente<List<Contenido>> historiales,
+                        MapaLongObjetoConcurrente<List<String>> preferencias,
+                        DiccionarioEtiquetas diccionario, ContadorEtiquetas popularidad,
+                        ListaConcurrente<Pendiente> pendientes) {
+        this.version = version;
+        this.entrenado = entrenado;
+        this.catalogo = Collections.unmodifiableList(catalogo);
+        this.motor = motor;
+        this.indiceLSH = indiceLSH;
+        this.colaborativo = colaborativo;
+        this.historiales = historiales;
+        this.preferencias = preferencias;
+        this.diccionario = diccionario;
+        this.popularidad = popularidad;
+        this.pendientes = pendientes;
+    }
+
+    static ModeloRecomendacion vacio(DiccionarioEtiquetas diccionario, int bandas, int filas) {
+        MotorEtiquetas motor = new MotorEtiquetas(new ArrayList<>(), diccionario);
+        MapaLongObjetoConcurrente<List<Contenido>> historiales = new MapaLongObjetoConcurrente<>();
+        return new ModeloRecomendacion(0, false, new ArrayList<>(), motor,
+                new IndiceLSH(motor.getVectores(), bandas, filas), new FiltradoColaborativo(historiales),
+                historiales, new MapaLongObjetoConcurrente<>(), diccionario, new ContadorEtiquetas(), new ListaConcurrente<>());
+    }
+
+    // Otro motor (y catálogo) con los pendientes a partir de 'desde'; preferencias y popularidad se comparten
+    ModeloRecomendacion conMotor(long version, List<Contenido> catalogo, MotorEtiquetas motor, IndiceLSH indiceLSH,
+                                 int desde) {
+        return new ModeloRecomendacion(version, entrenado, catalogo, motor, indiceLSH, colaborativo,
+                historiales, preferencias, diccionario, popularidad, pendientesDesde(desde));
+    }
+
+    // Otro índice LSH; los pendientes se copian para que el modelo anterior no vea las altas del nuevo
+    ModeloRecomendacion conIndice(long version, IndiceLSH indiceLSH) {
+        return new ModeloRecomendacion(version, entrenado, catalogo, motor, indiceLSH, colaborativo,
+                historiales, preferencias, diccionario, popularidad, pendientesDesde(0));
+    }
+
+    ListaConcurrente<Pendiente> pendientesDesde(int desde) {
+        ListaConcurrente<Pendiente> res = new ListaConcurrente<>();
+        for (int i = desde; i < pendientes.tamano(); i++) res.agregar(pendientes.get(i));
+        return res;
+    }
+
+    // Catálogo indexado más los primeros 'numPendientes' pendientes
+    ArrayList<Contenido> catalogoCompleto(int numPendientes) {
+        ArrayList<Contenido> res = new ArrayList<>(catalogo.size() + numPendientes);
+        res.addAll(catalogo);
+        for (int i = 0; i < numPendientes; i++) res.add(pendientes.get(i).contenido);
+        return res;
+    }
+
+    static List<String> preferenciasDe(List<Contenido> historial) {
+        LinkedHashSet<String> etiquetas = new LinkedHashSet<>();
+        for (Contenido c : historial) etiquetas.addAll(c.getEtiquetas());
+        return List.copyOf(etiquetas);
+    }
+
+    void agregarPendiente(Contenido contenido, int[] vector) {
+        pendientes.agregar(new Pendiente(contenido, vector));
+    }
+
+    // Añade a la fila del usuario las etiquetas que aún no tenía
+    void registrarReproduccion(long idUsuario, Contenido contenido) {
+        preferencias.calcular(idUsuario, anteriores -> {
+            LinkedHashSet<String> nuevas = anteriores != null ? new LinkedHashSet<>(anteriores) : new LinkedHashSet<>();
+            for (String tag : contenido.getEtiquetas()) {
+                if (nuevas.add(tag)) popularidad.incrementar(diccionario.internar(tag));
+            }
+            return anteriores != null && anteriores.size() == nuevas.size() ? anteriores : List.copyOf(nuevas);
+        });
+    }
+
+    // Sustituye la fila del usuario y ajusta la popularidad con la diferencia
+    void reemplazarPreferencias(long idUsuario, List<Contenido> historial, List<String> nuevas) {
+        historiales.put(idUsuario, historial);
+        preferencias.calcular(idUsuario, anteriores -> {
+            HashSet<String> previas = anteriores != null ? new HashSet<>(anteriores) : new HashSet<>();
+            HashSet<String> actuales = new HashSet<>(nuevas);
+            for (String tag : previas) {
+                if (!actuales.contains(tag)) popularidad.decrementar(diccionario.internar(tag));
+            }
+            for (String tag : actuales) {
+                if (!previas.contains(tag)) popularidad.incrementar(diccionario.internar(tag));
+            }
+            return nuevas;
+        });
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isEntrenado() {
+        return entrenado;
+    }
+
+    public int getNumContenidos() {
+        return catalogo.size() + pendientes.tamano();
+    }
+
+    public int getNumPendientes() {
+        return pendientes.tamano();
+    }
+
+    public int getNumUsuarios() {
+        return preferencias.tamano();
+    }
+
+    List<String> getPreferencias(long idUsuario) {
+        return preferencias.getOrDefault(idUsuario, List.of());
+    }
+
+    MapaLongObjetoConcurrente<List<String>> getPreferencias() {
+        return preferencias;
+    }
+
+    ContadorEtiquetas getPopularidad() {
+        return popularidad;
+    }
+
+    MotorEtiquetas getMotor() {
+        return motor;
+    }
+
+    IndiceLSH getIndiceLSH() {
+        return indiceLSH;
+    }
+
+    FiltradoColaborativo getColaborativo() {
+        return colaborativo;
+    }
+
+    ListaConcurrente<Pendiente> getPendientes() {
+        return pendientes;
+    }
+}
@@ -0,0 +1,191 @@
+package utilidades;
+
+import modelo.contenido.Contenido;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.Predicate;
+
+// Vectores dispersos de etiquetas con índice invertido etiqueta -> contenidos.
+// Solo se puntúan los contenidos que comparten al menos una etiqueta con la consulta.
+public class MotorEtiquetas {
+    private final DiccionarioEtiquetas diccionario;
+    private final Contenido[] contenidos;
+    private final int[][] etiquetas;
+    private final int[][] indiceInvertido;
+    // Uno por hilo y compartido por todos los motores: los motores se reconstruyen al entrenar y compactar
+    private static final ThreadLocal<Acumulador> ACUMULADORES = ThreadLocal.withInitial(Acumulador::new);
+
+    public MotorEtiquetas(List<Contenido> catalogo, DiccionarioEtiquetas diccionario) {
+        this.diccionario = diccionario;
+        this.contenidos = catalogo.toArray(new Contenido[0]);
+        this.etiquetas = new int[contenidos.length][];
+
+        for (int i = 0; i < contenidos.length; i++) {
+            etiquetas[i] = diccionario.internarTodas(contenidos[i].getEtiquetas());
+        }
+
+        int numEtiquetas = diccionario.tamano();
+        int[] tamanos = new int[numEtiquetas];
+        for (int[] vector : etiquetas) for (int id : vector) tamanos[id]++;
+        this.indiceInvertido = new int[numEtiquetas][];
+        for (int id = 0; id < numEtiquetas; id++) indiceInvertido[id] = new int[tamanos[id]];
+        Arrays.fill(tamanos, 0);
+        for (int i = 0; i < etiquetas.length; i++) {
+            for (int id : etiquetas[i]) indiceInvertido[id][tamanos[id]++] = i;
+        }
+    }
+
+    public int[] vectorizar(Collection<String> etiquetas) {
+        return diccionario.buscarTodas(etiquetas);
+    }
+
+    // Visita en orden de catálogo los contenidos con coincidencias y su similitud con el vector:
+    // coincidencias / max(tamanoReferencia, etiquetas del contenido)
+    public void puntuar(int[] vector, int tamanoReferencia, ObjDoubleConsumer<Contenido> consumidor) {
+        if (tamanoReferencia <= 0 || vector.length == 0) return;
+        Acumulador a = acumular(vector);
+        int i = 0;
+        try {
+            for (; i < a.numTocados; i++) {
+                int ordinal = a.tocados[i];
+                double similitud = similitudAcumulada(a, ordinal, tamanoReferencia);
+                consumidor.accept(contenidos[ordinal], similitud);
+            }
+        } finally {
+            a.liberar(i);
+        }
+    }
+
+    // Los k mejores sobre el umbral sin materializar la lista de candidatos. Corta el recorrido en cuanto
+    // el peor de la selección alcanza la cota superior |vector| / tamanoReferencia (ningún otro puede superarla)
+    public void seleccionar(int[] vector, int tamanoReferencia, double umbral, Predicate<Contenido> excluir,
+                            SeleccionTopK seleccion) {
+        if (tamanoReferencia <= 0 || vector.length == 0) return;
+        double cota = cotaSuperior(vector, tamanoReferencia);
+        if (seleccion.puedeCortar(cota)) return;
+        Acumulador a = acumular(vector);
+        int i = 0;
+        try {
+            for (; i < a.numTocados && !seleccion.puedeCortar(cota); i++) {
+                int ordinal = a.tocados[i];
+                double similitud = similitudAcumulada(a, ordinal, tamanoReferencia);
+                if (similitud >= umbral && !excluir.test(contenidos[ordinal])) seleccion.ofrecer(contenidos[ordinal], similitud);
+            }
+        } finally {
+            a.liberar(i);
+        }
+    }
+
+    // Cuenta coincidencias por ordinal recorriendo las listas del índice invertido; deja los tocados ordenados
+    private Acumulador acumular(int[] vector) {
+        Acumulador a = ACUMULADORES.get();
+        if (a.enUso) a = new Acumulador(); // un consumidor que vuelve a consultar desde dentro del recorrido
+        a.preparar(contenidos.length);
+        for (int id : vector) {
+            if (id >= indiceInvertido.length) continue;
+            for (int ordinal : indiceInvertido[id]) a.sumar(ordinal);
+        }
+        Arrays.sort(a.tocados, 0, a.numTocados);
+        return a;
+    }
+
+    // Lee y pone a cero el acumulado del ordinal
+    private double similitudAcumulada(Acumulador a, int ordinal, int tamanoReferencia) {
+        int n = a.coincidencias[ordinal];
+        a.coincidencias[ordinal] = 0;
+        return (double) n / Math.max(tamanoReferencia, etiquetas[ordinal].length);
+    }
+
+    // Contadores por ordinal que se dejan a cero entre consultas; crecen hasta el mayor catálogo consultado
+    private static final class Acumulador {
+        private int[] coincidencias = new int[0];
+        private int[] tocados = new int[16];
+        private int numTocados;
+        private boolean enUso;
+
+        void preparar(int numContenidos) {
+            enUso = true;
+            numTocados = 0;
+            if (coincidencias.length < numContenidos) {
+                coincidencias = new int[Math.max(numContenidos, coincidencias.length + (coincidencias.length >> 1))];
+            }
+        }
+
+        void sumar(int ordinal) {
+            if (coincidencias[ordinal]++ == 0) {
+                if (numTocados == tocados.length) tocados = Arrays.copyOf(tocados, numTocados * 2);
+                tocados[numTocados++] = ordinal;
+            }
+        }
+
+        // Pone a cero los tocados que no se llegaron a visitar (corte o excepción del consumidor)
+        void liberar(int visitados) {
+            for (int i = visitados; i < numTocados; i++) coincidencias[tocados[i]] = 0;
+            numTocados = 0;
+            enUso = false;
+        }
+    }
+
+    public static double cotaSuperior(int[] vector, int tamanoReferencia) {
+        return Math.min(1.0, (double) vector.length / tamanoReferencia);
+    }
+
+    public ArrayList<Contenido> buscarSobreUmbral(int[] vector, int tamanoReferencia, double umbral,
+                                                 Predicate<Contenido> excluir) {
+        ArrayList<Contenido> res = new ArrayList<>();
+        if (umbral <= 0) {
+            // Con umbral 0 también cuentan los contenidos sin coincidencias: no hay atajo posible
+            for (Contenido c : contenidos) if (!excluir.test(c)) res.add(c);
+            return res;
+        }
+        puntuar(vector, tamanoReferencia, (c, similitud) -> {
+            if (similitud >= umbral && !excluir.test(c)) res.add(c);
+        });
+        return res;
+    }
+
+    // Verificación exacta de una lista de candidatos (p. ej. los de un IndiceLSH), en orden de catálogo
+    public ArrayList<Contenido> filtrarCandidatos(int[] vector, int tamanoReferencia, int[] ordinales, double umbral,
+                                                 Predicate<Contenido> excluir) {
+        ArrayList<Contenido> res = new ArrayList<>();
+        if (tamanoReferencia <= 0) return res;
+        for (int ordinal : ordinales) {
+            double similitud = similitud(vector, tamanoReferencia, etiquetas[ordinal]);
+            if (similitud >= umbral && !excluir.test(contenidos[ordinal])) res.add(contenidos[ordinal]);
+        }
+        return res;
+    }
+
+    // Vectores de etiquetas por ordinal, para construir índices auxiliares
+    int[][] getVectores() {
+        return etiquetas;
+    }
+
+    // Misma medida que puntuar, para vectores que aún no están en el índice
+    public static double similitud(int[] vector, int tamanoReferencia, int[] etiquetasContenido) {
+        if (tamanoReferencia <= 0 || etiquetasContenido.length == 0) return 0.0;
+        return (double) coincidencias(vector, etiquetasContenido) / Math.max(tamanoReferencia, etiquetasContenido.length);
+    }
+
+    private static int coincidencias(int[] a, int[] b) {
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else { n++; i++; j++; }
+        }
+        return n;
+    }
+
+    public int getNumContenidos() {
+        return contenidos.length;
+    }
+
+    public int getNumEtiquetas() {
+        return indiceInvertido.length;
+    }
+}
@@ -0,0 +1,132 @@
+package utilidades;
+
+import interfaces.ObservadorContenido;
+import modelo.contenido.Contenido;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Clasificación por reproducciones: skip list ordenada que se recoloca por lotes. Una reproducción solo
+// marca su contenido como pendiente (una vez, aunque lleguen muchas seguidas); las lecturas aplican
+// lo pendiente antes de recorrer, o como mucho una vez por intervalo en modo instantáneas.
+public class RankingContenidos implements ObservadorContenido {
+    private static final Comparator<Entrada> ORDEN = (a, b) -> {
+        int cmp = Long.compare(b.reproducciones, a.reproducciones);
+        return cmp != 0 ? cmp : Long.compare(a.secuencia, b.secuencia);
+    };
+
+    private final ConcurrentSkipListSet<Entrada> clasificacion;
+    private final ConcurrentHashMap<Contenido, Posicion> entradas;
+    private final ConcurrentLinkedQueue<Posicion> pendientes;
+    private final AtomicInteger numPendientes;
+    private final AtomicLong secuencias;
+    private volatile long intervaloInstantaneaMs;
+    private volatile long ultimaInstantanea;
+
+    public RankingContenidos() {
+        this.clasificacion = new ConcurrentSkipListSet<>(ORDEN);
+        this.entradas = new ConcurrentHashMap<>();
+        this.pendientes = new ConcurrentLinkedQueue<>();
+        this.numPendientes = new AtomicInteger();
+        this.secuencias = new AtomicLong();
+        this.intervaloInstantaneaMs = 0;
+        this.ultimaInstantanea = System.currentTimeMillis();
+    }
+
+    public void agregar(Contenido contenido) {
+        entradas.computeIfAbsent(contenido, c -> {
+            Posicion p = new Posicion(new Entrada(c, c.getReproduccionesTotales(), secuencias.getAndIncrement()));
+            clasificacion.add(p.actual);
+            return p;
+        });
+        contenido.agregarObservador(this);
+    }
+
+    // Sin escrituras compartidas si el contenido ya estaba pendiente
+    @Override
+    public void alCambiarReproducciones(Contenido contenido) {
+        Posicion p = entradas.get(contenido);
+        if (p == null || p.pendiente.get() || !p.pendiente.compareAndSet(false, true)) return;
+        pendientes.add(p);
+        numPendientes.incrementAndGet();
+    }
+
+    public ArrayList<Contenido> obtenerTop(int n) {
+        if (intervaloInstantaneaMs == 0 || System.currentTimeMillis() - ultimaInstantanea >= intervaloInstantaneaMs) {
+            refrescar();
+        }
+        ArrayList<Contenido> top = new ArrayList<>(Math.max(0, Math.min(n, entradas.size())));
+        Iterator<Entrada> it = clasificacion.iterator();
+        while (top.size() < n && it.hasNext()) top.add(it.next().contenido);
+        return top;
+    }
+
+    // Aplica los cambios acumulados desde la última vez
+    public void refrescar() {
+        Posicion p;
+        while ((p = pendientes.poll()) != null) {
+            numPendientes.decrementAndGet();
+            // Se desmarca antes de leer el contador: lo que llegue después vuelve a encolarla
+            p.pendiente.set(false);
+            reposicionar(p);
+        }
+        ultimaInstantanea = System.currentTimeMillis();
+    }
+
+    // 0 = cada lectura ve los valores actuales; > 0 = el ranking se recalcula como mucho una vez por intervalo
+    public void setIntervaloInstantaneaMs(long intervaloMs) {
+        this.intervaloInstantaneaMs = Math.max(0, intervaloMs);
+        refrescar();
+    }
+
+    public long getIntervaloInstantaneaMs() {
+        return intervaloInstantaneaMs;
+    }
+
+    public int getNumPendientes() {
+        return numPendientes.get();
+    }
+
+    // Dos hilos que refrescan a la vez no recolocan la misma entrada en paralelo
+    private void reposicionar(Posicion p) {
+        synchronized (p) {
+            Entrada anterior = p.actual;
+            long reproducciones = anterior.contenido.getReproduccionesTotales();
+            if (anterior.reproducciones == reproducciones) return;
+            Entrada nueva = new Entrada(anterior.contenido, reproducciones, anterior.secuencia);
+            clasificacion.remove(anterior);
+            clasificacion.add(nueva);
+            p.actual = nueva;
+        }
+    }
+
+    private static final class Entrada {
+        private final Contenido contenido;
+        private final long reproducciones;
+        private final long secuencia;
+
+        private Entrada(Contenido contenido, long reproducciones, long secuencia) {
+            this.contenido = contenido;
+            this.reproducciones = reproducciones;
+            this.secuencia = secuencia;
+        }
+    }
+
+    // Entrada vigente de un contenido en la skip list y si ya está en la cola de pendientes
+    private static final class Posicion {
+        private volatile Entrada actual;
+        private final AtomicBoolean pendiente;
+
+        private Posicion(Entrada actual) {
+            this.actual = actual;
+            this.pendiente = new AtomicBoolean();
+        }
+    }
+}
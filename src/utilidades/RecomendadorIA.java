@@ -9,26 +9,63 @@ import modelo.contenido.Contenido;
 import modelo.usuarios.Usuario;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Las consultas leen la instantánea publicada (volatile) sin bloquear; el entrenamiento construye
+// otra en paralelo y la publica de una vez, de modo que nunca se ve un modelo a medio construir.
 @SuppressWarnings("unused")
 public class RecomendadorIA implements Recomendador {
     private static final double UMBRAL_DEFAULT = 0.6;
-
-    private final HashMap<String, ArrayList<String>> matrizPreferencias;
-    private final HashMap<String, ArrayList<Contenido>> historialCompleto;
-    private AlgoritmoRecomendacion algoritmo;
-    private double umbralSimilitud;
-    private boolean modeloEntrenado;
-    private ArrayList<Contenido> catalogoReferencia;
+    private static final double PESO_CONTENIDO_HIBRIDO = 0.5;
+    private static final int PENDIENTES_MIN_COMPACTAR = 256;
+
+    private volatile ModeloRecomendacion modelo;
+    private volatile AlgoritmoRecomendacion algoritmo;
+    private volatile double umbralSimilitud;
+    private final DiccionarioEtiquetas diccionario;
+    private final AtomicLong versiones;
+    private int bandasLSH;
+    private int filasLSH;
+
+    // Un solo constructor de instantáneas a la vez (entrenamiento, compactación, LSH)
+    private final ReentrantLock cerrojoConstruccion;
+    // Lectura: cambios incrementales sobre la instantánea actual; escritura: publicar otra
+    private final ReentrantReadWriteLock cerrojoPublicacion;
+    private volatile boolean entrenando;
+    // Cambios de preferencias llegados durante un entrenamiento, para aplicarlos también al nuevo modelo
+    private final ConcurrentLinkedQueue<Consumer<ModeloRecomendacion>> cambiosDuranteEntrenamiento;
+    private volatile CacheRecomendaciones cache;
+    private volatile TendenciasEtiquetas tendencias;
 
     public RecomendadorIA() {
-        this.matrizPreferencias = new HashMap<>();
-        this.historialCompleto = new HashMap<>();
         this.algoritmo = null;
         this.umbralSimilitud = UMBRAL_DEFAULT;
-        this.modeloEntrenado = false;
-        this.catalogoReferencia = new ArrayList<>();
+        this.diccionario = new DiccionarioEtiquetas();
+        this.versiones = new AtomicLong();
+        this.bandasLSH = IndiceLSH.BANDAS_DEFAULT;
+        this.filasLSH = IndiceLSH.FILAS_DEFAULT;
+        this.cerrojoConstruccion = new ReentrantLock();
+        this.cerrojoPublicacion = new ReentrantReadWriteLock();
+        this.entrenando = false;
+        this.cambiosDuranteEntrenamiento = new ConcurrentLinkedQueue<>();
+        this.modelo = ModeloRecomendacion.vacio(diccionario, bandasLSH, filasLSH);
+        this.cache = new CacheRecomendaciones();
+        this.tendencias = new TendenciasEtiquetas();
     }
 
     public RecomendadorIA(AlgoritmoRecomendacion algoritmo) {
@@ -39,39 +76,231 @@ public class RecomendadorIA implements Recomendador {
     @Override
     public ArrayList<Contenido> recomendar(Usuario usuario)
             throws RecomendacionException, ModeloNoEntrenadoException, HistorialVacioException {
-        if (!modeloEntrenado)
+        ModeloRecomendacion m = modelo;
+        if (!m.isEntrenado())
             throw new ModeloNoEntrenadoException("El modelo de recomendación no ha sido entrenado");
 
-        if (usuario.getHistorial().isEmpty())
+        if (usuario.getTamanoHistorial() == 0)
             throw new HistorialVacioException("El usuario no tiene historial suficiente");
 
-        ArrayList<Contenido> recomendaciones = new ArrayList<>();
-        ArrayList<String> preferencias = matrizPreferencias.getOrDefault(usuario.getId(), new ArrayList<>());
+        // Historial y pendientes se leen antes de calcular: si cambian entretanto, la entrada nace caducada.
+        // Los pendientes solo crecen dentro de una misma versión del modelo, así que su número identifica
+        // el catálogo que se vio al calcular.
+        long versionHistorial = usuario.getVersionHistorial();
+        long versionCatalogo = m.getNumPendientes();
+        CacheRecomendaciones c = cache;
+        String id = usuario.getId();
+        ArrayList<Contenido> cacheadas = c.obtener(id, m.getVersion(), versionCatalogo, versionHistorial);
+        if (cacheadas != null) return cacheadas;
+
+        ArrayList<Contenido> res = calcularRecomendaciones(m, usuario);
+        c.guardar(id, m.getVersion(), versionCatalogo, versionHistorial, res);
+        return res;
+    }
+
+    private ArrayList<Contenido> calcularRecomendaciones(ModeloRecomendacion m, Usuario usuario) {
+        if (algoritmo == AlgoritmoRecomendacion.COLABORATIVO) return recomendarColaborativo(m, usuario);
+        if (algoritmo == AlgoritmoRecomendacion.HIBRIDO) return recomendarHibrido(m, usuario);
+
+        List<String> preferencias = m.getPreferencias(usuario.getIdNumerico());
+        int[] vector = m.getMotor().vectorizar(preferencias);
+        double umbral = umbralSimilitud;
+        ArrayList<Contenido> res = m.getMotor().buscarSobreUmbral(vector, preferencias.size(), umbral,
+                usuario::haEscuchado);
+        buscarEnPendientes(m, vector, preferencias.size(), umbral, usuario::haEscuchado, res);
+        return res;
+    }
+
+    // Ordenadas por puntuación: lo que escucharon los vecinos y los vecinos de lo ya escuchado
+    private ArrayList<Contenido> recomendarColaborativo(ModeloRecomendacion m, Usuario usuario) {
+        ArrayList<ContenidoPuntuado> puntuados = new ArrayList<>();
+        puntuarColaborativo(m, usuario, (c, p) -> puntuados.add(new ContenidoPuntuado(c, p)));
+        return ordenarPorPuntuacion(puntuados);
+    }
 
-        for (Contenido c : catalogoReferencia) {
-            if (!usuario.getHistorial().contains(c) && calcularSimilitudContenido(c, preferencias) >= umbralSimilitud) {
-                recomendaciones.add(c);
+    private ArrayList<Contenido> recomendarHibrido(ModeloRecomendacion m, Usuario usuario) {
+        ArrayList<ContenidoPuntuado> puntuados = new ArrayList<>();
+        puntuarHibrido(m, usuario, (c, p) -> puntuados.add(new ContenidoPuntuado(c, p)));
+        return ordenarPorPuntuacion(puntuados);
+    }
+
+    private static void puntuarColaborativo(ModeloRecomendacion m, Usuario usuario, ObjDoubleConsumer<Contenido> consumidor) {
+        m.getColaborativo().puntuar(usuario.getIdNumerico(), usuario.getHistorial()).recorrer((c, p) -> {
+            if (!usuario.haEscuchado(c)) consumidor.accept(c, p);
+        });
+    }
+
+    // Candidatos por etiquetas (sobre el umbral) o colaborativos, puntuados con la media ponderada.
+    // Cada candidato se emite una sola vez: los colaborativos ya combinados se descartan del resto
+    private void puntuarHibrido(ModeloRecomendacion m, Usuario usuario, ObjDoubleConsumer<Contenido> consumidor) {
+        FiltradoColaborativo.Puntuaciones colaborativas = m.getColaborativo().puntuar(usuario.getIdNumerico(), usuario.getHistorial());
+        List<String> preferencias = m.getPreferencias(usuario.getIdNumerico());
+        int[] vector = m.getMotor().vectorizar(preferencias);
+        double umbral = umbralSimilitud;
+        ObjDoubleConsumer<Contenido> emitir = (c, p) -> {
+            if (!usuario.haEscuchado(c)) consumidor.accept(c, p);
+        };
+
+        m.getMotor().puntuar(vector, preferencias.size(), (c, similitud) -> {
+            double cf = colaborativas.get(c);
+            if (similitud >= umbral || cf >= 0) {
+                colaborativas.descartar(c);
+                emitir.accept(c, PESO_CONTENIDO_HIBRIDO * similitud + (1 - PESO_CONTENIDO_HIBRIDO) * Math.max(cf, 0));
+            }
+        });
+        for (ModeloRecomendacion.Pendiente p : m.getPendientes()) {
+            double similitud = MotorEtiquetas.similitud(vector, preferencias.size(), p.vector);
+            double cf = colaborativas.get(p.contenido);
+            if (similitud > 0 && (similitud >= umbral || cf >= 0)) {
+                colaborativas.descartar(p.contenido);
+                emitir.accept(p.contenido, PESO_CONTENIDO_HIBRIDO * similitud + (1 - PESO_CONTENIDO_HIBRIDO) * Math.max(cf, 0));
             }
         }
+        colaborativas.recorrer((c, cf) -> emitir.accept(c, (1 - PESO_CONTENIDO_HIBRIDO) * cf));
+    }
 
-        return recomendaciones;
+    // Orden estable: a igual puntuación se mantiene el orden en que se emitieron
+    private static ArrayList<Contenido> ordenarPorPuntuacion(ArrayList<ContenidoPuntuado> puntuados) {
+        puntuados.sort((a, b) -> Double.compare(b.getPuntuacion(), a.getPuntuacion()));
+        ArrayList<Contenido> res = new ArrayList<>(puntuados.size());
+        for (ContenidoPuntuado p : puntuados) res.add(p.getContenido());
+        return res;
+    }
+
+    public ArrayList<ContenidoPuntuado> recomendarTopK(Usuario usuario, int k)
+            throws RecomendacionException, ModeloNoEntrenadoException, HistorialVacioException {
+        return recomendarPagina(usuario, 0, k);
+    }
+
+    // Página 'pagina' (desde 0) del ranking; solo se conservan (pagina + 1) * tamanoPagina candidatos
+    public ArrayList<ContenidoPuntuado> recomendarPagina(Usuario usuario, int pagina, int tamanoPagina)
+            throws RecomendacionException, ModeloNoEntrenadoException, HistorialVacioException {
+        ModeloRecomendacion m = modelo;
+        if (!m.isEntrenado())
+            throw new ModeloNoEntrenadoException("El modelo de recomendación no ha sido entrenado");
+
+        if (usuario.getTamanoHistorial() == 0)
+            throw new HistorialVacioException("El usuario no tiene historial suficiente");
+
+        SeleccionTopK seleccion = new SeleccionTopK(tamanoSeleccion(pagina, tamanoPagina));
+        if (algoritmo == AlgoritmoRecomendacion.COLABORATIVO) {
+            puntuarColaborativo(m, usuario, seleccion::ofrecer);
+        } else if (algoritmo == AlgoritmoRecomendacion.HIBRIDO) {
+            puntuarHibrido(m, usuario, seleccion::ofrecer);
+        } else {
+            List<String> preferencias = m.getPreferencias(usuario.getIdNumerico());
+            int[] vector = m.getMotor().vectorizar(preferencias);
+            seleccionarPorEtiquetas(m, vector, preferencias.size(), usuario::haEscuchado, seleccion);
+        }
+        return paginar(seleccion, pagina, tamanoPagina);
+    }
+
+    // Los k más similares con su puntuación (solo contenidos con alguna etiqueta en común)
+    public ArrayList<ContenidoPuntuado> obtenerSimilaresTopK(Contenido contenido, int k) throws RecomendacionException {
+        ModeloRecomendacion m = modelo;
+        if (!m.isEntrenado()) throw new RecomendacionException("Modelo no entrenado");
+
+        int[] vector = m.getMotor().vectorizar(contenido.getEtiquetas());
+        int tamano = new HashSet<>(contenido.getEtiquetas()).size();
+        SeleccionTopK seleccion = new SeleccionTopK(tamanoSeleccion(0, k));
+        seleccionarPorEtiquetas(m, vector, tamano, c -> c == contenido, seleccion);
+        return seleccion.resultado();
+    }
+
+    private void seleccionarPorEtiquetas(ModeloRecomendacion m, int[] vector, int tamanoReferencia,
+                                         Predicate<Contenido> excluir, SeleccionTopK seleccion) {
+        double umbral = umbralSimilitud;
+        m.getMotor().seleccionar(vector, tamanoReferencia, umbral, excluir, seleccion);
+        if (tamanoReferencia <= 0 || vector.length == 0) return;
+        double cota = MotorEtiquetas.cotaSuperior(vector, tamanoReferencia);
+        for (ModeloRecomendacion.Pendiente p : m.getPendientes()) {
+            if (seleccion.puedeCortar(cota)) return;
+            double similitud = MotorEtiquetas.similitud(vector, tamanoReferencia, p.vector);
+            if (similitud > 0 && similitud >= umbral && !excluir.test(p.contenido)) seleccion.ofrecer(p.contenido, similitud);
+        }
+    }
+
+    private static int tamanoSeleccion(int pagina, int tamanoPagina) {
+        if (pagina < 0 || tamanoPagina <= 0) {
+            throw new IllegalArgumentException("Página no negativa y tamaño de página mayor a 0");
+        }
+        return (int) Math.min(Integer.MAX_VALUE - 8, ((long) pagina + 1) * tamanoPagina);
+    }
+
+    private static ArrayList<ContenidoPuntuado> paginar(SeleccionTopK seleccion, int pagina, int tamanoPagina) {
+        ArrayList<ContenidoPuntuado> todos = seleccion.resultado();
+        int desde = (int) Math.min(todos.size(), (long) pagina * tamanoPagina);
+        int hasta = Math.min(todos.size(), desde + tamanoPagina);
+        return new ArrayList<>(todos.subList(desde, hasta));
+    }
+
+    public ArrayList<String> obtenerUsuariosSimilares(Usuario usuario) {
+        ArrayList<String> res = new ArrayList<>();
+        for (long id : modelo.getColaborativo().obtenerUsuariosSimilares(usuario.getIdNumerico())) {
+            res.add(GeneradorIds.aTexto(id));
+        }
+        return res;
+    }
+
+    public ArrayList<Contenido> obtenerVecinosColaborativos(Contenido contenido) {
+        return modelo.getColaborativo().obtenerItemsSimilares(contenido);
     }
 
 
     @Override
     public ArrayList<Contenido> obtenerSimilares(Contenido contenido) throws RecomendacionException {
-        if (!modeloEntrenado) throw new RecomendacionException("Modelo no entrenado");
+        ModeloRecomendacion m = modelo;
+        if (!m.isEntrenado()) throw new RecomendacionException("Modelo no entrenado");
+
+        int[] vector = m.getMotor().vectorizar(contenido.getEtiquetas());
+        int tamano = new HashSet<>(contenido.getEtiquetas()).size();
+        double umbral = umbralSimilitud;
+        ArrayList<Contenido> res;
+        // Con umbral 0 cuentan también los contenidos sin etiquetas comunes: el LSH no sirve de filtro
+        if (umbral <= 0) res = m.getMotor().buscarSobreUmbral(vector, tamano, umbral, c -> c == contenido);
+        else res = m.getMotor().filtrarCandidatos(vector, tamano, m.getIndiceLSH().candidatos(vector), umbral,
+                c -> c == contenido);
+        buscarEnPendientes(m, vector, tamano, umbral, c -> c == contenido, res);
+        return res;
+    }
 
-        ArrayList<Contenido> similares = new ArrayList<>();
-        ArrayList<String> etiquetasContenido = contenido.getEtiquetas();
+    // Recorrido exacto por el índice invertido; referencia para medir el recall del LSH
+    public ArrayList<Contenido> obtenerSimilaresExacto(Contenido contenido) throws RecomendacionException {
+        ModeloRecomendacion m = modelo;
+        if (!m.isEntrenado()) throw new RecomendacionException("Modelo no entrenado");
+
+        int[] vector = m.getMotor().vectorizar(contenido.getEtiquetas());
+        int tamano = new HashSet<>(contenido.getEtiquetas()).size();
+        double umbral = umbralSimilitud;
+        ArrayList<Contenido> res = m.getMotor().buscarSobreUmbral(vector, tamano, umbral, c -> c == contenido);
+        buscarEnPendientes(m, vector, tamano, umbral, c -> c == contenido, res);
+        return res;
+    }
 
-        for (Contenido c : catalogoReferencia) {
-            if (c != contenido && calcularSimilitudContenido(c, etiquetasContenido) >= umbralSimilitud) {
-                similares.add(c);
-            }
+    // Los pendientes van detrás del catálogo indexado, así el resultado sigue en orden de catálogo
+    private static void buscarEnPendientes(ModeloRecomendacion m, int[] vector, int tamanoReferencia, double umbral,
+                                           Predicate<Contenido> excluir, ArrayList<Contenido> res) {
+        for (ModeloRecomendacion.Pendiente p : m.getPendientes()) {
+            double similitud = MotorEtiquetas.similitud(vector, tamanoReferencia, p.vector);
+            if (similitud >= umbral && !excluir.test(p.contenido)) res.add(p.contenido);
         }
+    }
 
-        return similares;
+    // Más bandas: más recall; más filas por banda: menos candidatos y menos latencia
+    public void configurarLSH(int bandas, int filas) {
+        if (bandas <= 0 || filas <= 0) {
+            throw new IllegalArgumentException("Bandas y filas deben ser mayores a 0");
+        }
+        cerrojoConstruccion.lock();
+        try {
+            this.bandasLSH = bandas;
+            this.filasLSH = filas;
+            ModeloRecomendacion m = modelo;
+            IndiceLSH indice = new IndiceLSH(m.getMotor().getVectores(), bandas, filas);
+            publicar(() -> m.conIndice(versiones.incrementAndGet(), indice));
+        } finally {
+            cerrojoConstruccion.unlock();
+        }
     }
 
     public void entrenarModelo(ArrayList<Usuario> usuarios) {
@@ -79,21 +308,188 @@ public class RecomendadorIA implements Recomendador {
     }
 
     public void entrenarModelo(ArrayList<Usuario> usuarios, ArrayList<Contenido> catalogo) {
-        matrizPreferencias.clear();
-        historialCompleto.clear();
-        if (catalogo != null) catalogoReferencia = new ArrayList<>(catalogo);
+        entrenarModelo(usuarios, catalogo, ForkJoinPool.commonPool());
+    }
+
+    // Reparte los usuarios entre los hilos del pool y publica el modelo nuevo al terminar.
+    // Con catálogo null se reutiliza el del modelo actual (incluidos los pendientes).
+    public void entrenarModelo(List<Usuario> usuarios, List<Contenido> catalogo, ForkJoinPool pool) {
+        ArrayList<Usuario> copiaUsuarios = new ArrayList<>(usuarios);
+        ArrayList<Contenido> copiaCatalogo = catalogo != null ? new ArrayList<>(catalogo) : null;
+        cerrojoConstruccion.lock();
+        try {
+            ModeloRecomendacion actual;
+            int pendientesVistos;
+            cerrojoPublicacion.writeLock().lock();
+            try {
+                actual = modelo;
+                pendientesVistos = actual.getNumPendientes();
+                entrenando = true;
+            } finally {
+                cerrojoPublicacion.writeLock().unlock();
+            }
+
+            try {
+                ArrayList<Contenido> base = copiaCatalogo != null ? copiaCatalogo : actual.catalogoCompleto(pendientesVistos);
+                construirYPublicar(copiaUsuarios, base, actual, pendientesVistos, pool);
+            } finally {
+                if (entrenando) {
+                    cerrojoPublicacion.writeLock().lock();
+                    entrenando = false;
+                    cambiosDuranteEntrenamiento.clear();
+                    cerrojoPublicacion.writeLock().unlock();
+                }
+            }
+        } finally {
+            cerrojoConstruccion.unlock();
+        }
+    }
+
+    // Entrena en un hilo del pool; las consultas siguen sirviéndose con el modelo anterior
+    public CompletableFuture<Void> entrenarEnSegundoPlano(List<Usuario> usuarios, List<Contenido> catalogo,
+                                                          ForkJoinPool pool) {
+        ArrayList<Usuario> copiaUsuarios = new ArrayList<>(usuarios);
+        ArrayList<Contenido> copiaCatalogo = catalogo != null ? new ArrayList<>(catalogo) : null;
+        return CompletableFuture.runAsync(() -> entrenarModelo(copiaUsuarios, copiaCatalogo, pool), pool);
+    }
+
+    private void construirYPublicar(ArrayList<Usuario> usuarios, ArrayList<Contenido> catalogo,
+                                    ModeloRecomendacion actual, int pendientesVistos, ForkJoinPool pool) {
+        MapaLongObjetoConcurrente<List<Contenido>> historiales = new MapaLongObjetoConcurrente<>(64, usuarios.size());
+        MapaLongObjetoConcurrente<List<String>> preferencias = new MapaLongObjetoConcurrente<>(64, usuarios.size());
+        ContadorEtiquetas popularidad = new ContadorEtiquetas();
+
+        ejecutar(pool, () -> usuarios.parallelStream().forEach(u -> {
+            List<Contenido> historial = Collections.unmodifiableList(u.getHistorial());
+            List<String> prefs = ModeloRecomendacion.preferenciasDe(historial);
+            historiales.put(u.getIdNumerico(), historial);
+            preferencias.put(u.getIdNumerico(), prefs);
+            for (String tag : prefs) popularidad.incrementar(diccionario.internar(tag));
+        }));
+        MotorEtiquetas motor = new MotorEtiquetas(catalogo, diccionario);
+        IndiceLSH indice = new IndiceLSH(motor.getVectores(), bandasLSH, filasLSH);
+        FiltradoColaborativo colaborativo = new FiltradoColaborativo(historiales, FiltradoColaborativo.K_DEFAULT, pool);
+
+        cerrojoPublicacion.writeLock().lock();
+        try {
+            ModeloRecomendacion nuevo = new ModeloRecomendacion(versiones.incrementAndGet(), true, catalogo, motor,
+                    indice, colaborativo, historiales, preferencias, diccionario, popularidad,
+                    actual.pendientesDesde(pendientesVistos));
+            Consumer<ModeloRecomendacion> cambio;
+            while ((cambio = cambiosDuranteEntrenamiento.poll()) != null) cambio.accept(nuevo);
+            modelo = nuevo;
+            entrenando = false;
+        } finally {
+            cerrojoPublicacion.writeLock().unlock();
+        }
+        cache.limpiar();
+    }
+
+    private static void ejecutar(ForkJoinPool pool, Runnable tarea) {
+        try {
+            pool.submit(tarea).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Entrenamiento interrumpido", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error entrenando el modelo", e.getCause());
+        }
+    }
+
+    private void publicar(Supplier<ModeloRecomendacion> constructor) {
+        cerrojoPublicacion.writeLock().lock();
+        try {
+            modelo = constructor.get();
+        } finally {
+            cerrojoPublicacion.writeLock().unlock();
+        }
+        cache.limpiar();
+    }
 
-        for (Usuario u : usuarios) {
-            actualizarPreferencias(u);
-            historialCompleto.put(u.getId(), u.getHistorial());
+    // Calcula y deja en caché las recomendaciones de los usuarios con más historial
+    public int precalcularUsuariosActivos(List<Usuario> usuarios, int maxUsuarios) {
+        ArrayList<Usuario> activos = new ArrayList<>(usuarios);
+        activos.removeIf(u -> u.getTamanoHistorial() == 0);
+        activos.sort((a, b) -> Integer.compare(b.getTamanoHistorial(), a.getTamanoHistorial()));
+        List<Usuario> seleccion = activos.subList(0, Math.min(maxUsuarios, activos.size()));
+
+        return (int) seleccion.parallelStream().filter(u -> {
+            try {
+                recomendar(u);
+                return true;
+            } catch (RecomendacionException e) {
+                return false;
+            }
+        }).count();
+    }
+
+    public void configurarCache(int capacidad, long ttlMs) {
+        this.cache = new CacheRecomendaciones(capacidad, ttlMs);
+    }
+
+    public CacheRecomendaciones getCache() {
+        return cache;
+    }
+
+    // Aplica el cambio a la instantánea actual y, si se está entrenando, también al modelo que viene
+    private void aplicarIncremental(Consumer<ModeloRecomendacion> cambio) {
+        cerrojoPublicacion.readLock().lock();
+        try {
+            cambio.accept(modelo);
+            if (entrenando) cambiosDuranteEntrenamiento.add(cambio);
+        } finally {
+            cerrojoPublicacion.readLock().unlock();
         }
+    }
+
+    // Alta incremental: se indexa en bloque cuando los pendientes superan 1/8 del motor
+    public void agregarContenido(Contenido contenido) {
+        int[] vector = diccionario.internarTodas(contenido.getEtiquetas());
+        int pendientes;
+        cerrojoPublicacion.readLock().lock();
+        try {
+            modelo.agregarPendiente(contenido, vector);
+            pendientes = modelo.getNumPendientes();
+        } finally {
+            cerrojoPublicacion.readLock().unlock();
+        }
+        if (pendientes > umbralCompactacion(modelo)) compactar();
+    }
 
-        modeloEntrenado = true;
+    private static int umbralCompactacion(ModeloRecomendacion m) {
+        return Math.max(PENDIENTES_MIN_COMPACTAR, m.getMotor().getNumContenidos() / 8);
+    }
+
+    // Reindexa los pendientes fuera del cerrojo de publicación; si ya hay otra construcción en curso, no espera
+    private void compactar() {
+        if (!cerrojoConstruccion.tryLock()) return;
+        try {
+            ModeloRecomendacion m = modelo;
+            int vistos = m.getNumPendientes();
+            if (vistos <= umbralCompactacion(m)) return;
+            ArrayList<Contenido> catalogo = m.catalogoCompleto(vistos);
+            MotorEtiquetas motor = new MotorEtiquetas(catalogo, diccionario);
+            IndiceLSH indice = new IndiceLSH(motor.getVectores(), bandasLSH, filasLSH);
+            publicar(() -> m.conMotor(versiones.incrementAndGet(), catalogo, motor, indice, vistos));
+        } finally {
+            cerrojoConstruccion.unlock();
+        }
+    }
+
+    // Evento de reproducción: solo cambian las preferencias de ese usuario.
+    // Los vecinos colaborativos se recalculan en el siguiente entrenamiento completo.
+    public void registrarReproduccion(Usuario usuario, Contenido contenido) {
+        long id = usuario.getIdNumerico();
+        aplicarIncremental(m -> m.registrarReproduccion(id, contenido));
+        TendenciasEtiquetas t = tendencias;
+        for (int tag : diccionario.internarTodas(contenido.getEtiquetas())) t.registrar(tag);
+        cache.invalidar(usuario.getId());
     }
 
     public double calcularSimilitud(Usuario u1, Usuario u2) {
-        ArrayList<String> prefs1 = matrizPreferencias.getOrDefault(u1.getId(), new ArrayList<>());
-        ArrayList<String> prefs2 = matrizPreferencias.getOrDefault(u2.getId(), new ArrayList<>());
+        ModeloRecomendacion m = modelo;
+        List<String> prefs1 = m.getPreferencias(u1.getIdNumerico());
+        List<String> prefs2 = m.getPreferencias(u2.getIdNumerico());
 
         if (prefs1.isEmpty() || prefs2.isEmpty()) return 0.0;
 
@@ -102,55 +498,82 @@ public class RecomendadorIA implements Recomendador {
         return (double) coincidencias / Math.max(prefs1.size(), prefs2.size());
     }
 
+    // Recalcula solo la fila del usuario y ajusta la popularidad con la diferencia
     public void actualizarPreferencias(Usuario usuario) {
-        ArrayList<String> prefs = new ArrayList<>();
-        for (Contenido c : usuario.getHistorial()) {
-            for (String tag : c.getEtiquetas()) {
-                if (!prefs.contains(tag)) prefs.add(tag);
-            }
-        }
-        matrizPreferencias.put(usuario.getId(), prefs);
+        long id = usuario.getIdNumerico();
+        List<Contenido> historial = Collections.unmodifiableList(usuario.getHistorial());
+        List<String> nuevas = ModeloRecomendacion.preferenciasDe(historial);
+        aplicarIncremental(m -> m.reemplazarPreferencias(id, historial, nuevas));
+        cache.invalidar(usuario.getId());
     }
 
-    private double calcularSimilitudContenido(Contenido contenido, ArrayList<String> preferencias) {
-        if (preferencias == null || preferencias.isEmpty()) return 0.0;
-        ArrayList<String> etiquetas = contenido.getEtiquetas();
-        if (etiquetas.isEmpty()) return 0.0;
+    // Etiquetas por número de usuarios que las tienen en sus preferencias (contadores mantenidos al vuelo)
+    public ArrayList<String> obtenerGenerosPopulares() {
+        return nombres(modelo.getPopularidad().ordenados(), Integer.MAX_VALUE);
+    }
 
-        int coincidencias = 0;
-        for (String e : etiquetas) if (preferencias.contains(e)) coincidencias++;
-        return (double) coincidencias / Math.max(preferencias.size(), etiquetas.size());
+    public ArrayList<String> obtenerGenerosPopulares(int n) {
+        return nombres(modelo.getPopularidad().ordenados(), n);
     }
 
-    public ArrayList<String> obtenerGenerosPopulares() {
-        HashMap<String, Integer> contador = new HashMap<>();
-        for (ArrayList<String> prefs : matrizPreferencias.values()) {
-            for (String g : prefs) {
-                contador.put(g, contador.getOrDefault(g, 0) + 1);
-            }
-        }
+    // Etiquetas más reproducidas recientemente (decaimiento exponencial)
+    public ArrayList<String> obtenerGenerosTendencia(int n) {
+        return nombres(tendencias.mejores(n), n);
+    }
 
-        ArrayList<String> populares = new ArrayList<>(contador.keySet());
-        populares.sort((a, b) -> Integer.compare(contador.get(b), contador.get(a)));
-        return populares;
+    public double getPuntuacionTendencia(String etiqueta) {
+        int id = diccionario.buscar(etiqueta);
+        return id == DiccionarioEtiquetas.NO_ENCONTRADA ? 0.0 : tendencias.puntuacion(id);
+    }
+
+    public void configurarTendencias(long vidaMediaMs, LongSupplier reloj) {
+        this.tendencias = new TendenciasEtiquetas(vidaMediaMs, reloj);
+    }
+
+    private ArrayList<String> nombres(int[] ids, int n) {
+        ArrayList<String> res = new ArrayList<>(Math.min(n, ids.length));
+        for (int i = 0; i < ids.length && i < n; i++) res.add(diccionario.nombre(ids[i]));
+        return res;
     }
 
     // Getters y Setters
     public AlgoritmoRecomendacion getAlgoritmo() { return algoritmo; }
-    public void setAlgoritmo(AlgoritmoRecomendacion algoritmo) { this.algoritmo = algoritmo; }
+    public void setAlgoritmo(AlgoritmoRecomendacion algoritmo) {
+        this.algoritmo = algoritmo;
+        cache.limpiar();
+    }
 
     public double getUmbralSimilitud() { return umbralSimilitud; }
-    public void setUmbralSimilitud(double umbralSimilitud) { this.umbralSimilitud = umbralSimilitud; }
+    public void setUmbralSimilitud(double umbralSimilitud) {
+        this.umbralSimilitud = umbralSimilitud;
+        cache.limpiar();
+    }
 
-    public boolean isModeloEntrenado() { return modeloEntrenado; }
+    public boolean isModeloEntrenado() { return modelo.isEntrenado(); }
+
+    public ModeloRecomendacion getModelo() { return modelo; }
+
+    public long getVersionModelo() { return modelo.getVersion(); }
+
+    public int getNumContenidosPendientes() { return modelo.getNumPendientes(); }
 
     public HashMap<String, ArrayList<String>> getMatrizPreferencias() {
         HashMap<String, ArrayList<String>> copia = new HashMap<>();
-        for (String k : matrizPreferencias.keySet()) {
-            copia.put(k, new ArrayList<>(matrizPreferencias.get(k)));
-        }
+        modelo.getPreferencias().paraCada((id, prefs) -> copia.put(GeneradorIds.aTexto(id), new ArrayList<>(prefs)));
         return copia;
     }
 
-    public void setCatalogoReferencia(ArrayList<Contenido> catalogo) { this.catalogoReferencia = new ArrayList<>(catalogo); }
+    public void setCatalogoReferencia(ArrayList<Contenido> catalogo) {
+        ArrayList<Contenido> copia = new ArrayList<>(catalogo);
+        cerrojoConstruccion.lock();
+        try {
+            ModeloRecomendacion m = modelo;
+            MotorEtiquetas motor = new MotorEtiquetas(copia, diccionario);
+            IndiceLSH indice = new IndiceLSH(motor.getVectores(), bandasLSH, filasLSH);
+            // Los pendientes quedan sustituidos por el catálogo nuevo
+            publicar(() -> m.conMotor(versiones.incrementAndGet(), copia, motor, indice, m.getNumPendientes()));
+        } finally {
+            cerrojoConstruccion.unlock();
+        }
+    }
 }
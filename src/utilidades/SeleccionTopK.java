@@ -0,0 +1,76 @@
+package utilidades;
+
+import modelo.contenido.Contenido;
+
+import java.util.ArrayList;
+import java.util.PriorityQueue;
+
+// Los k mejores candidatos con un montículo de mínimos acotado: O(n log k) y memoria O(k).
+// A igual puntuación gana el que se ofreció antes (orden de catálogo).
+public class SeleccionTopK {
+
+    private static final class Candidato {
+        final Contenido contenido;
+        final double puntuacion;
+        final long orden;
+
+        Candidato(Contenido contenido, double puntuacion, long orden) {
+            this.contenido = contenido;
+            this.puntuacion = puntuacion;
+            this.orden = orden;
+        }
+    }
+
+    private final int k;
+    private final PriorityQueue<Candidato> monticulo;
+    private long ofrecidos;
+
+    public SeleccionTopK(int k) {
+        if (k <= 0) throw new IllegalArgumentException("k debe ser mayor a 0");
+        this.k = k;
+        // En la cima, el peor: menor puntuación y, a igualdad, el ofrecido más tarde
+        this.monticulo = new PriorityQueue<>(Math.min(k, 1024), (a, b) -> {
+            int cmp = Double.compare(a.puntuacion, b.puntuacion);
+            return cmp != 0 ? cmp : Long.compare(b.orden, a.orden);
+        });
+        this.ofrecidos = 0;
+    }
+
+    public boolean ofrecer(Contenido contenido, double puntuacion) {
+        long orden = ofrecidos++;
+        if (monticulo.size() < k) {
+            monticulo.add(new Candidato(contenido, puntuacion, orden));
+            return true;
+        }
+        // Los que llegan después solo entran si superan estrictamente al peor
+        if (puntuacion <= monticulo.peek().puntuacion) return false;
+        monticulo.poll();
+        monticulo.add(new Candidato(contenido, puntuacion, orden));
+        return true;
+    }
+
+    public boolean estaCompleta() {
+        return monticulo.size() == k;
+    }
+
+    // Cuando está completa y ningún candidato restante puede superar al peor, se puede cortar el recorrido
+    public boolean puedeCortar(double cotaSuperior) {
+        return estaCompleta() && monticulo.peek().puntuacion >= cotaSuperior;
+    }
+
+    public int tamano() {
+        return monticulo.size();
+    }
+
+    // De mayor a menor puntuación
+    public ArrayList<ContenidoPuntuado> resultado() {
+        ArrayList<Candidato> ordenados = new ArrayList<>(monticulo);
+        ordenados.sort((a, b) -> {
+            int cmp = Double.compare(b.puntuacion, a.puntuacion);
+            return cmp != 0 ? cmp : Long.compare(a.orden, b.orden);
+        });
+        ArrayList<ContenidoPuntuado> res = new ArrayList<>(ordenados.size());
+        for (Candidato c : ordenados) res.add(new ContenidoPuntuado(c.contenido, c.puntuacion));
+        return res;
+    }
+}
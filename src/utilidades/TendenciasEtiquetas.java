@@ -0,0 +1,101 @@
+package utilidades;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+
+// Puntuación de tendencia por etiqueta con decaimiento exponencial (vida media configurable).
+// Se usa "decaimiento hacia delante": cada evento suma e^(lambda * (t - base)) y la puntuación actual es
+// la suma por e^(-lambda * (ahora - base)). Así registrar es una suma atómica, sin recorrer nada;
+// cuando el exponente crece demasiado se reescala todo y se mueve la base.
+public class TendenciasEtiquetas {
+    public static final long VIDA_MEDIA_DEFAULT_MS = 60 * 60 * 1000L;
+    private static final double EXPONENTE_MAX = 200;
+    private static final int CAPACIDAD_INICIAL = 64;
+
+    private final double lambda;
+    private final LongSupplier reloj;
+    private final ReentrantReadWriteLock cerrojo;
+    private volatile AtomicLongArray sumas; // bits de double
+    private volatile long base;
+
+    public TendenciasEtiquetas() {
+        this(VIDA_MEDIA_DEFAULT_MS, System::currentTimeMillis);
+    }
+
+    public TendenciasEtiquetas(long vidaMediaMs, LongSupplier reloj) {
+        if (vidaMediaMs <= 0) throw new IllegalArgumentException("La vida media debe ser mayor a 0");
+        this.lambda = Math.log(2) / vidaMediaMs;
+        this.reloj = reloj;
+        this.cerrojo = new ReentrantReadWriteLock();
+        this.sumas = new AtomicLongArray(CAPACIDAD_INICIAL);
+        this.base = reloj.getAsLong();
+    }
+
+    public void registrar(int id) {
+        registrar(id, 1.0);
+    }
+
+    public void registrar(int id, double peso) {
+        long ahora = reloj.getAsLong();
+        if (lambda * (ahora - base) > EXPONENTE_MAX || id >= sumas.length()) reorganizar(ahora, id);
+        cerrojo.readLock().lock();
+        try {
+            double incremento = peso * Math.exp(lambda * (ahora - base));
+            AtomicLongArray s = sumas;
+            s.getAndUpdate(id, bits -> Double.doubleToRawLongBits(Double.longBitsToDouble(bits) + incremento));
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    public double puntuacion(int id) {
+        cerrojo.readLock().lock();
+        try {
+            if (id < 0 || id >= sumas.length()) return 0.0;
+            return Double.longBitsToDouble(sumas.get(id)) * Math.exp(-lambda * (reloj.getAsLong() - base));
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    // Los n ids con mayor puntuación actual; el factor de decaimiento es común, basta ordenar las sumas
+    public int[] mejores(int n) {
+        cerrojo.readLock().lock();
+        try {
+            AtomicLongArray s = sumas;
+            Integer[] ids = new Integer[s.length()];
+            int k = 0;
+            for (int i = 0; i < s.length(); i++) if (Double.longBitsToDouble(s.get(i)) > 0) ids[k++] = i;
+            Integer[] candidatos = Arrays.copyOf(ids, k);
+            Arrays.sort(candidatos, (a, b) -> Double.compare(Double.longBitsToDouble(s.get(b)), Double.longBitsToDouble(s.get(a))));
+            int[] res = new int[Math.min(n, k)];
+            for (int i = 0; i < res.length; i++) res[i] = candidatos[i];
+            return res;
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    // Reescala a la nueva base y/o amplía el arreglo, con los registros detenidos
+    private void reorganizar(long ahora, int id) {
+        cerrojo.writeLock().lock();
+        try {
+            AtomicLongArray s = sumas;
+            int capacidad = s.length();
+            while (capacidad <= id) capacidad *= 2;
+            boolean reescalar = lambda * (ahora - base) > EXPONENTE_MAX;
+            if (!reescalar && capacidad == s.length()) return;
+            double factor = reescalar ? Math.exp(-lambda * (ahora - base)) : 1.0;
+            AtomicLongArray nuevas = new AtomicLongArray(capacidad);
+            for (int i = 0; i < s.length(); i++) {
+                nuevas.set(i, Double.doubleToRawLongBits(Double.longBitsToDouble(s.get(i)) * factor));
+            }
+            sumas = nuevas;
+            if (reescalar) base = ahora;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,395 @@
+import enums.CategoriaPodcast;
+import enums.GeneroMusical;
+import excepciones.plataforma.ContenidoNoEncontradoException;
+import modelo.artistas.Album;
+import modelo.artistas.Artista;
+import modelo.artistas.Creador;
+import modelo.contenido.Cancion;
+import modelo.contenido.Contenido;
+import modelo.contenido.Podcast;
+import modelo.plataforma.Plataforma;
+import org.junit.jupiter.api.*;
+import utilidades.AlmacenMetricas;
+import utilidades.ConjuntoLong;
+import utilidades.EstadisticasCreador;
+import utilidades.HistorialCircular;
+import utilidades.MapaIntInt;
+import utilidades.MapaLongInt;
+import utilidades.MapaLongObjeto;
+import utilidades.MapaLongObjetoConcurrente;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests para el Escenario 11: Índices del catálogo
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class Escenario11IndicesCatalogoTest {
+
+    private static Plataforma plataforma;
+    private static Cancion antiHero;
+    private static Cancion karma;
+    private static Podcast episodio;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        Plataforma.reiniciarInstancia();
+        plataforma = Plataforma.getInstancia("SoundWave Test");
+
+        Artista taylor = plataforma.registrarArtista("Taylor Swift", "Taylor", "USA", true);
+        Album album = plataforma.crearAlbum(taylor, "Midnights", new Date());
+        antiHero = album.crearCancion("Anti-Hero", 190, GeneroMusical.POP);
+        plataforma.agregarContenidoCatalogo(antiHero);
+        plataforma.agregarContenidoCatalogo(album.crearCancion("Lavender Haze", 200, GeneroMusical.POP));
+        karma = album.crearCancion("Karma", 204, GeneroMusical.ROCK);
+        plataforma.agregarContenidoCatalogo(karma);
+
+        Creador creador = plataforma.registrarCreador("Tech Podcast", "Tech Host", "Tecnología");
+        episodio = plataforma.crearPodcast("Hablemos de Karma Digital", 3600, creador, 1, 1, CategoriaPodcast.TECNOLOGIA);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        Plataforma.reiniciarInstancia();
+    }
+
+    // ========== TEST 1: Búsqueda por subcadena ==========
+    @Test
+    @Order(1)
+    @DisplayName("11.1 - La búsqueda indexada encuentra subcadenas en cualquier posición")
+    void testBusquedaSubcadena() throws ContenidoNoEncontradoException {
+        ArrayList<Contenido> resultados = plataforma.buscarContenido("ARM");
+
+        assertEquals(2, resultados.size());
+        assertEquals("Karma", resultados.get(0).getTitulo());
+    }
+
+    // ========== TEST 2: Búsqueda con consultas cortas ==========
+    @Test
+    @Order(2)
+    @DisplayName("11.2 - Consultas de menos de tres caracteres también funcionan")
+    void testBusquedaCorta() throws ContenidoNoEncontradoException {
+        ArrayList<Contenido> resultados = plataforma.buscarContenido("ze");
+
+        assertEquals(1, resultados.size());
+        assertEquals("Lavender Haze", resultados.get(0).getTitulo());
+        // Un carácter en mitad de palabra y dos que cruzan un guion, sin recorrer todos los títulos
+        assertEquals(resultados, plataforma.buscarContenido("V"));
+        assertEquals(List.of(antiHero), plataforma.buscarContenido("i-"));
+        assertEquals(4, plataforma.buscarContenido("").size());
+    }
+
+    // ========== TEST 3: Búsqueda por prefijo ==========
+    @Test
+    @Order(3)
+    @DisplayName("11.3 - Búsqueda por prefijo de palabra")
+    void testBusquedaPorPrefijo() throws ContenidoNoEncontradoException {
+        ArrayList<Contenido> resultados = plataforma.buscarContenidoPorPrefijo("kar");
+
+        assertEquals(2, resultados.size());
+        assertThrows(ContenidoNoEncontradoException.class, () -> plataforma.buscarContenidoPorPrefijo("arma"));
+    }
+
+    // ========== TEST 4: Cambio de título ==========
+    @Test
+    @Order(4)
+    @DisplayName("11.4 - El índice refleja los cambios de título")
+    void testCambioTitulo() throws ContenidoNoEncontradoException {
+        antiHero.setTitulo("Villain Era Villa");
+
+        assertThrows(ContenidoNoEncontradoException.class, () -> plataforma.buscarContenido("anti"));
+        assertTrue(plataforma.buscarContenido("villain").contains(antiHero));
+        // Las entradas del título anterior se retiran y dos palabras con el prefijo no duplican el resultado
+        assertThrows(ContenidoNoEncontradoException.class, () -> plataforma.buscarContenidoPorPrefijo("hero"));
+        assertEquals(List.of(antiHero), plataforma.buscarContenidoPorPrefijo("vill"));
+        assertThrows(ContenidoNoEncontradoException.class, () -> plataforma.buscarContenido("i-"));
+        assertEquals(List.of(antiHero), plataforma.buscarContenido("vi"));
+    }
+
+    // ========== TEST 5: Índice por género ==========
+    @Test
+    @Order(5)
+    @DisplayName("11.5 - El índice por género sigue los cambios de género")
+    void testIndiceGenero() throws ContenidoNoEncontradoException {
+        assertEquals(2, plataforma.buscarPorGenero(GeneroMusical.POP).size());
+        assertEquals(1, plataforma.contarPorGenero(GeneroMusical.ROCK));
+
+        karma.cambiarGenero(GeneroMusical.POP);
+
+        assertEquals(3, plataforma.buscarPorGenero(GeneroMusical.POP).size());
+        assertThrows(ContenidoNoEncontradoException.class, () -> plataforma.buscarPorGenero(GeneroMusical.ROCK));
+    }
+
+    // ========== TEST 6: Índice por categoría ==========
+    @Test
+    @Order(6)
+    @DisplayName("11.6 - El índice por categoría sigue los cambios de categoría")
+    void testIndiceCategoria() {
+        assertEquals(1, plataforma.buscarPorCategoria(CategoriaPodcast.TECNOLOGIA).size());
+
+        episodio.setCategoria(CategoriaPodcast.NEGOCIOS);
+
+        assertTrue(plataforma.buscarPorCategoria(CategoriaPodcast.TECNOLOGIA).isEmpty());
+        assertEquals(episodio, plataforma.buscarPorCategoria(CategoriaPodcast.NEGOCIOS).get(0));
+    }
+
+    // ========== TEST 7: Ranking en vivo ==========
+    @Test
+    @Order(7)
+    @DisplayName("11.7 - El top se actualiza con cada reproducción")
+    void testRankingEnVivo() throws Exception {
+        karma.setReproducciones(10);
+        antiHero.setReproducciones(5);
+        assertEquals(karma, plataforma.obtenerTopContenidos(1).get(0));
+
+        for (int i = 0; i < 6; i++) antiHero.reproducir();
+
+        ArrayList<Contenido> top = plataforma.obtenerTopContenidos(2);
+        assertEquals(antiHero, top.get(0));
+        assertEquals(karma, top.get(1));
+    }
+
+    // ========== TEST 8: Ranking por instantáneas ==========
+    @Test
+    @Order(8)
+    @DisplayName("11.8 - En modo instantáneas el top cambia al refrescar")
+    void testRankingInstantaneas() {
+        plataforma.getRanking().setIntervaloInstantaneaMs(60_000);
+        karma.setReproducciones(100);
+
+        assertEquals(antiHero, plataforma.obtenerTopContenidos(1).get(0));
+        assertEquals(1, plataforma.getRanking().getNumPendientes());
+
+        plataforma.getRanking().refrescar();
+        assertEquals(karma, plataforma.obtenerTopContenidos(1).get(0));
+        plataforma.getRanking().setIntervaloInstantaneaMs(0);
+    }
+
+    // ========== TEST 9: Particiones por tipo ==========
+    @Test
+    @Order(9)
+    @DisplayName("11.9 - Canciones y podcasts salen de su partición y el catálogo unificado mantiene el orden")
+    void testParticionesPorTipo() {
+        assertEquals(3, plataforma.getNumCanciones());
+        assertEquals(1, plataforma.getNumPodcasts());
+        assertEquals(antiHero, plataforma.getCanciones().get(0));
+        assertEquals(karma, plataforma.getCanciones().get(2));
+        assertEquals(episodio, plataforma.getPodcasts().get(0));
+        assertEquals(3, plataforma.streamCanciones().count());
+
+        ArrayList<Contenido> catalogo = plataforma.getCatalogo();
+        assertEquals(4, catalogo.size());
+        assertEquals(antiHero, catalogo.get(0));
+        assertEquals(episodio, catalogo.get(3));
+    }
+
+    // ========== TEST 10: Colecciones de primitivos ==========
+    @Test
+    @Order(10)
+    @DisplayName("11.10 - Mapas y conjuntos de primitivos se comportan como sus equivalentes de java.util")
+    void testColeccionesPrimitivas() {
+        Random random = new Random(42);
+        MapaLongObjeto<String> mapa = new MapaLongObjeto<>();
+        ConjuntoLong conjunto = new ConjuntoLong();
+        MapaLongInt enteros = new MapaLongInt();
+        HashMap<Long, String> referencia = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            long clave = random.nextInt(5_000); // incluye el 0 y muchas colisiones de inserción y borrado
+            if (random.nextInt(3) == 0) {
+                assertEquals(referencia.containsKey(clave), conjunto.eliminar(clave));
+                assertEquals(referencia.containsKey(clave), enteros.eliminar(clave));
+                assertEquals(referencia.remove(clave), mapa.eliminar(clave));
+            } else {
+                String valor = "v" + i;
+                assertEquals(referencia.put(clave, valor), mapa.put(clave, valor));
+                conjunto.agregar(clave);
+                enteros.put(clave, i);
+            }
+        }
+        assertEquals(referencia.size(), mapa.tamano());
+        assertEquals(referencia.size(), conjunto.tamano());
+        assertEquals(referencia.size(), enteros.tamano());
+        for (long clave = 0; clave < 5_000; clave++) {
+            assertEquals(referencia.get(clave), mapa.get(clave));
+            assertEquals(referencia.containsKey(clave), conjunto.contiene(clave));
+            String valor = referencia.get(clave);
+            assertEquals(valor != null ? Integer.parseInt(valor.substring(1)) : -1, enteros.get(clave, -1));
+        }
+
+        MapaLongObjetoConcurrente<String> concurrente = new MapaLongObjetoConcurrente<>();
+        referencia.forEach(concurrente::put);
+        assertEquals(referencia.size(), concurrente.valores().size());
+        assertTrue(concurrente.valores().containsAll(referencia.values()));
+        // El stream se divide por segmentos y en paralelo devuelve cada valor una sola vez
+        assertNotNull(concurrente.valores().spliterator().trySplit());
+        assertEquals(new HashSet<>(referencia.values()),
+                concurrente.stream().parallel().collect(Collectors.toSet()));
+        assertEquals(referencia.size(), concurrente.stream().parallel().count());
+        assertEquals("x", concurrente.calcular(7_000, anterior -> anterior == null ? "x" : anterior + "x"));
+        assertEquals("xx", concurrente.calcular(7_000, anterior -> anterior == null ? "x" : anterior + "x"));
+        assertNull(concurrente.calcular(7_000, anterior -> null));
+        assertFalse(concurrente.contiene(7_000));
+
+        MapaIntInt temporadas = new MapaIntInt();
+        for (int i = 0; i < 100; i++) temporadas.sumar(i % 7, 1);
+        assertEquals(15, temporadas.get(0, -1));
+        assertEquals(14, temporadas.get(6, -1));
+        assertEquals(-1, temporadas.get(7, -1));
+        assertEquals(7, temporadas.aHashMap().size());
+
+        // Las estadísticas del creador siguen exponiendo el reparto por temporada
+        HashMap<Integer, Integer> porTemporada = episodio.getCreador().obtenerEstadisticas().getEpisodiosPorTemporada();
+        assertEquals(Integer.valueOf(1), porTemporada.get(episodio.getTemporada()));
+    }
+
+    // ========== TEST 11: Columnas de métricas fuera del heap ==========
+    @Test
+    @Order(11)
+    @DisplayName("11.11 - Las columnas de métricas reflejan reproducciones, likes y disponibilidad")
+    void testAlmacenMetricas() throws Exception {
+        AlmacenMetricas metricas = plataforma.getMetricas();
+        assertEquals(4, metricas.tamano());
+
+        antiHero.setReproducciones(50);
+        karma.setReproducciones(70);
+        ArrayList<Contenido> top = metricas.obtenerTop(2);
+        assertEquals(karma, top.get(0));
+        assertEquals(antiHero, top.get(1));
+        ArrayList<Contenido> delGenero = plataforma.obtenerTopCanciones(5, karma.getGenero());
+        assertEquals(karma, delGenero.get(0));
+        for (Contenido c : delGenero) assertEquals(karma.getGenero(), ((Cancion) c).getGenero());
+        assertFalse(plataforma.obtenerTopCanciones(5, GeneroMusical.JAZZ).contains(karma));
+        assertEquals(1, plataforma.obtenerTopPodcasts(5, null).size());
+
+        // Totales por artista desde las columnas, iguales a recorrer los objetos
+        AlmacenMetricas.Totales totales = plataforma.obtenerTotalesArtista(antiHero.getArtista());
+        long esperado = 0;
+        for (Cancion c : plataforma.getCanciones()) esperado += c.getReproduccionesTotales();
+        assertEquals(3, totales.getNumContenidos());
+        assertEquals(esperado, totales.getReproducciones());
+        assertEquals(karma, totales.getMasPopular());
+
+        long likesAntes = totales.getLikes();
+        karma.agregarLike();
+        karma.agregarLike();
+        assertEquals(likesAntes + 2, plataforma.obtenerTotalesArtista(antiHero.getArtista()).getLikes());
+
+        // Un contenido no disponible desaparece de rankings y filtros
+        karma.marcarNoDisponible();
+        assertEquals(antiHero, metricas.obtenerTop(1).get(0));
+        assertFalse(plataforma.filtrarPorDuracion(200, 210).contains(karma));
+        karma.marcarDisponible();
+        assertTrue(plataforma.filtrarPorDuracion(200, 210).contains(karma));
+        assertEquals(List.of(episodio), plataforma.filtrarPorDuracion(3000, 4000));
+
+        // Estadísticas del creador desde las columnas, iguales al cálculo sobre los episodios
+        episodio.setReproducciones(12);
+        EstadisticasCreador porColumnas = new EstadisticasCreador(episodio.getCreador(), plataforma.getMetricas());
+        EstadisticasCreador porObjetos = new EstadisticasCreador(episodio.getCreador());
+        assertEquals(porObjetos.getTotalReproducciones(), porColumnas.getTotalReproducciones());
+        assertEquals(porObjetos.getDuracionTotalSegundos(), porColumnas.getDuracionTotalSegundos());
+        assertEquals(porObjetos.getEpisodioMasPopular(), porColumnas.getEpisodioMasPopular());
+        assertEquals(porObjetos.getEpisodiosPorTemporada(), porColumnas.getEpisodiosPorTemporada());
+    }
+
+    // ========== TEST 12: Cambios de propietario en las métricas ==========
+    @Test
+    @Order(12)
+    @DisplayName("11.12 - Retirar un episodio o cambiar el artista de una canción actualiza los totales por propietario")
+    void testMetricasCambioPropietario() throws Exception {
+        Creador creador = episodio.getCreador();
+        Podcast segundo = plataforma.crearPodcast("Episodio 2", 1800, creador, 2, 1, CategoriaPodcast.TECNOLOGIA);
+        segundo.setReproducciones(5);
+        assertEquals(2, plataforma.getMetricas().totalesDe(creador.getIdNumerico()).getNumContenidos());
+
+        creador.eliminarEpisodio(segundo.getId());
+        AlmacenMetricas.Totales totales = plataforma.getMetricas().totalesDe(creador.getIdNumerico());
+        EstadisticasCreador mantenidas = creador.obtenerEstadisticas();
+        assertEquals(1, totales.getNumContenidos());
+        assertEquals(mantenidas.getTotalEpisodios(), totales.getNumContenidos());
+        assertEquals(mantenidas.getTotalReproducciones(), totales.getReproducciones());
+        assertEquals(mantenidas.getDuracionTotalSegundos(), totales.getDuracionSegundos());
+        assertEquals(mantenidas.getTotalReproducciones(),
+                new EstadisticasCreador(creador, plataforma.getMetricas()).getTotalReproducciones());
+
+        // Volver a publicarlo lo devuelve a los totales del creador
+        creador.publicarPodcast(segundo);
+        assertEquals(2, plataforma.getMetricas().totalesDe(creador.getIdNumerico()).getNumContenidos());
+
+        Artista taylor = antiHero.getArtista();
+        Artista otro = plataforma.registrarArtista("Otro Artista", "Otro", "ES", false);
+        long reproduccionesKarma = karma.getReproduccionesTotales();
+        long antes = plataforma.obtenerTotalesArtista(taylor).getReproducciones();
+        karma.setArtista(otro);
+        assertEquals(2, plataforma.obtenerTotalesArtista(taylor).getNumContenidos());
+        assertEquals(antes - reproduccionesKarma, plataforma.obtenerTotalesArtista(taylor).getReproducciones());
+        assertEquals(karma, plataforma.obtenerTotalesArtista(otro).getMasPopular());
+        karma.setArtista(taylor);
+        assertEquals(3, plataforma.obtenerTotalesArtista(taylor).getNumContenidos());
+        assertEquals(0, plataforma.obtenerTotalesArtista(otro).getNumContenidos());
+    }
+
+    // ========== TEST 13: Columnas con avisos concurrentes ==========
+    @Test
+    @Order(13)
+    @DisplayName("11.13 - Avisos cruzados no dejan la columna por detrás del contador y fijar un valor menor la baja")
+    void testMetricasAvisosConcurrentes() throws Exception {
+        AlmacenMetricas metricas = plataforma.getMetricas();
+        int ordinal = -1;
+        for (int i = 0; i < metricas.tamano(); i++) if (metricas.getContenido(i) == antiHero) ordinal = i;
+        assertTrue(ordinal >= 0);
+
+        long antes = antiHero.getReproduccionesTotales();
+        Thread[] hilos = new Thread[4];
+        for (int h = 0; h < hilos.length; h++) {
+            hilos[h] = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) antiHero.aumentarReproducciones();
+            });
+            hilos[h].start();
+        }
+        for (Thread t : hilos) t.join();
+        assertEquals(antes + 80_000, antiHero.getReproduccionesTotales());
+        assertEquals(antiHero.getReproduccionesTotales(), metricas.getReproducciones(ordinal));
+
+        antiHero.setReproducciones(3);
+        assertEquals(3, metricas.getReproducciones(ordinal));
+    }
+
+    // ========== TEST 14: Historial de ids ==========
+    @Test
+    @Order(14)
+    @DisplayName("11.14 - El historial circular guarda ids, cuenta apariciones y suelta lo que expulsa")
+    void testHistorialCircularDeIds() {
+        HistorialCircular historial = new HistorialCircular(3);
+        historial.agregar(antiHero);
+        historial.agregar(karma);
+        historial.agregar(antiHero);
+        assertEquals(2, historial.contarApariciones(antiHero));
+        assertEquals(2, historial.contarDistintos());
+
+        // Expulsa la primera aparición de antiHero; la segunda sigue dentro
+        historial.agregar(episodio);
+        assertTrue(historial.contiene(antiHero.getIdNumerico()));
+        assertEquals(1, historial.contarApariciones(antiHero));
+        assertEquals(List.of(karma, antiHero, episodio), historial.aLista());
+        assertArrayEquals(new long[]{karma.getIdNumerico(), antiHero.getIdNumerico(), episodio.getIdNumerico()},
+                historial.aIds());
+
+        historial.agregar(episodio);
+        assertFalse(historial.contiene(karma));
+        assertEquals(2, historial.contarDistintos());
+        assertEquals(List.of(antiHero, episodio, episodio), historial.aLista());
+
+        historial.limpiar();
+        assertTrue(historial.estaVacio());
+        assertFalse(historial.contiene(episodio));
+    }
+}
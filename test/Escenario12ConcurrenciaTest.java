@@ -0,0 +1,302 @@
+import enums.GeneroMusical;
+import excepciones.plataforma.UsuarioYaExisteException;
+import excepciones.usuario.AnuncioRequeridoException;
+import interfaces.ObservadorContenido;
+import modelo.artistas.Album;
+import modelo.artistas.Artista;
+import modelo.contenido.Cancion;
+import modelo.contenido.Contenido;
+import modelo.plataforma.Anuncio;
+import modelo.plataforma.EventoReproduccion;
+import modelo.plataforma.Plataforma;
+import modelo.plataforma.ProcesadorReproducciones;
+import modelo.usuarios.UsuarioGratuito;
+import modelo.usuarios.UsuarioPremium;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests para el Escenario 12: Acceso concurrente a la plataforma
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class Escenario12ConcurrenciaTest {
+
+    private static final int HILOS = 8;
+
+    private static Plataforma plataforma;
+    private static ExecutorService ejecutor;
+
+    @BeforeAll
+    static void setUp() {
+        Plataforma.reiniciarInstancia();
+        plataforma = Plataforma.getInstancia("SoundWave Test");
+        ejecutor = Executors.newFixedThreadPool(HILOS);
+    }
+
+    @AfterAll
+    static void tearDown() throws InterruptedException {
+        ejecutor.shutdown();
+        ejecutor.awaitTermination(10, TimeUnit.SECONDS);
+        Plataforma.reiniciarInstancia();
+    }
+
+    // ========== TEST 1: Registro simultáneo con el mismo email ==========
+    @Test
+    @Order(1)
+    @DisplayName("12.1 - Solo un registro simultáneo con el mismo email tiene éxito")
+    void testRegistroSimultaneoMismoEmail() throws Exception {
+        AtomicInteger rechazados = new AtomicInteger();
+        ArrayList<Future<?>> tareas = new ArrayList<>();
+        for (int i = 0; i < HILOS * 4; i++) {
+            final int n = i;
+            tareas.add(ejecutor.submit(() -> {
+                try {
+                    plataforma.registrarUsuarioGratuito("Usuario " + n, "mismo@test.com", "password123");
+                } catch (UsuarioYaExisteException e) {
+                    rechazados.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> f : tareas) f.get();
+
+        assertEquals(1, plataforma.getTodosLosUsuarios().size());
+        assertEquals(HILOS * 4 - 1, rechazados.get());
+    }
+
+    // ========== TEST 2: Altas concurrentes en el catálogo ==========
+    @Test
+    @Order(2)
+    @DisplayName("12.2 - Altas concurrentes en el catálogo no pierden contenido")
+    void testAltasConcurrentesCatalogo() throws Exception {
+        ArrayList<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            final int hilo = h;
+            tareas.add(ejecutor.submit(() -> {
+                Artista artista = plataforma.registrarArtista("Artista " + hilo, "Real", "ES", true);
+                Album album = plataforma.crearAlbum(artista, "Album " + hilo, new Date());
+                for (int i = 0; i < 20; i++) {
+                    Cancion c = album.crearCancion("Tema " + hilo + "-" + i, 180, GeneroMusical.INDIE);
+                    plataforma.agregarContenidoCatalogo(c);
+                    plataforma.buscarPorGenero(GeneroMusical.INDIE);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> f : tareas) f.get();
+
+        assertEquals(HILOS * 20, plataforma.getCatalogo().size());
+        assertEquals(HILOS * 20, plataforma.buscarPorGenero(GeneroMusical.INDIE).size());
+        assertEquals(HILOS * 20, plataforma.buscarContenido("tema").size());
+        assertEquals(HILOS, plataforma.getAlbumes().size());
+        assertEquals(HILOS, plataforma.getArtistas().size());
+    }
+
+    // ========== TEST 3: Contadores de reproducciones y likes ==========
+    @Test
+    @Order(3)
+    @DisplayName("12.3 - Reproducciones y likes concurrentes no pierden incrementos")
+    void testContadoresConcurrentes() throws Exception {
+        Cancion cancion = plataforma.buscarPorGenero(GeneroMusical.INDIE).get(0);
+        cancion.setReproducciones(0);
+        ArrayList<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            tareas.add(ejecutor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    cancion.reproducir();
+                    cancion.agregarLike();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> f : tareas) f.get();
+
+        assertEquals(HILOS * 1000L, cancion.getReproduccionesTotales());
+        assertEquals(HILOS * 1000L, cancion.getLikesTotales());
+        assertEquals(cancion, plataforma.obtenerTopContenidos(1).get(0));
+    }
+
+    // ========== TEST 4: Contadores por encima de int ==========
+    @Test
+    @Order(4)
+    @DisplayName("12.4 - Los contadores superan el rango de int sin desbordar")
+    void testContadorSinDesbordamiento() throws Exception {
+        Cancion cancion = plataforma.buscarPorGenero(GeneroMusical.INDIE).get(1);
+        cancion.setReproducciones(Integer.MAX_VALUE);
+        cancion.aumentarReproducciones();
+
+        assertEquals(Integer.MAX_VALUE + 1L, cancion.getReproduccionesTotales());
+        assertEquals(Integer.MAX_VALUE, cancion.getReproducciones());
+    }
+
+    // ========== TEST 5: Reproducciones por lotes ==========
+    @Test
+    @Order(5)
+    @DisplayName("12.5 - Las reproducciones en segundo plano se aplican al esperar")
+    void testReproduccionesPorLotes() throws Exception {
+        Cancion cancion = plataforma.buscarPorGenero(GeneroMusical.INDIE).get(2);
+        cancion.setReproducciones(0);
+        int oyentesAntes = cancion.getArtista().getOyentesMensuales();
+        ArrayList<UsuarioPremium> usuarios = new ArrayList<>();
+        for (int i = 0; i < HILOS; i++) {
+            usuarios.add(plataforma.registrarUsuarioPremium("Oyente " + i, "oyente" + i + "@test.com", "password123"));
+        }
+
+        ArrayList<Future<?>> tareas = new ArrayList<>();
+        for (UsuarioPremium u : usuarios) {
+            tareas.add(ejecutor.submit(() -> {
+                for (int i = 0; i < 100; i++) plataforma.reproducir(u, cancion);
+                return null;
+            }));
+        }
+        for (Future<?> f : tareas) f.get();
+        plataforma.esperarReproducciones();
+
+        assertEquals(HILOS * 100L, cancion.getReproduccionesTotales());
+        assertEquals(oyentesAntes + HILOS * 100, cancion.getArtista().getOyentesMensuales());
+        for (UsuarioPremium u : usuarios) assertEquals(100, u.getHistorial().size());
+        assertEquals(0, plataforma.getProcesadorReproducciones().getEventosPendientes());
+    }
+
+    // ========== TEST 6: Anuncios por lotes ==========
+    @Test
+    @Order(6)
+    @DisplayName("12.6 - Usuario gratuito: límites síncronos y anuncios contabilizados en el lote")
+    void testAnunciosPorLotes() throws Exception {
+        UsuarioGratuito gratuito = plataforma.registrarUsuarioGratuito("Gratis", "gratis@test.com", "password123");
+        Cancion cancion = plataforma.buscarPorGenero(GeneroMusical.INDIE).get(3);
+        Anuncio anuncio = plataforma.obtenerAnuncioAleatorio();
+        int impresionesAntes = anuncio.getImpresiones();
+
+        for (int i = 0; i < 3; i++) plataforma.reproducir(gratuito, cancion);
+        assertThrows(AnuncioRequeridoException.class, () -> plataforma.reproducir(gratuito, cancion));
+
+        plataforma.reproducirAnuncio(gratuito, anuncio);
+        plataforma.reproducir(gratuito, cancion);
+        plataforma.esperarReproducciones();
+
+        assertEquals(4, gratuito.getHistorial().size());
+        assertEquals(impresionesAntes + 1, anuncio.getImpresiones());
+        assertEquals(1, plataforma.getTotalAnunciosReproducidos());
+    }
+
+    // ========== TEST 7: Lecturas sin copia ==========
+    @Test
+    @Order(7)
+    @DisplayName("12.7 - Vistas y streams del catálogo sin copias, estables ante altas concurrentes")
+    void testVistasYStreamsSinCopia() throws Exception {
+        List<Contenido> vista = plataforma.getVistaCatalogo();
+        int tamano = vista.size();
+        assertEquals(plataforma.getCatalogo(), vista);
+        assertThrows(UnsupportedOperationException.class, () -> vista.add(vista.get(0)));
+
+        Future<?> altas = ejecutor.submit(() -> {
+            Artista artista = plataforma.registrarArtista("Artista vistas", "Real", "ES", true);
+            for (int a = 0; a < 5; a++) {
+                Album album = plataforma.crearAlbum(artista, "Album vistas " + a, new Date());
+                for (int i = 0; i < 10; i++) plataforma.agregarContenidoCatalogo(album.crearCancion("Extra " + i, 120, GeneroMusical.JAZZ));
+            }
+            return null;
+        });
+        // El stream paralelo recorre los elementos publicados al crearlo, aunque sigan llegando altas
+        long indie = plataforma.streamCatalogo().parallel()
+                .filter(c -> c instanceof Cancion && ((Cancion) c).getGenero() == GeneroMusical.INDIE).count();
+        altas.get();
+
+        assertEquals(HILOS * 20, indie);
+        assertEquals(tamano, vista.size());
+        assertEquals(tamano + 50, plataforma.getVistaCatalogo().size());
+        assertEquals(plataforma.getCanciones().size(), plataforma.streamCanciones().count());
+        assertEquals(0, plataforma.streamPodcasts().count());
+        assertEquals(plataforma.getTodosLosUsuarios().size(), plataforma.streamUsuarios().count());
+        assertEquals(plataforma.getAlbumes().size(), plataforma.streamAlbumes().count());
+        assertThrows(UnsupportedOperationException.class, () -> plataforma.getVistaAlbumes().clear());
+    }
+
+    // ========== TEST 8: Observador que falla en el lote ==========
+    @Test
+    @Order(8)
+    @DisplayName("12.8 - Un observador que lanza excepción no detiene el procesador ni deja sin aviso a los demás")
+    void testObservadorQueFallaNoBloquea() throws Exception {
+        UsuarioPremium usuario = plataforma.registrarUsuarioPremium("Fallo", "fallo@test.com", "password123");
+        Cancion cancion = plataforma.buscarPorGenero(GeneroMusical.INDIE).get(5);
+        long fallosAntes = Contenido.getFallosObservadores();
+        ObservadorContenido roto = new ObservadorContenido() {
+            @Override
+            public void alCambiarReproducciones(Contenido contenido) {
+                throw new IllegalStateException("observador roto");
+            }
+        };
+        AtomicInteger avisos = new AtomicInteger();
+        ObservadorContenido posterior = new ObservadorContenido() {
+            @Override
+            public void alCambiarReproducciones(Contenido contenido) {
+                avisos.incrementAndGet();
+            }
+        };
+        cancion.agregarObservador(roto);
+        cancion.agregarObservador(posterior);
+        try {
+            for (int i = 0; i < 10; i++) plataforma.reproducir(usuario, cancion);
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> plataforma.esperarReproducciones());
+        } finally {
+            cancion.quitarObservador(roto);
+            cancion.quitarObservador(posterior);
+        }
+        // Cada aviso fallido se cuenta, y el observador registrado después del roto los recibe todos
+        long fallos = Contenido.getFallosObservadores() - fallosAntes;
+        assertTrue(fallos > 0);
+        assertEquals(fallos, avisos.get());
+
+        // El trabajador sigue vivo y atiende las publicaciones siguientes
+        long antes = cancion.getReproduccionesTotales();
+        plataforma.reproducir(usuario, cancion);
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> plataforma.esperarReproducciones());
+        assertEquals(antes + 1, cancion.getReproduccionesTotales());
+        assertEquals(0, plataforma.getProcesadorReproducciones().getEventosPendientes());
+    }
+
+    // ========== TEST 9: Espera determinista con publicadores concurrentes ==========
+    @Test
+    @Order(9)
+    @DisplayName("12.9 - Esperar tras publicar ve siempre el propio evento aunque otros hilos publiquen a la vez")
+    void testEsperaDeterministaConPublicadoresConcurrentes() throws Exception {
+        ProcesadorReproducciones procesador = new ProcesadorReproducciones(2, 64, 8);
+        Artista artista = new Artista("Flush", "Varios", "España", false);
+        UsuarioPremium propio = new UsuarioPremium("Propio", "propio@test.com", "password123");
+        Cancion mia = new Cancion("Mía", 100, artista, GeneroMusical.ROCK);
+        Cancion ruido = new Cancion("Ruido", 100, artista, GeneroMusical.ROCK);
+        AtomicBoolean parar = new AtomicBoolean();
+        ArrayList<Future<?>> fondo = new ArrayList<>();
+        for (int h = 0; h < 3; h++) {
+            UsuarioPremium otro = new UsuarioPremium("Otro" + h, "otro" + h + "@test.com", "password123");
+            fondo.add(ejecutor.submit(() -> {
+                while (!parar.get()) procesador.publicar(EventoReproduccion.deContenido(otro, ruido));
+            }));
+        }
+        try {
+            for (int i = 1; i <= 5_000; i++) {
+                assertTrue(procesador.publicar(EventoReproduccion.deContenido(propio, mia)));
+                procesador.esperarProcesamiento();
+                assertEquals(i, mia.getReproduccionesTotales());
+            }
+        } finally {
+            parar.set(true);
+            for (Future<?> f : fondo) f.get(10, TimeUnit.SECONDS);
+            procesador.cerrar();
+        }
+        assertEquals(procesador.getEventosPublicados(), procesador.getEventosProcesados());
+    }
+}
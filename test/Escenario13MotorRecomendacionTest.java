@@ -0,0 +1,494 @@
+import enums.AlgoritmoRecomendacion;
+import enums.GeneroMusical;
+import modelo.artistas.Album;
+import modelo.artistas.Artista;
+import modelo.contenido.Cancion;
+import modelo.contenido.Contenido;
+import modelo.plataforma.Plataforma;
+import modelo.usuarios.UsuarioPremium;
+import utilidades.CacheRecomendaciones;
+import utilidades.ContadorEtiquetas;
+import utilidades.ContenidoPuntuado;
+import utilidades.DiccionarioEtiquetas;
+import utilidades.FiltradoColaborativo;
+import utilidades.IndiceLSH;
+import utilidades.MotorEtiquetas;
+import utilidades.RecomendadorIA;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests para el Escenario 13: Motor de recomendación
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class Escenario13MotorRecomendacionTest {
+
+    private static final GeneroMusical[] GENEROS = {GeneroMusical.POP, GeneroMusical.ROCK, GeneroMusical.JAZZ};
+
+    private static Plataforma plataforma;
+    private static RecomendadorIA recomendador;
+    private static ArrayList<UsuarioPremium> usuarios;
+    private static ArrayList<Cancion> canciones;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        Plataforma.reiniciarInstancia();
+        plataforma = Plataforma.getInstancia("SoundWave Test");
+        recomendador = plataforma.getRecomendador();
+
+        Artista artista = plataforma.registrarArtista("Artista Motor", "Real", "ES", true);
+        canciones = new ArrayList<>();
+        for (int a = 0; a < 3; a++) {
+            Album album = plataforma.crearAlbum(artista, "Album " + a, new Date());
+            for (int i = 0; i < 12; i++) {
+                Cancion c = album.crearCancion("Tema " + a + "-" + i, 180, GENEROS[(a + i) % GENEROS.length]);
+                c.agregarTag(i % 2 == 0 ? "acustico" : "directo");
+                if (i % 3 == 0) c.agregarTag("verano");
+                plataforma.agregarContenidoCatalogo(c);
+                canciones.add(c);
+            }
+        }
+
+        usuarios = new ArrayList<>();
+        for (int u = 0; u < 6; u++) {
+            UsuarioPremium usuario = plataforma.registrarUsuarioPremium("Usuario " + u, "motor" + u + "@test.com", "password123");
+            for (int i = 0; i < 5; i++) usuario.agregarAlHistorial(canciones.get((u * 2 + i * 3) % canciones.size()));
+            usuarios.add(usuario);
+        }
+
+        recomendador.entrenarModelo(plataforma.getTodosLosUsuarios(), plataforma.getCatalogo());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        Plataforma.reiniciarInstancia();
+    }
+
+    // Referencia: recorrido completo del catálogo comparando etiquetas
+    private static double similitud(ArrayList<String> referencia, Contenido c) {
+        if (referencia.isEmpty() || c.getEtiquetas().isEmpty()) return 0.0;
+        int coincidencias = 0;
+        for (String e : c.getEtiquetas()) if (referencia.contains(e)) coincidencias++;
+        return (double) coincidencias / Math.max(referencia.size(), c.getEtiquetas().size());
+    }
+
+    // ========== TEST 1: Recomendaciones equivalentes al recorrido completo ==========
+    @Test
+    @Order(1)
+    @DisplayName("13.1 - El motor disperso devuelve lo mismo que el recorrido completo")
+    void testRecomendarEquivalenteRecorrido() throws Exception {
+        recomendador.setUmbralSimilitud(0.5);
+        for (UsuarioPremium u : usuarios) {
+            ArrayList<String> prefs = recomendador.getMatrizPreferencias().get(u.getId());
+            ArrayList<Contenido> esperado = new ArrayList<>();
+            for (Contenido c : canciones) {
+                if (!u.haEscuchado(c) && similitud(prefs, c) >= 0.5) esperado.add(c);
+            }
+            assertEquals(esperado, recomendador.recomendar(u));
+        }
+        recomendador.setUmbralSimilitud(0.6);
+    }
+
+    // ========== TEST 2: Similares equivalentes al recorrido completo ==========
+    @Test
+    @Order(2)
+    @DisplayName("13.2 - obtenerSimilares coincide con el recorrido completo")
+    void testSimilaresEquivalenteRecorrido() throws Exception {
+        for (Cancion referencia : canciones) {
+            ArrayList<Contenido> esperado = new ArrayList<>();
+            for (Contenido c : canciones) {
+                if (c != referencia && similitud(referencia.getEtiquetas(), c) >= 0.6) esperado.add(c);
+            }
+            assertEquals(esperado, recomendador.obtenerSimilares(referencia));
+        }
+    }
+
+    // ========== TEST 3: Vecinos colaborativos precalculados ==========
+    @Test
+    @Order(3)
+    @DisplayName("13.3 - Los vecinos colaborativos coinciden con la similitud coseno")
+    void testVecinosColaborativos() throws Exception {
+        HashMap<String, ArrayList<Contenido>> historiales = new HashMap<>();
+        for (UsuarioPremium u : usuarios) historiales.put(u.getId(), u.getHistorial());
+        FiltradoColaborativo filtrado = new FiltradoColaborativo(historiales, 2, new ForkJoinPool(4));
+
+        assertEquals(usuarios.size(), filtrado.getNumUsuarios());
+        for (UsuarioPremium u : usuarios) {
+            ArrayList<String> vecinos = filtrado.obtenerUsuariosSimilares(u.getId());
+            assertTrue(vecinos.size() <= 2);
+            assertFalse(vecinos.contains(u.getId()));
+            // Ningún usuario fuera de la lista es más similar que el último vecino
+            if (vecinos.isEmpty()) continue;
+            double ultimo = coseno(u, buscarUsuario(vecinos.get(vecinos.size() - 1)));
+            for (UsuarioPremium otro : usuarios) {
+                if (otro != u && !vecinos.contains(otro.getId())) assertTrue(coseno(u, otro) <= ultimo);
+            }
+        }
+    }
+
+    // ========== TEST 4: Algoritmos colaborativo e híbrido ==========
+    @Test
+    @Order(4)
+    @DisplayName("13.4 - COLABORATIVO e HIBRIDO excluyen lo escuchado y ordenan por puntuación")
+    void testAlgoritmosColaborativoHibrido() throws Exception {
+        UsuarioPremium u = usuarios.get(0);
+        ArrayList<String> vecinos = recomendador.obtenerUsuariosSimilares(u);
+        assertFalse(vecinos.isEmpty());
+
+        recomendador.setAlgoritmo(AlgoritmoRecomendacion.COLABORATIVO);
+        ArrayList<Contenido> colaborativas = recomendador.recomendar(u);
+        assertFalse(colaborativas.isEmpty());
+        for (Contenido c : colaborativas) assertFalse(u.haEscuchado(c));
+        // Lo escuchado por el vecino más cercano y no por el usuario aparece en las recomendaciones
+        for (Contenido c : buscarUsuario(vecinos.get(0)).getHistorial()) {
+            if (!u.haEscuchado(c)) assertTrue(colaborativas.contains(c));
+        }
+
+        recomendador.setAlgoritmo(AlgoritmoRecomendacion.HIBRIDO);
+        ArrayList<Contenido> hibridas = recomendador.recomendar(u);
+        for (Contenido c : hibridas) assertFalse(u.haEscuchado(c));
+        assertTrue(hibridas.containsAll(colaborativas));
+
+        recomendador.setAlgoritmo(null);
+    }
+
+    // ========== TEST 5: Recall del índice LSH ==========
+    @Test
+    @Order(5)
+    @DisplayName("13.5 - El índice LSH recupera casi todos los vecinos sobre el umbral")
+    void testRecallIndiceLSH() throws Exception {
+        Random random = new Random(42);
+        int[][] conjuntos = new int[2000][];
+        for (int i = 0; i < conjuntos.length; i++) {
+            LinkedHashSet<Integer> ids = new LinkedHashSet<>();
+            while (ids.size() < 5) ids.add(random.nextInt(40));
+            conjuntos[i] = ids.stream().mapToInt(Integer::intValue).sorted().toArray();
+        }
+        IndiceLSH indice = new IndiceLSH(conjuntos, 20, 2);
+
+        int esperados = 0, recuperados = 0;
+        for (int q = 0; q < 100; q++) {
+            int[] candidatos = indice.candidatos(conjuntos[q]);
+            for (int i = 0; i < conjuntos.length; i++) {
+                if (comunes(conjuntos[q], conjuntos[i]) < 3) continue;
+                esperados++;
+                if (Arrays.binarySearch(candidatos, i) >= 0) recuperados++;
+            }
+            assertTrue(candidatos.length < conjuntos.length);
+        }
+        assertTrue(esperados > 0);
+        assertTrue(recuperados >= esperados * 0.9, "Recall: " + recuperados + "/" + esperados);
+    }
+
+    // ========== TEST 6: obtenerSimilares con LSH frente al exacto ==========
+    @Test
+    @Order(6)
+    @DisplayName("13.6 - obtenerSimilares con LSH no devuelve falsos positivos")
+    void testSimilaresLSHSinFalsosPositivos() throws Exception {
+        recomendador.configurarLSH(4, 3);
+        for (Cancion referencia : canciones) {
+            ArrayList<Contenido> exacto = recomendador.obtenerSimilaresExacto(referencia);
+            ArrayList<Contenido> aproximado = recomendador.obtenerSimilares(referencia);
+            assertTrue(exacto.containsAll(aproximado));
+        }
+        recomendador.configurarLSH(IndiceLSH.BANDAS_DEFAULT, IndiceLSH.FILAS_DEFAULT);
+        assertThrows(IllegalArgumentException.class, () -> recomendador.configurarLSH(0, 2));
+    }
+
+    // ========== TEST 7: Alta incremental en el catálogo ==========
+    @Test
+    @Order(7)
+    @DisplayName("13.7 - Un contenido nuevo se recomienda sin reentrenar el modelo")
+    void testAltaIncrementalCatalogo() throws Exception {
+        Cancion referencia = canciones.get(2);
+        Album album = plataforma.crearAlbum(referencia.getArtista(), "Album incremental", new Date());
+        Cancion nueva = album.crearCancion("Tema nuevo", 200, GeneroMusical.POP);
+        for (String tag : referencia.getEtiquetas()) if (!nueva.getEtiquetas().contains(tag)) nueva.agregarTag(tag);
+        plataforma.agregarContenidoCatalogo(nueva);
+
+        assertEquals(1, recomendador.getNumContenidosPendientes());
+        assertTrue(recomendador.obtenerSimilares(referencia).contains(nueva));
+        assertEquals(recomendador.obtenerSimilaresExacto(referencia), recomendador.obtenerSimilares(referencia));
+        assertFalse(recomendador.obtenerSimilares(nueva).contains(nueva));
+    }
+
+    // ========== TEST 8: Reproducción incremental ==========
+    @Test
+    @Order(8)
+    @DisplayName("13.8 - Una reproducción actualiza solo las preferencias de ese usuario")
+    void testReproduccionIncremental() throws Exception {
+        UsuarioPremium oyente = usuarios.get(1);
+        UsuarioPremium otro = usuarios.get(2);
+        ArrayList<String> prefsOtro = recomendador.getMatrizPreferencias().get(otro.getId());
+        Album album = plataforma.crearAlbum(canciones.get(0).getArtista(), "Album invierno", new Date());
+        Cancion invernal = album.crearCancion("Tema invernal", 200, GeneroMusical.JAZZ);
+        invernal.agregarTag("invierno");
+        plataforma.agregarContenidoCatalogo(invernal);
+
+        plataforma.reproducir(oyente, invernal);
+        plataforma.esperarReproducciones();
+
+        assertTrue(recomendador.getMatrizPreferencias().get(oyente.getId()).contains("invierno"));
+        assertEquals(prefsOtro, recomendador.getMatrizPreferencias().get(otro.getId()));
+        assertTrue(recomendador.obtenerGenerosPopulares().contains("invierno"));
+
+        // Recalcular la fila completa no duplica la popularidad de la etiqueta
+        recomendador.actualizarPreferencias(oyente);
+        assertEquals("invierno", recomendador.obtenerGenerosPopulares().get(recomendador.obtenerGenerosPopulares().size() - 1));
+    }
+
+    // ========== TEST 9: Entrenamiento en segundo plano ==========
+    @Test
+    @Order(9)
+    @DisplayName("13.9 - Las consultas siguen sirviéndose mientras se entrena otro modelo")
+    void testEntrenamientoEnSegundoPlano() throws Exception {
+        long versionAntes = recomendador.getVersionModelo();
+        UsuarioPremium u = usuarios.get(0);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        CompletableFuture<Void> entrenamiento =
+                recomendador.entrenarEnSegundoPlano(plataforma.getTodosLosUsuarios(), plataforma.getCatalogo(), pool);
+        int consultas = 0;
+        while (!entrenamiento.isDone() || consultas == 0) {
+            // Nunca se ve un modelo a medio construir: o el resultado anterior o el nuevo completo
+            ArrayList<Contenido> durante = recomendador.recomendar(u);
+            assertFalse(durante.isEmpty());
+            consultas++;
+        }
+        entrenamiento.get();
+        pool.shutdown();
+
+        assertEquals(versionAntes + 1, recomendador.getVersionModelo());
+        assertEquals(usuarios.size(), recomendador.getModelo().getNumUsuarios());
+        assertEquals(0, recomendador.getNumContenidosPendientes());
+        assertTrue(recomendador.getMatrizPreferencias().get(usuarios.get(1).getId()).contains("invierno"));
+    }
+
+    // ========== TEST 10: Caché de recomendaciones ==========
+    @Test
+    @Order(10)
+    @DisplayName("13.10 - recomendar se sirve de caché hasta que cambia el historial o el modelo")
+    void testCacheRecomendaciones() throws Exception {
+        UsuarioPremium u = usuarios.get(3);
+        CacheRecomendaciones cache = recomendador.getCache();
+        ArrayList<Contenido> primera = recomendador.recomendar(u);
+        long aciertos = cache.getAciertos();
+
+        assertEquals(primera, recomendador.recomendar(u));
+        assertEquals(aciertos + 1, cache.getAciertos());
+
+        // Un cambio en el historial deja la entrada obsoleta
+        u.agregarAlHistorial(primera.get(0));
+        assertFalse(recomendador.recomendar(u).contains(primera.get(0)));
+
+        // Un modelo nuevo vacía la caché
+        recomendador.recomendar(u);
+        assertTrue(cache.contiene(u.getId()));
+        recomendador.entrenarModelo(plataforma.getTodosLosUsuarios(), plataforma.getCatalogo());
+        assertFalse(cache.contiene(u.getId()));
+
+        assertEquals(Math.min(2, usuarios.size()),
+                recomendador.precalcularUsuariosActivos(plataforma.getTodosLosUsuarios(), 2));
+        assertEquals(2, cache.tamano());
+    }
+
+    // ========== TEST 11: Caducidad y desalojo ==========
+    @Test
+    @Order(11)
+    @DisplayName("13.11 - La caché caduca por TTL y desaloja la entrada menos usada")
+    void testCacheTTLyLRU() {
+        long[] ahora = {0};
+        CacheRecomendaciones cache = new CacheRecomendaciones(2, 1000, () -> ahora[0]);
+        ArrayList<Contenido> resultado = new ArrayList<>(canciones.subList(0, 3));
+
+        cache.guardar("a", 1, 1, resultado);
+        cache.guardar("b", 1, 1, resultado);
+        assertNotNull(cache.obtener("a", 1, 1));
+        cache.guardar("c", 1, 1, resultado);
+        // "b" era la menos usada
+        assertFalse(cache.contiene("b"));
+        assertTrue(cache.contiene("a"));
+
+        assertNull(cache.obtener("a", 2, 1));
+        ahora[0] = 1000;
+        assertNull(cache.obtener("c", 1, 1));
+        assertEquals(0, cache.tamano());
+    }
+
+    // ========== TEST 12: Top-K puntuado y paginado ==========
+    @Test
+    @Order(12)
+    @DisplayName("13.12 - recomendarTopK y las páginas coinciden con ordenar todas las puntuaciones")
+    void testTopKPaginado() throws Exception {
+        recomendador.setUmbralSimilitud(0.3);
+        for (UsuarioPremium u : usuarios) {
+            ArrayList<String> prefs = recomendador.getMatrizPreferencias().get(u.getId());
+            ArrayList<Contenido> esperado = new ArrayList<>();
+            for (Contenido c : plataforma.getCatalogo()) {
+                if (!u.haEscuchado(c) && similitud(prefs, c) > 0 && similitud(prefs, c) >= 0.3) esperado.add(c);
+            }
+            // Orden estable: a igual puntuación se mantiene el orden de catálogo
+            esperado.sort((a, b) -> Double.compare(similitud(prefs, b), similitud(prefs, a)));
+
+            ArrayList<ContenidoPuntuado> top = recomendador.recomendarTopK(u, 5);
+            assertEquals(Math.min(5, esperado.size()), top.size());
+            for (int i = 0; i < top.size(); i++) {
+                assertEquals(similitud(prefs, esperado.get(i)), top.get(i).getPuntuacion(), 1e-9);
+            }
+
+            ArrayList<Contenido> paginas = new ArrayList<>();
+            for (int p = 0; p < 3; p++) {
+                for (ContenidoPuntuado cp : recomendador.recomendarPagina(u, p, 4)) paginas.add(cp.getContenido());
+            }
+            assertEquals(esperado.subList(0, Math.min(12, esperado.size())), paginas);
+        }
+        recomendador.setUmbralSimilitud(0.6);
+
+        Cancion referencia = canciones.get(0);
+        ArrayList<ContenidoPuntuado> similares = recomendador.obtenerSimilaresTopK(referencia, 3);
+        assertEquals(3, similares.size());
+        for (ContenidoPuntuado cp : similares) {
+            assertNotSame(referencia, cp.getContenido());
+            assertEquals(similitud(referencia.getEtiquetas(), cp.getContenido()), cp.getPuntuacion(), 1e-9);
+        }
+        assertThrows(IllegalArgumentException.class, () -> recomendador.recomendarPagina(usuarios.get(0), -1, 10));
+        assertThrows(IllegalArgumentException.class, () -> recomendador.obtenerSimilaresTopK(referencia, 0));
+    }
+
+    // ========== TEST 13: Popularidad y tendencias ==========
+    @Test
+    @Order(13)
+    @DisplayName("13.13 - Popularidad incremental y géneros en tendencia con decaimiento")
+    void testPopularidadYTendencias() throws Exception {
+        ArrayList<String> populares = recomendador.obtenerGenerosPopulares();
+        assertEquals(populares.subList(0, 2), recomendador.obtenerGenerosPopulares(2));
+
+        long[] ahora = {0};
+        recomendador.configurarTendencias(1000, () -> ahora[0]);
+        Cancion acustica = canciones.get(2);
+        Cancion enDirecto = canciones.get(1);
+        for (int i = 0; i < 4; i++) recomendador.registrarReproduccion(usuarios.get(0), acustica);
+        assertEquals("acustico", recomendador.obtenerGenerosTendencia(1).get(0));
+
+        // Una vida media después, 3 reproducciones nuevas pesan más que 4 a la mitad
+        ahora[0] = 1000;
+        for (int i = 0; i < 3; i++) recomendador.registrarReproduccion(usuarios.get(0), enDirecto);
+        assertEquals("directo", recomendador.obtenerGenerosTendencia(1).get(0));
+        assertEquals(2.0, recomendador.getPuntuacionTendencia("acustico"), 1e-9);
+        assertEquals(0.0, recomendador.getPuntuacionTendencia("inexistente"));
+
+        ContadorEtiquetas contador = new ContadorEtiquetas();
+        contador.incrementar(5000);
+        contador.incrementar(5000);
+        contador.incrementar(3);
+        contador.decrementar(7);
+        assertArrayEquals(new int[]{5000, 3}, contador.ordenados());
+        assertEquals(0, contador.get(7));
+    }
+
+    // ========== TEST 14: Caché y altas incrementales ==========
+    @Test
+    @Order(14)
+    @DisplayName("13.14 - Un contenido anexado al catálogo deja obsoletas las recomendaciones en caché")
+    void testCacheVeAltasIncrementales() throws Exception {
+        UsuarioPremium u = usuarios.get(4);
+        ArrayList<Contenido> primera = recomendador.recomendar(u);
+        assertEquals(primera, recomendador.recomendar(u));
+
+        Cancion referencia = canciones.get(0);
+        Album album = plataforma.crearAlbum(referencia.getArtista(), "Album cache", new Date());
+        Cancion nueva = album.crearCancion("Tema cache", 200, GeneroMusical.POP);
+        for (String tag : recomendador.getMatrizPreferencias().get(u.getId())) {
+            if (!nueva.getEtiquetas().contains(tag)) nueva.agregarTag(tag);
+        }
+        plataforma.agregarContenidoCatalogo(nueva);
+
+        assertFalse(primera.contains(nueva));
+        assertTrue(recomendador.recomendar(u).contains(nueva));
+    }
+
+    // ========== TEST 15: Acumuladores compartidos entre motores ==========
+    @Test
+    @Order(15)
+    @DisplayName("13.15 - Motores de distinto tamaño y consultas anidadas comparten el acumulador del hilo")
+    void testAcumuladorCompartido() {
+        DiccionarioEtiquetas diccionario = new DiccionarioEtiquetas();
+        ArrayList<Contenido> todos = new ArrayList<>(canciones);
+        MotorEtiquetas pequeno = new MotorEtiquetas(todos.subList(0, 5), diccionario);
+        MotorEtiquetas grande = new MotorEtiquetas(todos, diccionario);
+        ArrayList<String> referencia = canciones.get(0).getEtiquetas();
+        int[] vector = grande.vectorizar(referencia);
+
+        for (int vuelta = 0; vuelta < 3; vuelta++) {
+            for (MotorEtiquetas motor : new MotorEtiquetas[]{pequeno, grande}) {
+                HashMap<Contenido, Double> vistos = new HashMap<>();
+                motor.puntuar(vector, referencia.size(), (c, s) -> {
+                    // Una consulta anidada en el mismo hilo no debe alterar el recorrido exterior
+                    pequeno.puntuar(vector, referencia.size(), (c2, s2) -> { });
+                    vistos.put(c, s);
+                });
+                for (int i = 0; i < motor.getNumContenidos(); i++) {
+                    Contenido c = todos.get(i);
+                    double esperada = similitud(referencia, c);
+                    assertEquals(esperada, vistos.getOrDefault(c, 0.0), 1e-9, c.getTitulo());
+                }
+            }
+        }
+    }
+
+    // ========== TEST 16: Páginas colaborativas e híbridas ==========
+    @Test
+    @Order(16)
+    @DisplayName("13.16 - Las páginas COLABORATIVO e HIBRIDO coinciden con la lista completa, sin repetidos")
+    void testPaginasColaborativasHibridas() throws Exception {
+        for (AlgoritmoRecomendacion algoritmo : new AlgoritmoRecomendacion[]{
+                AlgoritmoRecomendacion.COLABORATIVO, AlgoritmoRecomendacion.HIBRIDO}) {
+            recomendador.setAlgoritmo(algoritmo);
+            for (UsuarioPremium u : usuarios) {
+                ArrayList<Contenido> completa = recomendador.recomendar(u);
+                assertEquals(completa.size(), new LinkedHashSet<>(completa).size());
+
+                ArrayList<Contenido> paginas = new ArrayList<>();
+                double anterior = Double.MAX_VALUE;
+                for (int p = 0; p < 3; p++) {
+                    for (ContenidoPuntuado cp : recomendador.recomendarPagina(u, p, 3)) {
+                        assertTrue(cp.getPuntuacion() <= anterior);
+                        anterior = cp.getPuntuacion();
+                        paginas.add(cp.getContenido());
+                    }
+                }
+                assertEquals(completa.subList(0, Math.min(9, completa.size())), paginas);
+            }
+        }
+        recomendador.setAlgoritmo(null);
+    }
+
+    private static int comunes(int[] a, int[] b) {
+        int n = 0;
+        for (int x : a) for (int y : b) if (x == y) n++;
+        return n;
+    }
+
+    private static UsuarioPremium buscarUsuario(String id) {
+        for (UsuarioPremium u : usuarios) if (u.getId().equals(id)) return u;
+        return null;
+    }
+
+    private static double coseno(UsuarioPremium a, UsuarioPremium b) {
+        ArrayList<Contenido> ha = new ArrayList<>(new LinkedHashSet<>(a.getHistorial()));
+        ArrayList<Contenido> hb = new ArrayList<>(new LinkedHashSet<>(b.getHistorial()));
+        int comunes = 0;
+        for (Contenido c : ha) if (hb.contains(c)) comunes++;
+        return comunes / Math.sqrt((double) ha.size() * hb.size());
+    }
+}
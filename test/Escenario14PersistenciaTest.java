@@ -0,0 +1,418 @@
+import enums.CategoriaPodcast;
+import enums.GeneroMusical;
+import modelo.artistas.Album;
+import modelo.artistas.Artista;
+import modelo.artistas.Creador;
+import modelo.contenido.Cancion;
+import modelo.contenido.Contenido;
+import modelo.contenido.Podcast;
+import modelo.plataforma.Plataforma;
+import modelo.plataforma.Playlist;
+import modelo.usuarios.Usuario;
+import modelo.usuarios.UsuarioGratuito;
+import modelo.usuarios.UsuarioPremium;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import persistencia.ImagenCatalogo;
+import persistencia.PersistenciaPlataforma;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests para el Escenario 14: Persistencia con diario de mutaciones e instantáneas
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class Escenario14PersistenciaTest {
+
+    @TempDir
+    static Path directorio;
+
+    private static Plataforma plataforma;
+    private static PersistenciaPlataforma persistencia;
+    private static UsuarioPremium ana;
+    private static UsuarioGratuito luis;
+    private static Cancion antiHero;
+    private static Cancion karma;
+    private static Podcast episodio;
+    private static Playlist favoritas;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        Plataforma.reiniciarInstancia();
+        plataforma = Plataforma.getInstancia("SoundWave Test");
+        persistencia = PersistenciaPlataforma.abrir(directorio, plataforma);
+
+        ana = plataforma.registrarUsuarioPremium("Ana", "ana@test.com", "password123");
+        luis = plataforma.registrarUsuarioGratuito("Luis", "luis@test.com", "password123");
+
+        Artista taylor = plataforma.registrarArtista("Taylor Swift", "Taylor", "USA", true);
+        Album album = plataforma.crearAlbum(taylor, "Midnights", new Date());
+        antiHero = album.crearCancion("Anti-Hero", 190, GeneroMusical.POP, "letra", false);
+        plataforma.agregarContenidoCatalogo(antiHero);
+        karma = album.crearCancion("Karma", 204, GeneroMusical.ROCK);
+        plataforma.agregarContenidoCatalogo(karma);
+
+        Creador creador = plataforma.registrarCreador("Tech Podcast", "Tech Host", "Tecnología");
+        episodio = plataforma.crearPodcast("Episodio 1", 3600, creador, 1, 1, CategoriaPodcast.TECNOLOGIA);
+
+        favoritas = plataforma.crearPlaylistPublica("Favoritas", luis);
+        plataforma.agregarAPlaylist(favoritas, antiHero);
+        plataforma.agregarAPlaylist(favoritas, episodio);
+        plataforma.quitarDePlaylist(favoritas, episodio);
+
+        plataforma.reproducir(ana, antiHero);
+        plataforma.reproducir(ana, karma);
+        plataforma.reproducir(ana, antiHero);
+        plataforma.darLike(ana, karma);
+        plataforma.esperarReproducciones();
+    }
+
+    @AfterAll
+    static void tearDown() throws IOException {
+        if (persistencia != null) persistencia.close();
+        Plataforma.reiniciarInstancia();
+    }
+
+    // Simula un reinicio: cierra el diario y recupera sobre una plataforma nueva
+    private static void reiniciar() throws Exception {
+        persistencia.close();
+        Plataforma.reiniciarInstancia();
+        plataforma = Plataforma.getInstancia("SoundWave Test");
+        persistencia = PersistenciaPlataforma.abrir(directorio, plataforma);
+    }
+
+    private static List<Path> archivos(String patron) throws IOException {
+        ArrayList<Path> res = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(directorio, patron)) {
+            for (Path p : ds) res.add(p);
+        }
+        res.sort(null); // los nombres llevan el lsn en hexadecimal con ceros: orden alfabético = orden de lsn
+        return res;
+    }
+
+    private static Contenido buscarPorId(long id) {
+        for (Contenido c : plataforma.getCatalogo()) if (c.getIdNumerico() == id) return c;
+        return null;
+    }
+
+    // ========== TEST 1: Base inicial ==========
+    @Test
+    @Order(1)
+    @DisplayName("14.1 - Abrir un directorio vacío toma una instantánea base y empieza a anotar")
+    void testAperturaInicial() throws IOException {
+        persistencia.sincronizar();
+
+        assertEquals(1, archivos("instantanea-*.bin").size());
+        assertEquals(0, persistencia.getLsnInstantanea());
+        assertTrue(persistencia.getSiguienteLsn() >= 15);
+        assertEquals(persistencia.getSiguienteLsn(), persistencia.getLsnDurable());
+    }
+
+    // ========== TEST 2: Recuperación desde el diario ==========
+    @Test
+    @Order(2)
+    @DisplayName("14.2 - Tras reiniciar, el diario reconstruye entidades, ids y contadores")
+    void testRecuperacionDesdeDiario() throws Exception {
+        reiniciar();
+
+        assertEquals(0, persistencia.getRegistrosDescartados());
+        Usuario a = plataforma.buscarUsuarioPorId(ana.getIdNumerico());
+        assertNotNull(a);
+        assertTrue(a instanceof UsuarioPremium);
+        assertEquals("ana@test.com", a.getEmail());
+        assertEquals(3, a.getTamanoHistorial());
+        assertEquals(1, a.getContenidosLiked().size());
+
+        Contenido c = buscarPorId(antiHero.getIdNumerico());
+        assertNotNull(c);
+        assertEquals("Anti-Hero", c.getTitulo());
+        assertEquals(2, c.getReproducciones());
+        assertEquals(antiHero.getISRC(), ((Cancion) c).getISRC());
+        assertEquals("Midnights", ((Cancion) c).getAlbum().getTitulo());
+        assertEquals(1, buscarPorId(karma.getIdNumerico()).getLikes());
+        assertEquals(3, plataforma.buscarArtista("Taylor Swift").getOyentesMensuales());
+        assertEquals(1, plataforma.getNumPodcasts());
+
+        Playlist p = plataforma.getPlaylistsPublicas().get(0);
+        assertEquals(favoritas.getIdNumerico(), p.getIdNumerico());
+        assertEquals(1, p.getNumContenidos());
+        assertEquals(luis.getIdNumerico(), p.getCreador().getIdNumerico());
+    }
+
+    // ========== TEST 3: Instantánea más cola del diario ==========
+    @Test
+    @Order(3)
+    @DisplayName("14.3 - Una instantánea compacta el diario y la cola posterior se reaplica encima")
+    void testInstantaneaYCola() throws Exception {
+        Usuario a = plataforma.buscarUsuarioPorId(ana.getIdNumerico());
+        Contenido c = buscarPorId(karma.getIdNumerico());
+        plataforma.reproducir(a, c);
+        plataforma.esperarReproducciones();
+
+        long lsn = persistencia.tomarInstantanea();
+        assertEquals(lsn, persistencia.getLsnInstantanea());
+        assertEquals(1, archivos("instantanea-*.bin").size());
+        assertEquals(1, archivos("wal-*.log").size());
+
+        plataforma.reproducir(a, c);
+        plataforma.registrarUsuarioGratuito("Eva", "eva@test.com", "password123");
+        reiniciar();
+
+        assertEquals(3, buscarPorId(karma.getIdNumerico()).getReproducciones());
+        assertEquals(1, buscarPorId(karma.getIdNumerico()).getLikes());
+        assertEquals(2, buscarPorId(antiHero.getIdNumerico()).getReproducciones());
+        assertEquals(5, plataforma.buscarUsuarioPorId(ana.getIdNumerico()).getTamanoHistorial());
+        assertEquals(3, plataforma.getTodosLosUsuarios().size());
+        assertNotNull(plataforma.buscarUsuarioPorEmail("eva@test.com"));
+        assertEquals(1, plataforma.getAnuncios().size());
+    }
+
+    // ========== TEST 4: Escritura cortada ==========
+    @Test
+    @Order(4)
+    @DisplayName("14.4 - Un registro a medio escribir al final del diario se descarta al recuperar")
+    void testRegistroCortado() throws Exception {
+        plataforma.darLike(plataforma.buscarUsuarioPorId(luis.getIdNumerico()), buscarPorId(antiHero.getIdNumerico()));
+        persistencia.sincronizar();
+        persistencia.close();
+
+        List<Path> segmentos = archivos("wal-*.log");
+        Path segmento = segmentos.get(segmentos.size() - 1);
+        long tamanoValido = Files.size(segmento);
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.APPEND)) {
+            canal.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2, 3}));
+        }
+
+        Plataforma.reiniciarInstancia();
+        plataforma = Plataforma.getInstancia("SoundWave Test");
+        persistencia = PersistenciaPlataforma.abrir(directorio, plataforma);
+
+        assertEquals(1, buscarPorId(antiHero.getIdNumerico()).getLikes());
+        assertEquals(tamanoValido, Files.size(segmento));
+    }
+
+    // ========== TEST 5: Confirmación en grupo ==========
+    @Test
+    @Order(5)
+    @DisplayName("14.5 - Las reproducciones concurrentes comparten fsync en lotes")
+    void testConfirmacionEnGrupo() throws Exception {
+        Usuario a = plataforma.buscarUsuarioPorId(ana.getIdNumerico());
+        Contenido c = buscarPorId(antiHero.getIdNumerico());
+        long lotesAntes = persistencia.getLotesEscritos();
+        long lsnAntes = persistencia.getSiguienteLsn();
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool(4);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < 4; h++) {
+            tareas.add(ejecutor.submit(() -> {
+                for (int i = 0; i < 500; i++) plataforma.reproducir(a, c);
+                return null;
+            }));
+        }
+        for (Future<?> f : tareas) f.get();
+        ejecutor.shutdown();
+        persistencia.sincronizar();
+        plataforma.esperarReproducciones();
+
+        assertEquals(lsnAntes + 2000, persistencia.getSiguienteLsn());
+        assertTrue(persistencia.getLotesEscritos() - lotesAntes < 2000);
+
+        reiniciar();
+        assertEquals(2002, buscarPorId(antiHero.getIdNumerico()).getReproducciones());
+    }
+
+    // ========== TEST 6: Imagen mapeada del catálogo ==========
+    @Test
+    @Order(6)
+    @DisplayName("14.6 - La imagen del catálogo se abre sin crear objetos y se lee a través de vistas")
+    void testImagenCatalogoVistas() throws IOException {
+        Path archivo = directorio.resolve("catalogo.img");
+        buscarPorId(antiHero.getIdNumerico()).agregarTag("entrenar");
+        buscarPorId(antiHero.getIdNumerico()).agregarTag("noche");
+        ImagenCatalogo.escribir(archivo, plataforma);
+        ImagenCatalogo imagen = ImagenCatalogo.abrir(archivo);
+
+        assertEquals(3, imagen.tamano());
+        assertEquals(0, imagen.getNumMaterializados());
+        assertEquals(-1, imagen.indiceDe(12345L));
+
+        ImagenCatalogo.Vista v = imagen.vistaPorId(antiHero.getIdNumerico());
+        assertNotNull(v);
+        assertTrue(v.esCancion());
+        assertEquals("Anti-Hero", v.getTitulo());
+        assertEquals(2002, v.getReproducciones());
+        assertEquals(GeneroMusical.POP, v.getGenero());
+        assertEquals("Taylor Swift", v.getNombrePropietario());
+        assertEquals(List.of("entrenar", "noche"), v.getTags());
+
+        ImagenCatalogo.Vista p = imagen.vistaPorId(episodio.getIdNumerico());
+        assertTrue(p.esPodcast());
+        assertEquals(CategoriaPodcast.TECNOLOGIA, p.getCategoria());
+        assertEquals("Tech Podcast", p.getNombrePropietario());
+        assertEquals(1, p.getTemporada());
+        assertTrue(p.getTags().isEmpty());
+        assertEquals(0, imagen.getNumMaterializados());
+    }
+
+    // ========== TEST 7: Materialización bajo demanda ==========
+    @Test
+    @Order(7)
+    @DisplayName("14.7 - Solo se materializa lo que se toca, con su id original y una instancia por id")
+    void testImagenCatalogoMaterializacion() throws IOException {
+        ImagenCatalogo imagen = ImagenCatalogo.abrir(directorio.resolve("catalogo.img"));
+
+        Contenido c = imagen.buscar(karma.getIdNumerico());
+        assertTrue(c instanceof Cancion);
+        assertEquals(karma.getIdNumerico(), c.getIdNumerico());
+        assertEquals(3, c.getReproducciones());
+        assertEquals(1, c.getLikes());
+        assertEquals("Midnights", ((Cancion) c).getAlbum().getTitulo());
+        assertSame(c, imagen.buscar(karma.getIdNumerico()));
+        assertEquals(1, imagen.getNumMaterializados());
+
+        Cancion otra = (Cancion) imagen.buscar(antiHero.getIdNumerico());
+        assertSame(((Cancion) c).getArtista(), otra.getArtista());
+        assertEquals("letra", otra.getLetra());
+        assertTrue(otra.tieneTag("entrenar"));
+        assertTrue(otra.tieneTag("noche"));
+        assertNull(imagen.buscar(12345L));
+    }
+
+    // ========== TEST 8: Arranque desde la imagen ==========
+    @Test
+    @Order(8)
+    @DisplayName("14.8 - Una plataforma nueva arranca desde la imagen con catálogo, índices y métricas")
+    void testArranqueDesdeImagen() throws Exception {
+        persistencia.close();
+        persistencia = null;
+        Plataforma.reiniciarInstancia();
+        Plataforma nueva = Plataforma.getInstancia("Arranque");
+        ImagenCatalogo imagen = ImagenCatalogo.abrir(directorio.resolve("catalogo.img"));
+        assertEquals(3, imagen.cargarEn(nueva));
+        assertThrows(IllegalStateException.class, () -> imagen.cargarEn(nueva));
+
+        assertEquals(3, nueva.getCatalogo().size());
+        Contenido karmaCargada = imagen.buscar(karma.getIdNumerico());
+        assertSame(karmaCargada, nueva.buscarContenido("karm").get(0));
+        assertEquals(antiHero.getIdNumerico(), nueva.obtenerTopContenidos(1).get(0).getIdNumerico());
+
+        Artista taylor = nueva.buscarArtista("Taylor Swift");
+        assertEquals(2, taylor.getDiscografia().size());
+        assertEquals(2, taylor.getAlbumes().get(0).getCanciones().size());
+        assertEquals(2005, nueva.obtenerTotalesArtista(taylor).getReproducciones());
+        assertEquals(1, nueva.getTodosLosCreadores().get(0).obtenerEstadisticas().getTotalEpisodios());
+
+        // Los contenidos nuevos siguen teniendo ids mayores que los cargados
+        Cancion nuevaCancion = new Cancion("Nueva", 120, taylor, GeneroMusical.POP);
+        assertTrue(nuevaCancion.getIdNumerico() > episodio.getIdNumerico());
+    }
+
+    // ========== TEST 9: Playlists de usuario y seguidas ==========
+    @Test
+    @Order(9)
+    @DisplayName("14.9 - Las playlists propias, sus cambios y las seguidas sobreviven al reinicio")
+    void testPlaylistsDeUsuario() throws Exception {
+        Path dir = directorio.resolve("playlists");
+        Plataforma.reiniciarInstancia();
+        plataforma = Plataforma.getInstancia("SoundWave Test");
+        persistencia = PersistenciaPlataforma.abrir(dir, plataforma);
+
+        UsuarioPremium eva = plataforma.registrarUsuarioPremium("Eva", "eva@test.com", "password123");
+        UsuarioGratuito pablo = plataforma.registrarUsuarioGratuito("Pablo", "pablo@test.com", "password123");
+        Artista artista = plataforma.registrarArtista("Grupo", "Grupo", "España", true);
+        Album album = plataforma.crearAlbum(artista, "Primero", new Date());
+        Cancion uno = album.crearCancion("Uno", 180, GeneroMusical.ROCK);
+        Cancion dos = album.crearCancion("Dos", 200, GeneroMusical.ROCK);
+        plataforma.agregarContenidoCatalogo(uno);
+        plataforma.agregarContenidoCatalogo(dos);
+
+        Playlist propia = plataforma.crearPlaylist(eva, "Para correr");
+        plataforma.agregarAPlaylist(propia, uno);
+        plataforma.agregarAPlaylist(propia, dos);
+        plataforma.quitarDePlaylist(propia, uno);
+        Playlist publica = plataforma.crearPlaylistPublica("Pública", pablo);
+        assertTrue(plataforma.seguirPlaylist(eva, publica));
+        assertTrue(plataforma.seguirPlaylist(pablo, propia));
+        assertFalse(plataforma.seguirPlaylist(pablo, propia));
+
+        // Desde el diario
+        abrirDeNuevo(dir);
+        assertEquals(0, persistencia.getRegistrosDescartados());
+        comprobarPlaylists(eva, pablo, propia, publica, 1);
+
+        // Desde la instantánea, con la baja de un seguidor en la cola del diario
+        persistencia.tomarInstantanea();
+        Usuario pabloRestaurado = plataforma.buscarUsuarioPorId(pablo.getIdNumerico());
+        Playlist propiaRestaurada = plataforma.buscarUsuarioPorId(eva.getIdNumerico()).getMisPlaylists().get(0);
+        assertTrue(plataforma.dejarDeSeguirPlaylist(pabloRestaurado, propiaRestaurada));
+        abrirDeNuevo(dir);
+        comprobarPlaylists(eva, pablo, propia, publica, 0);
+    }
+
+    // ========== TEST 10: Arranque en frío en segundo plano ==========
+    @Test
+    @Order(10)
+    @DisplayName("14.10 - El arranque en segundo plano registra propietarios al momento y el catálogo llega por lotes")
+    void testArranqueEnSegundoPlano() throws Exception {
+        persistencia.close();
+        persistencia = null;
+        Plataforma.reiniciarInstancia();
+        Plataforma nueva = Plataforma.getInstancia("Arranque en frío");
+        ImagenCatalogo imagen = ImagenCatalogo.abrir(directorio.resolve("catalogo.img"));
+
+        CompletableFuture<Integer> carga = imagen.cargarEnSegundoPlano(nueva);
+        // Los propietarios ya están y la imagen responde por id mientras se indexa
+        assertEquals("Taylor Swift", nueva.buscarArtista("Taylor Swift").getNombreArtistico());
+        assertEquals(1, nueva.getTodosLosCreadores().size());
+        Contenido c = imagen.buscar(antiHero.getIdNumerico());
+        assertTrue(c.tieneTag("entrenar"));
+        assertThrows(IllegalStateException.class, () -> imagen.cargarEnSegundoPlano(nueva));
+
+        assertEquals(3, carga.get(10, TimeUnit.SECONDS));
+        assertEquals(3, nueva.getCatalogo().size());
+        assertSame(c, nueva.buscarContenido("anti").get(0));
+        Plataforma.reiniciarInstancia();
+    }
+
+    private static void abrirDeNuevo(Path dir) throws Exception {
+        persistencia.close();
+        Plataforma.reiniciarInstancia();
+        plataforma = Plataforma.getInstancia("SoundWave Test");
+        persistencia = PersistenciaPlataforma.abrir(dir, plataforma);
+    }
+
+    private static void comprobarPlaylists(Usuario eva, Usuario pablo, Playlist propia, Playlist publica,
+                                           int seguidoresPropia) {
+        Usuario e = plataforma.buscarUsuarioPorId(eva.getIdNumerico());
+        Usuario p = plataforma.buscarUsuarioPorId(pablo.getIdNumerico());
+        assertEquals(1, e.getMisPlaylists().size());
+        Playlist restaurada = e.getMisPlaylists().get(0);
+        assertEquals(propia.getIdNumerico(), restaurada.getIdNumerico());
+        assertEquals("Para correr", restaurada.getNombre());
+        assertFalse(restaurada.isEsPublica());
+        assertEquals(1, restaurada.getNumContenidos());
+        assertEquals("Dos", restaurada.getContenido(0).getTitulo());
+        assertEquals(seguidoresPropia, restaurada.getSeguidores());
+        assertEquals(seguidoresPropia, p.getPlaylistsSeguidas().size());
+
+        assertEquals(1, e.getPlaylistsSeguidas().size());
+        assertEquals(publica.getIdNumerico(), e.getPlaylistsSeguidas().get(0).getIdNumerico());
+        assertEquals(1, plataforma.getPlaylistsPublicas().get(0).getSeguidores());
+    }
+}
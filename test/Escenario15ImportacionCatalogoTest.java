@@ -0,0 +1,175 @@
+import enums.CategoriaPodcast;
+import enums.GeneroMusical;
+import modelo.artistas.Album;
+import modelo.artistas.Artista;
+import modelo.artistas.Creador;
+import modelo.contenido.Cancion;
+import modelo.plataforma.Plataforma;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import persistencia.ImportadorCatalogo;
+import persistencia.ResultadoImportacion;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests para el Escenario 15: Importación masiva del catálogo
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class Escenario15ImportacionCatalogoTest {
+
+    @TempDir
+    static Path directorio;
+
+    private static Plataforma plataforma;
+    private static ImportadorCatalogo importador;
+
+    @BeforeAll
+    static void setUp() {
+        Plataforma.reiniciarInstancia();
+        plataforma = Plataforma.getInstancia("SoundWave Test");
+        // Lotes pequeños para que el archivo se reparta entre varios lotes e hilos
+        importador = new ImportadorCatalogo(plataforma, 3, 2);
+    }
+
+    // ========== TEST 1: CSV con errores por fila ==========
+    @Test
+    @Order(1)
+    @DisplayName("15.1 - El CSV se importa por lotes y las filas erróneas no detienen la importación")
+    void testImportarCsv() throws Exception {
+        Path csv = directorio.resolve("catalogo.csv");
+        Files.write(csv, List.of(
+                "tipo,nombre,titulo,artista,album,pais,verificado,fecha,duracion,genero,letra,explicit",
+                "artista,Taylor Swift,,,,USA,true,,,,,",
+                "album,,Midnights,Taylor Swift,,,,2022-10-21,,,,",
+                "cancion,,Anti-Hero,Taylor Swift,Midnights,,,,200,POP,\"It's me, hi\nI'm the problem\",false",
+                "cancion,,Karma,Taylor Swift,Midnights,,,,204,pop,,false",
+                "cancion,,Sin duración,Taylor Swift,Midnights,,,,0,POP,,false",
+                "cancion,,Género raro,Taylor Swift,Midnights,,,,180,POLKA,,false",
+                "",
+                "cancion,,Fantasma,Nadie,,,,,180,ROCK,,false",
+                "artista,Indie Band,,,,España,false,,,,,",
+                "album,,Primer Disco,Indie Band,,,,,,,,",
+                "cancion,,Single,Indie Band,,,,,150,Indie,,true"
+        ), StandardCharsets.UTF_8);
+
+        ResultadoImportacion r = importador.importar(csv);
+
+        assertEquals(10, r.getFilasLeidas());
+        assertEquals(2, r.getArtistasImportados());
+        assertEquals(1, r.getAlbumesImportados());
+        assertEquals(3, r.getCancionesImportadas());
+        assertEquals(4, r.getNumErrores());
+        // La canción con salto de línea ocupa dos líneas físicas: los errores citan la línea real
+        List<Long> lineas = new ArrayList<>();
+        for (ResultadoImportacion.FilaErronea e : r.getErrores()) lineas.add(e.getLinea());
+        assertEquals(List.of(7L, 8L, 10L, 12L), lineas);
+
+        Album midnights = plataforma.getAlbumes().get(0);
+        assertEquals(2, midnights.getCanciones().size());
+        Cancion antiHero = midnights.getCanciones().get(0);
+        assertEquals("It's me, hi\nI'm the problem", antiHero.getLetra());
+        assertEquals(3, plataforma.getNumCanciones());
+        assertEquals(1, plataforma.buscarContenido("karma").size());
+        assertEquals(2, plataforma.contarPorGenero(GeneroMusical.POP));
+        assertTrue(((Cancion) plataforma.buscarContenido("single").get(0)).isExplicit());
+    }
+
+    // ========== TEST 2: JSON por líneas ==========
+    @Test
+    @Order(2)
+    @DisplayName("15.2 - JSON por líneas reutiliza las entidades ya registradas y da de alta podcasts")
+    void testImportarJsonl() throws Exception {
+        String jsonl = String.join("\n",
+                "{\"tipo\": \"creador\", \"nombre\": \"TechTalks\", \"descripcion\": \"Tecnología\"}",
+                "{\"tipo\": \"episodio\", \"titulo\": \"Java 21\", \"creador\": \"TechTalks\", \"duracion\": 3600,"
+                        + " \"episodio\": 1, \"temporada\": 1, \"categoria\": \"Tecnología\"}",
+                "{\"tipo\": \"podcast\", \"titulo\": \"Loom \\\"virtual\\\"\", \"creador\": \"TechTalks\", \"duracion\": 2400,"
+                        + " \"episodio\": 2, \"temporada\": 1, \"categoria\": \"TECNOLOGIA\", \"descripcion\": null}",
+                "{\"tipo\": \"podcast\", \"titulo\": \"Sin creador\", \"creador\": \"Nadie\", \"duracion\": 100,"
+                        + " \"episodio\": 1, \"temporada\": 1, \"categoria\": \"CIENCIA\"}",
+                "{\"tipo\": \"cancion\", \"titulo\": \"Lavender Haze\", \"artista\": \"Taylor Swift\","
+                        + " \"album\": \"midnights\", \"duracion\": 202, \"genero\": \"POP\", \"explicit\": true}",
+                "{\"tipo\": \"cancion\", \"titulo\": roto}",
+                "{\"tipo\": \"cancion\"");
+
+        ResultadoImportacion r = importador.importarJsonl(new StringReader(jsonl));
+
+        assertEquals(7, r.getFilasLeidas());
+        assertEquals(1, r.getCreadoresImportados());
+        assertEquals(2, r.getPodcastsImportados());
+        assertEquals(1, r.getCancionesImportadas());
+        assertEquals(3, r.getNumErrores());
+
+        Creador techTalks = plataforma.getTodosLosCreadores().get(0);
+        assertEquals(2, techTalks.getEpisodios().size());
+        assertEquals("Loom \"virtual\"", techTalks.getEpisodios().get(1).getTitulo());
+        assertEquals(2, plataforma.contarPorCategoria(CategoriaPodcast.TECNOLOGIA));
+        assertEquals(3, plataforma.getAlbumes().get(0).getCanciones().size());
+        assertEquals(6, plataforma.getCatalogo().size());
+    }
+
+    // ========== TEST 3: Reimportación ==========
+    @Test
+    @Order(3)
+    @DisplayName("15.3 - Repetir una importación omite lo que ya existe en lugar de duplicarlo")
+    void testReimportar() throws Exception {
+        int antes = plataforma.getCatalogo().size();
+        ResultadoImportacion r = importador.importar(directorio.resolve("catalogo.csv"));
+
+        assertEquals(0, r.getArtistasImportados());
+        assertEquals(0, r.getAlbumesImportados());
+        // La canción sin álbum se reconoce por artista y título
+        assertEquals(0, r.getCancionesImportadas());
+        assertEquals(6, r.getFilasOmitidas());
+        assertEquals(4, r.getNumErrores());
+        assertEquals(antes, plataforma.getCatalogo().size());
+        Artista taylor = plataforma.buscarArtista("Taylor Swift");
+        assertEquals(3, taylor.getAlbumes().get(0).getCanciones().size());
+        assertEquals(1, plataforma.buscarContenido("anti-hero").size());
+    }
+
+    // ========== TEST 4: Duplicados entre lotes y altas externas ==========
+    @Test
+    @Order(4)
+    @DisplayName("15.4 - Los duplicados se detectan entre lotes y contra lo dado de alta fuera de la importación")
+    void testDuplicadosEntreLotes() throws Exception {
+        Artista taylor = plataforma.buscarArtista("Taylor Swift");
+        plataforma.crearAlbum(taylor, "Folklore", null);
+        plataforma.registrarCreador("Externo", "Externo", "");
+
+        // Con lotes de 3 filas cada repetición cae en un lote distinto al de la original
+        String jsonl = String.join("\n",
+                "{\"tipo\": \"cancion\", \"titulo\": \"Suelta\", \"artista\": \"Taylor Swift\", \"duracion\": 200, \"genero\": \"POP\"}",
+                "{\"tipo\": \"album\", \"titulo\": \"FOLKLORE\", \"artista\": \"Taylor Swift\"}",
+                "{\"tipo\": \"creador\", \"nombre\": \"Externo\"}",
+                "{\"tipo\": \"cancion\", \"titulo\": \"suelta\", \"artista\": \"Taylor Swift\", \"duracion\": 210, \"genero\": \"POP\"}",
+                "{\"tipo\": \"episodio\", \"titulo\": \"Uno\", \"creador\": \"Externo\", \"duracion\": 600,"
+                        + " \"episodio\": 1, \"temporada\": 1, \"categoria\": \"CIENCIA\"}",
+                "{\"tipo\": \"cancion\", \"titulo\": \"Cardigan\", \"artista\": \"Taylor Swift\","
+                        + " \"album\": \"folklore\", \"duracion\": 240, \"genero\": \"POP\"}",
+                "{\"tipo\": \"episodio\", \"titulo\": \"Uno otra vez\", \"creador\": \"Externo\", \"duracion\": 600,"
+                        + " \"episodio\": 1, \"temporada\": 1, \"categoria\": \"CIENCIA\"}",
+                "{\"tipo\": \"cancion\", \"titulo\": \"CARDIGAN\", \"artista\": \"Taylor Swift\","
+                        + " \"album\": \"Folklore\", \"duracion\": 240, \"genero\": \"POP\"}");
+
+        ResultadoImportacion r = importador.importarJsonl(new StringReader(jsonl));
+
+        assertEquals(8, r.getFilasLeidas());
+        assertEquals(0, r.getNumErrores());
+        assertEquals(0, r.getAlbumesImportados());
+        assertEquals(0, r.getCreadoresImportados());
+        assertEquals(2, r.getCancionesImportadas());
+        assertEquals(1, r.getPodcastsImportados());
+        assertEquals(5, r.getFilasOmitidas());
+        assertEquals(1, taylor.buscarAlbum("folklore").getCanciones().size());
+        assertEquals(1, plataforma.buscarCreador("Externo").getEpisodios().size());
+    }
+}
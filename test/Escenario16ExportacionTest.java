@@ -0,0 +1,161 @@
+import enums.CategoriaPodcast;
+import enums.FormatoExportacion;
+import enums.GeneroMusical;
+import modelo.artistas.Album;
+import modelo.artistas.Artista;
+import modelo.artistas.Creador;
+import modelo.contenido.Cancion;
+import modelo.contenido.Podcast;
+import modelo.plataforma.Plataforma;
+import modelo.usuarios.UsuarioPremium;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import persistencia.ExportadorCatalogo;
+import persistencia.LectorColumnar;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests para el Escenario 16: Exportación en streaming del catálogo y las estadísticas
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class Escenario16ExportacionTest {
+
+    @TempDir
+    static Path directorio;
+
+    private static Plataforma plataforma;
+    private static ExportadorCatalogo exportador;
+    private static Cancion antiHero;
+    private static Podcast episodio;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        Plataforma.reiniciarInstancia();
+        plataforma = Plataforma.getInstancia("SoundWave Test");
+        exportador = new ExportadorCatalogo(plataforma);
+
+        Artista taylor = plataforma.registrarArtista("Taylor Swift", "Taylor Alison Swift", "USA", true);
+        Album midnights = plataforma.crearAlbum(taylor, "Midnights", new java.util.Date());
+        antiHero = midnights.crearCancion("Anti-Hero, \"Taylor's\"", 200, GeneroMusical.POP, "It's me\nhi", false);
+        Cancion karma = midnights.crearCancion("Karma", 204, GeneroMusical.POP);
+        plataforma.agregarContenidoCatalogo(antiHero);
+        plataforma.agregarContenidoCatalogo(karma);
+
+        Creador techTalks = plataforma.registrarCreador("TechTalks", "Juan", "Tecnología");
+        episodio = plataforma.crearPodcast("Java 21", 3600, techTalks, 1, 1, CategoriaPodcast.TECNOLOGIA);
+
+        UsuarioPremium ana = plataforma.registrarUsuarioPremium("Ana", "ana@test.com", "password123");
+        for (int i = 0; i < 3; i++) plataforma.reproducir(ana, antiHero);
+        plataforma.reproducir(ana, episodio);
+        plataforma.darLike(ana, antiHero);
+        plataforma.esperarReproducciones();
+    }
+
+    // ========== TEST 1: Catálogo en CSV ==========
+    @Test
+    @Order(1)
+    @DisplayName("16.1 - El catálogo se exporta a CSV con contadores y campos entrecomillados")
+    void testCatalogoCsv() throws Exception {
+        Path csv = directorio.resolve("catalogo.csv");
+        assertEquals(3, exportador.exportarCatalogo(csv, FormatoExportacion.CSV, false));
+
+        List<String> lineas = Files.readAllLines(csv, StandardCharsets.UTF_8);
+        assertEquals("id,tipo,titulo,propietario_id,propietario,album,clasificacion,temporada,episodio,"
+                + "duracion,reproducciones,likes,disponible,fecha_ms", lineas.get(0));
+        assertTrue(lineas.get(1).startsWith(antiHero.getIdNumerico() + ",cancion,\"Anti-Hero, \"\"Taylor's\"\"\","));
+        assertTrue(lineas.get(1).contains(",Midnights,POP,0,0,200,3,1,true,"));
+        assertTrue(lineas.get(3).contains(",podcast,Java 21,"));
+        assertTrue(lineas.get(3).contains(",TechTalks,,TECNOLOGIA,1,1,3600,1,0,true,"));
+        assertEquals(4, lineas.size());
+    }
+
+    // ========== TEST 2: Estadísticas comprimidas ==========
+    @Test
+    @Order(2)
+    @DisplayName("16.2 - Las estadísticas por artista y creador se exportan como JSON por líneas con gzip")
+    void testEstadisticasJsonlGzip() throws Exception {
+        Path artistas = directorio.resolve("artistas.jsonl.gz");
+        Path creadores = directorio.resolve("creadores.jsonl.gz");
+        assertEquals(1, exportador.exportarArtistas(artistas, FormatoExportacion.JSONL, true));
+        assertEquals(1, exportador.exportarCreadores(creadores, FormatoExportacion.JSONL, true));
+
+        List<String> lineas = leerGzip(artistas);
+        assertEquals(1, lineas.size());
+        String taylor = lineas.get(0);
+        assertTrue(taylor.contains("\"nombre\":\"Taylor Swift\""));
+        assertTrue(taylor.contains("\"verificado\":true"));
+        assertTrue(taylor.contains("\"canciones\":2,\"reproducciones\":3,\"likes\":1,\"duracion\":404"));
+        assertTrue(taylor.contains("\"mas_popular\":\"Anti-Hero, \\\"Taylor's\\\"\""));
+
+        String tech = leerGzip(creadores).get(0);
+        assertTrue(tech.startsWith("{\"id\":"));
+        assertTrue(tech.endsWith("\"episodios\":1,\"reproducciones\":1,\"likes\":0,\"duracion\":3600,\"mas_popular\":\"Java 21\"}"));
+    }
+
+    // ========== TEST 3: Binario columnar ==========
+    @Test
+    @Order(3)
+    @DisplayName("16.3 - El binario columnar se escribe por grupos de filas y se relee columna a columna")
+    void testCatalogoColumnar() throws Exception {
+        Artista indie = plataforma.registrarArtista("Indie Band", "Varios", "España", false);
+        ArrayList<Cancion> lote = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) lote.add(new Cancion("Demo " + i, 100 + i % 50, indie, GeneroMusical.INDIE));
+        plataforma.agregarContenidosCatalogo(lote);
+
+        for (boolean comprimir : new boolean[]{false, true}) {
+            Path archivo = directorio.resolve(comprimir ? "catalogo.swx.gz" : "catalogo.swx");
+            assertEquals(20_003, exportador.exportarCatalogo(archivo, FormatoExportacion.COLUMNAR, comprimir));
+
+            try (LectorColumnar lector = new LectorColumnar(archivo)) {
+                assertEquals(14, lector.getNumColumnas());
+                int titulo = lector.indiceDe("titulo");
+                int reproducciones = lector.indiceDe("reproducciones");
+                int duracion = lector.indiceDe("duracion");
+                int disponible = lector.indiceDe("disponible");
+                int album = lector.indiceDe("album");
+
+                assertTrue(lector.siguiente());
+                assertEquals(antiHero.getTitulo(), lector.texto(titulo));
+                assertEquals(3, lector.entero(reproducciones));
+                assertTrue(lector.booleano(disponible));
+
+                long filas = 1;
+                long sumaDuracion = 0;
+                String ultimo = null;
+                while (lector.siguiente()) {
+                    filas++;
+                    if (filas > 3) {
+                        sumaDuracion += lector.entero(duracion);
+                        assertNull(lector.texto(album));
+                    }
+                    ultimo = lector.texto(titulo);
+                }
+                assertEquals(20_003, filas);
+                assertEquals("Demo 19999", ultimo);
+                assertEquals(20_000L * 100 + 400L * (49 * 50 / 2), sumaDuracion);
+                assertFalse(lector.siguiente());
+            }
+        }
+        assertTrue(Files.size(directorio.resolve("catalogo.swx.gz")) < Files.size(directorio.resolve("catalogo.swx")));
+    }
+
+    private static List<String> leerGzip(Path archivo) throws Exception {
+        List<String> lineas = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(archivo)), StandardCharsets.UTF_8))) {
+            String linea;
+            while ((linea = in.readLine()) != null) lineas.add(linea);
+        }
+        return lineas;
+    }
+}
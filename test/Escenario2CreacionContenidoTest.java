@@ -1,6 +1,7 @@
 import enums.CategoriaPodcast;
 import enums.GeneroMusical;
 import excepciones.artista.ArtistaNoVerificadoException;
+import excepciones.contenido.ArchivoDeAudioNoEncontradoException;
 import modelo.artistas.Album;
 import modelo.artistas.Artista;
 import modelo.artistas.Creador;
@@ -8,8 +9,10 @@ import modelo.contenido.Cancion;
 import modelo.contenido.Podcast;
 import modelo.plataforma.Plataforma;
 import org.junit.jupiter.api.*;
+import utilidades.GeneradorIds;
 
 import java.util.Date;
+import java.util.HashSet;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -165,4 +168,45 @@ public class Escenario2CreacionContenidoTest {
         assertEquals(10, plataforma.getPodcasts().size());
         assertTrue(plataforma.getCatalogo().size() >= 16);
     }
+
+    // ========== TEST 8: Identificadores compactos ==========
+    @Test
+    @Order(8)
+    @DisplayName("2.8 - Ids de 64 bits únicos, crecientes y con forma de texto reversible")
+    void testIdsCompactos() {
+        HashSet<Long> vistos = new HashSet<>();
+        long anterior = -1;
+        for (int i = 0; i < 10_000; i++) {
+            long id = GeneradorIds.siguiente();
+            assertTrue(id > anterior);
+            assertTrue(vistos.add(id));
+            anterior = id;
+        }
+
+        // Tras avanzar hasta un id de otro nodo, los siguientes llevan el nodo propio y siguen creciendo
+        for (int otroNodo : new int[]{GeneradorIds.MAX_NODO, 1}) {
+            long ajeno = ((System.currentTimeMillis() + 5 - GeneradorIds.EPOCA) << 22) | ((long) otroNodo << 12) | 7;
+            GeneradorIds.avanzarHasta(ajeno);
+            long id = GeneradorIds.siguiente();
+            assertTrue(id > ajeno);
+            assertEquals(0, GeneradorIds.nodoDe(id));
+            assertTrue(GeneradorIds.siguiente() > id);
+        }
+
+        Cancion cancion = plataforma.getCanciones().get(0);
+        String texto = cancion.getId();
+        assertEquals(16, texto.length());
+        assertEquals(cancion.getIdNumerico(), GeneradorIds.desdeTexto(texto));
+        assertEquals(GeneradorIds.INVALIDO, GeneradorIds.desdeTexto("no-es-un-id"));
+        assertTrue(Math.abs(GeneradorIds.marcaTiempo(cancion.getIdNumerico()) - System.currentTimeMillis()) < 60_000);
+
+        // URL de audio e ISRC derivados del id; una URL explícita sigue mandando
+        assertTrue(cancion.getAudioURL().contains(texto));
+        assertTrue(cancion.getISRC().endsWith(texto));
+        assertDoesNotThrow(cancion::validarAudioURL);
+        cancion.setAudioURL("");
+        assertThrows(ArchivoDeAudioNoEncontradoException.class, cancion::validarAudioURL);
+        cancion.setAudioURL("https://cdn.example.com/a.mp3");
+        assertEquals("https://cdn.example.com/a.mp3", cancion.getAudioURL());
+    }
 }
@@ -213,4 +213,22 @@ public class Escenario3ReproduccionLimitesTest {
         // Restaurar
         cancion.marcarDisponible();
     }
+
+    // ========== TEST 10: Historial acotado ==========
+    @Test
+    @Order(10)
+    @DisplayName("3.10 - El historial conserva las últimas 1000 reproducciones")
+    void testHistorialAcotado() {
+        userPremium.limpiarHistorial();
+        Cancion primera = canciones.get(0);
+        userPremium.agregarAlHistorial(primera);
+        for (int i = 0; i < 1000; i++) {
+            userPremium.agregarAlHistorial(canciones.get(1 + i % (canciones.size() - 1)));
+        }
+
+        assertEquals(1000, userPremium.getTamanoHistorial());
+        assertFalse(userPremium.haEscuchado(primera));
+        assertTrue(userPremium.haEscuchado(canciones.get(1)));
+        assertEquals(canciones.get(1), userPremium.getHistorial().get(0));
+    }
 }
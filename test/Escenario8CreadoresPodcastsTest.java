@@ -240,4 +240,103 @@ public class Escenario8CreadoresPodcastsTest {
             assertEquals(maxRepros, masPopular.getReproducciones());
         }
     }
+
+    // ========== TEST 14: Agregados incrementales ==========
+    @Test
+    @Order(14)
+    @DisplayName("8.14 - Las estadísticas se mantienen al publicar, reproducir y retirar episodios")
+    void testEstadisticasIncrementales() throws Exception {
+        Creador agregados = plataforma.registrarCreador("Agregados", "Ana", "Podcast de datos");
+        Podcast e1 = plataforma.crearPodcast("Datos 1", 1000, agregados, 1, 1, CategoriaPodcast.CIENCIA);
+        Podcast e2 = plataforma.crearPodcast("Datos 2", 2000, agregados, 2, 1, CategoriaPodcast.CIENCIA);
+        Podcast e3 = plataforma.crearPodcast("Datos 3", 3000, agregados, 1, 2, CategoriaPodcast.CIENCIA);
+
+        EstadisticasCreador inicial = agregados.obtenerEstadisticas();
+        assertSame(inicial, agregados.obtenerEstadisticas());
+        assertEquals(3, inicial.getTotalEpisodios());
+        assertEquals(6000, inicial.getDuracionTotalSegundos());
+        assertNull(inicial.getEpisodioMasPopular());
+
+        e2.aumentarReproducciones(5);
+        e3.aumentarReproducciones(5);
+        e1.aumentarLikes(2);
+        EstadisticasCreador tras = agregados.obtenerEstadisticas();
+        // La instantánea anterior no cambia
+        assertEquals(0, inicial.getTotalReproducciones());
+        assertEquals(10, tras.getTotalReproducciones());
+        assertEquals(2, tras.getTotalLikes());
+        // Empate: gana el publicado antes, como en el cálculo sobre la lista
+        assertEquals(e2, tras.getEpisodioMasPopular());
+        assertIgualAlRecorrido(agregados, tras);
+
+        e3.setTemporada(3);
+        e1.aumentarReproducciones(7);
+        EstadisticasCreador conTemporada = agregados.obtenerEstadisticas();
+        assertEquals(e1, conTemporada.getEpisodioMasPopular());
+        assertEquals(Integer.valueOf(1), conTemporada.getEpisodiosPorTemporada().get(3));
+        assertNull(conTemporada.getEpisodiosPorTemporada().get(2));
+        assertIgualAlRecorrido(agregados, conTemporada);
+
+        agregados.eliminarEpisodio(e1.getId());
+        EstadisticasCreador sinE1 = agregados.obtenerEstadisticas();
+        assertEquals(2, sinE1.getTotalEpisodios());
+        assertEquals(10, sinE1.getTotalReproducciones());
+        assertEquals(e2, sinE1.getEpisodioMasPopular());
+        assertIgualAlRecorrido(agregados, sinE1);
+
+        // Un episodio retirado ya no suma
+        e1.aumentarReproducciones(100);
+        assertEquals(10, agregados.obtenerEstadisticas().getTotalReproducciones());
+        assertEquals(10, agregados.getTotalReproducciones());
+    }
+
+    // ========== TEST 15: Lecturas concurrentes ==========
+    @Test
+    @Order(15)
+    @DisplayName("8.15 - Las lecturas devuelven instantáneas coherentes mientras llegan reproducciones")
+    void testEstadisticasConcurrentes() throws Exception {
+        Creador vivo = plataforma.registrarCreador("En Vivo", "Luis", "Directos");
+        Podcast a = plataforma.crearPodcast("Directo A", 600, vivo, 1, 1, CategoriaPodcast.DEPORTES);
+        Podcast b = plataforma.crearPodcast("Directo B", 600, vivo, 2, 1, CategoriaPodcast.DEPORTES);
+
+        int hilos = 4;
+        int porHilo = 10_000;
+        ArrayList<Thread> oyentes = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            Podcast p = h % 2 == 0 ? a : b;
+            Thread t = new Thread(() -> {
+                for (int i = 0; i < porHilo; i++) p.aumentarReproducciones();
+            });
+            oyentes.add(t);
+            t.start();
+        }
+
+        int anterior = 0;
+        boolean enCurso = true;
+        while (enCurso) {
+            enCurso = false;
+            for (Thread t : oyentes) enCurso |= t.isAlive();
+            EstadisticasCreador s = vivo.obtenerEstadisticas();
+            assertTrue(s.getTotalReproducciones() >= anterior);
+            assertEquals(s.getTotalReproducciones() / 2.0, s.getPromedioReproducciones(), 1e-9);
+            anterior = s.getTotalReproducciones();
+        }
+        for (Thread t : oyentes) t.join();
+
+        EstadisticasCreador fin = vivo.obtenerEstadisticas();
+        assertEquals(hilos * porHilo, fin.getTotalReproducciones());
+        assertEquals(a, fin.getEpisodioMasPopular());
+        assertIgualAlRecorrido(vivo, fin);
+    }
+
+    private static void assertIgualAlRecorrido(Creador c, EstadisticasCreador s) {
+        EstadisticasCreador recorrido = new EstadisticasCreador(c);
+        assertEquals(recorrido.getTotalEpisodios(), s.getTotalEpisodios());
+        assertEquals(recorrido.getTotalReproducciones(), s.getTotalReproducciones());
+        assertEquals(recorrido.getTotalLikes(), s.getTotalLikes());
+        assertEquals(recorrido.getDuracionTotalSegundos(), s.getDuracionTotalSegundos());
+        assertEquals(recorrido.getEpisodioMasPopular(), s.getEpisodioMasPopular());
+        assertEquals(recorrido.getEpisodiosPorTemporada(), s.getEpisodiosPorTemporada());
+        assertEquals(recorrido.getPromedioReproducciones(), s.getPromedioReproducciones(), 1e-9);
+    }
 }